@@ -0,0 +1,250 @@
+package com.ex.gestion_conteneurs_agents.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme logarithmique des montants à mémoire fixe et fusionnable.
+ *
+ * Les montants (en centimes) sont rangés dans des compartiments de largeur relative
+ * constante: toute valeur v tombe dans le compartiment i tel que γ^(i-1) < v ≤ γ^i,
+ * avec γ = (1 + ε) / (1 - ε). Un quantile est donc estimé avec une erreur relative
+ * d'au plus ε (1 % par défaut), quel que soit le volume.
+ *
+ * - Enregistrement en temps constant, sans verrou (compteurs atomiques)
+ * - Mémoire fixe (environ 1 400 compartiments de 0,01 € à 100 milliards d'euros)
+ * - Deux histogrammes de même précision se fusionnent par simple addition
+ */
+public class AmountHistogram {
+
+    /**
+     * Précision relative par défaut des quantiles.
+     */
+    public static final double PRECISION_DEFAUT = 0.01;
+
+    private static final long CENTIMES_MAX = 10_000_000_000_000L;
+
+    private final double precision;
+    private final double logGamma;
+    private final AtomicLongArray compartiments;
+    private final AtomicLong zeros = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Crée un histogramme avec la précision par défaut (1 %).
+     */
+    public AmountHistogram() {
+        this(PRECISION_DEFAUT);
+    }
+
+    /**
+     * Crée un histogramme avec la précision relative donnée.
+     * @param precision l'erreur relative maximale des quantiles (entre 0 et 1 exclus)
+     */
+    public AmountHistogram(double precision) {
+        if (precision <= 0 || precision >= 1) {
+            throw new IllegalArgumentException("La précision doit être comprise entre 0 et 1 exclus");
+        }
+        this.precision = precision;
+        this.logGamma = Math.log((1 + precision) / (1 - precision));
+        this.compartiments = new AtomicLongArray(index(CENTIMES_MAX) + 1);
+    }
+
+    /**
+     * Enregistre un montant.
+     * @param montant le montant en euros (négatif interdit)
+     */
+    public void enregistrer(double montant) {
+        enregistrerCentimes(Math.round(montant * 100.0));
+    }
+
+    /**
+     * Enregistre un montant exprimé en centimes.
+     * @param centimes le montant en centimes
+     */
+    public void enregistrerCentimes(long centimes) {
+        if (centimes < 0) {
+            throw new IllegalArgumentException("Le montant ne peut pas être négatif");
+        }
+        if (centimes == 0) {
+            zeros.incrementAndGet();
+        } else {
+            compartiments.incrementAndGet(index(Math.min(centimes, CENTIMES_MAX)));
+        }
+        total.incrementAndGet();
+        min.accumulateAndGet(centimes, Math::min);
+        max.accumulateAndGet(centimes, Math::max);
+    }
+
+    /**
+     * Estime le quantile demandé.
+     * @param q le rang relatif (0.5 pour la médiane, 0.99 pour le p99)
+     * @return le montant estimé en euros, ou 0 si l'histogramme est vide
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Le quantile doit être compris entre 0 et 1");
+        }
+        long n = total.get();
+        if (n == 0) {
+            return 0.0;
+        }
+        long rang = (long) Math.ceil(q * n);
+        long cumul = zeros.get();
+        if (rang <= cumul) {
+            return 0.0;
+        }
+        for (int i = 0; i < compartiments.length(); i++) {
+            cumul += compartiments.get(i);
+            if (cumul >= rang) {
+                return borner(valeurRepresentative(i)) / 100.0;
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Estime les quantiles usuels p50, p95 et p99.
+     * @return les trois quantiles
+     */
+    public Quantiles quantiles() {
+        return new Quantiles(quantile(0.50), quantile(0.95), quantile(0.99), getNombre());
+    }
+
+    /**
+     * Ajoute le contenu d'un autre histogramme de même précision.
+     * @param autre l'histogramme à fusionner
+     * @throws IllegalArgumentException si les précisions diffèrent
+     */
+    public void fusionner(AmountHistogram autre) {
+        if (Double.compare(autre.precision, precision) != 0) {
+            throw new IllegalArgumentException("Impossible de fusionner des histogrammes de précisions différentes");
+        }
+        for (int i = 0; i < compartiments.length(); i++) {
+            long c = autre.compartiments.get(i);
+            if (c != 0) {
+                compartiments.addAndGet(i, c);
+            }
+        }
+        zeros.addAndGet(autre.zeros.get());
+        total.addAndGet(autre.total.get());
+        min.accumulateAndGet(autre.min.get(), Math::min);
+        max.accumulateAndGet(autre.max.get(), Math::max);
+    }
+
+    /**
+     * Fusionne plusieurs histogrammes dans un nouvel histogramme.
+     * @param histogrammes les histogrammes à fusionner (de précision par défaut)
+     * @return l'histogramme fusionné
+     */
+    public static AmountHistogram fusion(Iterable<AmountHistogram> histogrammes) {
+        AmountHistogram resultat = new AmountHistogram();
+        histogrammes.forEach(resultat::fusionner);
+        return resultat;
+    }
+
+    public long getNombre() {
+        return total.get();
+    }
+
+    public double getMin() {
+        long m = min.get();
+        return m == Long.MAX_VALUE ? 0.0 : m / 100.0;
+    }
+
+    public double getMax() {
+        long m = max.get();
+        return m == Long.MIN_VALUE ? 0.0 : m / 100.0;
+    }
+
+    public double getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Vide l'histogramme.
+     */
+    public void reset() {
+        for (int i = 0; i < compartiments.length(); i++) {
+            compartiments.set(i, 0);
+        }
+        zeros.set(0);
+        total.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * Exporte l'histogramme: précision (double), zéros, total, min et max (long), nombre de
+     * compartiments non vides (int) puis leurs couples index (int) / compte (long).
+     * @return l'état encodé
+     */
+    public byte[] exporter() {
+        int[] indices = new int[compartiments.length()];
+        long[] comptes = new long[compartiments.length()];
+        int nonVides = 0;
+        for (int i = 0; i < compartiments.length(); i++) {
+            long c = compartiments.get(i);
+            if (c != 0) {
+                indices[nonVides] = i;
+                comptes[nonVides++] = c;
+            }
+        }
+        ByteBuffer tampon = ByteBuffer.allocate(8 + 32 + 4 + 12 * nonVides)
+                .putDouble(precision).putLong(zeros.get()).putLong(total.get())
+                .putLong(min.get()).putLong(max.get()).putInt(nonVides);
+        for (int i = 0; i < nonVides; i++) {
+            tampon.putInt(indices[i]).putLong(comptes[i]);
+        }
+        return tampon.array();
+    }
+
+    /**
+     * Remplace l'histogramme par un état exporté.
+     * @param tampon positionné sur l'état encodé par {@link #exporter()}
+     * @throws IllegalArgumentException si la précision diffère
+     */
+    public void importer(ByteBuffer tampon) {
+        if (Double.compare(tampon.getDouble(), precision) != 0) {
+            throw new IllegalArgumentException("Précision incompatible avec l'état importé");
+        }
+        reset();
+        zeros.set(tampon.getLong());
+        total.set(tampon.getLong());
+        min.set(tampon.getLong());
+        max.set(tampon.getLong());
+        int nonVides = tampon.getInt();
+        for (int i = 0; i < nonVides; i++) {
+            compartiments.set(tampon.getInt(), tampon.getLong());
+        }
+    }
+
+    private int index(long centimes) {
+        return (int) Math.ceil(Math.log(centimes) / logGamma);
+    }
+
+    /**
+     * Valeur centrale du compartiment i: 2γ^i / (γ + 1), à moins de ε de toute valeur du compartiment.
+     */
+    private double valeurRepresentative(int i) {
+        double gamma = Math.exp(logGamma);
+        return 2 * Math.exp(i * logGamma) / (gamma + 1);
+    }
+
+    private double borner(double centimes) {
+        return Math.max(min.get(), Math.min(max.get(), centimes));
+    }
+
+    /**
+     * Quantiles usuels d'une distribution de montants.
+     * @param p50 la médiane
+     * @param p95 le 95e centile
+     * @param p99 le 99e centile
+     * @param nombre le nombre de montants enregistrés
+     */
+    public record Quantiles(double p50, double p95, double p99, long nombre) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.ex.gestion_conteneurs_agents.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sketch Count-Min: estimation des fréquences en mémoire fixe.
+ *
+ * Chaque clé incrémente un compteur par ligne; l'estimation est le minimum des compteurs
+ * de la clé. Elle ne sous-estime jamais et surestime d'au plus ε·N avec une probabilité
+ * 1 - δ, où ε = e / largeur et δ = e^(-profondeur).
+ *
+ * - Incréments sans verrou (compteurs atomiques)
+ * - Deux sketches de mêmes dimensions se fusionnent par addition
+ */
+public class CountMinSketch {
+
+    private final int largeur;
+    private final int profondeur;
+    private final AtomicLongArray compteurs;
+
+    /**
+     * Crée un sketch de dimensions données.
+     * @param largeur nombre de compteurs par ligne
+     * @param profondeur nombre de lignes (fonctions de hachage)
+     */
+    public CountMinSketch(int largeur, int profondeur) {
+        if (largeur <= 0 || profondeur <= 0) {
+            throw new IllegalArgumentException("La largeur et la profondeur doivent être positives");
+        }
+        this.largeur = largeur;
+        this.profondeur = profondeur;
+        this.compteurs = new AtomicLongArray(largeur * profondeur);
+    }
+
+    /**
+     * Incrémente la fréquence d'une clé.
+     * @param cle la clé observée
+     * @return la nouvelle estimation de fréquence de la clé
+     */
+    public long ajouter(String cle) {
+        long h = Hachage.hacher(cle);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        long estimation = Long.MAX_VALUE;
+        for (int i = 0; i < profondeur; i++) {
+            long valeur = compteurs.incrementAndGet(i * largeur + colonne(h1, h2, i));
+            estimation = Math.min(estimation, valeur);
+        }
+        return estimation;
+    }
+
+    /**
+     * Estime la fréquence d'une clé.
+     * @param cle la clé recherchée
+     * @return l'estimation (jamais inférieure à la fréquence réelle)
+     */
+    public long estimer(String cle) {
+        long h = Hachage.hacher(cle);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        long estimation = Long.MAX_VALUE;
+        for (int i = 0; i < profondeur; i++) {
+            estimation = Math.min(estimation, compteurs.get(i * largeur + colonne(h1, h2, i)));
+        }
+        return estimation;
+    }
+
+    /**
+     * Ajoute les compteurs d'un autre sketch de mêmes dimensions.
+     * @param autre le sketch à fusionner
+     * @throws IllegalArgumentException si les dimensions diffèrent
+     */
+    public void fusionner(CountMinSketch autre) {
+        if (autre.largeur != largeur || autre.profondeur != profondeur) {
+            throw new IllegalArgumentException("Impossible de fusionner des sketches de dimensions différentes");
+        }
+        for (int i = 0; i < compteurs.length(); i++) {
+            long c = autre.compteurs.get(i);
+            if (c != 0) {
+                compteurs.addAndGet(i, c);
+            }
+        }
+    }
+
+    /**
+     * Retourne la mémoire occupée par les compteurs.
+     * @return la taille en octets
+     */
+    public long getTailleOctets() {
+        return 8L * compteurs.length();
+    }
+
+    /**
+     * Remet tous les compteurs à zéro.
+     */
+    public void reset() {
+        for (int i = 0; i < compteurs.length(); i++) {
+            compteurs.set(i, 0);
+        }
+    }
+
+    /**
+     * Exporte le sketch: largeur et profondeur (int) puis les compteurs (long).
+     * @return l'état encodé
+     */
+    public byte[] exporter() {
+        ByteBuffer tampon = ByteBuffer.allocate(8 + 8 * compteurs.length()).putInt(largeur).putInt(profondeur);
+        for (int i = 0; i < compteurs.length(); i++) {
+            tampon.putLong(compteurs.get(i));
+        }
+        return tampon.array();
+    }
+
+    /**
+     * Remplace les compteurs par un état exporté.
+     * @param tampon positionné sur l'état encodé par {@link #exporter()}
+     * @throws IllegalArgumentException si les dimensions diffèrent
+     */
+    public void importer(ByteBuffer tampon) {
+        if (tampon.getInt() != largeur || tampon.getInt() != profondeur) {
+            throw new IllegalArgumentException("Dimensions du sketch incompatibles avec l'état importé");
+        }
+        for (int i = 0; i < compteurs.length(); i++) {
+            compteurs.set(i, tampon.getLong());
+        }
+    }
+
+    /**
+     * Double hachage de Kirsch-Mitzenmacher: g_i(x) = h1(x) + i·h2(x).
+     */
+    private int colonne(int h1, int h2, int i) {
+        return Math.floorMod(h1 + i * h2, largeur);
+    }
+}
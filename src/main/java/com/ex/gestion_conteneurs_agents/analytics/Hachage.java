@@ -0,0 +1,29 @@
+package com.ex.gestion_conteneurs_agents.analytics;
+
+/**
+ * Hachage 64 bits des chaînes pour les structures probabilistes et le partitionnement.
+ * FNV-1a suivi du mélange final de MurmurHash3 pour une bonne répartition des bits.
+ */
+public final class Hachage {
+
+    private Hachage() {
+    }
+
+    public static long hacher(String valeur) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valeur.length(); i++) {
+            h ^= valeur.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return melanger(h);
+    }
+
+    public static long melanger(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
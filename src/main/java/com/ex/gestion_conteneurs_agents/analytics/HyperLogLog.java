@@ -0,0 +1,126 @@
+package com.ex.gestion_conteneurs_agents.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * HyperLogLog: estimation du nombre d'éléments distincts en mémoire fixe.
+ *
+ * Avec 2^p registres, l'erreur type est d'environ 1,04 / √(2^p)
+ * (0,8 % pour p = 14, soit 16 384 registres).
+ *
+ * - Ajouts sans verrou (maximum atomique par registre)
+ * - Deux HyperLogLog de même précision se fusionnent par maximum registre à registre
+ */
+public class HyperLogLog {
+
+    private final int precision;
+    private final AtomicIntegerArray registres;
+
+    /**
+     * Crée un estimateur avec 2^precision registres.
+     * @param precision entre 4 et 18
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("La précision doit être comprise entre 4 et 18");
+        }
+        this.precision = precision;
+        this.registres = new AtomicIntegerArray(1 << precision);
+    }
+
+    /**
+     * Ajoute un élément.
+     * @param valeur l'élément observé
+     */
+    public void ajouter(String valeur) {
+        long h = Hachage.hacher(valeur);
+        int index = (int) (h >>> (64 - precision));
+        int rang = Long.numberOfLeadingZeros((h << precision) | (1L << (precision - 1))) + 1;
+        int actuel = registres.get(index);
+        while (rang > actuel && !registres.compareAndSet(index, actuel, rang)) {
+            actuel = registres.get(index);
+        }
+    }
+
+    /**
+     * Estime le nombre d'éléments distincts ajoutés.
+     * @return l'estimation de cardinalité
+     */
+    public long estimer() {
+        int m = registres.length();
+        double somme = 0.0;
+        int vides = 0;
+        for (int i = 0; i < m; i++) {
+            int r = registres.get(i);
+            somme += 1.0 / (1L << r);
+            if (r == 0) {
+                vides++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimation = alpha * m * m / somme;
+        if (estimation <= 2.5 * m && vides > 0) {
+            estimation = m * Math.log((double) m / vides); // Correction petites cardinalités
+        }
+        return Math.round(estimation);
+    }
+
+    /**
+     * Fusionne un autre estimateur de même précision.
+     * @param autre l'estimateur à fusionner
+     * @throws IllegalArgumentException si les précisions diffèrent
+     */
+    public void fusionner(HyperLogLog autre) {
+        if (autre.precision != precision) {
+            throw new IllegalArgumentException("Impossible de fusionner des HyperLogLog de précisions différentes");
+        }
+        for (int i = 0; i < registres.length(); i++) {
+            int r = autre.registres.get(i);
+            registres.accumulateAndGet(i, r, Math::max);
+        }
+    }
+
+    /**
+     * Retourne la mémoire occupée par les registres.
+     * @return la taille en octets
+     */
+    public long getTailleOctets() {
+        return 4L * registres.length();
+    }
+
+    /**
+     * Exporte les registres: précision (int) puis un octet par registre.
+     * @return l'état encodé
+     */
+    public byte[] exporter() {
+        ByteBuffer tampon = ByteBuffer.allocate(4 + registres.length()).putInt(precision);
+        for (int i = 0; i < registres.length(); i++) {
+            tampon.put((byte) registres.get(i));
+        }
+        return tampon.array();
+    }
+
+    /**
+     * Remplace les registres par un état exporté.
+     * @param tampon positionné sur l'état encodé par {@link #exporter()}
+     * @throws IllegalArgumentException si la précision diffère
+     */
+    public void importer(ByteBuffer tampon) {
+        if (tampon.getInt() != precision) {
+            throw new IllegalArgumentException("Précision de l'HyperLogLog incompatible avec l'état importé");
+        }
+        for (int i = 0; i < registres.length(); i++) {
+            registres.set(i, tampon.get());
+        }
+    }
+
+    /**
+     * Remet tous les registres à zéro.
+     */
+    public void reset() {
+        for (int i = 0; i < registres.length(); i++) {
+            registres.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.ex.gestion_conteneurs_agents.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Anneau de compartiments temporels (buckets) pour les agrégats glissants.
+ *
+ * Chaque compartiment couvre une durée fixe et mémorise l'époque (numéro de compartiment
+ * absolu) à laquelle il a été rempli. Un compartiment périmé est simplement réinitialisé
+ * lorsqu'il est réutilisé: l'expiration est en O(1), sans jamais rejouer les événements.
+ */
+public class SlidingWindow {
+
+    private final long dureeBucketMillis;
+    private final long[] epoques;
+    private final long[] comptes;
+    private final double[] sommes;
+
+    /**
+     * Crée un anneau de compartiments.
+     * @param dureeBucketMillis durée couverte par un compartiment
+     * @param nbBuckets nombre de compartiments (la fenêtre couvre nbBuckets × dureeBucketMillis)
+     */
+    public SlidingWindow(long dureeBucketMillis, int nbBuckets) {
+        if (dureeBucketMillis <= 0 || nbBuckets <= 0) {
+            throw new IllegalArgumentException("La durée et le nombre de compartiments doivent être positifs");
+        }
+        this.dureeBucketMillis = dureeBucketMillis;
+        this.epoques = new long[nbBuckets];
+        this.comptes = new long[nbBuckets];
+        this.sommes = new double[nbBuckets];
+        Arrays.fill(epoques, Long.MIN_VALUE);
+    }
+
+    /**
+     * Enregistre une valeur à l'instant donné.
+     * @param maintenantMillis l'instant de l'événement
+     * @param valeur la valeur à cumuler (montant)
+     */
+    public synchronized void enregistrer(long maintenantMillis, double valeur) {
+        long epoque = Math.floorDiv(maintenantMillis, dureeBucketMillis);
+        int slot = (int) Math.floorMod(epoque, (long) epoques.length);
+        if (epoques[slot] != epoque) {
+            epoques[slot] = epoque;
+            comptes[slot] = 0;
+            sommes[slot] = 0.0;
+        }
+        comptes[slot]++;
+        sommes[slot] += valeur;
+    }
+
+    /**
+     * Agrège les derniers compartiments, compartiment courant (partiel) inclus.
+     * La durée de l'agrégat ne compte que la partie écoulée du compartiment courant:
+     * le débit n'est donc pas sous-estimé en début de compartiment.
+     * @param maintenantMillis l'instant de la requête
+     * @param nbDerniers nombre de compartiments à agréger
+     * @return l'agrégat de la fenêtre glissante
+     */
+    public synchronized WindowStats glissante(long maintenantMillis, int nbDerniers) {
+        int n = Math.min(nbDerniers, epoques.length);
+        long courante = Math.floorDiv(maintenantMillis, dureeBucketMillis);
+        long ecoule = maintenantMillis - courante * dureeBucketMillis + 1;
+        return agreger(courante - n + 1, courante, (n - 1) * dureeBucketMillis + ecoule);
+    }
+
+    /**
+     * Agrège le dernier compartiment complet (fenêtre fixe, "tumbling").
+     * @param maintenantMillis l'instant de la requête
+     * @return l'agrégat du compartiment précédant le compartiment courant
+     */
+    public synchronized WindowStats fixe(long maintenantMillis) {
+        long precedente = Math.floorDiv(maintenantMillis, dureeBucketMillis) - 1;
+        return agreger(precedente, precedente, dureeBucketMillis);
+    }
+
+    /**
+     * Vide tous les compartiments.
+     */
+    public synchronized void reset() {
+        Arrays.fill(epoques, Long.MIN_VALUE);
+        Arrays.fill(comptes, 0);
+        Arrays.fill(sommes, 0.0);
+    }
+
+    /**
+     * Exporte les compartiments: nombre (int) puis, par compartiment, époque (long),
+     * compte (long) et somme (double).
+     * @return l'état encodé
+     */
+    public synchronized byte[] exporter() {
+        ByteBuffer tampon = ByteBuffer.allocate(4 + 24 * epoques.length).putInt(epoques.length);
+        for (int i = 0; i < epoques.length; i++) {
+            tampon.putLong(epoques[i]).putLong(comptes[i]).putDouble(sommes[i]);
+        }
+        return tampon.array();
+    }
+
+    /**
+     * Remplace les compartiments par un état exporté.
+     * @param tampon positionné sur l'état encodé par {@link #exporter()}
+     * @throws IllegalArgumentException si le nombre de compartiments diffère
+     */
+    public synchronized void importer(ByteBuffer tampon) {
+        if (tampon.getInt() != epoques.length) {
+            throw new IllegalArgumentException("Nombre de compartiments incompatible avec l'état importé");
+        }
+        for (int i = 0; i < epoques.length; i++) {
+            epoques[i] = tampon.getLong();
+            comptes[i] = tampon.getLong();
+            sommes[i] = tampon.getDouble();
+        }
+    }
+
+    /**
+     * Retourne la durée couverte par un compartiment.
+     * @return la durée en millisecondes
+     */
+    public long getDureeBucketMillis() {
+        return dureeBucketMillis;
+    }
+
+    /**
+     * Retourne la durée totale couverte par l'anneau.
+     * @return la durée en millisecondes
+     */
+    public long getDureeTotaleMillis() {
+        return dureeBucketMillis * epoques.length;
+    }
+
+    private WindowStats agreger(long premiere, long derniere, long dureeMillis) {
+        long compte = 0;
+        double somme = 0.0;
+        for (int i = 0; i < epoques.length; i++) {
+            if (epoques[i] >= premiere && epoques[i] <= derniere) {
+                compte += comptes[i];
+                somme += sommes[i];
+            }
+        }
+        return new WindowStats(compte, somme, dureeMillis);
+    }
+}
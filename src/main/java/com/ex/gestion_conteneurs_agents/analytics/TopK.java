@@ -0,0 +1,110 @@
+package com.ex.gestion_conteneurs_agents.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Liste des K clés les plus fréquentes, alimentée par les estimations d'un {@link CountMinSketch}.
+ *
+ * Seuls K candidats sont conservés: une clé entre dans la liste lorsque son estimation
+ * dépasse celle du plus petit candidat, qui est alors évincé. La mémoire est donc
+ * bornée quel que soit le nombre de clés distinctes.
+ */
+public class TopK {
+
+    private final int k;
+    private final Map<String, Long> candidats = new HashMap<>();
+    private String cleMin;
+    private long valeurMin;
+    private boolean minObsolete = true;
+
+    /**
+     * Crée une liste des K plus fréquents.
+     * @param k le nombre de clés conservées
+     */
+    public TopK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K doit être positif");
+        }
+        this.k = k;
+    }
+
+    /**
+     * Propose une clé avec sa fréquence estimée.
+     * @param cle la clé observée
+     * @param estimation la fréquence estimée de la clé
+     */
+    public synchronized void proposer(String cle, long estimation) {
+        Long actuelle = candidats.get(cle);
+        if (actuelle != null) {
+            if (estimation > actuelle) {
+                candidats.put(cle, estimation);
+                if (cle.equals(cleMin)) {
+                    minObsolete = true;
+                }
+            }
+            return;
+        }
+        if (candidats.size() < k) {
+            candidats.put(cle, estimation);
+            minObsolete = true;
+            return;
+        }
+        if (minObsolete) {
+            recalculerMin();
+        }
+        if (estimation > valeurMin) {
+            candidats.remove(cleMin);
+            candidats.put(cle, estimation);
+            minObsolete = true;
+        }
+    }
+
+    /**
+     * Retourne les candidats triés par fréquence décroissante.
+     * @return la liste des clés et de leur estimation
+     */
+    public synchronized List<Map.Entry<String, Long>> getClassement() {
+        List<Map.Entry<String, Long>> classement = new ArrayList<>();
+        candidats.forEach((cle, valeur) -> classement.add(Map.entry(cle, valeur)));
+        classement.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        return classement;
+    }
+
+    /**
+     * Retourne les clés candidates (pour fusion).
+     * @return copie des clés candidates
+     */
+    public synchronized List<String> getCles() {
+        return new ArrayList<>(candidats.keySet());
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Vide la liste.
+     */
+    public synchronized void reset() {
+        candidats.clear();
+        cleMin = null;
+        minObsolete = true;
+    }
+
+    private void recalculerMin() {
+        cleMin = null;
+        valeurMin = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> entry : candidats.entrySet()) {
+            if (entry.getValue() < valeurMin) {
+                valeurMin = entry.getValue();
+                cleMin = entry.getKey();
+            }
+        }
+        minObsolete = false;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ex.gestion_conteneurs_agents.analytics;
+
+/**
+ * Agrégat d'une fenêtre temporelle: nombre, somme, moyenne et débit.
+ *
+ * @param nombre le nombre de transactions dans la fenêtre
+ * @param somme la somme des montants
+ * @param dureeMillis la durée couverte par la fenêtre
+ */
+public record WindowStats(long nombre, double somme, long dureeMillis) {
+
+    /**
+     * Agrégat vide.
+     */
+    public static final WindowStats VIDE = new WindowStats(0, 0.0, 0);
+
+    /**
+     * Montant moyen par transaction.
+     * @return la moyenne, ou 0 si la fenêtre est vide
+     */
+    public double moyenne() {
+        return nombre == 0 ? 0.0 : somme / nombre;
+    }
+
+    /**
+     * Débit moyen de la fenêtre.
+     * @return le nombre de transactions par seconde
+     */
+    public double tauxParSeconde() {
+        return dureeMillis == 0 ? 0.0 : nombre * 1000.0 / dureeMillis;
+    }
+}
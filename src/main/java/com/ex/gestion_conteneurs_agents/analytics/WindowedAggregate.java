@@ -0,0 +1,118 @@
+package com.ex.gestion_conteneurs_agents.analytics;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+/**
+ * Agrégat multi-résolution sur les dernières secondes, minutes et heures.
+ *
+ * Trois anneaux de compartiments sont alimentés à chaque enregistrement:
+ * - 60 compartiments d'une seconde (fenêtres jusqu'à 1 minute)
+ * - 60 compartiments d'une minute (fenêtres jusqu'à 1 heure)
+ * - 24 compartiments d'une heure (fenêtres jusqu'à 24 heures)
+ *
+ * Une requête utilise l'anneau le plus fin couvrant la durée demandée.
+ */
+public class WindowedAggregate {
+
+    /**
+     * Résolution des fenêtres fixes ("tumbling").
+     */
+    public enum Resolution {
+        SECONDE, MINUTE, HEURE
+    }
+
+    private final SlidingWindow secondes = new SlidingWindow(1_000L, 60);
+    private final SlidingWindow minutes = new SlidingWindow(60_000L, 60);
+    private final SlidingWindow heures = new SlidingWindow(3_600_000L, 24);
+    private volatile long dernierEnregistrement = Long.MIN_VALUE;
+
+    /**
+     * Enregistre une transaction.
+     * @param maintenantMillis l'instant de l'événement
+     * @param montant le montant de la transaction
+     */
+    public void enregistrer(long maintenantMillis, double montant) {
+        secondes.enregistrer(maintenantMillis, montant);
+        minutes.enregistrer(maintenantMillis, montant);
+        heures.enregistrer(maintenantMillis, montant);
+        dernierEnregistrement = Math.max(dernierEnregistrement, maintenantMillis);
+    }
+
+    /**
+     * Indique si toutes les fenêtres sont vides à l'instant donné (dernier enregistrement
+     * antérieur à la plus longue fenêtre de 24 heures).
+     * @param maintenantMillis l'instant de la requête
+     * @return true si l'agrégat peut être libéré sans perte
+     */
+    public boolean estExpire(long maintenantMillis) {
+        return dernierEnregistrement < maintenantMillis - heures.getDureeTotaleMillis();
+    }
+
+    /**
+     * Agrège la fenêtre glissante des dernières {@code duree}.
+     * La durée est arrondie au compartiment supérieur de l'anneau utilisé.
+     * @param maintenantMillis l'instant de la requête
+     * @param duree la durée de la fenêtre (au plus 24 heures)
+     * @return l'agrégat de la fenêtre
+     * @throws IllegalArgumentException si la durée est nulle, négative ou dépasse 24 heures
+     */
+    public WindowStats glissante(long maintenantMillis, Duration duree) {
+        long millis = duree.toMillis();
+        if (millis <= 0 || millis > heures.getDureeTotaleMillis()) {
+            throw new IllegalArgumentException("La fenêtre doit être comprise entre 1 ms et 24 heures: " + duree);
+        }
+        SlidingWindow anneau = millis <= secondes.getDureeTotaleMillis() ? secondes
+                : millis <= minutes.getDureeTotaleMillis() ? minutes : heures;
+        int nbBuckets = (int) ((millis + anneau.getDureeBucketMillis() - 1) / anneau.getDureeBucketMillis());
+        return anneau.glissante(maintenantMillis, nbBuckets);
+    }
+
+    /**
+     * Agrège la dernière période complète de la résolution donnée (seconde, minute ou heure précédente).
+     * @param maintenantMillis l'instant de la requête
+     * @param resolution la résolution de la fenêtre fixe
+     * @return l'agrégat de la période précédente
+     */
+    public WindowStats fixe(long maintenantMillis, Resolution resolution) {
+        return switch (resolution) {
+            case SECONDE -> secondes.fixe(maintenantMillis);
+            case MINUTE -> minutes.fixe(maintenantMillis);
+            case HEURE -> heures.fixe(maintenantMillis);
+        };
+    }
+
+    /**
+     * Exporte l'agrégat: dernier enregistrement (long) puis les anneaux des secondes,
+     * des minutes et des heures.
+     * @return l'état encodé
+     */
+    public byte[] exporter() {
+        byte[] s = secondes.exporter();
+        byte[] m = minutes.exporter();
+        byte[] h = heures.exporter();
+        return ByteBuffer.allocate(8 + s.length + m.length + h.length)
+                .putLong(dernierEnregistrement).put(s).put(m).put(h).array();
+    }
+
+    /**
+     * Remplace l'agrégat par un état exporté.
+     * @param tampon positionné sur l'état encodé par {@link #exporter()}
+     */
+    public void importer(ByteBuffer tampon) {
+        dernierEnregistrement = tampon.getLong();
+        secondes.importer(tampon);
+        minutes.importer(tampon);
+        heures.importer(tampon);
+    }
+
+    /**
+     * Vide les trois anneaux.
+     */
+    public void reset() {
+        secondes.reset();
+        minutes.reset();
+        heures.reset();
+        dernierEnregistrement = Long.MIN_VALUE;
+    }
+}
@@ -4,13 +4,42 @@ import com.ex.gestion_conteneurs_agents.adapter.HDMIDisplay;
 import com.ex.gestion_conteneurs_agents.adapter.HDMIMonitor;
 import com.ex.gestion_conteneurs_agents.aspects.annotations.Log;
 import com.ex.gestion_conteneurs_agents.aspects.annotations.SecuredBy;
+import com.ex.gestion_conteneurs_agents.index.AgentIndex;
+import com.ex.gestion_conteneurs_agents.index.BitmapIndex;
+import com.ex.gestion_conteneurs_agents.index.Leaderboard;
+import com.ex.gestion_conteneurs_agents.index.NameIndex;
+import com.ex.gestion_conteneurs_agents.index.NumericIndex;
 import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.persistence.Durabilite;
+import com.ex.gestion_conteneurs_agents.persistence.ResumeSnapshot;
+import com.ex.gestion_conteneurs_agents.persistence.SnapshotReader;
+import com.ex.gestion_conteneurs_agents.persistence.SnapshotWriter;
+import com.ex.gestion_conteneurs_agents.persistence.WriteAheadLog;
+import com.ex.gestion_conteneurs_agents.query.AgentQuery;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
 import lombok.Getter;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Conteneur d'agents utilisant le Pattern Singleton.
@@ -20,9 +49,22 @@ import java.util.Optional;
  * - ADAPTER: Délègue l'affichage à des afficheurs via l'interface standard HDMI
  * 
  * Le conteneur:
- * - Gère une collection HashMap d'agents (clé=nom, valeur=agent)
+ * - Gère une collection concurrente d'agents (clé=nom, valeur=agent)
  * - Fournit des opérations CRUD sur les agents
  * - Délègue l'affichage à des afficheurs HDMI (ou adaptés)
+ * - Maintient des agrégats globaux (solde total, transactions par type) lisibles en O(1)
+ * - Maintient un classement des agents par solde (top N, rang, plage en O(log n))
+ * - Maintient des index secondaires numériques déclarés (solde, nombre de transactions, activité)
+ * - Maintient des index bitmap catégoriels (stratégie, types de transaction, observateurs)
+ * - Maintient un arbre radix des noms (recherche par préfixe, plage et motif glob)
+ * - Exécute des requêtes planifiées sur ces index ({@link #requete()})
+ * - Répartit les calculs sur tous les agents dans un pool fork/join dédié
+ * - Peut passiver sur disque les agents inactifs (réactivés au premier accès)
+ * 
+ * Concurrence: le registre est une ConcurrentHashMap. Les recherches sont sans verrou,
+ * l'ajout est un put-if-absent atomique et le parcours des agents est faiblement cohérent
+ * (aucune ConcurrentModificationException, les modifications concurrentes peuvent
+ * ou non être visibles).
  */
 public class AgentContainer {
 
@@ -53,14 +95,36 @@ public class AgentContainer {
      */
     public static void resetInstance() {
         synchronized (AgentContainer.class) {
+            if (instance != null) {
+                instance.fermer();
+            }
             instance = null;
         }
     }
 
+    /**
+     * Libère les ressources du conteneur (pool de calcul, passivation, réplication, journal);
+     * le conteneur ne doit plus être utilisé.
+     */
+    void fermer() {
+        calcul.arreter();
+        try {
+            desactiverPassivation();
+        } catch (IOException e) {
+            System.err.println("⚠️  Fermeture du stockage de passivation impossible: " + e.getMessage());
+        }
+        try {
+            cesserSuivi();
+            desactiverJournal();
+        } catch (IOException e) {
+            System.err.println("⚠️  Fermeture du journal impossible: " + e.getMessage());
+        }
+    }
+
     // ==================== ATTRIBUTS ====================
 
     /**
-     * Collection des agents (clé = nom de l'agent).
+     * Collection concurrente des agents (clé = nom de l'agent).
      */
     private final Map<String, Agent> agents;
 
@@ -68,7 +132,65 @@ public class AgentContainer {
      * Afficheur HDMI connecté au conteneur.
      */
     @Getter
-    private HDMIDisplay display;
+    private volatile HDMIDisplay display;
+
+    /**
+     * Agrégats globaux maintenus au fil des mutations des agents.
+     */
+    private final ContainerAggregates agregats = new ContainerAggregates();
+
+    /**
+     * Classement des agents par solde.
+     */
+    private final Leaderboard classement = new Leaderboard();
+
+    /**
+     * Index bitmap des attributs catégoriels (filtres combinés par opérations bit à bit).
+     */
+    private final BitmapIndex bitmaps = new BitmapIndex();
+
+    /**
+     * Arbre radix des noms d'agents.
+     */
+    private final NameIndex noms = new NameIndex();
+
+    /**
+     * Index maintenus au fil des mutations des agents.
+     */
+    private final List<AgentIndex> index = new CopyOnWriteArrayList<>(List.of(classement, bitmaps, noms));
+
+    /**
+     * Index secondaires déclarés, par nom (hors classement).
+     */
+    private final Map<String, NumericIndex> indexDeclares = new ConcurrentHashMap<>();
+
+    /**
+     * Pool fork/join dédié aux calculs sur tous les agents.
+     */
+    private volatile CalculParallele calcul = new CalculParallele(Runtime.getRuntime().availableProcessors(), 0);
+    private final Object verrouCalcul = new Object();
+
+    /**
+     * Passivation des agents inactifs (null = désactivée).
+     */
+    private volatile Passivateur passivateur;
+
+    /**
+     * Journal des mutations (null = désactivé).
+     */
+    private volatile JournalConteneur journal;
+
+    /**
+     * Expédition du journal aux répliques (null = aucune).
+     */
+    private volatile EmetteurReplication emetteur;
+
+    /**
+     * Réception du journal d'une source (null = conteneur autonome) et seul thread autorisé
+     * à muter le conteneur lorsqu'il est une réplique.
+     */
+    private volatile RecepteurReplication recepteur;
+    private volatile Thread applicateur;
 
     // ==================== CONSTRUCTEUR ====================
 
@@ -76,11 +198,20 @@ public class AgentContainer {
      * Constructeur privé (Singleton).
      */
     private AgentContainer() {
-        this.agents = new HashMap<>();
+        this.agents = new ConcurrentHashMap<>();
         this.display = new HDMIMonitor(); // Afficheur par défaut
         System.out.println("🏗️  Conteneur d'agents initialisé (Singleton)");
     }
 
+    /**
+     * Crée un conteneur indépendant du singleton (réplique hébergée dans le même processus que
+     * sa source, pour les tests); à libérer par {@link #fermer()}.
+     * @return un nouveau conteneur vide
+     */
+    static AgentContainer nouvelleInstance() {
+        return new AgentContainer();
+    }
+
     // ==================== GESTION DES AGENTS ====================
 
     /**
@@ -94,11 +225,14 @@ public class AgentContainer {
         if (agent == null) {
             throw new IllegalArgumentException("L'agent ne peut pas être null");
         }
-        if (agents.containsKey(agent.getNom())) {
+        verifierEcriture();
+        if (agents.putIfAbsent(agent.getNom(), agent) != null) {
             System.out.println("⚠️  Agent [" + agent.getNom() + "] existe déjà dans le conteneur");
             return false;
         }
-        agents.put(agent.getNom(), agent);
+        agent.reserverEcriture(applicateur);
+        agregats.agentAjoute(agent);
+        index.forEach(i -> i.agentAjoute(agent));
         System.out.println("✅ Agent [" + agent.getNom() + "] ajouté au conteneur");
         return true;
     }
@@ -111,8 +245,11 @@ public class AgentContainer {
     @Log
     @SecuredBy(roles = {"ADMIN"})
     public Optional<Agent> supprimerAgent(String nom) {
+        verifierEcriture();
         Agent removed = agents.remove(nom);
         if (removed != null) {
+            agregats.agentRetire(removed);
+            index.forEach(i -> i.agentRetire(removed));
             System.out.println("🗑️  Agent [" + nom + "] supprimé du conteneur");
             return Optional.of(removed);
         }
@@ -127,7 +264,67 @@ public class AgentContainer {
      */
     @Log
     public Optional<Agent> rechercherAgent(String nom) {
-        return Optional.ofNullable(agents.get(nom));
+        verifierFraicheur();
+        Agent agent = agents.get(nom);
+        Passivateur actif = passivateur;
+        if (agent != null && actif != null) {
+            actif.acces(agent);
+        }
+        return Optional.ofNullable(agent);
+    }
+
+    /**
+     * Recherche les agents dont le nom commence par un préfixe, par ordre lexicographique.
+     * @param prefixe le préfixe du nom
+     * @return un Stream paresseux des agents
+     */
+    public Stream<Agent> rechercherParPrefixe(String prefixe) {
+        return resoudre(noms.prefixe(prefixe));
+    }
+
+    /**
+     * Recherche les agents dont le nom correspond à un motif glob ({@code *} et {@code ?}).
+     * @param motif le motif, par exemple {@code Desk-Paris-*}
+     * @return un Stream paresseux des agents
+     */
+    public Stream<Agent> rechercherParMotif(String motif) {
+        return resoudre(noms.glob(motif));
+    }
+
+    /**
+     * Recherche les agents dont le nom est compris dans [debut, fin[, par ordre lexicographique.
+     * @return un Stream paresseux des agents
+     */
+    public Stream<Agent> rechercherParPlage(String debut, String fin) {
+        return resoudre(noms.plage(debut, fin));
+    }
+
+    /**
+     * Crée une requête sur les agents, planifiée sur les index existants.
+     * @return la requête à compléter puis exécuter
+     */
+    public AgentQuery requete() {
+        verifierFraicheur();
+        return new AgentQuery(this);
+    }
+
+    /**
+     * Accès direct à un agent, sans effet de bord (rejeu des mutations).
+     */
+    Agent getAgentInterne(String nom) {
+        return agents.get(nom);
+    }
+
+    /**
+     * Accès direct aux agents, sans contrôle de fraîcheur (rejeu des mutations).
+     */
+    Collection<Agent> getAgentsInternes() {
+        return agents.values();
+    }
+
+    private Stream<Agent> resoudre(Stream<String> nomsAgents) {
+        verifierFraicheur();
+        return nomsAgents.map(agents::get).filter(Objects::nonNull);
     }
 
     /**
@@ -136,14 +333,18 @@ public class AgentContainer {
      * @return true si l'agent existe
      */
     public boolean contientAgent(String nom) {
+        verifierFraicheur();
         return agents.containsKey(nom);
     }
 
     /**
      * Retourne tous les agents du conteneur.
+     * La vue est faiblement cohérente: elle peut être parcourue pendant des ajouts
+     * ou suppressions concurrents.
      * @return collection de tous les agents
      */
     public Collection<Agent> getTousLesAgents() {
+        verifierFraicheur();
         return agents.values();
     }
 
@@ -152,6 +353,7 @@ public class AgentContainer {
      * @return le nombre d'agents
      */
     public int getNombreAgents() {
+        verifierFraicheur();
         return agents.size();
     }
 
@@ -161,10 +363,703 @@ public class AgentContainer {
     @Log
     @SecuredBy(roles = {"ADMIN"})
     public void vider() {
+        verifierEcriture();
+        Passivateur actif = passivateur;
+        if (actif != null) {
+            actif.activerTous();
+        }
+        agents.values().forEach(agent -> {
+            agent.retirerEcouteur(agregats);
+            index.forEach(agent::retirerEcouteur);
+        });
         agents.clear();
+        agregats.reset();
+        index.forEach(AgentIndex::vider);
         System.out.println("🧹 Conteneur vidé - Tous les agents ont été supprimés");
     }
 
+    // ==================== INDEX SECONDAIRES ====================
+
+    /**
+     * Déclare un index secondaire et y intègre les agents existants.
+     * @param nouvelIndex l'index à maintenir
+     * @throws IllegalArgumentException si un index du même nom est déjà déclaré
+     */
+    @Log
+    public void declarerIndex(NumericIndex nouvelIndex) {
+        verifierEcriture();
+        if (indexDeclares.putIfAbsent(nouvelIndex.getNom(), nouvelIndex) != null) {
+            throw new IllegalArgumentException("Un index [" + nouvelIndex.getNom() + "] est déjà déclaré");
+        }
+        index.add(nouvelIndex);
+        agents.values().forEach(nouvelIndex::agentAjoute);
+        System.out.println("📇 Index [" + nouvelIndex.getNom() + "] déclaré (" + nouvelIndex.getTaille() + " agent(s))");
+    }
+
+    /**
+     * Supprime un index secondaire déclaré.
+     * @param nom le nom de l'index
+     * @return true si l'index a été supprimé
+     */
+    @Log
+    public boolean supprimerIndex(String nom) {
+        verifierEcriture();
+        NumericIndex trouve = indexDeclares.remove(nom);
+        if (trouve == null) {
+            return false;
+        }
+        index.remove(trouve);
+        agents.values().forEach(trouve::agentRetire);
+        trouve.vider();
+        return true;
+    }
+
+    /**
+     * Recherche un index secondaire déclaré par son nom.
+     * @param nom le nom de l'index
+     * @return Optional contenant l'index si déclaré
+     */
+    public Optional<NumericIndex> getIndex(String nom) {
+        verifierFraicheur();
+        return Optional.ofNullable(indexDeclares.get(nom));
+    }
+
+    /**
+     * Retourne les index secondaires déclarés (hors classement).
+     * @return liste des index
+     */
+    public List<NumericIndex> getIndexDeclares() {
+        verifierFraicheur();
+        return index.stream()
+                .filter(i -> i != classement && i instanceof NumericIndex)
+                .map(NumericIndex.class::cast)
+                .filter(i -> indexDeclares.get(i.getNom()) == i)
+                .toList();
+    }
+
+    /**
+     * Retourne les agrégats globaux maintenus au fil des mutations des agents.
+     * @return les agrégats
+     */
+    public ContainerAggregates getAgregats() {
+        verifierFraicheur();
+        return agregats;
+    }
+
+    /**
+     * Retourne le classement des agents par solde.
+     * @return le classement
+     */
+    public Leaderboard getClassement() {
+        verifierFraicheur();
+        return classement;
+    }
+
+    /**
+     * Retourne l'index bitmap des attributs catégoriels.
+     * @return l'index bitmap
+     */
+    public BitmapIndex getBitmaps() {
+        verifierFraicheur();
+        return bitmaps;
+    }
+
+    /**
+     * Retourne l'arbre radix des noms d'agents.
+     * @return l'index des noms
+     */
+    public NameIndex getNoms() {
+        verifierFraicheur();
+        return noms;
+    }
+
+    /**
+     * Affiche les index maintenus et leur occupation mémoire.
+     */
+    public void afficherIndex() {
+        StringBuilder content = new StringBuilder();
+        content.append("║           INDEX DU CONTENEUR                                 ║\n");
+        content.append("╠══════════════════════════════════════════════════════════════╣\n");
+        index.stream().filter(NumericIndex.class::isInstance).map(NumericIndex.class::cast).forEach(i ->
+                content.append("║ • ").append(i.getNom())
+                       .append(" | Entrées: ").append(i.getTaille())
+                       .append(" | Mémoire: ").append(i.getTailleOctets() / 1024).append(" Ko\n"));
+        content.append("║ • noms (radix) | Entrées: ").append(noms.getTaille()).append("\n");
+        content.append("║ • bitmaps ").append(bitmaps.getStrategies())
+               .append(" | Entrées: ").append(bitmaps.getTaille())
+               .append(" | Mémoire: ").append(bitmaps.getTailleOctets() / 1024).append(" Ko\n");
+        display.displayViaHDMI(content.toString());
+    }
+
+    // ==================== CALCULS PARALLÈLES ====================
+
+    /**
+     * Résultat d'un audit des soldes: recalcul depuis les transactions comparé aux agrégats
+     * et au classement maintenus incrémentalement.
+     */
+    public record AuditSoldes(int nombreAgents, double soldeRecalcule, double soldeAgregats,
+                              List<String> agentsIncoherents) {
+        /**
+         * @return true si le total et le solde indexé de chaque agent concordent
+         */
+        public boolean estCoherent() {
+            return agentsIncoherents.isEmpty() && Math.round(soldeRecalcule * 100) == Math.round(soldeAgregats * 100);
+        }
+    }
+
+    private record AuditPartiel(int nombreAgents, long centimes, List<String> incoherents) {
+        AuditPartiel combiner(AuditPartiel autre) {
+            List<String> tous = incoherents;
+            if (tous.isEmpty()) {
+                tous = autre.incoherents;
+            } else if (!autre.incoherents.isEmpty()) {
+                tous = new ArrayList<>(incoherents);
+                tous.addAll(autre.incoherents);
+            }
+            return new AuditPartiel(nombreAgents + autre.nombreAgents, centimes + autre.centimes, tous);
+        }
+    }
+
+    /**
+     * Exécute une action sur chaque agent dans le pool de calcul (ordre quelconque).
+     * L'appelant n'est pas bloqué; l'action doit tolérer l'exécution concurrente.
+     * @param action l'action à appliquer
+     * @return complété quand tous les agents ont été traités (en erreur si une action échoue)
+     */
+    public CompletableFuture<Void> parcourirEnParallele(Consumer<Agent> action) {
+        verifierFraicheur();
+        return surCalcul(c -> c.reduire(agents.values(), null, agent -> {
+            action.accept(agent);
+            return null;
+        }, (a, b) -> null));
+    }
+
+    /**
+     * Transforme chaque agent puis combine les résultats dans le pool de calcul.
+     * @param identite l'élément neutre de la combinaison
+     * @param transformation la valeur calculée pour un agent
+     * @param combinaison opération associative et commutative (l'ordre des agents n'est pas garanti)
+     * @return le résultat combiné
+     */
+    public <T> CompletableFuture<T> reduireEnParallele(T identite, Function<Agent, T> transformation,
+                                                        BinaryOperator<T> combinaison) {
+        verifierFraicheur();
+        return surCalcul(c -> c.reduire(agents.values(), identite, transformation, combinaison));
+    }
+
+    /**
+     * Recalcule en parallèle le solde de chaque agent depuis ses transactions et le compare
+     * au classement et aux agrégats globaux.
+     * Chaque agent est audité sur son exécuteur propriétaire, ou directement par le worker s'il n'en a
+     * pas; le solde et sa valeur au classement sont lus sous le moniteur de l'agent, qui couvre ses
+     * mutations et leur report dans les index. Les workers ne font que soumettre ces audits.
+     * @return le résultat de l'audit
+     */
+    public CompletableFuture<AuditSoldes> auditerSoldes() {
+        Queue<CompletableFuture<AuditPartiel>> audits = new ConcurrentLinkedQueue<>();
+        return parcourirEnParallele(agent -> audits.add(auditer(agent)))
+                .thenCompose(v -> CompletableFuture.allOf(audits.toArray(CompletableFuture[]::new)))
+                .thenApply(v -> audits.stream().map(CompletableFuture::join)
+                        .reduce(new AuditPartiel(0, 0, List.of()), AuditPartiel::combiner))
+                .thenApply(p -> new AuditSoldes(p.nombreAgents(), p.centimes() / 100.0,
+                        agregats.getSoldeTotal(), p.incoherents()));
+    }
+
+    private CompletableFuture<AuditPartiel> auditer(Agent agent) {
+        CompletableFuture<AuditPartiel> audit = new CompletableFuture<>();
+        agent.executer(() -> {
+            try {
+                long centimes;
+                boolean coherent;
+                synchronized (agent) {
+                    centimes = NumericIndex.Attribut.SOLDE.initial(agent);
+                    coherent = classement.valeur(agent.getNom()).orElse(Long.MIN_VALUE) == centimes;
+                }
+                audit.complete(new AuditPartiel(1, centimes, coherent ? List.of() : List.of(agent.getNom())));
+            } catch (RuntimeException e) {
+                audit.completeExceptionally(e);
+            }
+        });
+        return audit;
+    }
+
+    /**
+     * Soumet un calcul au pool courant; s'il a été remplacé entre-temps (soumission refusée
+     * par l'ancien pool arrêté), le calcul est soumis au nouveau.
+     */
+    private <T> CompletableFuture<T> surCalcul(Function<CalculParallele, CompletableFuture<T>> soumission) {
+        while (true) {
+            CalculParallele courant = calcul;
+            try {
+                return soumission.apply(courant);
+            } catch (RejectedExecutionException e) {
+                if (calcul == courant) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface OperationPool<T> {
+        T executer(ForkJoinPool pool) throws IOException;
+    }
+
+    /**
+     * Exécute une opération d'E/S parallélisée sur le pool courant, reprise sur le nouveau pool
+     * s'il a été remplacé pendant l'opération (comme {@link #surCalcul}).
+     */
+    private <T> T surPool(OperationPool<T> operation) throws IOException {
+        while (true) {
+            CalculParallele courant = calcul;
+            try {
+                return operation.executer(courant.getPool());
+            } catch (RejectedExecutionException e) {
+                if (calcul == courant) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Remplace le pool de calcul (les calculs en cours se terminent sur l'ancien, les
+     * soumissions refusées par celui-ci sont reportées sur le nouveau).
+     * @param parallelisme le nombre de workers
+     * @param granularite le nombre d'agents traités d'un bloc par un worker, 0 pour un calcul
+     *                    automatique (environ 8 segments par worker)
+     */
+    @Log
+    public void configurerCalculParallele(int parallelisme, int granularite) {
+        verifierEcriture();
+        CalculParallele nouveau = new CalculParallele(parallelisme, granularite);
+        CalculParallele ancien;
+        synchronized (verrouCalcul) {
+            ancien = calcul;
+            calcul = nouveau;
+        }
+        ancien.arreter();
+    }
+
+    public int getParallelismeCalcul() {
+        return calcul.getParallelisme();
+    }
+
+    // ==================== PASSIVATION ====================
+
+    /**
+     * Statistiques de passivation. Le taux de succès rapporte les recherches servies sans
+     * lecture disque à l'ensemble des recherches et réactivations.
+     */
+    public record StatistiquesPassivation(int agentsActifs, int agentsPassives, long passivations,
+                                          long activations, long latenceMoyenneActivationMicros,
+                                          long latenceMaxActivationMicros, double tauxSucces,
+                                          long memoireActiveEstimee, long octetsSurDisque) {
+    }
+
+    /**
+     * Active la passivation des agents inactifs selon une politique.
+     * @param politique la politique (fichier de stockage, limites, période de balayage)
+     * @throws IOException si le fichier de stockage ne peut pas être créé
+     * @throws IllegalStateException si la passivation est déjà active ou si le conteneur est une réplique
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public synchronized void activerPassivation(PassivationPolicy politique) throws IOException {
+        verifierEcriture();
+        if (passivateur != null) {
+            throw new IllegalStateException("La passivation est déjà active");
+        }
+        passivateur = new Passivateur(politique, agents::values);
+        System.out.println("💤 Passivation activée (stockage: " + politique.getFichier() + ")");
+    }
+
+    /**
+     * Désactive la passivation: tous les agents passivés sont réactivés et le stockage supprimé.
+     * @throws IOException si le stockage ne peut pas être fermé
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public synchronized void desactiverPassivation() throws IOException {
+        Passivateur actif = passivateur;
+        if (actif != null) {
+            actif.close();
+            passivateur = null;
+        }
+    }
+
+    /**
+     * Lance immédiatement un balayage de passivation.
+     * @return le nombre d'agents soumis à la passivation
+     * @throws IllegalStateException si la passivation n'est pas active ou si le conteneur est une réplique
+     */
+    public int passiverAgentsInactifs() {
+        verifierEcriture();
+        Passivateur actif = passivateur;
+        if (actif == null) {
+            throw new IllegalStateException("La passivation n'est pas active");
+        }
+        return actif.balayer();
+    }
+
+    /**
+     * Retourne les statistiques de passivation.
+     * @return Optional vide si la passivation n'est pas active
+     */
+    public Optional<StatistiquesPassivation> getStatistiquesPassivation() {
+        return Optional.ofNullable(passivateur).map(Passivateur::getStatistiques);
+    }
+
+    // ==================== INSTANTANÉS ====================
+
+    /**
+     * Écrit un instantané binaire de tous les agents (transactions, graphe d'observation, état
+     * des stratégies). Chaque agent est capturé de façon cohérente sur son exécuteur; les
+     * mutations concurrentes d'agents différents peuvent être partiellement incluses. Avec le
+     * journal actif, l'instantané porte le dernier LSN attribué à son début.
+     * @param fichier le fichier de destination (remplacé atomiquement)
+     * @return le résumé de l'instantané
+     * @throws IOException si l'écriture échoue
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public ResumeSnapshot ecrireSnapshot(Path fichier) throws IOException {
+        JournalConteneur actif = journal;
+        long lsn = actif == null ? 0 : actif.getWal().getDernierLsn();
+        ResumeSnapshot resume = surPool(pool -> SnapshotWriter.ecrire(fichier, agents.values(), lsn, pool));
+        System.out.println("📸 Instantané écrit: " + resume.nombreAgents() + " agents, "
+                + resume.tailleOctets() + " octets (" + resume.dureeMillis() + " ms)");
+        return resume;
+    }
+
+    /**
+     * Restaure un instantané dans le conteneur vide; les stratégies inconnues deviennent
+     * des {@code DefaultStrategy}.
+     * @see #restaurerSnapshot(Path, Function)
+     */
+    public ResumeSnapshot restaurerSnapshot(Path fichier) throws IOException {
+        return restaurerSnapshot(fichier, nom -> null);
+    }
+
+    /**
+     * Restaure un instantané dans le conteneur vide. Le fichier est projeté en mémoire et décodé
+     * en parallèle sur le pool de calcul; les agents sont enregistrés en masse (agrégats et index)
+     * sans notification.
+     * @param fichier le fichier de l'instantané
+     * @param fabrique fabrique des stratégies configurées par nom (null pour les stratégies standard)
+     * @return le résumé de la restauration
+     * @throws IOException si le fichier est illisible ou corrompu
+     * @throws IllegalStateException si le conteneur contient déjà des agents
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public synchronized ResumeSnapshot restaurerSnapshot(Path fichier,
+                                                         Function<String, NotificationStrategy> fabrique)
+            throws IOException {
+        verifierEcriture();
+        if (!agents.isEmpty()) {
+            throw new IllegalStateException("Le conteneur doit être vide pour restaurer un instantané");
+        }
+        SnapshotReader.Contenu contenu = surPool(pool -> SnapshotReader.lire(fichier, fabrique, pool));
+        Thread ecrivain = applicateur;
+        surCalcul(c -> c.reduire(contenu.agents(), Boolean.TRUE, agent -> {
+            if (agents.putIfAbsent(agent.getNom(), agent) == null) {
+                agent.reserverEcriture(ecrivain);
+                agregats.agentAjoute(agent);
+                index.forEach(i -> i.agentAjoute(agent));
+            }
+            return Boolean.TRUE;
+        }, (a, b) -> Boolean.TRUE)).join();
+        ResumeSnapshot resume = contenu.resume();
+        System.out.println("📂 Instantané restauré: " + resume.nombreAgents() + " agents, "
+                + resume.nombreTransactions() + " transactions (" + resume.dureeMillis() + " ms)");
+        return resume;
+    }
+
+    // ==================== JOURNAL DES MUTATIONS ====================
+
+    /**
+     * Bilan de l'activation du journal.
+     * @param snapshotRestaure true si l'instantané de la politique a été restauré
+     * @param lsnSnapshot le LSN de l'instantané restauré (0 sinon)
+     * @param mutationsRejouees les mutations du journal appliquées
+     * @param mutationsIgnorees les mutations du journal déjà présentes ou sans objet
+     * @param dernierLsn le LSN à partir duquel la journalisation reprend
+     */
+    public record ResumeRecuperation(boolean snapshotRestaure, long lsnSnapshot, long mutationsRejouees,
+                                     long mutationsIgnorees, long dernierLsn, long dureeMillis) {
+    }
+
+    /**
+     * Statistiques du journal; le nombre moyen d'enregistrements par lot mesure l'effet
+     * de la validation groupée.
+     */
+    public record StatistiquesJournal(Durabilite durabilite, long dernierLsn, long lsnDurable,
+                                      long enregistrements, long lots, double enregistrementsParLot,
+                                      long octetsEcrits, long tailleFichier) {
+    }
+
+    /**
+     * Active le journal des mutations (ajout, suppression et vidage d'agents, transactions,
+     * abonnements, changements de stratégie).
+     *
+     * Si le conteneur est vide, il est d'abord récupéré: restauration de l'instantané de la
+     * politique s'il existe, puis rejeu des mutations journalisées après lui. Sinon, l'état
+     * courant de chaque agent est journalisé, puis un point de reprise remplace l'instantané de
+     * la politique, devenu périmé (un redémarrage le restaurerait sous ces agents).
+     * @param politique la politique (fichiers, durabilité)
+     * @return le bilan de la récupération
+     * @throws IOException si l'instantané ou le journal est illisible
+     * @throws IllegalStateException si le journal est déjà actif, ou si le conteneur n'est pas
+     *                               vide alors que le journal contient déjà des mutations
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public synchronized ResumeRecuperation activerJournal(JournalPolicy politique) throws IOException {
+        verifierEcriture();
+        if (journal != null) {
+            throw new IllegalStateException("Le journal est déjà actif");
+        }
+        long debut = System.nanoTime();
+        boolean recuperation = agents.isEmpty();
+        boolean snapshotRestaure = false;
+        long lsnSnapshot = 0;
+        Rejeu rejeu = new Rejeu(this, politique.getFabriqueStrategies());
+        if (recuperation) {
+            if (politique.getSnapshot() != null && Files.exists(politique.getSnapshot())) {
+                lsnSnapshot = restaurerSnapshot(politique.getSnapshot(), politique.getFabriqueStrategies()).lsn();
+                snapshotRestaure = true;
+            }
+            WriteAheadLog.relire(politique.getJournal(), lsnSnapshot, e -> rejeu.appliquer(e.lsn(), e.mutation()));
+        } else if (WriteAheadLog.relire(politique.getJournal(), Long.MAX_VALUE, e -> { }).enregistrements() > 0) {
+            throw new IllegalStateException("Le journal contient des mutations: activation sur un conteneur vide requise");
+        }
+
+        WriteAheadLog wal = new WriteAheadLog(politique.getJournal(), politique.getDurabilite(),
+                politique.getIntervalle(), lsnSnapshot);
+        JournalConteneur nouveau = new JournalConteneur(politique, wal);
+        index.add(nouveau);
+        journal = nouveau;
+        agents.values().forEach(recuperation ? nouveau::attacher : nouveau::agentAjoute);
+        if (!recuperation && politique.getSnapshot() != null) {
+            ecrirePointDeReprise(nouveau);
+        }
+        ResumeRecuperation resume = new ResumeRecuperation(snapshotRestaure, lsnSnapshot, rejeu.getAppliquees(),
+                rejeu.getIgnorees(), wal.getDernierLsn(), (System.nanoTime() - debut) / 1_000_000);
+        System.out.println("📝 Journal activé (" + politique.getDurabilite() + "): "
+                + resume.mutationsRejouees() + " mutations rejouées, reprise au LSN " + resume.dernierLsn());
+        return resume;
+    }
+
+    /**
+     * Écrit un point de reprise: instantané dans le fichier de la politique, puis troncature
+     * du journal jusqu'au LSN de l'instantané. L'instantané ne contient pas l'état des stratégies,
+     * reconstruit à la récupération depuis ses transactions puis le rejeu (les agents étant
+     * capturés à des instants différents, cet état ne correspondrait pas aux transactions).
+     * @return le résumé de l'instantané
+     * @throws IOException si l'écriture échoue
+     * @throws IllegalStateException si le journal n'est pas actif ou sans fichier d'instantané
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public synchronized ResumeSnapshot creerPointDeReprise() throws IOException {
+        JournalConteneur actif = journal;
+        if (actif == null || actif.getPolitique().getSnapshot() == null) {
+            throw new IllegalStateException("Le journal doit être actif avec un fichier d'instantané");
+        }
+        return ecrirePointDeReprise(actif);
+    }
+
+    private ResumeSnapshot ecrirePointDeReprise(JournalConteneur actif) throws IOException {
+        long lsn = actif.getWal().getDernierLsn();
+        ResumeSnapshot resume = surPool(pool -> SnapshotWriter.ecrire(actif.getPolitique().getSnapshot(),
+                agents.values(), lsn, pool, false));
+        actif.getWal().tronquer(lsn);
+        System.out.println("📌 Point de reprise au LSN " + lsn + " (" + resume.nombreAgents() + " agents)");
+        return resume;
+    }
+
+    /**
+     * Écrit et synchronise sur disque les mutations en attente (durabilité différée).
+     * @throws IOException si l'écriture échoue
+     * @throws IllegalStateException si le journal n'est pas actif
+     */
+    public void synchroniserJournal() throws IOException {
+        JournalConteneur actif = journal;
+        if (actif == null) {
+            throw new IllegalStateException("Le journal n'est pas actif");
+        }
+        actif.getWal().synchroniser();
+    }
+
+    /**
+     * Désactive le journal après écriture des mutations en attente (le fichier est conservé).
+     * @throws IOException si la fermeture échoue
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public synchronized void desactiverJournal() throws IOException {
+        JournalConteneur actif = journal;
+        if (actif != null) {
+            arreterReplication();
+            index.remove(actif);
+            agents.values().forEach(agent -> agent.retirerEcouteur(actif));
+            journal = null;
+            actif.close();
+        }
+    }
+
+    /**
+     * Retourne les statistiques du journal.
+     * @return Optional vide si le journal n'est pas actif
+     */
+    public Optional<StatistiquesJournal> getStatistiquesJournal() {
+        return Optional.ofNullable(journal).map(JournalConteneur::getWal).map(wal -> {
+            long lots = wal.getNombreLots();
+            return new StatistiquesJournal(wal.getDurabilite(), wal.getDernierLsn(), wal.getLsnDurable(),
+                    wal.getNombreEnregistrements(), lots,
+                    lots == 0 ? 0 : (double) wal.getNombreEnregistrements() / lots,
+                    wal.getOctetsEcrits(), wal.getTailleFichier());
+        });
+    }
+
+    // ==================== RÉPLICATION ====================
+
+    /**
+     * État d'une réplique.
+     * @param connecte true si la réplique est connectée à sa source
+     * @param lsnApplique le dernier LSN appliqué
+     * @param lsnSource le dernier LSN durable annoncé par la source
+     * @param retardMillis l'âge des données servies (Long.MAX_VALUE avant la première synchronisation)
+     */
+    public record EtatReplique(boolean connecte, long lsnApplique, long lsnSource, long retardMillis,
+                               long mutationsAppliquees, long instantanesRecus) {
+    }
+
+    /**
+     * Expédie le journal des mutations aux répliques qui se connectent à une socket locale,
+     * avec un battement toutes les 100 ms.
+     * @see #demarrerReplication(Path, Duration)
+     */
+    public void demarrerReplication(Path socket) throws IOException {
+        demarrerReplication(socket, Duration.ofMillis(100));
+    }
+
+    /**
+     * Expédie le journal des mutations aux répliques qui se connectent à une socket de domaine
+     * Unix. Une réplique qui ne peut être rattrapée depuis le journal reçoit d'abord un instantané.
+     * @param socket le chemin de la socket (remplacé s'il existe)
+     * @param periodeBattement la période maximale entre deux messages, qui borne le retard perçu
+     * @throws IOException si la socket ne peut pas être ouverte
+     * @throws IllegalStateException si le journal n'est pas actif, si la réplication est déjà
+     *                               démarrée ou si le conteneur est lui-même une réplique
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public synchronized void demarrerReplication(Path socket, Duration periodeBattement) throws IOException {
+        JournalConteneur actif = journal;
+        if (actif == null || emetteur != null || recepteur != null) {
+            throw new IllegalStateException("Réplication impossible: journal inactif, réplication déjà démarrée ou réplique");
+        }
+        WriteAheadLog wal = actif.getWal();
+        emetteur = new EmetteurReplication(socket, wal, fichier -> surPool(pool -> SnapshotWriter.ecrire(fichier,
+                agents.values(), wal.getDernierLsn(), pool, false)), periodeBattement);
+        System.out.println("📡 Réplication démarrée sur " + socket);
+    }
+
+    /**
+     * Arrête l'expédition du journal et déconnecte les répliques.
+     * @throws IOException si la socket ne peut pas être fermée
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public synchronized void arreterReplication() throws IOException {
+        EmetteurReplication actif = emetteur;
+        if (actif != null) {
+            emetteur = null;
+            actif.close();
+        }
+    }
+
+    public int getNombreRepliques() {
+        EmetteurReplication actif = emetteur;
+        return actif == null ? 0 : actif.getNombreRepliques();
+    }
+
+    /**
+     * Fait de ce conteneur vide une réplique en lecture seule d'une source locale.
+     * @see #suivre(Path, Duration, Function)
+     */
+    public void suivre(Path socket, Duration retardMax) {
+        suivre(socket, retardMax, nom -> null);
+    }
+
+    /**
+     * Fait de ce conteneur vide une réplique en lecture seule d'une source locale: le journal de
+     * la source est appliqué en continu. Toute mutation du conteneur ou de ses agents hors de la
+     * réplication lève une IllegalStateException, de même que les lectures lorsque les données
+     * ont plus de {@code retardMax} de retard sur la source.
+     * @param socket la socket de la source ({@link #demarrerReplication(Path)})
+     * @param retardMax le retard maximal des données servies
+     * @param fabrique fabrique des stratégies configurées par nom (null pour les stratégies standard)
+     * @throws IllegalStateException si le conteneur n'est pas vide, suit déjà une source ou en est une
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public synchronized void suivre(Path socket, Duration retardMax, Function<String, NotificationStrategy> fabrique) {
+        if (!agents.isEmpty() || recepteur != null || emetteur != null) {
+            throw new IllegalStateException("Seul un conteneur vide et autonome peut devenir une réplique");
+        }
+        RecepteurReplication nouveau = new RecepteurReplication(this, socket, retardMax, fabrique);
+        applicateur = nouveau.getThread();
+        recepteur = nouveau;
+        nouveau.demarrer();
+        System.out.println("🛰️  Conteneur en lecture seule, réplique de " + socket);
+    }
+
+    /**
+     * Cesse de suivre la source: le conteneur redevient autonome et modifiable (promotion).
+     * @return le dernier LSN appliqué, ou 0 si le conteneur n'était pas une réplique
+     * @throws IOException si la connexion ne peut pas être fermée
+     */
+    @Log
+    @SecuredBy(roles = {"ADMIN"})
+    public synchronized long cesserSuivi() throws IOException {
+        RecepteurReplication actif = recepteur;
+        if (actif == null) {
+            return 0;
+        }
+        actif.close();
+        recepteur = null;
+        applicateur = null;
+        agents.values().forEach(agent -> agent.reserverEcriture(null));
+        System.out.println("🛰️  Réplique promue au LSN " + actif.getLsnApplique());
+        return actif.getLsnApplique();
+    }
+
+    /**
+     * Retourne l'état de la réplication entrante.
+     * @return Optional vide si le conteneur n'est pas une réplique
+     */
+    public Optional<EtatReplique> getEtatReplique() {
+        return Optional.ofNullable(recepteur).map(r -> new EtatReplique(r.estConnecte(), r.getLsnApplique(),
+                r.getLsnSource(), r.getRetardMillis(), r.getMutationsAppliquees(), r.getInstantanesRecus()));
+    }
+
+    private void verifierEcriture() {
+        Thread ecrivain = applicateur;
+        if (ecrivain != null && ecrivain != Thread.currentThread()) {
+            throw new IllegalStateException("Le conteneur est une réplique en lecture seule");
+        }
+    }
+
+    private void verifierFraicheur() {
+        RecepteurReplication actif = recepteur;
+        if (actif != null && applicateur != Thread.currentThread()) {
+            actif.verifierFraicheur();
+        }
+    }
+
     // ==================== AFFICHAGE (PATTERN ADAPTER) ====================
 
     /**
@@ -185,21 +1080,29 @@ public class AgentContainer {
      */
     @Log
     public void afficherEtat() {
+        // Un seul parcours faiblement cohérent: le nombre affiché correspond à la liste
+        StringBuilder liste = new StringBuilder();
+        int nombre = 0;
+        for (Agent agent : agents.values()) {
+            liste.append("║ • ").append(agent.getNom())
+                 .append(" | Transactions: ").append(agent.getTransactions().size())
+                 .append(" | Solde: ").append(String.format("%.2f", agent.calculerSolde())).append(" €\n");
+            nombre++;
+        }
+
         StringBuilder content = new StringBuilder();
         content.append("║           ÉTAT DU CONTENEUR D'AGENTS                         ║\n");
         content.append("╠══════════════════════════════════════════════════════════════╣\n");
-        content.append("║ Nombre d'agents: ").append(agents.size()).append("\n");
+        content.append("║ Nombre d'agents: ").append(nombre).append("\n");
+        content.append("║ Solde total: ").append(String.format("%.2f", agregats.getSoldeTotal()))
+               .append(" € | Transactions: ").append(agregats.getNombreTransactions()).append("\n");
         content.append("╠══════════════════════════════════════════════════════════════╣\n");
         
-        if (agents.isEmpty()) {
+        if (nombre == 0) {
             content.append("║ Aucun agent dans le conteneur                                ║\n");
         } else {
             content.append("║ LISTE DES AGENTS:                                            ║\n");
-            for (Agent agent : agents.values()) {
-                content.append("║ • ").append(agent.getNom())
-                       .append(" | Transactions: ").append(agent.getTransactions().size())
-                       .append(" | Solde: ").append(String.format("%.2f", agent.calculerSolde())).append(" €\n");
-            }
+            content.append(liste);
         }
         
         display.displayViaHDMI(content.toString());
@@ -0,0 +1,126 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.model.Agent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Exécution de calculs sur tous les agents dans un pool fork/join dédié.
+ *
+ * Le registre est découpé par son spliterator (les segments de la ConcurrentHashMap) jusqu'à
+ * la granularité voulue; chaque segment est traité séquentiellement par un worker et les
+ * résultats partiels sont combinés en remontant. Le pool est distinct du pool commun: les
+ * calculs longs n'occupent ni les threads d'ingestion ni les flux parallèles du reste de
+ * l'application.
+ */
+final class CalculParallele {
+
+    /** Nombre de segments visés par worker en granularité automatique (équilibrage). */
+    private static final int SEGMENTS_PAR_WORKER = 8;
+
+    private static final AtomicInteger COMPTEUR_POOLS = new AtomicInteger();
+
+    private final ForkJoinPool pool;
+    private final int granularite;
+
+    /**
+     * @param parallelisme le nombre de workers
+     * @param granularite le nombre d'agents par segment, 0 pour un calcul automatique
+     */
+    CalculParallele(int parallelisme, int granularite) {
+        if (parallelisme <= 0 || granularite < 0) {
+            throw new IllegalArgumentException("Parallélisme positif et granularité positive ou nulle requis");
+        }
+        int numeroPool = COMPTEUR_POOLS.incrementAndGet();
+        this.pool = new ForkJoinPool(parallelisme, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("calcul-agents-" + numeroPool + "-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.granularite = granularite;
+    }
+
+    /**
+     * Transforme chaque agent puis combine les résultats. Le registre n'a pas d'ordre de parcours
+     * (spliterator non ordonné) et les résultats partiels sont combinés dans un ordre quelconque:
+     * l'opération doit être associative et commutative.
+     * @return le résultat, complété dans un worker du pool
+     */
+    <T> CompletableFuture<T> reduire(Collection<Agent> agents, T identite,
+                                     Function<Agent, T> transformation, BinaryOperator<T> combinaison) {
+        long seuil = granularite > 0
+                ? granularite
+                : Math.max(1, agents.size() / ((long) pool.getParallelism() * SEGMENTS_PAR_WORKER));
+        return CompletableFuture.supplyAsync(() ->
+                new Reduction<>(agents.spliterator(), seuil, identite, transformation, combinaison).invoke(), pool);
+    }
+
+    int getParallelisme() {
+        return pool.getParallelism();
+    }
+
+    ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Arrête le pool après les calculs en cours.
+     */
+    void arreter() {
+        pool.shutdown();
+    }
+
+    /**
+     * Découpe le spliterator tant qu'il dépasse le seuil, traite le reste sur place
+     * puis combine les résultats des moitiés confiées aux autres workers (dans l'ordre
+     * inverse de leur création, sans rapport avec la position des agents).
+     */
+    private static final class Reduction<T> extends RecursiveTask<T> {
+        private final Spliterator<Agent> segment;
+        private final long seuil;
+        private final T identite;
+        private final Function<Agent, T> transformation;
+        private final BinaryOperator<T> combinaison;
+
+        Reduction(Spliterator<Agent> segment, long seuil, T identite,
+                  Function<Agent, T> transformation, BinaryOperator<T> combinaison) {
+            this.segment = segment;
+            this.seuil = seuil;
+            this.identite = identite;
+            this.transformation = transformation;
+            this.combinaison = combinaison;
+        }
+
+        @Override
+        protected T compute() {
+            List<Reduction<T>> moities = new ArrayList<>();
+            Spliterator<Agent> moitie;
+            while (segment.estimateSize() > seuil && (moitie = segment.trySplit()) != null) {
+                Reduction<T> tache = new Reduction<>(moitie, seuil, identite, transformation, combinaison);
+                tache.fork();
+                moities.add(tache);
+            }
+            T total = identite;
+            Iterator<Agent> restants = Spliterators.iterator(segment);
+            while (restants.hasNext()) {
+                total = combinaison.apply(total, transformation.apply(restants.next()));
+            }
+            for (int i = moities.size() - 1; i >= 0; i--) {
+                total = combinaison.apply(total, moities.get(i).join());
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.analytics.Hachage;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Anneau de hachage cohérent répartissant des clés sur N partitions.
+ *
+ * Chaque partition occupe plusieurs positions (nœuds virtuels) sur l'anneau; une clé
+ * appartient à la première position rencontrée après son hachage. Ajouter une partition
+ * ne déplace qu'environ 1/N des clés.
+ */
+final class ConsistentHashRing {
+
+    private final TreeMap<Long, Integer> anneau = new TreeMap<>();
+    private final int nombrePartitions;
+
+    /**
+     * Construit l'anneau.
+     * @param nombrePartitions le nombre de partitions
+     * @param noeudsVirtuels le nombre de positions par partition
+     */
+    ConsistentHashRing(int nombrePartitions, int noeudsVirtuels) {
+        if (nombrePartitions <= 0 || noeudsVirtuels <= 0) {
+            throw new IllegalArgumentException("Le nombre de partitions et de nœuds virtuels doit être positif");
+        }
+        this.nombrePartitions = nombrePartitions;
+        for (int p = 0; p < nombrePartitions; p++) {
+            for (int v = 0; v < noeudsVirtuels; v++) {
+                anneau.put(Hachage.hacher("partition-" + p + "#" + v), p);
+            }
+        }
+    }
+
+    /**
+     * Retourne la partition d'une clé.
+     * @param cle la clé (nom de l'agent)
+     * @return l'index de la partition
+     */
+    int partitionDe(String cle) {
+        Map.Entry<Long, Integer> entree = anneau.ceilingEntry(Hachage.hacher(cle));
+        return entree != null ? entree.getValue() : anneau.firstEntry().getValue();
+    }
+
+    int getNombrePartitions() {
+        return nombrePartitions;
+    }
+}
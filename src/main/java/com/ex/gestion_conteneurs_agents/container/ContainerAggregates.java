@@ -0,0 +1,111 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.AgentListener;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrégats globaux d'un conteneur, maintenus au fil des mutations.
+ *
+ * - Solde total, nombre de transactions, nombre et somme des montants par type
+ * - Mises à jour sans contention (accumulateurs répartis {@link LongAdder})
+ * - Lectures en O(1), indépendantes du nombre d'agents et de transactions
+ *
+ * Les montants sont cumulés en centimes pour que les ajouts et suppressions se compensent exactement.
+ */
+public class ContainerAggregates implements AgentListener {
+
+    private final LongAdder soldeCentimes = new LongAdder();
+    private final LongAdder nombreTransactions = new LongAdder();
+    private final Map<TransactionType, LongAdder> nombreParType = new EnumMap<>(TransactionType.class);
+    private final Map<TransactionType, LongAdder> sommeParType = new EnumMap<>(TransactionType.class);
+
+    public ContainerAggregates() {
+        for (TransactionType type : TransactionType.values()) {
+            nombreParType.put(type, new LongAdder());
+            sommeParType.put(type, new LongAdder());
+        }
+    }
+
+    /**
+     * Intègre un agent et ses transactions, puis suit ses mutations.
+     * L'opération est exécutée par l'exécuteur propriétaire de l'agent.
+     * @param agent l'agent qui rejoint le conteneur
+     */
+    void agentAjoute(Agent agent) {
+        agent.executer(() -> {
+            agent.ajouterEcouteur(this);
+            agent.getTransactions().forEach(t -> cumuler(t, 1));
+        });
+    }
+
+    /**
+     * Retire un agent et ses transactions des agrégats.
+     * @param agent l'agent qui quitte le conteneur
+     */
+    void agentRetire(Agent agent) {
+        agent.executer(() -> {
+            agent.retirerEcouteur(this);
+            agent.getTransactions().forEach(t -> cumuler(t, -1));
+        });
+    }
+
+    @Override
+    public void transactionAjoutee(Agent agent, Transaction transaction) {
+        cumuler(transaction, 1);
+    }
+
+    @Override
+    public void transactionSupprimee(Agent agent, Transaction transaction) {
+        cumuler(transaction, -1);
+    }
+
+    private void cumuler(Transaction transaction, int sens) {
+        long centimes = Math.round(transaction.getMontant() * 100);
+        TransactionType type = transaction.getType();
+        nombreTransactions.add(sens);
+        nombreParType.get(type).add(sens);
+        sommeParType.get(type).add(sens * centimes);
+        soldeCentimes.add(type == TransactionType.VENTE ? sens * centimes : -sens * centimes);
+    }
+
+    /**
+     * Retourne le solde total des agents (ventes - achats).
+     * @return le solde total
+     */
+    public double getSoldeTotal() {
+        return soldeCentimes.sum() / 100.0;
+    }
+
+    public long getNombreTransactions() {
+        return nombreTransactions.sum();
+    }
+
+    public long getNombreTransactions(TransactionType type) {
+        return nombreParType.get(type).sum();
+    }
+
+    /**
+     * Retourne la somme des montants d'un type de transaction.
+     * @param type le type de transaction
+     * @return la somme des montants
+     */
+    public double getSommeMontants(TransactionType type) {
+        return sommeParType.get(type).sum() / 100.0;
+    }
+
+    /**
+     * Remet les agrégats à zéro (conteneur vidé).
+     */
+    void reset() {
+        soldeCentimes.reset();
+        nombreTransactions.reset();
+        nombreParType.values().forEach(LongAdder::reset);
+        sommeParType.values().forEach(LongAdder::reset);
+    }
+}
@@ -0,0 +1,283 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.persistence.ResumeSnapshot;
+import com.ex.gestion_conteneurs_agents.persistence.WriteAheadLog;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Expédition du journal des mutations aux répliques locales, sur une socket de domaine Unix.
+ *
+ * Protocole (big-endian):
+ * <pre>
+ * Réplique → source : "ARPL" (4 octets) | version (short) | dernier LSN appliqué (long)
+ * Source → réplique : genre (byte) puis contenu
+ *   INSTANTANE      : taille (long) | fichier d'instantané
+ *   ENREGISTREMENTS : taille (int) | enregistrements au format du journal
+ *   BATTEMENT       : LSN durable (long) | horodatage epoch millis (long)
+ * </pre>
+ * Chaque session s'abonne aux lots écrits par le journal, puis rattrape la réplique depuis le
+ * fichier du journal (ou par un instantané si les enregistrements nécessaires ont été tronqués)
+ * avant de lui transmettre les lots en continu. Les LSN étant consécutifs, toute lacune est
+ * détectée. Un battement suit chaque envoi et chaque période d'inactivité: tous les enregistrements
+ * de LSN inférieur ou égal au LSN annoncé ont alors été transmis, ce qui borne le retard de la réplique.
+ *
+ * Les lots en attente d'une session sont bornés ({@link #OCTETS_EN_ATTENTE_MAX}): une réplique
+ * bloquée ou trop lente est déconnectée plutôt que de retenir le journal en mémoire, et se
+ * rattrape à sa reconnexion depuis le fichier du journal ou un instantané.
+ */
+final class EmetteurReplication implements Closeable {
+
+    static final int MAGIC = 0x4152504C; // "ARPL"
+    static final short VERSION = 1;
+    static final byte INSTANTANE = 1;
+    static final byte ENREGISTREMENTS = 2;
+    static final byte BATTEMENT = 3;
+
+    /** Taille visée d'un message d'enregistrements lors du rattrapage. */
+    private static final int TAILLE_MESSAGE = 1 << 20;
+
+    /** Volume maximal des lots en attente d'envoi pour une session. */
+    static final long OCTETS_EN_ATTENTE_MAX = 64L << 20;
+
+    /**
+     * Écriture d'un instantané cohérent avec le journal (LSN courant).
+     */
+    @FunctionalInterface
+    interface Instantane {
+        ResumeSnapshot ecrire(Path fichier) throws IOException;
+    }
+
+    /**
+     * Enregistrement manquant dans le journal: la réplique doit repartir d'un instantané.
+     */
+    private static final class Lacune extends IOException {
+        Lacune(long attendu) {
+            super("Enregistrement " + attendu + " absent du journal");
+        }
+    }
+
+    private final Path socket;
+    private final WriteAheadLog wal;
+    private final Instantane instantane;
+    private final long periodeMillis;
+    private final ServerSocketChannel serveur;
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+    private volatile boolean ferme;
+
+    EmetteurReplication(Path socket, WriteAheadLog wal, Instantane instantane, Duration periode) throws IOException {
+        if (periode == null || periode.isZero() || periode.isNegative()) {
+            throw new IllegalArgumentException("La période de battement doit être positive");
+        }
+        this.socket = socket;
+        this.wal = wal;
+        this.instantane = instantane;
+        this.periodeMillis = periode.toMillis();
+        Files.deleteIfExists(socket);
+        this.serveur = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serveur.bind(UnixDomainSocketAddress.of(socket));
+        Thread accepteur = new Thread(this::accepter, "replication-source");
+        accepteur.setDaemon(true);
+        accepteur.start();
+    }
+
+    private void accepter() {
+        while (!ferme) {
+            try {
+                Session session = new Session(serveur.accept());
+                sessions.add(session);
+                Thread thread = new Thread(session, "replication-session-" + sessions.size());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!ferme) {
+                    System.err.println("⚠️  Connexion de réplique refusée: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    int getNombreRepliques() {
+        return sessions.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        ferme = true;
+        serveur.close();
+        for (Session session : sessions) {
+            session.canal.close();
+        }
+        Files.deleteIfExists(socket);
+    }
+
+    // ==================== SESSION ====================
+
+    private final class Session implements Runnable {
+
+        private final SocketChannel canal;
+        private final BlockingQueue<byte[]> lots = new LinkedBlockingQueue<>();
+        private final AtomicLong octetsEnAttente = new AtomicLong();
+        private final Consumer<ByteBuffer> abonne = this::empiler;
+        private DataOutputStream sortie;
+        private ByteBuffer message = ByteBuffer.allocate(TAILLE_MESSAGE);
+        private long lsnEnvoye;
+
+        Session(SocketChannel canal) {
+            this.canal = canal;
+        }
+
+        /**
+         * Met un lot du journal en attente; au-delà de la borne, la session est abandonnée
+         * (appelé par le thread d'écriture du journal, qui ne doit jamais attendre la réplique).
+         */
+        private void empiler(ByteBuffer lot) {
+            if (octetsEnAttente.addAndGet(lot.remaining()) > OCTETS_EN_ATTENTE_MAX) {
+                wal.desabonner(abonne);
+                lots.clear();
+                System.out.println("🔌 Réplique trop lente, session abandonnée (rattrapage à la reconnexion)");
+                try {
+                    canal.close();
+                } catch (IOException e) {
+                    System.err.println("⚠️  Fermeture de la session de réplication impossible: " + e.getMessage());
+                }
+                return;
+            }
+            byte[] copie = new byte[lot.remaining()];
+            lot.get(copie);
+            lots.add(copie);
+        }
+
+        private byte[] depiler(byte[] lot) {
+            if (lot != null) {
+                octetsEnAttente.addAndGet(-lot.length);
+            }
+            return lot;
+        }
+
+        @Override
+        public void run() {
+            wal.abonner(abonne);
+            try (canal) {
+                DataInputStream entree = new DataInputStream(Channels.newInputStream(canal));
+                if (entree.readInt() != MAGIC || entree.readShort() != VERSION) {
+                    throw new IOException("Réplique incompatible");
+                }
+                lsnEnvoye = entree.readLong();
+                sortie = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), 64 * 1024));
+                rattraper();
+                while (!ferme) {
+                    long durable = wal.getLsnDurable();
+                    long horodatage = System.currentTimeMillis();
+                    byte[] lot = depiler(lots.poll(periodeMillis, TimeUnit.MILLISECONDS));
+                    while (lot != null) {
+                        transmettre(ByteBuffer.wrap(lot));
+                        lot = depiler(lots.poll());
+                    }
+                    envoyerMessage();
+                    sortie.writeByte(BATTEMENT);
+                    sortie.writeLong(durable);
+                    sortie.writeLong(horodatage);
+                    sortie.flush();
+                }
+            } catch (IOException e) {
+                if (!ferme) {
+                    System.out.println("🔌 Réplique déconnectée: " + e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                wal.desabonner(abonne);
+                sessions.remove(this);
+            }
+        }
+
+        /**
+         * Transmet les enregistrements du fichier postérieurs à la réplique, précédés d'un
+         * instantané si le journal ne remonte pas jusqu'à elle.
+         */
+        private void rattraper() throws IOException {
+            while (true) {
+                if (lsnEnvoye > wal.getDernierLsn()) {
+                    envoyerInstantane();
+                }
+                try {
+                    WriteAheadLog.Relecture relecture = WriteAheadLog.relireBrut(wal.getFichier(), lsnEnvoye, this::transmettre);
+                    if (lsnEnvoye < relecture.dernierLsn()) {
+                        throw new Lacune(lsnEnvoye + 1);
+                    }
+                    envoyerMessage();
+                    return;
+                } catch (Lacune e) {
+                    envoyerInstantane();
+                }
+            }
+        }
+
+        private void envoyerInstantane() throws IOException {
+            Path fichier = Files.createTempFile(socket.toAbsolutePath().getParent(), "replication", ".snap");
+            try {
+                ResumeSnapshot resume = instantane.ecrire(fichier);
+                sortie.writeByte(INSTANTANE);
+                sortie.writeLong(Files.size(fichier));
+                Files.copy(fichier, sortie);
+                sortie.flush();
+                lsnEnvoye = resume.lsn();
+            } finally {
+                Files.deleteIfExists(fichier);
+            }
+        }
+
+        private void transmettre(ByteBuffer enregistrements) throws IOException {
+            WriteAheadLog.parcourirLot(enregistrements, this::transmettreEnregistrement);
+        }
+
+        private void transmettreEnregistrement(ByteBuffer enregistrement) throws IOException {
+            long lsn = WriteAheadLog.lsn(enregistrement);
+            if (lsn <= lsnEnvoye) {
+                return;
+            }
+            if (lsn != lsnEnvoye + 1) {
+                throw new Lacune(lsnEnvoye + 1);
+            }
+            if (message.remaining() < enregistrement.remaining()) {
+                envoyerMessage();
+                if (message.capacity() < enregistrement.remaining()) {
+                    message = ByteBuffer.allocate(enregistrement.remaining());
+                }
+            }
+            message.put(enregistrement);
+            lsnEnvoye = lsn;
+        }
+
+        private void envoyerMessage() throws IOException {
+            if (message.position() == 0) {
+                return;
+            }
+            sortie.writeByte(ENREGISTREMENTS);
+            sortie.writeInt(message.position());
+            sortie.write(message.array(), 0, message.position());
+            message.clear();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.index.AgentIndex;
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.observer.Observer;
+import com.ex.gestion_conteneurs_agents.persistence.Mutation;
+import com.ex.gestion_conteneurs_agents.persistence.WriteAheadLog;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Journalisation des mutations d'un conteneur: déclaré comme index, il écoute chaque agent
+ * et transmet ses mutations au journal à écriture anticipée, dans le thread qui les effectue.
+ *
+ * Les mutations sont journalisées après leur application en mémoire, sous le moniteur de l'agent
+ * (voir {@link com.ex.gestion_conteneurs_agents.model.AgentListener}): les LSN d'un agent suivent
+ * l'ordre de ses mutations, et le LSN attribué est marqué sur l'agent ({@link Agent#marquerLsn})
+ * pour que le rejeu ignore les mutations déjà contenues dans un instantané. Si le journal devient
+ * indisponible, la mutation reste appliquée et l'appelant reçoit une IllegalStateException.
+ */
+final class JournalConteneur implements AgentIndex, Closeable {
+
+    private final JournalPolicy politique;
+    private final WriteAheadLog wal;
+
+    JournalConteneur(JournalPolicy politique, WriteAheadLog wal) {
+        this.politique = politique;
+        this.wal = wal;
+    }
+
+    JournalPolicy getPolitique() {
+        return politique;
+    }
+
+    WriteAheadLog getWal() {
+        return wal;
+    }
+
+    /**
+     * Écoute un agent déjà couvert par le journal ou l'instantané (sans journaliser son état).
+     */
+    void attacher(Agent agent) {
+        agent.ajouterEcouteur(this);
+    }
+
+    /**
+     * État complet d'un agent, tel que journalisé à son ajout.
+     */
+    static Mutation.AgentAjoute etat(Agent agent) {
+        List<String> observateurs = new ArrayList<>();
+        for (Observer observateur : agent.getObservers()) {
+            if (observateur instanceof Agent autre) {
+                observateurs.add(autre.getNom());
+            }
+        }
+        return new Mutation.AgentAjoute(agent.getNom(), agent.getStrategy().getStrategyName(),
+                agent.getDerniereActivite().toEpochMilli(), List.copyOf(agent.getTransactions()), observateurs);
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    @Override
+    public void agentAjoute(Agent agent) {
+        agent.executer(() -> {
+            synchronized (agent) {
+                agent.ajouterEcouteur(this);
+                agent.reinitialiserLsn(wal.ajouter(etat(agent)));
+            }
+        });
+    }
+
+    /**
+     * Le retrait n'est pas marqué sur l'agent: une capture prise après le retrait doit encore
+     * le voir rejoué.
+     */
+    @Override
+    public void agentRetire(Agent agent) {
+        agent.executer(() -> {
+            agent.retirerEcouteur(this);
+            wal.ajouter(new Mutation.AgentRetire(agent.getNom()));
+        });
+    }
+
+    @Override
+    public void vider() {
+        wal.ajouter(new Mutation.Vidage());
+    }
+
+    @Override
+    public void transactionAjoutee(Agent agent, Transaction transaction) {
+        agent.marquerLsn(wal.ajouter(new Mutation.TransactionAjoutee(agent.getNom(), transaction)));
+    }
+
+    @Override
+    public void transactionSupprimee(Agent agent, Transaction transaction) {
+        agent.marquerLsn(wal.ajouter(new Mutation.TransactionSupprimee(agent.getNom(), transaction.getId())));
+    }
+
+    @Override
+    public void abonnementAjoute(Agent sujet, Observer observateur) {
+        if (observateur instanceof Agent agent) {
+            sujet.marquerLsn(wal.ajouter(new Mutation.AbonnementAjoute(sujet.getNom(), agent.getNom())));
+        }
+    }
+
+    @Override
+    public void abonnementRetire(Agent sujet, Observer observateur) {
+        if (observateur instanceof Agent agent) {
+            sujet.marquerLsn(wal.ajouter(new Mutation.AbonnementRetire(sujet.getNom(), agent.getNom())));
+        }
+    }
+
+    @Override
+    public void strategieChangee(Agent agent, NotificationStrategy ancienne, NotificationStrategy nouvelle) {
+        agent.marquerLsn(wal.ajouter(new Mutation.StrategieChangee(agent.getNom(), nouvelle.getStrategyName())));
+    }
+
+    @Override
+    public void close() throws IOException {
+        wal.close();
+    }
+}
@@ -0,0 +1,114 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.persistence.Durabilite;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Politique du journal des mutations (voir {@link AgentContainer#activerJournal}).
+ *
+ * La récupération restaure l'instantané (s'il existe) puis rejoue les mutations journalisées
+ * après lui. Les points de reprise réécrivent l'instantané et tronquent le journal.
+ *
+ * Design Pattern utilisé: BUILDER
+ */
+@Getter
+public class JournalPolicy {
+
+    private final Path journal;
+    private final Path snapshot;
+    private final Durabilite durabilite;
+    private final Duration intervalle;
+    private final Function<String, NotificationStrategy> fabriqueStrategies;
+
+    private JournalPolicy(JournalPolicyBuilder builder) {
+        this.journal = builder.journal;
+        this.snapshot = builder.snapshot;
+        this.durabilite = builder.durabilite;
+        this.intervalle = builder.intervalle;
+        this.fabriqueStrategies = builder.fabriqueStrategies;
+    }
+
+    /**
+     * Méthode statique pour obtenir une instance du Builder.
+     * @return une nouvelle instance de JournalPolicyBuilder
+     */
+    public static JournalPolicyBuilder builder() {
+        return new JournalPolicyBuilder();
+    }
+
+    // ==================== BUILDER ====================
+
+    /**
+     * Builder de la politique du journal.
+     */
+    public static class JournalPolicyBuilder {
+        private Path journal;
+        private Path snapshot;
+        private Durabilite durabilite = Durabilite.DIFFEREE;
+        private Duration intervalle = Duration.ofMillis(50);
+        private Function<String, NotificationStrategy> fabriqueStrategies = nom -> null;
+
+        /**
+         * Fichier du journal (relu à l'activation s'il existe).
+         */
+        public JournalPolicyBuilder journal(Path journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        /**
+         * Fichier de l'instantané de récupération et des points de reprise (facultatif).
+         */
+        public JournalPolicyBuilder snapshot(Path snapshot) {
+            this.snapshot = snapshot;
+            return this;
+        }
+
+        /**
+         * Garantie au retour d'une mutation (par défaut validation groupée différée, voir {@link Durabilite}).
+         */
+        public JournalPolicyBuilder durabilite(Durabilite durabilite) {
+            this.durabilite = durabilite;
+            return this;
+        }
+
+        /**
+         * Période d'écriture en durabilité différée (fenêtre de perte maximale, 50 ms par défaut).
+         */
+        public JournalPolicyBuilder intervalle(Duration intervalle) {
+            this.intervalle = intervalle;
+            return this;
+        }
+
+        /**
+         * Fabrique des stratégies configurées, par nom, pour la récupération (null = stratégies standard).
+         */
+        public JournalPolicyBuilder fabriqueStrategies(Function<String, NotificationStrategy> fabriqueStrategies) {
+            this.fabriqueStrategies = fabriqueStrategies;
+            return this;
+        }
+
+        /**
+         * Construit la politique.
+         * @return la politique du journal
+         * @throws IllegalStateException si la configuration est invalide
+         */
+        public JournalPolicy build() {
+            if (journal == null) {
+                throw new IllegalStateException("Le fichier du journal est obligatoire");
+            }
+            if (durabilite == null || fabriqueStrategies == null) {
+                throw new IllegalStateException("La durabilité et la fabrique de stratégies sont obligatoires");
+            }
+            if (intervalle == null || intervalle.isZero() || intervalle.isNegative()) {
+                throw new IllegalStateException("L'intervalle d'écriture doit être positif");
+            }
+            return new JournalPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.model.ThreadProprietaire;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Boîte aux lettres d'un agent dans un {@link MailboxAgentContainer}.
+ *
+ * Les messages sont traités un par un, jamais en parallèle: la boîte est planifiée sur
+ * le pool au plus une fois à la fois et traite au plus {@code debit} messages par tour
+ * avant de rendre la main (équité entre agents). Un message soumis pendant le traitement
+ * de la boîte, depuis son propre tour, est exécuté directement.
+ */
+final class Mailbox implements Executor, Runnable {
+
+    private final ConcurrentLinkedQueue<Runnable> messages = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean planifiee = new AtomicBoolean();
+    private final Executor pool;
+    private final int debit;
+    private final AtomicLong messagesEnCours;
+    private final LongAdder messagesTraites;
+
+    /**
+     * Crée une boîte aux lettres.
+     * @param pool le pool qui exécute les tours de traitement
+     * @param debit le nombre maximal de messages traités par tour
+     * @param messagesEnCours compteur partagé des messages soumis et non traités
+     * @param messagesTraites compteur partagé des messages traités
+     */
+    Mailbox(Executor pool, int debit, AtomicLong messagesEnCours, LongAdder messagesTraites) {
+        this.pool = pool;
+        this.debit = debit;
+        this.messagesEnCours = messagesEnCours;
+        this.messagesTraites = messagesTraites;
+    }
+
+    @Override
+    public void execute(Runnable message) {
+        if (ThreadProprietaire.courant() == this) {
+            message.run();
+            return;
+        }
+        messagesEnCours.incrementAndGet();
+        messages.add(message);
+        try {
+            planifier();
+        } catch (RejectedExecutionException e) {
+            if (messages.remove(message)) {
+                messagesEnCours.decrementAndGet();
+            }
+            throw new IllegalStateException("Le pool de la boîte aux lettres est arrêté", e);
+        }
+    }
+
+    private void planifier() {
+        if (planifiee.compareAndSet(false, true)) {
+            try {
+                pool.execute(this);
+            } catch (RejectedExecutionException e) {
+                planifiee.set(false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Tour de traitement: au plus {@code debit} messages, puis replanification si la boîte
+     * n'est pas vide.
+     */
+    @Override
+    public void run() {
+        Executor precedent = ThreadProprietaire.entrer(this);
+        try {
+            for (int i = 0; i < debit; i++) {
+                Runnable message = messages.poll();
+                if (message == null) {
+                    break;
+                }
+                traiter(message);
+            }
+        } finally {
+            ThreadProprietaire.sortir(precedent);
+            planifiee.set(false);
+            if (!messages.isEmpty()) {
+                planifier();
+            }
+        }
+    }
+
+    private void traiter(Runnable message) {
+        try {
+            message.run();
+        } catch (RuntimeException e) {
+            System.err.println("❌ [mailbox] Erreur lors du traitement d'un message: " + e.getMessage());
+        } finally {
+            messagesTraites.increment();
+            messagesEnCours.decrementAndGet();
+        }
+    }
+
+    int getTaille() {
+        return messages.size();
+    }
+}
@@ -0,0 +1,257 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Conteneur d'agents en mode acteur: chaque agent possède une boîte aux lettres et traite
+ * séquentiellement ses {@code ajouterTransaction}, {@code supprimerTransaction} et
+ * {@code update}.
+ *
+ * - Les boîtes sont planifiées sur un pool à vol de tâches ({@link ForkJoinPool} en mode FIFO)
+ * - Aucun verrou partagé: l'état interne des agents reste non thread-safe
+ * - Une boîte vide ne consomme aucun thread: le nombre d'agents actifs n'est limité que par la mémoire
+ *
+ * Design Pattern: BUILDER (configuration)
+ */
+public class MailboxAgentContainer implements Closeable {
+
+    private final Map<String, Agent> agents = new ConcurrentHashMap<>();
+    private final ExecutorService pool;
+    private final boolean poolInterne;
+    private final int debit;
+    private final AtomicLong messagesEnCours = new AtomicLong();
+    private final LongAdder messagesTraites = new LongAdder();
+
+    private MailboxAgentContainer(MailboxAgentContainerBuilder builder) {
+        this.poolInterne = builder.pool == null;
+        this.pool = poolInterne
+                ? new ForkJoinPool(builder.parallelisme, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true)
+                : builder.pool;
+        this.debit = builder.debit;
+        System.out.println("🏗️  Conteneur à boîtes aux lettres initialisé (débit " + debit + " message(s)/tour)");
+    }
+
+    /**
+     * Méthode statique pour obtenir une instance du Builder.
+     * @return une nouvelle instance de MailboxAgentContainerBuilder
+     */
+    public static MailboxAgentContainerBuilder builder() {
+        return new MailboxAgentContainerBuilder();
+    }
+
+    // ==================== GESTION DES AGENTS ====================
+
+    /**
+     * Ajoute un agent et lui attribue une boîte aux lettres.
+     * @param agent l'agent à ajouter
+     * @return true si l'agent a été ajouté, false s'il existe déjà
+     */
+    public boolean ajouterAgent(Agent agent) {
+        if (agent == null) {
+            throw new IllegalArgumentException("L'agent ne peut pas être null");
+        }
+        if (agents.putIfAbsent(agent.getNom(), agent) != null) {
+            System.out.println("⚠️  Agent [" + agent.getNom() + "] existe déjà dans le conteneur");
+            return false;
+        }
+        agent.setExecuteur(new Mailbox(pool, debit, messagesEnCours, messagesTraites));
+        System.out.println("✅ Agent [" + agent.getNom() + "] ajouté avec sa boîte aux lettres");
+        return true;
+    }
+
+    /**
+     * Supprime un agent; il revient à l'exécution directe.
+     * Le détachement est le dernier message de sa boîte: les messages déjà reçus sont traités
+     * avant, et l'appel ne rend la main qu'une fois la boîte vidée (un seul écrivain à la fois).
+     * @param nom le nom de l'agent à supprimer
+     * @return l'agent supprimé, ou Optional.empty() si non trouvé
+     */
+    public Optional<Agent> supprimerAgent(String nom) {
+        Agent removed = agents.remove(nom);
+        if (removed == null) {
+            return Optional.empty();
+        }
+        CompletableFuture<Void> detache = new CompletableFuture<>();
+        removed.executer(() -> {
+            removed.setExecuteur(null);
+            detache.complete(null);
+        });
+        detache.join();
+        System.out.println("🗑️  Agent [" + nom + "] supprimé du conteneur");
+        return Optional.of(removed);
+    }
+
+    public Optional<Agent> rechercherAgent(String nom) {
+        return Optional.ofNullable(agents.get(nom));
+    }
+
+    public boolean contientAgent(String nom) {
+        return agents.containsKey(nom);
+    }
+
+    /**
+     * Retourne tous les agents (vue faiblement cohérente).
+     * @return collection de tous les agents
+     */
+    public Collection<Agent> getTousLesAgents() {
+        return agents.values();
+    }
+
+    public int getNombreAgents() {
+        return agents.size();
+    }
+
+    // ==================== MESSAGES ====================
+
+    /**
+     * Exécute une opération sur un agent, comme un message de sa boîte aux lettres.
+     * @param nom le nom de l'agent
+     * @param operation l'opération à exécuter
+     * @return le résultat de l'opération
+     * @throws IllegalArgumentException si l'agent n'existe pas
+     */
+    public <T> CompletableFuture<T> executerSur(String nom, Function<Agent, T> operation) {
+        Agent agent = agents.get(nom);
+        if (agent == null) {
+            throw new IllegalArgumentException("Agent [" + nom + "] non trouvé dans le conteneur");
+        }
+        CompletableFuture<T> resultat = new CompletableFuture<>();
+        agent.executer(() -> {
+            try {
+                resultat.complete(operation.apply(agent));
+            } catch (RuntimeException e) {
+                resultat.completeExceptionally(e);
+            }
+        });
+        return resultat;
+    }
+
+    /**
+     * Envoie une transaction à un agent.
+     * @param nom le nom de l'agent
+     * @param transaction la transaction à ajouter
+     * @return complété une fois la transaction enregistrée et les notifications émises
+     */
+    public CompletableFuture<Void> ajouterTransaction(String nom, Transaction transaction) {
+        return executerSur(nom, agent -> {
+            agent.ajouterTransaction(transaction);
+            return null;
+        });
+    }
+
+    /**
+     * Demande à un agent de supprimer une transaction, sans bloquer l'appelant.
+     * @param nom le nom de l'agent
+     * @param transactionId l'ID de la transaction
+     * @return true si la transaction a été supprimée
+     */
+    public CompletableFuture<Boolean> supprimerTransaction(String nom, String transactionId) {
+        return executerSur(nom, agent -> agent.supprimerTransaction(transactionId));
+    }
+
+    /**
+     * Attend que tous les messages, y compris les notifications en cascade, aient été traités.
+     * @param delai le délai maximal d'attente
+     * @return true si le conteneur est inactif
+     */
+    public boolean attendreInactivite(Duration delai) {
+        long limite = System.nanoTime() + delai.toNanos();
+        while (messagesEnCours.get() > 0) {
+            if (System.nanoTime() - limite >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(100_000);
+        }
+        return true;
+    }
+
+    public long getMessagesEnAttente() {
+        return messagesEnCours.get();
+    }
+
+    public long getMessagesTraites() {
+        return messagesTraites.sum();
+    }
+
+    /**
+     * Détache les agents et arrête le pool interne après traitement des messages en attente.
+     */
+    @Override
+    public void close() {
+        attendreInactivite(Duration.ofSeconds(5));
+        agents.values().forEach(agent -> agent.setExecuteur(null));
+        if (poolInterne) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MailboxAgentContainer{agents=" + agents.size() + ", enAttente=" + messagesEnCours.get() + "}";
+    }
+
+    // ==================== BUILDER ====================
+
+    /**
+     * Builder du conteneur à boîtes aux lettres.
+     */
+    public static class MailboxAgentContainerBuilder {
+        private ExecutorService pool;
+        private int parallelisme = Runtime.getRuntime().availableProcessors();
+        private int debit = 64;
+
+        /**
+         * Pool externe (non arrêté par le conteneur). Par défaut, un ForkJoinPool FIFO dédié.
+         */
+        public MailboxAgentContainerBuilder pool(ExecutorService pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        public MailboxAgentContainerBuilder parallelisme(int parallelisme) {
+            this.parallelisme = parallelisme;
+            return this;
+        }
+
+        /**
+         * Nombre maximal de messages traités par une boîte avant de rendre la main.
+         */
+        public MailboxAgentContainerBuilder debit(int debit) {
+            this.debit = debit;
+            return this;
+        }
+
+        /**
+         * Construit le conteneur.
+         * @return le conteneur à boîtes aux lettres
+         * @throws IllegalStateException si la configuration est invalide
+         */
+        public MailboxAgentContainer build() {
+            if (parallelisme <= 0 || debit <= 0) {
+                throw new IllegalStateException("Le parallélisme et le débit doivent être positifs");
+            }
+            return new MailboxAgentContainer(this);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.Passivation;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.persistence.AgentStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Passivation des agents inactifs d'un conteneur vers un {@link AgentStore}.
+ *
+ * Le balayage (périodique dans un thread dédié, ou à la demande) trie les agents actifs par
+ * dernier accès: les agents inactifs puis, tant que les limites sont dépassées, les moins
+ * récemment accédés sont passivés. La passivation est exécutée par l'exécuteur propriétaire
+ * de l'agent; la réactivation est faite par l'agent lui-même au premier accès.
+ */
+final class Passivateur implements Closeable {
+
+    /** Estimation de la mémoire d'une transaction résidente (objet, date, identifiant). */
+    static final int OCTETS_PAR_TRANSACTION = 160;
+    /** Estimation de la mémoire fixe d'un agent (listes, stratégie par défaut, écouteurs). */
+    static final int OCTETS_PAR_AGENT = 512;
+    /** Taille minimale des enregistrements morts avant compactage. */
+    private static final long SEUIL_COMPACTAGE = 1 << 20;
+
+    private final PassivationPolicy politique;
+    private final Supplier<Collection<Agent>> agents;
+    private final AgentStore stockage;
+    private final ScheduledExecutorService planificateur;
+
+    private final LongAdder passivations = new LongAdder();
+    private final LongAdder activations = new LongAdder();
+    private final LongAdder accesEnMemoire = new LongAdder();
+    private final LongAdder nanosActivation = new LongAdder();
+    private final AtomicLong nanosActivationMax = new AtomicLong();
+
+    private final Passivation source = new Passivation() {
+        @Override
+        public List<Transaction> recharger(Agent agent) {
+            long debut = System.nanoTime();
+            try {
+                List<Transaction> transactions = stockage.lire(agent.getNom());
+                stockage.supprimer(agent.getNom());
+                return transactions;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Réactivation de l'agent [" + agent.getNom() + "] impossible", e);
+            } finally {
+                long duree = System.nanoTime() - debut;
+                activations.increment();
+                nanosActivation.add(duree);
+                nanosActivationMax.accumulateAndGet(duree, Math::max);
+            }
+        }
+
+        @Override
+        public List<Transaction> lire(Agent agent) {
+            try {
+                return stockage.lire(agent.getNom());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Relecture de l'agent passivé [" + agent.getNom() + "] impossible", e);
+            }
+        }
+    };
+
+    Passivateur(PassivationPolicy politique, Supplier<Collection<Agent>> agents) throws IOException {
+        this.politique = politique;
+        this.agents = agents;
+        this.stockage = new AgentStore(politique.getFichier());
+        if (politique.getPeriode() == null) {
+            this.planificateur = null;
+        } else {
+            this.planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "passivation-agents");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long periode = politique.getPeriode().toMillis();
+            planificateur.scheduleWithFixedDelay(this::balayerSansErreur, periode, periode, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // ==================== PASSIVATION ====================
+
+    /**
+     * Passive les agents inactifs puis les moins récemment accédés jusqu'au respect des limites.
+     * @return le nombre d'agents soumis à la passivation
+     */
+    synchronized int balayer() {
+        long maintenant = System.nanoTime();
+        long inactiviteMax = politique.getInactiviteMax().toNanos();
+        List<Agent> actifs = new ArrayList<>();
+        long memoire = 0;
+        for (Agent agent : agents.get()) {
+            if (!agent.estPassive()) {
+                actifs.add(agent);
+                memoire += estimer(agent);
+            }
+        }
+        actifs.sort(Comparator.comparingLong(Agent::getDernierAcces));
+
+        int restants = actifs.size();
+        int soumis = 0;
+        for (Agent agent : actifs) {
+            boolean inactif = maintenant - agent.getDernierAcces() > inactiviteMax;
+            boolean depassement = restants > politique.getAgentsActifsMax() || memoire > politique.getMemoireMax();
+            if (!inactif && !depassement) {
+                break;
+            }
+            memoire -= estimer(agent);
+            restants--;
+            soumis++;
+            agent.executer(() -> passiver(agent));
+        }
+        compacterSiNecessaire();
+        return soumis;
+    }
+
+    private void balayerSansErreur() {
+        try {
+            balayer();
+        } catch (RuntimeException e) {
+            System.err.println("⚠️  Échec du balayage de passivation: " + e.getMessage());
+        }
+    }
+
+    private void passiver(Agent agent) {
+        boolean passive = agent.passiver(transactions -> {
+            try {
+                stockage.ecrire(agent.getNom(), transactions);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Passivation de l'agent [" + agent.getNom() + "] impossible", e);
+            }
+            return source;
+        });
+        if (passive) {
+            passivations.increment();
+        }
+    }
+
+    private void compacterSiNecessaire() {
+        long morts = stockage.getOctetsMorts();
+        if (morts > SEUIL_COMPACTAGE && morts * 2 > stockage.getTailleOctets()) {
+            try {
+                stockage.compacter();
+            } catch (IOException e) {
+                System.err.println("⚠️  Échec du compactage de passivation: " + e.getMessage());
+            }
+        }
+    }
+
+    private static long estimer(Agent agent) {
+        return OCTETS_PAR_AGENT + (long) OCTETS_PAR_TRANSACTION * agent.getNombreTransactionsResidentes();
+    }
+
+    // ==================== ACCÈS ====================
+
+    /**
+     * Accès par le registre: réactive l'agent si nécessaire et compte l'accès.
+     */
+    void acces(Agent agent) {
+        if (!agent.activer()) {
+            accesEnMemoire.increment();
+        }
+    }
+
+    /**
+     * Réactive tous les agents passivés (désactivation de la passivation, vidage du conteneur).
+     */
+    void activerTous() {
+        agents.get().forEach(Agent::activer);
+    }
+
+    AgentContainer.StatistiquesPassivation getStatistiques() {
+        int actifs = 0;
+        int passives = 0;
+        long memoire = 0;
+        for (Agent agent : agents.get()) {
+            if (agent.estPassive()) {
+                passives++;
+            } else {
+                actifs++;
+                memoire += estimer(agent);
+            }
+        }
+        long nombreActivations = activations.sum();
+        long enMemoire = accesEnMemoire.sum();
+        return new AgentContainer.StatistiquesPassivation(actifs, passives, passivations.sum(), nombreActivations,
+                nombreActivations == 0 ? 0 : nanosActivation.sum() / nombreActivations / 1000,
+                nanosActivationMax.get() / 1000,
+                enMemoire + nombreActivations == 0 ? 1.0 : (double) enMemoire / (enMemoire + nombreActivations),
+                memoire, stockage.getTailleOctets());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (planificateur != null) {
+            planificateur.shutdownNow();
+        }
+        synchronized (this) {
+            activerTous();
+            stockage.close();
+        }
+    }
+}
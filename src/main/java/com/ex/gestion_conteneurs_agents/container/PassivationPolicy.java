@@ -0,0 +1,112 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Politique de passivation des agents inactifs (voir {@link AgentContainer#activerPassivation}).
+ *
+ * Un agent est passivé lorsqu'il n'a pas été accédé depuis {@code inactiviteMax}, ou, tant que
+ * les limites d'agents actifs ou de mémoire estimée sont dépassées, par ordre d'accès le plus
+ * ancien (LRU).
+ *
+ * Design Pattern utilisé: BUILDER
+ */
+@Getter
+public class PassivationPolicy {
+
+    private final Path fichier;
+    private final Duration inactiviteMax;
+    private final int agentsActifsMax;
+    private final long memoireMax;
+    private final Duration periode;
+
+    private PassivationPolicy(PassivationPolicyBuilder builder) {
+        this.fichier = builder.fichier;
+        this.inactiviteMax = builder.inactiviteMax;
+        this.agentsActifsMax = builder.agentsActifsMax;
+        this.memoireMax = builder.memoireMax;
+        this.periode = builder.periode;
+    }
+
+    /**
+     * Méthode statique pour obtenir une instance du Builder.
+     * @return une nouvelle instance de PassivationPolicyBuilder
+     */
+    public static PassivationPolicyBuilder builder() {
+        return new PassivationPolicyBuilder();
+    }
+
+    // ==================== BUILDER ====================
+
+    /**
+     * Builder de la politique de passivation.
+     */
+    public static class PassivationPolicyBuilder {
+        private Path fichier;
+        private Duration inactiviteMax = Duration.ofMinutes(30);
+        private int agentsActifsMax = Integer.MAX_VALUE;
+        private long memoireMax = Long.MAX_VALUE;
+        private Duration periode;
+
+        /**
+         * Fichier de stockage des agents passivés (vidé à l'activation).
+         */
+        public PassivationPolicyBuilder fichier(Path fichier) {
+            this.fichier = fichier;
+            return this;
+        }
+
+        /**
+         * Durée sans accès au-delà de laquelle un agent est passivé.
+         */
+        public PassivationPolicyBuilder inactiviteMax(Duration inactiviteMax) {
+            this.inactiviteMax = inactiviteMax;
+            return this;
+        }
+
+        /**
+         * Nombre maximal d'agents gardés en mémoire.
+         */
+        public PassivationPolicyBuilder agentsActifsMax(int agentsActifsMax) {
+            this.agentsActifsMax = agentsActifsMax;
+            return this;
+        }
+
+        /**
+         * Mémoire maximale estimée des agents actifs, en octets.
+         */
+        public PassivationPolicyBuilder memoireMax(long memoireMax) {
+            this.memoireMax = memoireMax;
+            return this;
+        }
+
+        /**
+         * Période du balayage automatique (par défaut aucun: balayage à la demande).
+         */
+        public PassivationPolicyBuilder periode(Duration periode) {
+            this.periode = periode;
+            return this;
+        }
+
+        /**
+         * Construit la politique.
+         * @return la politique de passivation
+         * @throws IllegalStateException si la configuration est invalide
+         */
+        public PassivationPolicy build() {
+            if (fichier == null) {
+                throw new IllegalStateException("Le fichier de stockage est obligatoire");
+            }
+            if (inactiviteMax == null || inactiviteMax.isNegative() || agentsActifsMax < 0 || memoireMax < 0) {
+                throw new IllegalStateException("Les limites de passivation doivent être positives");
+            }
+            if (periode != null && (periode.isZero() || periode.isNegative())) {
+                throw new IllegalStateException("La période de balayage doit être positive");
+            }
+            return new PassivationPolicy(this);
+        }
+    }
+}
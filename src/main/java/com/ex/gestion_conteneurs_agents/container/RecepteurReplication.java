@@ -0,0 +1,222 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.persistence.WriteAheadLog;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Réception du journal d'une source et application continue à un conteneur en lecture seule.
+ *
+ * Le thread de réception est le seul autorisé à muter le conteneur et ses agents. Il se
+ * reconnecte automatiquement (attente exponentielle) en reprenant au dernier LSN appliqué.
+ * La fraîcheur est l'horodatage du dernier battement reçu alors que tous les enregistrements
+ * annoncés étaient appliqués: les lectures sont refusées lorsque son âge dépasse le retard maximal,
+ * ainsi que pendant la restauration d'un instantané.
+ *
+ * @see EmetteurReplication pour le protocole
+ */
+final class RecepteurReplication implements Closeable {
+
+    private static final long ATTENTE_MIN_MILLIS = 50;
+    private static final long ATTENTE_MAX_MILLIS = 2000;
+
+    private final AgentContainer conteneur;
+    private final Path socket;
+    private final long retardMaxMillis;
+    private final Function<String, NotificationStrategy> fabrique;
+    private final Thread thread;
+    private Rejeu rejeu;
+    private volatile SocketChannel canal;
+    private volatile boolean ferme;
+    private volatile boolean connecte;
+    private volatile long lsnApplique;
+    private volatile long lsnSource;
+    private volatile long fraicheur;
+    private volatile long mutationsAppliquees;
+    private volatile long instantanesRecus;
+
+    RecepteurReplication(AgentContainer conteneur, Path socket, Duration retardMax,
+                         Function<String, NotificationStrategy> fabrique) {
+        if (retardMax == null || retardMax.isNegative()) {
+            throw new IllegalArgumentException("Le retard maximal doit être positif");
+        }
+        this.conteneur = conteneur;
+        this.socket = socket;
+        this.retardMaxMillis = retardMax.toMillis();
+        this.fabrique = fabrique;
+        this.rejeu = new Rejeu(conteneur, fabrique);
+        this.thread = new Thread(this::suivre, "replication-replique");
+        thread.setDaemon(true);
+    }
+
+    Thread getThread() {
+        return thread;
+    }
+
+    void demarrer() {
+        thread.start();
+    }
+
+    private void suivre() {
+        long attente = ATTENTE_MIN_MILLIS;
+        while (!ferme) {
+            try (SocketChannel connexion = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+                canal = connexion;
+                DataOutputStream sortie = new DataOutputStream(Channels.newOutputStream(connexion));
+                sortie.writeInt(EmetteurReplication.MAGIC);
+                sortie.writeShort(EmetteurReplication.VERSION);
+                sortie.writeLong(lsnApplique);
+                sortie.flush();
+                connecte = true;
+                attente = ATTENTE_MIN_MILLIS;
+                DataInputStream entree = new DataInputStream(
+                        new BufferedInputStream(Channels.newInputStream(connexion), 64 * 1024));
+                while (!ferme) {
+                    recevoir(entree);
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!ferme) {
+                    System.out.println("🔌 Réplication interrompue (" + e.getMessage() + "), nouvelle tentative");
+                }
+            } finally {
+                connecte = false;
+                canal = null;
+            }
+            if (!ferme) {
+                try {
+                    Thread.sleep(attente);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                attente = Math.min(attente * 2, ATTENTE_MAX_MILLIS);
+            }
+        }
+    }
+
+    private void recevoir(DataInputStream entree) throws IOException {
+        byte genre = entree.readByte();
+        if (genre == EmetteurReplication.ENREGISTREMENTS) {
+            byte[] lot = new byte[entree.readInt()];
+            entree.readFully(lot);
+            WriteAheadLog.parcourirLot(ByteBuffer.wrap(lot), this::appliquer);
+        } else if (genre == EmetteurReplication.BATTEMENT) {
+            long lsn = entree.readLong();
+            long horodatage = entree.readLong();
+            lsnSource = lsn;
+            if (lsnApplique >= lsn) {
+                fraicheur = horodatage;
+            }
+        } else if (genre == EmetteurReplication.INSTANTANE) {
+            recevoirInstantane(entree, entree.readLong());
+        } else {
+            throw new IOException("Message de réplication inconnu: " + genre);
+        }
+    }
+
+    private void appliquer(ByteBuffer enregistrement) throws IOException {
+        long lsn = WriteAheadLog.lsn(enregistrement);
+        if (lsn <= lsnApplique) {
+            return;
+        }
+        if (lsn != lsnApplique + 1) {
+            throw new IOException("Lacune dans le flux de réplication (LSN " + lsn + " après " + lsnApplique + ")");
+        }
+        rejeu.appliquer(lsn, WriteAheadLog.decoder(enregistrement).mutation());
+        lsnApplique = lsn;
+        mutationsAppliquees++;
+    }
+
+    private void recevoirInstantane(DataInputStream entree, long taille) throws IOException {
+        Path fichier = Files.createTempFile(socket.toAbsolutePath().getParent(), "replique", ".snap");
+        try {
+            try (OutputStream sortie = Files.newOutputStream(fichier)) {
+                byte[] tampon = new byte[64 * 1024];
+                long reste = taille;
+                while (reste > 0) {
+                    int lus = entree.read(tampon, 0, (int) Math.min(tampon.length, reste));
+                    if (lus < 0) {
+                        throw new EOFException("Instantané de réplication tronqué");
+                    }
+                    sortie.write(tampon, 0, lus);
+                    reste -= lus;
+                }
+            }
+            // Lectures refusées jusqu'au prochain battement: le conteneur est vide puis partiel
+            fraicheur = 0;
+            conteneur.vider();
+            lsnApplique = conteneur.restaurerSnapshot(fichier, fabrique).lsn();
+            rejeu = new Rejeu(conteneur, fabrique);
+            instantanesRecus++;
+        } finally {
+            Files.deleteIfExists(fichier);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException si la réplique est plus en retard que le maximum autorisé
+     */
+    void verifierFraicheur() {
+        long retard = getRetardMillis();
+        if (retard > retardMaxMillis) {
+            throw new IllegalStateException("Réplique en retard de " + (fraicheur == 0 ? "∞" : retard + " ms")
+                    + " (maximum " + retardMaxMillis + " ms)");
+        }
+    }
+
+    long getRetardMillis() {
+        return fraicheur == 0 ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - fraicheur);
+    }
+
+    boolean estConnecte() {
+        return connecte;
+    }
+
+    long getLsnApplique() {
+        return lsnApplique;
+    }
+
+    long getLsnSource() {
+        return lsnSource;
+    }
+
+    long getMutationsAppliquees() {
+        return mutationsAppliquees;
+    }
+
+    long getInstantanesRecus() {
+        return instantanesRecus;
+    }
+
+    /**
+     * Arrête la réception (la mutation en cours d'application est terminée).
+     */
+    @Override
+    public void close() throws IOException {
+        ferme = true;
+        SocketChannel actif = canal;
+        if (actif != null) {
+            actif.close();
+        }
+        thread.interrupt();
+        try {
+            thread.join(ATTENTE_MAX_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.persistence.Mutation;
+import com.ex.gestion_conteneurs_agents.strategy.DefaultStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.StrategyRegistry;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Application de mutations journalisées à un conteneur (récupération, réplication).
+ *
+ * Un instantané pris à chaud (écrit sans l'état des stratégies, reconstruit depuis ses seules
+ * transactions) capture chaque agent à un instant différent: son état peut déjà contenir des
+ * mutations postérieures au LSN de l'instantané. Chaque agent porte le LSN de sa dernière
+ * mutation ({@link Agent#getLsn()}): une mutation de LSN inférieur ou égal est ignorée, les autres
+ * sont appliquées puis marquées. Les abonnements sont rapportés au sujet, et restent sans effet
+ * s'ils sont déjà présents ou absents. Un ajout d'agent plus récent que l'agent présent le
+ * remplace (capture antérieure à la journalisation de l'ajout); un vidage ne retire que les
+ * agents qui le précèdent. Les abonnements vers un agent pas encore ajouté sont mis en attente
+ * jusqu'à son ajout.
+ */
+final class Rejeu {
+
+    private final AgentContainer conteneur;
+    private final Function<String, NotificationStrategy> fabrique;
+    private final Map<String, List<String>> enAttente = new HashMap<>();
+    private long appliquees;
+    private long ignorees;
+
+    Rejeu(AgentContainer conteneur, Function<String, NotificationStrategy> fabrique) {
+        this.conteneur = conteneur;
+        this.fabrique = fabrique;
+    }
+
+    /**
+     * Applique une mutation.
+     * @param lsn le LSN de la mutation
+     * @param mutation la mutation
+     * @return true si la mutation a modifié le conteneur
+     */
+    boolean appliquer(long lsn, Mutation mutation) {
+        boolean appliquee = executer(lsn, mutation);
+        if (appliquee) {
+            appliquees++;
+        } else {
+            ignorees++;
+        }
+        return appliquee;
+    }
+
+    private boolean executer(long lsn, Mutation mutation) {
+        if (mutation instanceof Mutation.AgentAjoute m) {
+            return ajouter(lsn, m);
+        }
+        if (mutation instanceof Mutation.Vidage) {
+            return vider(lsn);
+        }
+        if (mutation instanceof Mutation.AbonnementAjoute m) {
+            Optional<Agent> sujet = aAppliquer(m.sujet(), lsn);
+            return sujet.isPresent() && abonner(m.sujet(), m.observateur());
+        }
+        if (mutation instanceof Mutation.AbonnementRetire m) {
+            Optional<Agent> sujet = aAppliquer(m.sujet(), lsn);
+            Optional<Agent> observateur = agent(m.observateur());
+            if (sujet.isEmpty() || observateur.isEmpty() || !sujet.get().getObservers().contains(observateur.get())) {
+                return false;
+            }
+            sujet.get().unsubscribe(observateur.get());
+            return true;
+        }
+        if (mutation instanceof Mutation.AgentRetire m) {
+            return aAppliquer(m.nom(), lsn).isPresent() && conteneur.supprimerAgent(m.nom()).isPresent();
+        }
+        if (mutation instanceof Mutation.TransactionAjoutee m) {
+            Optional<Agent> agent = aAppliquer(m.agent(), lsn);
+            agent.ifPresent(a -> a.ajouterTransaction(m.transaction()));
+            return agent.isPresent();
+        }
+        if (mutation instanceof Mutation.TransactionSupprimee m) {
+            return aAppliquer(m.agent(), lsn).map(a -> a.supprimerTransaction(m.transactionId())).orElse(false);
+        }
+        Mutation.StrategieChangee m = (Mutation.StrategieChangee) mutation;
+        Optional<Agent> agent = aAppliquer(m.agent(), lsn);
+        agent.ifPresent(a -> a.setStrategy(strategie(m.strategie())));
+        return agent.isPresent();
+    }
+
+    /**
+     * Agent concerné par une mutation qu'il ne contient pas encore, marquée comme appliquée.
+     * @return l'agent, ou Optional.empty() s'il est absent ou si son état contient déjà la mutation
+     */
+    private Optional<Agent> aAppliquer(String nom, long lsn) {
+        Optional<Agent> agent = agent(nom).filter(a -> a.getLsn() < lsn);
+        agent.ifPresent(a -> a.marquerLsn(lsn));
+        return agent;
+    }
+
+    private boolean vider(long lsn) {
+        enAttente.clear();
+        if (conteneur.getAgentsInternes().stream().noneMatch(a -> a.getLsn() > lsn)) {
+            conteneur.vider();
+            return true;
+        }
+        // Agents ajoutés après le vidage et capturés par l'instantané: seuls les autres sont retirés
+        for (Agent agent : List.copyOf(conteneur.getAgentsInternes())) {
+            if (agent.getLsn() < lsn) {
+                conteneur.supprimerAgent(agent.getNom());
+            }
+        }
+        return true;
+    }
+
+    private boolean ajouter(long lsn, Mutation.AgentAjoute m) {
+        Agent present = conteneur.getAgentInterne(m.nom());
+        if (present != null) {
+            if (present.getLsn() >= lsn) {
+                return false;
+            }
+            // Capturé avant la journalisation de son ajout: l'état journalisé fait foi
+            for (Agent sujet : present.getAbonnements()) {
+                sujet.unsubscribe(present);
+                enAttente.computeIfAbsent(m.nom(), n -> new ArrayList<>()).add(sujet.getNom());
+            }
+            present.getObservers().forEach(present::unsubscribe);
+            conteneur.supprimerAgent(m.nom());
+        }
+        Agent agent = new Agent(m.nom());
+        agent.setStrategy(strategie(m.strategie()));
+        agent.restaurerTransactions(m.transactions(), Instant.ofEpochMilli(m.derniereActivite()));
+        agent.marquerLsn(lsn);
+        conteneur.ajouterAgent(agent);
+        for (String observateur : m.observateurs()) {
+            abonner(m.nom(), observateur);
+        }
+        for (String sujet : enAttente.getOrDefault(m.nom(), List.of())) {
+            agent(sujet).ifPresent(s -> s.subscribe(agent));
+        }
+        enAttente.remove(m.nom());
+        return true;
+    }
+
+    private boolean abonner(String nomSujet, String nomObservateur) {
+        Optional<Agent> sujet = agent(nomSujet);
+        if (sujet.isEmpty()) {
+            return false;
+        }
+        Optional<Agent> observateur = agent(nomObservateur);
+        if (observateur.isEmpty()) {
+            enAttente.computeIfAbsent(nomObservateur, n -> new ArrayList<>()).add(nomSujet);
+            return false;
+        }
+        if (sujet.get().getObservers().contains(observateur.get())) {
+            return false;
+        }
+        sujet.get().subscribe(observateur.get());
+        return true;
+    }
+
+    private Optional<Agent> agent(String nom) {
+        return Optional.ofNullable(conteneur.getAgentInterne(nom));
+    }
+
+    private NotificationStrategy strategie(String nom) {
+        NotificationStrategy strategy = fabrique.apply(nom);
+        return strategy != null ? strategy : StrategyRegistry.creer(nom).orElseGet(DefaultStrategy::new);
+    }
+
+    long getAppliquees() {
+        return appliquees;
+    }
+
+    long getIgnorees() {
+        return ignorees;
+    }
+}
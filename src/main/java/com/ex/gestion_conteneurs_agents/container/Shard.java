@@ -0,0 +1,219 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.model.ThreadProprietaire;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Partition d'un {@link ShardedAgentContainer}: une boucle d'événements mono-thread.
+ *
+ * - Depuis son propre thread, une tâche est exécutée immédiatement (appel direct)
+ * - Depuis une autre partition, elle est mise en attente et envoyée en lot à la fin
+ *   du lot en cours de la partition émettrice (une seule insertion par destination)
+ * - Depuis un thread extérieur, elle est déposée dans la boîte de réception
+ *
+ * Une fois la boucle terminée, toute tâche encore déposée est rejetée (et décomptée des
+ * tâches en cours) au lieu d'être perdue dans la boîte de réception.
+ */
+final class Shard implements Executor {
+
+    private final int index;
+    private final int tailleLot;
+    private final AtomicLong tachesEnCours;
+    private final LinkedBlockingQueue<Message> boiteReception = new LinkedBlockingQueue<>();
+    private final Map<Shard, List<Runnable>> sortants = new HashMap<>();
+    private final Thread thread;
+    private volatile boolean active = true;
+    private volatile boolean terminee;
+
+    private final LongAdder tachesExecutees = new LongAdder();
+    private final LongAdder lotsRecus = new LongAdder();
+    private final LongAdder tachesRecuesEnLot = new LongAdder();
+    private final LongAdder erreurs = new LongAdder();
+
+    /**
+     * Message de la boîte de réception: une tâche isolée ou un lot envoyé par une autre partition.
+     */
+    private sealed interface Message permits Tache, Lot {
+        int taille();
+    }
+
+    private record Tache(Runnable tache) implements Message {
+        @Override
+        public int taille() {
+            return 1;
+        }
+    }
+
+    private record Lot(List<Runnable> taches) implements Message {
+        @Override
+        public int taille() {
+            return taches.size();
+        }
+    }
+
+    /**
+     * Crée et démarre la partition.
+     * @param index l'index de la partition
+     * @param tailleLot le nombre maximal de tâches traitées par lot
+     * @param tachesEnCours compteur partagé des tâches soumises et non terminées
+     */
+    Shard(int index, int tailleLot, AtomicLong tachesEnCours) {
+        this.index = index;
+        this.tailleLot = tailleLot;
+        this.tachesEnCours = tachesEnCours;
+        this.thread = new Thread(this::boucle, "shard-" + index);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void execute(Runnable tache) {
+        Shard emettrice = ThreadProprietaire.courant() instanceof Shard shard ? shard : null;
+        if (emettrice == this) {
+            tache.run();
+            return;
+        }
+        if (!active) {
+            throw new IllegalStateException("La partition " + index + " est arrêtée");
+        }
+        tachesEnCours.incrementAndGet();
+        if (emettrice != null) {
+            emettrice.sortants.computeIfAbsent(this, s -> new ArrayList<>()).add(tache);
+        } else if (!deposer(new Tache(tache))) {
+            throw new IllegalStateException("La partition " + index + " est arrêtée");
+        }
+    }
+
+    /**
+     * Dépose un message dans la boîte de réception.
+     * Si la boucle s'est terminée entre-temps, le message est retiré et rejeté: soit il est
+     * retiré ici, soit il l'a été par le drainage final de la boucle, jamais les deux.
+     * @return false si le message a été rejeté
+     */
+    private boolean deposer(Message message) {
+        boiteReception.add(message);
+        if (terminee && boiteReception.remove(message)) {
+            rejeter(message);
+            return false;
+        }
+        return true;
+    }
+
+    private void rejeter(Message message) {
+        erreurs.add(message.taille());
+        tachesEnCours.addAndGet(-message.taille());
+    }
+
+    /**
+     * Indique si le thread courant est celui de cette partition.
+     * @return true depuis la boucle de la partition
+     */
+    boolean estThreadCourant() {
+        return ThreadProprietaire.courant() == this;
+    }
+
+    private void boucle() {
+        ThreadProprietaire.entrer(this);
+        List<Message> lot = new ArrayList<>(tailleLot);
+        while (active || !boiteReception.isEmpty()) {
+            try {
+                Message premiere = boiteReception.poll(50, TimeUnit.MILLISECONDS);
+                if (premiere == null) {
+                    continue;
+                }
+                lot.add(premiere);
+            } catch (InterruptedException e) {
+                continue; // Arrêt demandé: la condition de boucle draine la boîte restante
+            }
+            boiteReception.drainTo(lot, tailleLot - 1);
+            for (Message message : lot) {
+                if (message instanceof Lot recu) {
+                    lotsRecus.increment();
+                    tachesRecuesEnLot.add(recu.taches().size());
+                    recu.taches().forEach(this::executerTache);
+                } else if (message instanceof Tache isolee) {
+                    executerTache(isolee.tache());
+                }
+            }
+            lot.clear();
+            envoyerSortants();
+        }
+        terminee = true;
+        boiteReception.drainTo(lot);
+        if (!lot.isEmpty()) {
+            lot.forEach(this::rejeter);
+            System.err.println("❌ [shard-" + index + "] " + lot.size() + " message(s) reçu(s) après l'arrêt rejeté(s)");
+        }
+    }
+
+    private void executerTache(Runnable tache) {
+        try {
+            tache.run();
+        } catch (RuntimeException e) {
+            erreurs.increment();
+            System.err.println("❌ [shard-" + index + "] Erreur lors d'une tâche: " + e.getMessage());
+        } finally {
+            tachesExecutees.increment();
+            tachesEnCours.decrementAndGet();
+        }
+    }
+
+    /**
+     * Envoie les tâches destinées aux autres partitions: un lot par destination.
+     * Un lot destiné à une partition arrêtée est rejeté.
+     */
+    private void envoyerSortants() {
+        if (sortants.isEmpty()) {
+            return;
+        }
+        sortants.forEach((destination, taches) -> {
+            if (!destination.deposer(new Lot(taches))) {
+                System.err.println("❌ [shard-" + index + "] " + taches.size()
+                        + " tâche(s) rejetée(s): la partition " + destination.index + " est arrêtée");
+            }
+        });
+        sortants.clear();
+    }
+
+    /**
+     * Arrête la boucle après traitement des tâches déjà reçues.
+     */
+    void arreter() {
+        active = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    long getTachesExecutees() {
+        return tachesExecutees.sum();
+    }
+
+    long getLotsRecus() {
+        return lotsRecus.sum();
+    }
+
+    long getTachesRecuesEnLot() {
+        return tachesRecuesEnLot.sum();
+    }
+
+    long getErreurs() {
+        return erreurs.sum();
+    }
+}
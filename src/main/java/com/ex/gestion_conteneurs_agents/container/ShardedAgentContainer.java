@@ -0,0 +1,650 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.AgentListener;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.observer.Observer;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Conteneur d'agents partitionné: les agents sont répartis sur N partitions par hachage
+ * cohérent de leur nom, chaque partition exécutant les mutations et notifications de ses
+ * agents sur une boucle d'événements dédiée.
+ *
+ * - Un seul écrivain par agent: aucun verrou sur l'état des agents
+ * - Les notifications vers une autre partition transitent par des files en lots
+ * - Le débit de {@code ajouterTransaction} croît avec le nombre de cœurs
+ *
+ * Les stratégies partagées par des agents de partitions différentes doivent être
+ * thread-safe. Les lectures cohérentes de l'état d'un agent passent par
+ * {@link #executerSur(String, Function)}.
+ *
+ * Placement {@link Placement#ABONNEMENTS}: le graphe des abonnements est analysé pour
+ * regrouper les agents fortement connectés sur une même partition (dans la limite d'un
+ * déséquilibre de charge configurable, par déplacements ou échanges d'agents). Chaque abonnement
+ * ou désabonnement planifie la réévaluation des deux agents concernés sur un thread dédié, hors
+ * du chemin de l'abonnement; {@link #reequilibrer()} effectue un passage complet. Un échange
+ * n'envisage que les voisins de l'agent et un échantillon borné de la partition visée: une
+ * réévaluation coûte O(degré²), indépendamment du nombre d'agents. Les agents sont déplacés
+ * à chaud: les actions déjà soumises sont transmises au nouveau propriétaire.
+ *
+ * Design Pattern: BUILDER (configuration)
+ */
+public class ShardedAgentContainer implements Closeable {
+
+    /**
+     * Mode de placement des agents sur les partitions.
+     */
+    public enum Placement {
+        /** Hachage cohérent du nom uniquement. */
+        HACHAGE,
+        /** Regroupement des agents connectés par des abonnements. */
+        ABONNEMENTS
+    }
+
+    private final ConsistentHashRing anneau;
+    private final Shard[] shards;
+    private final Map<String, Agent> agents = new ConcurrentHashMap<>();
+    private final AtomicLong tachesEnCours = new AtomicLong();
+
+    private final Placement placement;
+    private final double desequilibreMax;
+    /** Partitions différentes de celle du hachage cohérent. */
+    private final Map<String, Integer> placements = new ConcurrentHashMap<>();
+    /** Nombre d'agents par partition (protégé par verrouPlacement). */
+    private final int[] charges;
+    /** Agents de chaque partition, pour l'échantillonnage des échanges (protégé par verrouPlacement). */
+    private final MembresPartition[] membres;
+    /** Nombre d'agents tirés au hasard dans la partition visée pour un échange. */
+    private static final int ECHANTILLON_ECHANGE = 32;
+    /** Thread des réévaluations planifiées par les abonnements (null en placement par hachage). */
+    private final ExecutorService reevaluations;
+    private final Set<Agent> aReevaluer = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reevaluationPlanifiee = new AtomicBoolean();
+    private final Object verrouPlacement = new Object();
+    private final LongAdder deplacements = new LongAdder();
+    private final AgentListener ecouteurPlacement = new AgentListener() {
+        @Override
+        public void abonnementAjoute(Agent sujet, Observer observateur) {
+            reevaluer(sujet, observateur);
+        }
+
+        @Override
+        public void abonnementRetire(Agent sujet, Observer observateur) {
+            reevaluer(sujet, observateur);
+        }
+    };
+
+    private ShardedAgentContainer(ShardedAgentContainerBuilder builder) {
+        this.anneau = new ConsistentHashRing(builder.nombreShards, builder.noeudsVirtuels);
+        this.placement = builder.placement;
+        this.desequilibreMax = builder.desequilibreMax;
+        this.charges = new int[builder.nombreShards];
+        this.membres = new MembresPartition[builder.nombreShards];
+        for (int i = 0; i < membres.length; i++) {
+            membres[i] = new MembresPartition();
+        }
+        this.reevaluations = placement != Placement.ABONNEMENTS ? null : Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "placement-abonnements");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shards = new Shard[builder.nombreShards];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, builder.tailleLot, tachesEnCours);
+        }
+        System.out.println("🏗️  Conteneur partitionné initialisé (" + shards.length + " partition(s))");
+    }
+
+    /**
+     * Méthode statique pour obtenir une instance du Builder.
+     * @return une nouvelle instance de ShardedAgentContainerBuilder
+     */
+    public static ShardedAgentContainerBuilder builder() {
+        return new ShardedAgentContainerBuilder();
+    }
+
+    // ==================== GESTION DES AGENTS ====================
+
+    /**
+     * Ajoute un agent et l'associe à la boucle de sa partition.
+     * En placement par abonnements, la partition est celle de la majorité de ses voisins.
+     * @param agent l'agent à ajouter
+     * @return true si l'agent a été ajouté, false s'il existe déjà
+     */
+    public boolean ajouterAgent(Agent agent) {
+        if (agent == null) {
+            throw new IllegalArgumentException("L'agent ne peut pas être null");
+        }
+        if (agents.putIfAbsent(agent.getNom(), agent) != null) {
+            System.out.println("⚠️  Agent [" + agent.getNom() + "] existe déjà dans le conteneur");
+            return false;
+        }
+        int partition;
+        synchronized (verrouPlacement) {
+            partition = anneau.partitionDe(agent.getNom());
+            if (placement == Placement.ABONNEMENTS) {
+                partition = meilleurePartition(agent, partition);
+                if (partition != anneau.partitionDe(agent.getNom())) {
+                    placements.put(agent.getNom(), partition);
+                }
+            }
+            charges[partition]++;
+            membres[partition].ajouter(agent);
+            agent.setExecuteur(shards[partition]);
+        }
+        if (placement == Placement.ABONNEMENTS) {
+            agent.ajouterEcouteur(ecouteurPlacement);
+        }
+        System.out.println("✅ Agent [" + agent.getNom() + "] ajouté à la partition " + partition);
+        return true;
+    }
+
+    /**
+     * Supprime un agent; il revient à l'exécution directe.
+     * @param nom le nom de l'agent à supprimer
+     * @return l'agent supprimé, ou Optional.empty() si non trouvé
+     */
+    public Optional<Agent> supprimerAgent(String nom) {
+        Agent removed = agents.remove(nom);
+        if (removed == null) {
+            return Optional.empty();
+        }
+        synchronized (verrouPlacement) {
+            int partition = partitionDe(nom);
+            charges[partition]--;
+            membres[partition].retirer(removed);
+            placements.remove(nom);
+        }
+        removed.retirerEcouteur(ecouteurPlacement);
+        removed.setExecuteur(null);
+        System.out.println("🗑️  Agent [" + nom + "] supprimé du conteneur");
+        return Optional.of(removed);
+    }
+
+    public Optional<Agent> rechercherAgent(String nom) {
+        return Optional.ofNullable(agents.get(nom));
+    }
+
+    public boolean contientAgent(String nom) {
+        return agents.containsKey(nom);
+    }
+
+    /**
+     * Retourne tous les agents (vue faiblement cohérente).
+     * @return collection de tous les agents
+     */
+    public Collection<Agent> getTousLesAgents() {
+        return agents.values();
+    }
+
+    public int getNombreAgents() {
+        return agents.size();
+    }
+
+    // ==================== EXÉCUTION SUR LES PARTITIONS ====================
+
+    /**
+     * Exécute une opération sur un agent, dans la boucle de sa partition.
+     * @param nom le nom de l'agent
+     * @param operation l'opération à exécuter
+     * @return le résultat de l'opération
+     * @throws IllegalArgumentException si l'agent n'existe pas
+     */
+    public <T> CompletableFuture<T> executerSur(String nom, Function<Agent, T> operation) {
+        Agent agent = agents.get(nom);
+        if (agent == null) {
+            throw new IllegalArgumentException("Agent [" + nom + "] non trouvé dans le conteneur");
+        }
+        CompletableFuture<T> resultat = new CompletableFuture<>();
+        agent.executer(() -> {
+            try {
+                resultat.complete(operation.apply(agent));
+            } catch (RuntimeException e) {
+                resultat.completeExceptionally(e);
+            }
+        });
+        return resultat;
+    }
+
+    /**
+     * Ajoute une transaction à un agent dans la boucle de sa partition.
+     * @param nom le nom de l'agent
+     * @param transaction la transaction à ajouter
+     * @return complété une fois la transaction enregistrée et les notifications émises
+     */
+    public CompletableFuture<Void> ajouterTransaction(String nom, Transaction transaction) {
+        return executerSur(nom, agent -> {
+            agent.ajouterTransaction(transaction);
+            return null;
+        });
+    }
+
+    /**
+     * Attend que toutes les tâches soumises, y compris les notifications en cascade,
+     * aient été traitées.
+     * @param delai le délai maximal d'attente
+     * @return true si le conteneur est inactif
+     */
+    public boolean attendreInactivite(Duration delai) {
+        long limite = System.nanoTime() + delai.toNanos();
+        while (tachesEnCours.get() > 0) {
+            if (System.nanoTime() - limite >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(100_000);
+        }
+        return true;
+    }
+
+    /**
+     * Retourne la partition d'un agent.
+     * @param nom le nom de l'agent
+     * @return l'index de la partition
+     */
+    public int getIndexShard(String nom) {
+        return partitionDe(nom);
+    }
+
+    public int getNombreShards() {
+        return shards.length;
+    }
+
+    private int partitionDe(String nom) {
+        Integer partition = placements.get(nom);
+        return partition != null ? partition : anneau.partitionDe(nom);
+    }
+
+    // ==================== PLACEMENT PAR ABONNEMENTS ====================
+
+    /**
+     * Déplace un agent à chaud vers une autre partition.
+     * Le changement de propriétaire est effectué par l'ancienne partition; les actions
+     * qui y sont encore en attente sont transmises à la nouvelle.
+     * @param nom le nom de l'agent
+     * @param partition l'index de la partition cible
+     * @throws IllegalArgumentException si l'agent ou la partition n'existe pas
+     */
+    public void deplacer(String nom, int partition) {
+        Agent agent = agents.get(nom);
+        if (agent == null || partition < 0 || partition >= shards.length) {
+            throw new IllegalArgumentException("Agent [" + nom + "] ou partition " + partition + " inconnu");
+        }
+        synchronized (verrouPlacement) {
+            deplacerInterne(agent, partition);
+        }
+    }
+
+    /**
+     * Effectue un passage complet de regroupement sur tout le graphe des abonnements,
+     * en commençant par les agents les plus connectés.
+     * @return le nombre d'agents déplacés
+     */
+    public int reequilibrer() {
+        int total = 0;
+        aReevaluer.clear();
+        synchronized (verrouPlacement) {
+            List<Agent> ordre = new ArrayList<>(agents.values());
+            ordre.sort(Comparator.comparingInt((Agent a) -> voisins(a).size()).reversed());
+            for (int passe = 0; passe < 10; passe++) {
+                int deplaces = 0;
+                for (Agent agent : ordre) {
+                    if (reequilibrerAgent(agent)) {
+                        deplaces++;
+                    }
+                }
+                total += deplaces;
+                if (deplaces == 0) {
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Retourne la proportion des abonnements entre agents de partitions différentes.
+     * @return le ratio d'arêtes inter-partitions (0 si aucun abonnement)
+     */
+    public double getRatioAretesInterPartitions() {
+        long total = 0;
+        long inter = 0;
+        for (Agent sujet : agents.values()) {
+            int partitionSujet = partitionDe(sujet.getNom());
+            for (Observer observer : sujet.getObservers()) {
+                if (observer instanceof Agent observateur && estEnregistre(observateur)) {
+                    total++;
+                    if (partitionDe(observateur.getNom()) != partitionSujet) {
+                        inter++;
+                    }
+                }
+            }
+        }
+        return total == 0 ? 0.0 : (double) inter / total;
+    }
+
+    public long getNombreDeplacements() {
+        return deplacements.sum();
+    }
+
+    /**
+     * Planifie la réévaluation des deux agents d'un abonnement (appelé sur le chemin de
+     * l'abonnement: ni verrou global ni parcours).
+     */
+    private void reevaluer(Agent sujet, Observer observateur) {
+        if (!(observateur instanceof Agent agent) || !estEnregistre(sujet) || !estEnregistre(agent)) {
+            return;
+        }
+        aReevaluer.add(agent);
+        aReevaluer.add(sujet);
+        if (reevaluationPlanifiee.compareAndSet(false, true)) {
+            try {
+                reevaluations.execute(this::traiterReevaluations);
+            } catch (RejectedExecutionException e) {
+                reevaluationPlanifiee.set(false); // Conteneur fermé
+            }
+        }
+    }
+
+    private void traiterReevaluations() {
+        reevaluationPlanifiee.set(false);
+        for (Iterator<Agent> it = aReevaluer.iterator(); it.hasNext(); ) {
+            Agent agent = it.next();
+            it.remove();
+            synchronized (verrouPlacement) {
+                reequilibrerAgent(agent);
+            }
+        }
+    }
+
+    /**
+     * Rapproche un agent de ses voisins: déplacement simple si la partition visée a de la
+     * capacité, sinon échange avec un agent de cette partition si le nombre d'arêtes
+     * inter-partitions diminue.
+     */
+    private boolean reequilibrerAgent(Agent agent) {
+        if (!estEnregistre(agent)) {
+            return false;
+        }
+        int courante = partitionDe(agent.getNom());
+        int[] voisinsParPartition = voisinsParPartition(agent);
+        int meilleure = meilleurePartition(voisinsParPartition, courante, true);
+        if (meilleure != courante) {
+            deplacerInterne(agent, meilleure);
+            return true;
+        }
+        int visee = meilleurePartition(voisinsParPartition, courante, false);
+        if (visee == courante) {
+            return false;
+        }
+        int gainAgent = voisinsParPartition[visee] - voisinsParPartition[courante];
+        Collection<Agent> voisins = voisins(agent);
+        List<Agent> candidats = new ArrayList<>();
+        for (Agent voisin : voisins) {
+            if (partitionDe(voisin.getNom()) == visee) {
+                candidats.add(voisin);
+            }
+        }
+        membres[visee].echantillonner(ECHANTILLON_ECHANGE, candidats);
+        for (Agent autre : candidats) {
+            int[] voisinsAutre = voisinsParPartition(autre);
+            int gain = gainAgent + voisinsAutre[courante] - voisinsAutre[visee] - (voisins.contains(autre) ? 2 : 0);
+            if (gain > 0) {
+                deplacerInterne(agent, visee);
+                deplacerInterne(autre, courante);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int meilleurePartition(Agent agent, int courante) {
+        return meilleurePartition(voisinsParPartition(agent), courante, true);
+    }
+
+    /**
+     * Partition contenant le plus de voisins (disposant de capacité si demandé);
+     * la partition courante est conservée en cas d'égalité.
+     */
+    private int meilleurePartition(int[] voisinsParPartition, int courante, boolean avecCapacite) {
+        int capacite = (int) Math.max(1, Math.ceil((double) agents.size() / shards.length * (1 + desequilibreMax)));
+        int meilleure = courante;
+        for (int p = 0; p < shards.length; p++) {
+            if (voisinsParPartition[p] > voisinsParPartition[meilleure] && (!avecCapacite || charges[p] < capacite)) {
+                meilleure = p;
+            }
+        }
+        return meilleure;
+    }
+
+    private int[] voisinsParPartition(Agent agent) {
+        int[] voisinsParPartition = new int[shards.length];
+        for (Agent voisin : voisins(agent)) {
+            voisinsParPartition[partitionDe(voisin.getNom())]++;
+        }
+        return voisinsParPartition;
+    }
+
+    private void deplacerInterne(Agent agent, int partition) {
+        String nom = agent.getNom();
+        int ancienne = partitionDe(nom);
+        if (ancienne == partition) {
+            return;
+        }
+        charges[ancienne]--;
+        charges[partition]++;
+        membres[ancienne].retirer(agent);
+        membres[partition].ajouter(agent);
+        if (partition == anneau.partitionDe(nom)) {
+            placements.remove(nom);
+        } else {
+            placements.put(nom, partition);
+        }
+        deplacements.increment();
+        Shard cible = shards[partition];
+        agent.executer(() -> agent.setExecuteur(cible));
+    }
+
+    private Collection<Agent> voisins(Agent agent) {
+        LinkedHashSet<Agent> voisins = new LinkedHashSet<>(agent.getAbonnements());
+        for (Observer observer : agent.getObservers()) {
+            if (observer instanceof Agent observateur) {
+                voisins.add(observateur);
+            }
+        }
+        voisins.removeIf(voisin -> !estEnregistre(voisin));
+        return voisins;
+    }
+
+    private boolean estEnregistre(Agent agent) {
+        return agents.get(agent.getNom()) == agent;
+    }
+
+    /**
+     * Agents d'une partition avec ajout, retrait et tirage aléatoire en O(1) par agent.
+     */
+    private static final class MembresPartition {
+        private final List<Agent> liste = new ArrayList<>();
+        private final Map<Agent, Integer> positions = new HashMap<>();
+
+        void ajouter(Agent agent) {
+            if (positions.putIfAbsent(agent, liste.size()) == null) {
+                liste.add(agent);
+            }
+        }
+
+        void retirer(Agent agent) {
+            Integer position = positions.remove(agent);
+            if (position == null) {
+                return;
+            }
+            Agent dernier = liste.remove(liste.size() - 1);
+            if (dernier != agent) {
+                liste.set(position, dernier);
+                positions.put(dernier, position);
+            }
+        }
+
+        /**
+         * Ajoute au plus {@code nombre} agents tirés au hasard (tous si la partition est plus petite).
+         */
+        void echantillonner(int nombre, List<Agent> destination) {
+            int taille = liste.size();
+            if (taille <= nombre) {
+                destination.addAll(liste);
+                return;
+            }
+            int debut = ThreadLocalRandom.current().nextInt(taille);
+            int pas = taille / nombre;
+            for (int i = 0; i < nombre; i++) {
+                destination.add(liste.get((debut + i * pas) % taille));
+            }
+        }
+    }
+
+    // ==================== STATISTIQUES ====================
+
+    /**
+     * Statistiques d'une partition.
+     */
+    public record StatistiquesShard(int index, int nombreAgents, long tachesExecutees,
+                                    long lotsRecus, long tachesRecuesEnLot, long erreurs) {
+        /**
+         * @return le nombre moyen de tâches par lot inter-partitions
+         */
+        public double tailleMoyenneLot() {
+            return lotsRecus == 0 ? 0.0 : (double) tachesRecuesEnLot / lotsRecus;
+        }
+    }
+
+    /**
+     * Retourne les statistiques de chaque partition.
+     * @return une entrée par partition
+     */
+    public List<StatistiquesShard> getStatistiques() {
+        int[] nombreAgents = new int[shards.length];
+        agents.keySet().forEach(nom -> nombreAgents[partitionDe(nom)]++);
+        List<StatistiquesShard> statistiques = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            statistiques.add(new StatistiquesShard(shard.getIndex(), nombreAgents[shard.getIndex()],
+                    shard.getTachesExecutees(), shard.getLotsRecus(), shard.getTachesRecuesEnLot(),
+                    shard.getErreurs()));
+        }
+        return statistiques;
+    }
+
+    /**
+     * Affiche la répartition et l'activité des partitions.
+     */
+    public void afficherStatistiques() {
+        System.out.println("\n╔════════════════════════════════════════════════════════════╗");
+        System.out.println("║                  PARTITIONS DU CONTENEUR                   ║");
+        System.out.println("╠════════════════════════════════════════════════════════════╣");
+        getStatistiques().forEach(s -> System.out.println("║ shard-" + s.index() + ": "
+                + s.nombreAgents() + " agent(s) | " + s.tachesExecutees() + " tâche(s) | "
+                + s.lotsRecus() + " lot(s) reçu(s), " + String.format("%.1f", s.tailleMoyenneLot()) + " tâche(s)/lot"));
+        System.out.println("╠════════════════════════════════════════════════════════════╣");
+        System.out.println("║ Placement: " + placement + " | Déplacements: " + getNombreDeplacements());
+        System.out.println("║ Arêtes inter-partitions: " + String.format("%.1f", 100 * getRatioAretesInterPartitions()) + " %");
+        System.out.println("╚════════════════════════════════════════════════════════════╝\n");
+    }
+
+    /**
+     * Arrête les boucles après traitement des tâches en attente et détache les agents.
+     */
+    @Override
+    public void close() {
+        if (reevaluations != null) {
+            reevaluations.shutdownNow();
+        }
+        for (Shard shard : shards) {
+            shard.arreter();
+        }
+        agents.values().forEach(agent -> agent.setExecuteur(null));
+    }
+
+    @Override
+    public String toString() {
+        return "ShardedAgentContainer{agents=" + agents.size() + ", shards=" + shards.length + "}";
+    }
+
+    // ==================== BUILDER ====================
+
+    /**
+     * Builder du conteneur partitionné.
+     */
+    public static class ShardedAgentContainerBuilder {
+        private int nombreShards = Runtime.getRuntime().availableProcessors();
+        private int noeudsVirtuels = 64;
+        private int tailleLot = 256;
+        private Placement placement = Placement.HACHAGE;
+        private double desequilibreMax = 0.2;
+
+        public ShardedAgentContainerBuilder nombreShards(int nombreShards) {
+            this.nombreShards = nombreShards;
+            return this;
+        }
+
+        public ShardedAgentContainerBuilder noeudsVirtuels(int noeudsVirtuels) {
+            this.noeudsVirtuels = noeudsVirtuels;
+            return this;
+        }
+
+        public ShardedAgentContainerBuilder tailleLot(int tailleLot) {
+            this.tailleLot = tailleLot;
+            return this;
+        }
+
+        public ShardedAgentContainerBuilder placement(Placement placement) {
+            this.placement = placement;
+            return this;
+        }
+
+        /**
+         * Écart de charge toléré au-dessus de la moyenne pour regrouper des agents.
+         * @param desequilibreMax par exemple 0.2 pour 20 %
+         */
+        public ShardedAgentContainerBuilder desequilibreMax(double desequilibreMax) {
+            this.desequilibreMax = desequilibreMax;
+            return this;
+        }
+
+        /**
+         * Construit le conteneur et démarre ses partitions.
+         * @return le conteneur partitionné
+         * @throws IllegalStateException si la configuration est invalide
+         */
+        public ShardedAgentContainer build() {
+            if (nombreShards <= 0 || noeudsVirtuels <= 0 || tailleLot <= 0) {
+                throw new IllegalStateException("Le nombre de partitions, de nœuds virtuels et la taille de lot doivent être positifs");
+            }
+            if (placement == null || desequilibreMax < 0) {
+                throw new IllegalStateException("Le placement est requis et le déséquilibre doit être positif");
+            }
+            return new ShardedAgentContainer(this);
+        }
+    }
+}
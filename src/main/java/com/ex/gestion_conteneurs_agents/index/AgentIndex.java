@@ -0,0 +1,31 @@
+package com.ex.gestion_conteneurs_agents.index;
+
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.AgentListener;
+
+/**
+ * Structure maintenue par un conteneur au fil des mutations de ses agents.
+ *
+ * Le conteneur appelle {@link #agentAjoute(Agent)} et {@link #agentRetire(Agent)} lorsque
+ * les agents le rejoignent ou le quittent; l'index suit ensuite leurs mutations en tant
+ * qu'écouteur ({@link AgentListener}).
+ */
+public interface AgentIndex extends AgentListener {
+
+    /**
+     * Intègre un agent (état courant) et s'abonne à ses mutations.
+     * @param agent l'agent qui rejoint le conteneur
+     */
+    void agentAjoute(Agent agent);
+
+    /**
+     * Retire un agent et se désabonne de ses mutations.
+     * @param agent l'agent qui quitte le conteneur
+     */
+    void agentRetire(Agent agent);
+
+    /**
+     * Vide l'index (le conteneur se charge de désabonner l'index des agents).
+     */
+    void vider();
+}
@@ -0,0 +1,388 @@
+package com.ex.gestion_conteneurs_agents.index;
+
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.observer.Observer;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Index bitmap sur les attributs catégoriels des agents, maintenu au fil de leurs mutations.
+ *
+ * Chaque agent reçoit un ordinal dense (les ordinaux libérés sont réutilisés) et chaque fait
+ * catégoriel est un {@link RoaringBitmap} d'ordinaux:
+ * - stratégie active (un bitmap par nom de stratégie)
+ * - possède au moins une transaction ACHAT / VENTE
+ * - possède au moins un observateur
+ *
+ * Les requêtes retournent des copies que l'appelant combine par {@link RoaringBitmap#et},
+ * {@link RoaringBitmap#ou} et {@link RoaringBitmap#etNon}, puis résout en noms d'agents:
+ * <pre>
+ * RoaringBitmap r = index.parStrategie("ScoringStrategy").et(index.avecType(TransactionType.VENTE));
+ * List&lt;String&gt; agents = index.agents(r);
+ * </pre>
+ *
+ * Les compteurs d'ACHAT / VENTE par agent sont atomiques: une transaction ne prend le verrou
+ * d'écriture que lorsqu'un compteur passe de 0 à 1 ou de 1 à 0, c'est-à-dire quand un bit change.
+ */
+public class BitmapIndex implements AgentIndex {
+
+    private final Map<String, EtatAgent> etats = new ConcurrentHashMap<>();
+    private String[] noms = new String[64];
+    private String[] strategies = new String[64];
+    private final RoaringBitmap libres = new RoaringBitmap();
+    private int prochainOrdinal;
+
+    private final RoaringBitmap tous = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> parStrategie = new HashMap<>();
+    private final RoaringBitmap avecAchat = new RoaringBitmap();
+    private final RoaringBitmap avecVente = new RoaringBitmap();
+    private final RoaringBitmap avecObservateurs = new RoaringBitmap();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    // ==================== MAINTENANCE ====================
+
+    @Override
+    public void agentAjoute(Agent agent) {
+        // Moniteur de l'agent puis verrou de l'index: même ordre que les écouteurs de transactions
+        agent.executer(() -> {
+            synchronized (agent) {
+                agent.ajouterEcouteur(this);
+                verrou.writeLock().lock();
+                try {
+                    if (etats.containsKey(agent.getNom())) {
+                        return;
+                    }
+                    EtatAgent etat = allouerOrdinal(agent.getNom());
+                    int ordinal = etat.ordinal;
+                    for (Transaction t : agent.getTransactions()) {
+                        etat.compteur(t.getType()).incrementAndGet();
+                    }
+                    marquer(etat, TransactionType.ACHAT);
+                    marquer(etat, TransactionType.VENTE);
+                    definirStrategie(ordinal, agent.getStrategy().getStrategyName());
+                    if (!agent.getObservers().isEmpty()) {
+                        avecObservateurs.ajouter(ordinal);
+                    }
+                } finally {
+                    verrou.writeLock().unlock();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void agentRetire(Agent agent) {
+        agent.executer(() -> {
+            agent.retirerEcouteur(this);
+            verrou.writeLock().lock();
+            try {
+                EtatAgent etat = etats.remove(agent.getNom());
+                if (etat == null) {
+                    return;
+                }
+                int ordinal = etat.ordinal;
+                RoaringBitmap strategie = parStrategie.get(strategies[ordinal]);
+                if (strategie != null) {
+                    strategie.retirer(ordinal);
+                    if (strategie.estVide()) {
+                        parStrategie.remove(strategies[ordinal]);
+                    }
+                }
+                avecAchat.retirer(ordinal);
+                avecVente.retirer(ordinal);
+                avecObservateurs.retirer(ordinal);
+                tous.retirer(ordinal);
+                noms[ordinal] = null;
+                strategies[ordinal] = null;
+                libres.ajouter(ordinal);
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void transactionAjoutee(Agent agent, Transaction transaction) {
+        compter(agent, transaction.getType(), 1);
+    }
+
+    @Override
+    public void transactionSupprimee(Agent agent, Transaction transaction) {
+        compter(agent, transaction.getType(), -1);
+    }
+
+    @Override
+    public void abonnementAjoute(Agent sujet, Observer observateur) {
+        modifier(sujet, avecObservateurs::ajouter);
+    }
+
+    @Override
+    public void abonnementRetire(Agent sujet, Observer observateur) {
+        modifier(sujet, ordinal -> {
+            if (sujet.getObservers().isEmpty()) {
+                avecObservateurs.retirer(ordinal);
+            }
+        });
+    }
+
+    @Override
+    public void strategieChangee(Agent agent, NotificationStrategy ancienne, NotificationStrategy nouvelle) {
+        modifier(agent, ordinal -> definirStrategie(ordinal, nouvelle.getStrategyName()));
+    }
+
+    @Override
+    public void vider() {
+        verrou.writeLock().lock();
+        try {
+            etats.clear();
+            Arrays.fill(noms, null);
+            Arrays.fill(strategies, null);
+            libres.vider();
+            prochainOrdinal = 0;
+            tous.vider();
+            parStrategie.clear();
+            avecAchat.vider();
+            avecVente.vider();
+            avecObservateurs.vider();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void modifier(Agent agent, IntConsumer modification) {
+        verrou.writeLock().lock();
+        try {
+            EtatAgent etat = etats.get(agent.getNom());
+            if (etat != null) {
+                modification.accept(etat.ordinal);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private EtatAgent allouerOrdinal(String nom) {
+        int ordinal;
+        if (libres.estVide()) {
+            ordinal = prochainOrdinal++;
+            if (ordinal == noms.length) {
+                int capacite = noms.length * 2;
+                noms = Arrays.copyOf(noms, capacite);
+                strategies = Arrays.copyOf(strategies, capacite);
+            }
+        } else {
+            ordinal = libres.premier();
+            libres.retirer(ordinal);
+        }
+        EtatAgent etat = new EtatAgent(ordinal);
+        etats.put(nom, etat);
+        noms[ordinal] = nom;
+        tous.ajouter(ordinal);
+        return etat;
+    }
+
+    /**
+     * Met à jour le compteur sans verrou; le bit n'est reporté (sous verrou d'écriture) que
+     * lorsque le compteur franchit 0. Le report relit le compteur courant: la dernière
+     * transition reportée fixe donc toujours le bon état.
+     */
+    private void compter(Agent agent, TransactionType type, int delta) {
+        EtatAgent etat = etats.get(agent.getNom());
+        if (etat == null) {
+            return;
+        }
+        int apres = etat.compteur(type).updateAndGet(n -> Math.max(0, n + delta));
+        if (apres != (delta > 0 ? 1 : 0)) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            if (etats.get(agent.getNom()) == etat) {
+                marquer(etat, type);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void marquer(EtatAgent etat, TransactionType type) {
+        RoaringBitmap bitmap = type == TransactionType.ACHAT ? avecAchat : avecVente;
+        if (etat.compteur(type).get() > 0) {
+            bitmap.ajouter(etat.ordinal);
+        } else {
+            bitmap.retirer(etat.ordinal);
+        }
+    }
+
+    private void definirStrategie(int ordinal, String strategie) {
+        String ancienne = strategies[ordinal];
+        if (strategie.equals(ancienne)) {
+            return;
+        }
+        if (ancienne != null) {
+            RoaringBitmap bitmap = parStrategie.get(ancienne);
+            bitmap.retirer(ordinal);
+            if (bitmap.estVide()) {
+                parStrategie.remove(ancienne);
+            }
+        }
+        parStrategie.computeIfAbsent(strategie, s -> new RoaringBitmap()).ajouter(ordinal);
+        strategies[ordinal] = strategie;
+    }
+
+    // ==================== REQUÊTES ====================
+
+    /**
+     * Agents dont la stratégie active porte ce nom.
+     * @param strategie le nom de la stratégie ({@code getStrategyName()})
+     * @return une copie du bitmap
+     */
+    public RoaringBitmap parStrategie(String strategie) {
+        verrou.readLock().lock();
+        try {
+            RoaringBitmap bitmap = parStrategie.get(strategie);
+            return bitmap == null ? new RoaringBitmap() : bitmap.copie();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Agents possédant au moins une transaction du type donné.
+     * @param type le type de transaction
+     * @return une copie du bitmap
+     */
+    public RoaringBitmap avecType(TransactionType type) {
+        return lire(type == TransactionType.ACHAT ? avecAchat : avecVente);
+    }
+
+    /**
+     * Agents possédant au moins un observateur.
+     * @return une copie du bitmap
+     */
+    public RoaringBitmap avecObservateurs() {
+        return lire(avecObservateurs);
+    }
+
+    /**
+     * Tous les agents indexés (complément d'un filtre: {@code tous().etNon(filtre)}).
+     * @return une copie du bitmap
+     */
+    public RoaringBitmap tous() {
+        return lire(tous);
+    }
+
+    private RoaringBitmap lire(RoaringBitmap bitmap) {
+        verrou.readLock().lock();
+        try {
+            return bitmap.copie();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Résout les ordinaux d'un résultat en noms d'agents (ordinaux libérés depuis ignorés).
+     * @param resultat le bitmap d'ordinaux
+     * @return les noms des agents, par ordinal croissant
+     */
+    public List<String> agents(RoaringBitmap resultat) {
+        List<String> resultats = new ArrayList<>(resultat.cardinalite());
+        verrou.readLock().lock();
+        try {
+            resultat.forEach(ordinal -> {
+                if (ordinal < noms.length && noms[ordinal] != null) {
+                    resultats.add(noms[ordinal]);
+                }
+            });
+        } finally {
+            verrou.readLock().unlock();
+        }
+        return resultats;
+    }
+
+    /**
+     * Retourne l'ordinal dense attribué à un agent.
+     * @param agent le nom de l'agent
+     * @return l'ordinal, ou vide si l'agent n'est pas indexé
+     */
+    public OptionalInt ordinal(String agent) {
+        verrou.readLock().lock();
+        try {
+            EtatAgent etat = etats.get(agent);
+            return etat == null ? OptionalInt.empty() : OptionalInt.of(etat.ordinal);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne les noms des stratégies actives sur au moins un agent.
+     * @return les noms triés
+     */
+    public Set<String> getStrategies() {
+        verrou.readLock().lock();
+        try {
+            return new TreeSet<>(parStrategie.keySet());
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public int getTaille() {
+        verrou.readLock().lock();
+        try {
+            return etats.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne la mémoire approximative occupée par les bitmaps et les tables d'ordinaux.
+     * @return la taille en octets
+     */
+    public long getTailleOctets() {
+        verrou.readLock().lock();
+        try {
+            long taille = tous.getTailleOctets() + avecAchat.getTailleOctets() + avecVente.getTailleOctets()
+                    + avecObservateurs.getTailleOctets() + libres.getTailleOctets()
+                    + 16L * noms.length + 88L * etats.size();
+            for (RoaringBitmap bitmap : parStrategie.values()) {
+                taille += bitmap.getTailleOctets();
+            }
+            return taille;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /** Ordinal et compteurs de transactions d'un agent indexé. */
+    private static final class EtatAgent {
+        private final int ordinal;
+        private final AtomicInteger achats = new AtomicInteger();
+        private final AtomicInteger ventes = new AtomicInteger();
+
+        private EtatAgent(int ordinal) {
+            this.ordinal = ordinal;
+        }
+
+        private AtomicInteger compteur(TransactionType type) {
+            return type == TransactionType.ACHAT ? achats : ventes;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ex.gestion_conteneurs_agents.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Classement des agents par solde, maintenu au fil des transactions.
+ *
+ * Index {@link NumericIndex} du solde (en centimes): les N premiers, le rang d'un agent et
+ * les agents d'une plage de soldes s'obtiennent en O(log n) (plus la taille du résultat),
+ * sans recalculer {@code calculerSolde()}.
+ */
+public class Leaderboard extends NumericIndex {
+
+    /**
+     * Position d'un agent dans le classement (rang 1 = solde le plus élevé).
+     */
+    public record Position(int rang, String agent, double solde) {
+    }
+
+    public Leaderboard() {
+        super("classement", Attribut.SOLDE);
+    }
+
+    /**
+     * Retourne les N agents au solde le plus élevé.
+     * @param n le nombre d'agents
+     * @return les positions, du premier au N-ième
+     */
+    public List<Position> top(int n) {
+        List<Position> resultat = new ArrayList<>(Math.min(n, 1024));
+        verrouillerLecture();
+        try {
+            getArbre().decroissant(e -> {
+                if (resultat.size() >= n) {
+                    return false;
+                }
+                resultat.add(new Position(resultat.size() + 1, e.agent(), e.cle() / 100.0));
+                return true;
+            });
+        } finally {
+            deverrouillerLecture();
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne le rang d'un agent (1 = solde le plus élevé).
+     * @param agent le nom de l'agent
+     * @return le rang, ou vide si l'agent n'est pas classé
+     */
+    public OptionalInt rang(String agent) {
+        verrouillerLecture();
+        try {
+            Long solde = getValeurClassee(agent);
+            if (solde == null) {
+                return OptionalInt.empty();
+            }
+            return OptionalInt.of(getArbre().taille() - getArbre().rang(solde, agent));
+        } finally {
+            deverrouillerLecture();
+        }
+    }
+
+    /**
+     * Retourne les agents dont le solde est compris entre min et max (inclus).
+     * @return les positions, par solde décroissant
+     */
+    public List<Position> plageSoldes(double min, double max) {
+        long minCentimes = Math.round(min * 100);
+        long maxCentimes = Math.round(max * 100);
+        List<OrderStatisticTree.Entree> entrees = new ArrayList<>();
+        verrouillerLecture();
+        try {
+            int jusquAMax = maxCentimes == Long.MAX_VALUE ? getArbre().taille()
+                    : getArbre().compterInferieures(maxCentimes + 1);
+            int rangMin = getArbre().taille() - jusquAMax;
+            getArbre().plage(minCentimes, maxCentimes, entrees::add);
+            List<Position> resultat = new ArrayList<>(entrees.size());
+            for (int i = entrees.size() - 1; i >= 0; i--) {
+                OrderStatisticTree.Entree e = entrees.get(i);
+                resultat.add(new Position(rangMin + resultat.size() + 1, e.agent(), e.cle() / 100.0));
+            }
+            return resultat;
+        } finally {
+            deverrouillerLecture();
+        }
+    }
+
+    /**
+     * Retourne le solde suivi d'un agent.
+     * @param agent le nom de l'agent
+     * @return le solde, ou 0 si l'agent n'est pas classé
+     */
+    public double getSolde(String agent) {
+        return valeur(agent).orElse(0) / 100.0;
+    }
+
+    /**
+     * Affiche les N premiers agents du classement.
+     * @param n le nombre d'agents affichés
+     */
+    public void afficherTop(int n) {
+        System.out.println("\n╔════════════════════════════════════════════════════════════╗");
+        System.out.println("║                  CLASSEMENT PAR SOLDE                      ║");
+        System.out.println("╠════════════════════════════════════════════════════════════╣");
+        top(n).forEach(p -> System.out.println("║ " + p.rang() + ". " + p.agent() + ": "
+                + String.format("%.2f", p.solde()) + " €"));
+        System.out.println("╚════════════════════════════════════════════════════════════╝\n");
+    }
+}
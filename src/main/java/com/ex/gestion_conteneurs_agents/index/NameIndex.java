@@ -0,0 +1,349 @@
+package com.ex.gestion_conteneurs_agents.index;
+
+import com.ex.gestion_conteneurs_agents.model.Agent;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Index des noms d'agents sous forme d'arbre radix (trie compressé).
+ *
+ * Chaque nœud porte une étiquette (suite de caractères partagée par tous ses descendants) et ses
+ * enfants triés par premier caractère: les parcours produisent les noms par ordre lexicographique.
+ *
+ * L'arbre est persistant: une écriture recopie le chemin modifié et publie une nouvelle racine
+ * volatile. Les requêtes parcourent l'instantané courant sans verrou et sont paresseuses (le
+ * parcours progresse au rythme de la consommation du Stream, les sous-arbres hors requête
+ * ne sont jamais visités).
+ */
+public class NameIndex implements AgentIndex {
+
+    private static final Noeud VIDE = new Noeud("", false, new char[0], new Noeud[0]);
+
+    private volatile Noeud racine = VIDE;
+    private volatile int taille;
+
+    // ==================== MAINTENANCE ====================
+
+    @Override
+    public synchronized void agentAjoute(Agent agent) {
+        Noeud nouvelle = inserer(racine, agent.getNom());
+        if (nouvelle != racine) {
+            racine = nouvelle;
+            taille++;
+        }
+    }
+
+    @Override
+    public synchronized void agentRetire(Agent agent) {
+        Noeud nouvelle = retirer(racine, agent.getNom());
+        if (nouvelle != racine) {
+            racine = nouvelle;
+            taille--;
+        }
+    }
+
+    @Override
+    public synchronized void vider() {
+        racine = VIDE;
+        taille = 0;
+    }
+
+    private static Noeud inserer(Noeud noeud, String reste) {
+        if (reste.isEmpty()) {
+            return noeud.terminal ? noeud : noeud.avecTerminal(true);
+        }
+        int i = noeud.chercher(reste.charAt(0));
+        if (i < 0) {
+            return noeud.avecEnfant(-i - 1, new Noeud(reste, true, new char[0], new Noeud[0]));
+        }
+        Noeud enfant = noeud.enfants[i];
+        int commun = prefixeCommun(enfant.etiquette, reste);
+        Noeud remplacant;
+        if (commun == enfant.etiquette.length()) {
+            remplacant = inserer(enfant, reste.substring(commun));
+            if (remplacant == enfant) {
+                return noeud;
+            }
+        } else {
+            Noeud suffixe = enfant.avecEtiquette(enfant.etiquette.substring(commun));
+            Noeud intermediaire = new Noeud(enfant.etiquette.substring(0, commun), false,
+                    new char[] {suffixe.etiquette.charAt(0)}, new Noeud[] {suffixe});
+            remplacant = inserer(intermediaire, reste.substring(commun));
+        }
+        return noeud.avecEnfantRemplace(i, remplacant);
+    }
+
+    private static Noeud retirer(Noeud noeud, String reste) {
+        if (reste.isEmpty()) {
+            return noeud.terminal ? noeud.avecTerminal(false) : noeud;
+        }
+        int i = noeud.chercher(reste.charAt(0));
+        if (i < 0 || !reste.startsWith(noeud.enfants[i].etiquette)) {
+            return noeud;
+        }
+        Noeud enfant = noeud.enfants[i];
+        Noeud remplacant = retirer(enfant, reste.substring(enfant.etiquette.length()));
+        if (remplacant == enfant) {
+            return noeud;
+        }
+        if (!remplacant.terminal && remplacant.enfants.length == 0) {
+            return noeud.sansEnfant(i);
+        }
+        if (!remplacant.terminal && remplacant.enfants.length == 1) {
+            Noeud petitEnfant = remplacant.enfants[0];
+            remplacant = petitEnfant.avecEtiquette(remplacant.etiquette + petitEnfant.etiquette);
+        }
+        return noeud.avecEnfantRemplace(i, remplacant);
+    }
+
+    private static int prefixeCommun(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < n && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // ==================== REQUÊTES ====================
+
+    /**
+     * Vérifie la présence d'un nom.
+     * @param nom le nom recherché
+     * @return true si le nom est indexé
+     */
+    public boolean contient(String nom) {
+        Noeud noeud = racine;
+        String reste = nom;
+        while (!reste.isEmpty()) {
+            int i = noeud.chercher(reste.charAt(0));
+            if (i < 0 || !reste.startsWith(noeud.enfants[i].etiquette)) {
+                return false;
+            }
+            noeud = noeud.enfants[i];
+            reste = reste.substring(noeud.etiquette.length());
+        }
+        return noeud.terminal;
+    }
+
+    /**
+     * Noms commençant par un préfixe, par ordre lexicographique.
+     * @param prefixe le préfixe (vide pour tous les noms)
+     * @return un Stream paresseux des noms
+     */
+    public Stream<String> prefixe(String prefixe) {
+        if (prefixe == null) {
+            throw new IllegalArgumentException("Le préfixe ne peut pas être null");
+        }
+        Noeud noeud = racine;
+        String cheminParent = "";
+        String reste = prefixe;
+        while (!reste.isEmpty()) {
+            int i = noeud.chercher(reste.charAt(0));
+            if (i < 0) {
+                return Stream.empty();
+            }
+            Noeud enfant = noeud.enfants[i];
+            int commun = prefixeCommun(enfant.etiquette, reste);
+            if (commun < Math.min(enfant.etiquette.length(), reste.length())) {
+                return Stream.empty();
+            }
+            cheminParent += noeud.etiquette;
+            noeud = enfant;
+            reste = reste.substring(commun);
+        }
+        return flux(new Parcours(noeud, cheminParent, chemin -> true, nom -> true));
+    }
+
+    /**
+     * Noms compris dans l'intervalle [debut, fin[, par ordre lexicographique.
+     * Les sous-arbres entièrement hors de l'intervalle ne sont pas parcourus.
+     * @param debut borne inférieure incluse
+     * @param fin borne supérieure exclue
+     * @return un Stream paresseux des noms
+     */
+    public Stream<String> plage(String debut, String fin) {
+        if (debut == null || fin == null) {
+            throw new IllegalArgumentException("Les bornes de la plage sont requises");
+        }
+        Predicate<String> explorer = chemin -> chemin.compareTo(fin) < 0
+                && (chemin.compareTo(debut) >= 0 || debut.startsWith(chemin));
+        Predicate<String> accepter = nom -> nom.compareTo(debut) >= 0 && nom.compareTo(fin) < 0;
+        return flux(new Parcours(racine, "", explorer, accepter));
+    }
+
+    /**
+     * Noms correspondant à un motif glob ({@code *}: suite quelconque, {@code ?}: un caractère).
+     * Seul le sous-arbre du préfixe littéral du motif est parcouru.
+     * @param motif le motif, par exemple {@code Desk-Paris-*}
+     * @return un Stream paresseux des noms
+     */
+    public Stream<String> glob(String motif) {
+        if (motif == null) {
+            throw new IllegalArgumentException("Le motif ne peut pas être null");
+        }
+        int joker = 0;
+        while (joker < motif.length() && motif.charAt(joker) != '*' && motif.charAt(joker) != '?') {
+            joker++;
+        }
+        if (joker == motif.length()) {
+            return contient(motif) ? Stream.of(motif) : Stream.empty();
+        }
+        return prefixe(motif.substring(0, joker)).filter(nom -> correspond(motif, nom));
+    }
+
+    /**
+     * Correspondance glob sans expression régulière (retour arrière sur le dernier {@code *}).
+     * @param motif le motif glob
+     * @param nom le nom à tester
+     * @return true si le nom correspond au motif
+     */
+    public static boolean correspond(String motif, String nom) {
+        int m = 0;
+        int n = 0;
+        int etoile = -1;
+        int reprise = 0;
+        while (n < nom.length()) {
+            if (m < motif.length() && (motif.charAt(m) == '?' || motif.charAt(m) == nom.charAt(n))) {
+                m++;
+                n++;
+            } else if (m < motif.length() && motif.charAt(m) == '*') {
+                etoile = m++;
+                reprise = n;
+            } else if (etoile >= 0) {
+                m = etoile + 1;
+                n = ++reprise;
+            } else {
+                return false;
+            }
+        }
+        while (m < motif.length() && motif.charAt(m) == '*') {
+            m++;
+        }
+        return m == motif.length();
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    private static Stream<String> flux(Iterator<String> parcours) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(parcours,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    // ==================== STRUCTURE ====================
+
+    /**
+     * Nœud immuable de l'arbre radix.
+     */
+    private static final class Noeud {
+        private final String etiquette;
+        private final boolean terminal;
+        private final char[] cles;
+        private final Noeud[] enfants;
+
+        Noeud(String etiquette, boolean terminal, char[] cles, Noeud[] enfants) {
+            this.etiquette = etiquette;
+            this.terminal = terminal;
+            this.cles = cles;
+            this.enfants = enfants;
+        }
+
+        int chercher(char c) {
+            return Arrays.binarySearch(cles, c);
+        }
+
+        Noeud avecTerminal(boolean valeur) {
+            return new Noeud(etiquette, valeur, cles, enfants);
+        }
+
+        Noeud avecEtiquette(String valeur) {
+            return new Noeud(valeur, terminal, cles, enfants);
+        }
+
+        Noeud avecEnfant(int position, Noeud enfant) {
+            char[] nouvellesCles = new char[cles.length + 1];
+            Noeud[] nouveaux = new Noeud[enfants.length + 1];
+            System.arraycopy(cles, 0, nouvellesCles, 0, position);
+            System.arraycopy(enfants, 0, nouveaux, 0, position);
+            nouvellesCles[position] = enfant.etiquette.charAt(0);
+            nouveaux[position] = enfant;
+            System.arraycopy(cles, position, nouvellesCles, position + 1, cles.length - position);
+            System.arraycopy(enfants, position, nouveaux, position + 1, enfants.length - position);
+            return new Noeud(etiquette, terminal, nouvellesCles, nouveaux);
+        }
+
+        Noeud avecEnfantRemplace(int position, Noeud enfant) {
+            Noeud[] nouveaux = enfants.clone();
+            nouveaux[position] = enfant;
+            return new Noeud(etiquette, terminal, cles, nouveaux);
+        }
+
+        Noeud sansEnfant(int position) {
+            char[] nouvellesCles = new char[cles.length - 1];
+            Noeud[] nouveaux = new Noeud[enfants.length - 1];
+            System.arraycopy(cles, 0, nouvellesCles, 0, position);
+            System.arraycopy(enfants, 0, nouveaux, 0, position);
+            System.arraycopy(cles, position + 1, nouvellesCles, position, cles.length - position - 1);
+            System.arraycopy(enfants, position + 1, nouveaux, position, enfants.length - position - 1);
+            return new Noeud(etiquette, terminal, nouvellesCles, nouveaux);
+        }
+    }
+
+    /**
+     * Parcours en profondeur, préfixe d'abord: un nom précède ses prolongements.
+     */
+    private static final class Parcours implements Iterator<String> {
+        private final Deque<Noeud> noeuds = new ArrayDeque<>();
+        private final Deque<String> chemins = new ArrayDeque<>();
+        private final Predicate<String> explorer;
+        private final Predicate<String> accepter;
+        private String suivant;
+
+        Parcours(Noeud depart, String cheminParent, Predicate<String> explorer, Predicate<String> accepter) {
+            this.explorer = explorer;
+            this.accepter = accepter;
+            noeuds.push(depart);
+            chemins.push(cheminParent);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (suivant == null && !noeuds.isEmpty()) {
+                Noeud noeud = noeuds.pop();
+                String chemin = chemins.pop() + noeud.etiquette;
+                if (!explorer.test(chemin)) {
+                    continue;
+                }
+                for (int i = noeud.enfants.length - 1; i >= 0; i--) {
+                    noeuds.push(noeud.enfants[i]);
+                    chemins.push(chemin);
+                }
+                if (noeud.terminal && accepter.test(chemin)) {
+                    suivant = chemin;
+                }
+            }
+            return suivant != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String resultat = suivant;
+            suivant = null;
+            return resultat;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.ex.gestion_conteneurs_agents.index;
+
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Index secondaire numérique sur un attribut des agents, maintenu au fil de leurs mutations.
+ *
+ * Chaque agent est indexé par une valeur entière (centimes, nombre, epoch millis) dans un
+ * {@link OrderStatisticTree}: les parcours de plage sont ordonnés et le comptage d'une
+ * plage se fait en O(log n). L'attribut est mis à jour de façon incrémentale à partir des
+ * transactions ajoutées ou supprimées, sans reparcourir l'agent.
+ *
+ * Les mutations n'acquièrent aucun verrou global: la nouvelle valeur est calculée hors de
+ * tout verrou, publiée dans une table concurrente (comparaison-échange par agent) et l'agent
+ * est marqué à reclasser. L'arbre est mis à jour par lots, sous le verrou d'écriture, par la
+ * première lecture qui suit: l'ingestion ne se sérialise donc pas sur l'index.
+ */
+public class NumericIndex implements AgentIndex {
+
+    /**
+     * Attribut indexé: valeur initiale d'un agent et mise à jour après chaque mutation.
+     */
+    public interface Attribut {
+
+        long initial(Agent agent);
+
+        default long apresAjout(long valeur, Agent agent, Transaction transaction) {
+            return initial(agent);
+        }
+
+        default long apresSuppression(long valeur, Agent agent, Transaction transaction) {
+            return initial(agent);
+        }
+
+        /** Solde en centimes (ventes - achats). */
+        Attribut SOLDE = new Attribut() {
+            @Override
+            public long initial(Agent agent) {
+                long solde = 0;
+                for (Transaction t : agent.getTransactions()) {
+                    solde += variation(t);
+                }
+                return solde;
+            }
+
+            @Override
+            public long apresAjout(long valeur, Agent agent, Transaction transaction) {
+                return valeur + variation(transaction);
+            }
+
+            @Override
+            public long apresSuppression(long valeur, Agent agent, Transaction transaction) {
+                return valeur - variation(transaction);
+            }
+        };
+
+        /** Nombre de transactions. */
+        Attribut NOMBRE_TRANSACTIONS = new Attribut() {
+            @Override
+            public long initial(Agent agent) {
+                return agent.getTransactions().size();
+            }
+
+            @Override
+            public long apresAjout(long valeur, Agent agent, Transaction transaction) {
+                return valeur + 1;
+            }
+
+            @Override
+            public long apresSuppression(long valeur, Agent agent, Transaction transaction) {
+                return valeur - 1;
+            }
+        };
+
+        /** Date de dernière activité (epoch millis). */
+        Attribut DERNIERE_ACTIVITE = agent -> agent.getDerniereActivite().toEpochMilli();
+
+        /**
+         * Attribut recalculé entièrement à chaque mutation (coût de l'extracteur).
+         * @param extracteur la fonction de calcul de la valeur
+         * @return l'attribut
+         */
+        static Attribut de(ToLongFunction<Agent> extracteur) {
+            return extracteur::applyAsLong;
+        }
+
+        private static long variation(Transaction transaction) {
+            long centimes = Math.round(transaction.getMontant() * 100);
+            return transaction.getType() == TransactionType.VENTE ? centimes : -centimes;
+        }
+    }
+
+    /** Taille approximative d'une entrée de la table des valeurs (entrée, Long). */
+    private static final int OCTETS_PAR_VALEUR = 48;
+
+    private final String nom;
+    private final Attribut attribut;
+    /** Valeurs courantes, mises à jour sans verrou global. */
+    private final Map<String, Long> valeurs = new ConcurrentHashMap<>();
+    /** Agents dont la valeur a changé depuis le dernier reclassement. */
+    private final Set<String> aReclasser = ConcurrentHashMap.newKeySet();
+    /** Arbre et valeurs qui y sont classées (protégés par le verrou). */
+    private final OrderStatisticTree arbre = new OrderStatisticTree();
+    private final Map<String, Long> classees = new HashMap<>();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    /**
+     * Crée un index.
+     * @param nom le nom de l'index
+     * @param attribut l'attribut indexé
+     */
+    public NumericIndex(String nom, Attribut attribut) {
+        if (nom == null || attribut == null) {
+            throw new IllegalArgumentException("Le nom et l'attribut de l'index sont requis");
+        }
+        this.nom = nom;
+        this.attribut = attribut;
+    }
+
+    /** Index du solde (centimes). */
+    public static NumericIndex solde() {
+        return new NumericIndex("solde", Attribut.SOLDE);
+    }
+
+    /** Index du nombre de transactions. */
+    public static NumericIndex nombreTransactions() {
+        return new NumericIndex("nbTransactions", Attribut.NOMBRE_TRANSACTIONS);
+    }
+
+    /** Index de la date de dernière activité (epoch millis). */
+    public static NumericIndex derniereActivite() {
+        return new NumericIndex("derniereActivite", Attribut.DERNIERE_ACTIVITE);
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    @Override
+    public void agentAjoute(Agent agent) {
+        agent.executer(() -> {
+            agent.ajouterEcouteur(this);
+            ecrire(agent.getNom(), attribut.initial(agent));
+        });
+    }
+
+    @Override
+    public void agentRetire(Agent agent) {
+        agent.executer(() -> {
+            agent.retirerEcouteur(this);
+            if (valeurs.remove(agent.getNom()) != null) {
+                aReclasser.add(agent.getNom());
+            }
+        });
+    }
+
+    @Override
+    public void transactionAjoutee(Agent agent, Transaction transaction) {
+        String nomAgent = agent.getNom();
+        Long ancienne;
+        long nouvelle;
+        do {
+            ancienne = valeurs.get(nomAgent);
+            if (ancienne == null) {
+                return;
+            }
+            nouvelle = attribut.apresAjout(ancienne, agent, transaction);
+        } while (!valeurs.replace(nomAgent, ancienne, nouvelle));
+        aReclasser.add(nomAgent);
+    }
+
+    @Override
+    public void transactionSupprimee(Agent agent, Transaction transaction) {
+        String nomAgent = agent.getNom();
+        Long ancienne;
+        long nouvelle;
+        do {
+            ancienne = valeurs.get(nomAgent);
+            if (ancienne == null) {
+                return;
+            }
+            nouvelle = attribut.apresSuppression(ancienne, agent, transaction);
+        } while (!valeurs.replace(nomAgent, ancienne, nouvelle));
+        aReclasser.add(nomAgent);
+    }
+
+    private void ecrire(String agent, long valeur) {
+        valeurs.put(agent, valeur);
+        aReclasser.add(agent);
+    }
+
+    @Override
+    public void vider() {
+        verrou.writeLock().lock();
+        try {
+            valeurs.clear();
+            aReclasser.clear();
+            arbre.vider();
+            classees.clear();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Acquiert le verrou de lecture sur un arbre à jour: les agents à reclasser le sont d'abord
+     * sous le verrou d'écriture, rétrogradé ensuite en lecture. À libérer par
+     * {@link #deverrouillerLecture()}.
+     */
+    protected void verrouillerLecture() {
+        if (aReclasser.isEmpty()) {
+            verrou.readLock().lock();
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            reclasser();
+            verrou.readLock().lock();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    protected void deverrouillerLecture() {
+        verrou.readLock().unlock();
+    }
+
+    /**
+     * Reporte dans l'arbre les valeurs modifiées (sous verrou d'écriture). Un agent est retiré
+     * de l'ensemble avant la lecture de sa valeur: une mise à jour concurrente le marque de
+     * nouveau et sera reportée par le reclassement suivant.
+     */
+    private void reclasser() {
+        for (Iterator<String> it = aReclasser.iterator(); it.hasNext(); ) {
+            String agent = it.next();
+            it.remove();
+            Long valeur = valeurs.get(agent);
+            Long classee = valeur == null ? classees.remove(agent) : classees.put(agent, valeur);
+            if (classee != null) {
+                if (classee.equals(valeur)) {
+                    continue;
+                }
+                arbre.supprimer(classee, agent);
+            }
+            if (valeur != null) {
+                arbre.inserer(valeur, agent);
+            }
+        }
+    }
+
+    // ==================== REQUÊTES ====================
+
+    /**
+     * Parcourt par valeur croissante les agents dont la valeur est comprise entre min et max (inclus).
+     * @param visiteur appelé pour chaque entrée; retourne false pour interrompre
+     */
+    public void parcourir(long min, long max, Predicate<OrderStatisticTree.Entree> visiteur) {
+        verrouillerLecture();
+        try {
+            arbre.plage(min, max, visiteur);
+        } finally {
+            deverrouillerLecture();
+        }
+    }
+
+    /**
+     * Parcourt tous les agents par valeur décroissante.
+     * @param visiteur appelé pour chaque entrée; retourne false pour interrompre
+     */
+    public void parcourirDecroissant(Predicate<OrderStatisticTree.Entree> visiteur) {
+        verrouillerLecture();
+        try {
+            arbre.decroissant(visiteur);
+        } finally {
+            deverrouillerLecture();
+        }
+    }
+
+    /**
+     * Retourne les agents dont la valeur est comprise entre min et max (inclus), par valeur croissante.
+     * @param limite le nombre maximal d'agents retournés
+     * @return les noms des agents
+     */
+    public List<String> plage(long min, long max, int limite) {
+        List<String> resultat = new ArrayList<>();
+        parcourir(min, max, e -> {
+            if (resultat.size() >= limite) {
+                return false;
+            }
+            resultat.add(e.agent());
+            return true;
+        });
+        return resultat;
+    }
+
+    public List<String> plage(long min, long max) {
+        return plage(min, max, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Compte les agents dont la valeur est comprise entre min et max (inclus), en O(log n).
+     * @return le nombre d'agents
+     */
+    public int compter(long min, long max) {
+        if (min > max) {
+            return 0;
+        }
+        verrouillerLecture();
+        try {
+            int jusquAMax = max == Long.MAX_VALUE ? arbre.taille() : arbre.compterInferieures(max + 1);
+            return jusquAMax - arbre.compterInferieures(min);
+        } finally {
+            deverrouillerLecture();
+        }
+    }
+
+    /**
+     * Retourne la valeur indexée d'un agent (sans verrou).
+     * @param agent le nom de l'agent
+     * @return la valeur, ou vide si l'agent n'est pas indexé
+     */
+    public OptionalLong valeur(String agent) {
+        Long valeur = valeurs.get(agent);
+        return valeur == null ? OptionalLong.empty() : OptionalLong.of(valeur);
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public Attribut getAttribut() {
+        return attribut;
+    }
+
+    public int getTaille() {
+        return valeurs.size();
+    }
+
+    /**
+     * Retourne la mémoire approximative occupée par l'index (arbre et table des valeurs).
+     * @return la taille en octets
+     */
+    public long getTailleOctets() {
+        verrouillerLecture();
+        try {
+            return arbre.getTailleOctets() + (long) OCTETS_PAR_VALEUR * (valeurs.size() + classees.size());
+        } finally {
+            deverrouillerLecture();
+        }
+    }
+
+    /**
+     * Accès à l'arbre pour les sous-classes (entre {@link #verrouillerLecture()} et
+     * {@link #deverrouillerLecture()}).
+     */
+    protected OrderStatisticTree getArbre() {
+        return arbre;
+    }
+
+    /**
+     * Valeur classée d'un agent dans l'arbre (entre {@link #verrouillerLecture()} et
+     * {@link #deverrouillerLecture()}).
+     * @return la valeur, ou null si l'agent n'est pas classé
+     */
+    protected Long getValeurClassee(String agent) {
+        return classees.get(agent);
+    }
+}
@@ -0,0 +1,276 @@
+package com.ex.gestion_conteneurs_agents.index;
+
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+/**
+ * Arbre de rang (treap augmenté par la taille des sous-arbres) sur des entrées (clé, agent).
+ *
+ * Les entrées sont ordonnées par clé puis par nom d'agent; chaque nœud connaît la taille de
+ * son sous-arbre, ce qui permet en O(log n): insertion, suppression, rang d'une entrée,
+ * k-ième entrée et début d'un parcours de plage.
+ *
+ * Non thread-safe: les index qui l'utilisent protègent leurs accès.
+ */
+public class OrderStatisticTree {
+
+    /**
+     * Entrée de l'arbre.
+     */
+    public record Entree(long cle, String agent) {
+    }
+
+    private static final class Noeud {
+        private final long cle;
+        private final String agent;
+        private final int priorite;
+        private int taille = 1;
+        private Noeud gauche;
+        private Noeud droite;
+
+        Noeud(long cle, String agent, int priorite) {
+            this.cle = cle;
+            this.agent = agent;
+            this.priorite = priorite;
+        }
+    }
+
+    /** Taille approximative d'un nœud en mémoire (en-tête, champs, références). */
+    static final int OCTETS_PAR_NOEUD = 48;
+
+    private final SplittableRandom aleatoire = new SplittableRandom();
+    private Noeud racine;
+
+    /**
+     * Insère une entrée.
+     * @return false si l'entrée est déjà présente
+     */
+    public boolean inserer(long cle, String agent) {
+        if (contient(cle, agent)) {
+            return false;
+        }
+        racine = inserer(racine, new Noeud(cle, agent, aleatoire.nextInt()));
+        return true;
+    }
+
+    /**
+     * Supprime une entrée.
+     * @return false si l'entrée est absente
+     */
+    public boolean supprimer(long cle, String agent) {
+        if (!contient(cle, agent)) {
+            return false;
+        }
+        racine = supprimer(racine, cle, agent);
+        return true;
+    }
+
+    public boolean contient(long cle, String agent) {
+        Noeud n = racine;
+        while (n != null) {
+            int c = comparer(cle, agent, n);
+            if (c == 0) {
+                return true;
+            }
+            n = c < 0 ? n.gauche : n.droite;
+        }
+        return false;
+    }
+
+    public int taille() {
+        return taille(racine);
+    }
+
+    /**
+     * Retourne le nombre d'entrées strictement inférieures à (cle, agent).
+     * @return le rang croissant, à partir de 0
+     */
+    public int rang(long cle, String agent) {
+        int rang = 0;
+        Noeud n = racine;
+        while (n != null) {
+            if (comparer(cle, agent, n) <= 0) {
+                n = n.gauche;
+            } else {
+                rang += taille(n.gauche) + 1;
+                n = n.droite;
+            }
+        }
+        return rang;
+    }
+
+    /**
+     * Retourne le nombre d'entrées dont la clé est strictement inférieure à une valeur.
+     */
+    public int compterInferieures(long cle) {
+        int nombre = 0;
+        Noeud n = racine;
+        while (n != null) {
+            if (cle <= n.cle) {
+                n = n.gauche;
+            } else {
+                nombre += taille(n.gauche) + 1;
+                n = n.droite;
+            }
+        }
+        return nombre;
+    }
+
+    /**
+     * Retourne la k-ième entrée par ordre croissant.
+     * @param k l'index, à partir de 0
+     * @throws IndexOutOfBoundsException si k est hors limites
+     */
+    public Entree kieme(int k) {
+        if (k < 0 || k >= taille()) {
+            throw new IndexOutOfBoundsException("Index " + k + " hors limites (taille " + taille() + ")");
+        }
+        Noeud n = racine;
+        while (true) {
+            int tailleGauche = taille(n.gauche);
+            if (k < tailleGauche) {
+                n = n.gauche;
+            } else if (k == tailleGauche) {
+                return new Entree(n.cle, n.agent);
+            } else {
+                k -= tailleGauche + 1;
+                n = n.droite;
+            }
+        }
+    }
+
+    /**
+     * Parcourt par ordre croissant les entrées dont la clé est comprise entre min et max (inclus).
+     * Le parcours s'arrête dès que le visiteur retourne false.
+     * @param visiteur appelé pour chaque entrée; retourne false pour interrompre
+     */
+    public void plage(long min, long max, Predicate<Entree> visiteur) {
+        plage(racine, min, max, visiteur);
+    }
+
+    /**
+     * Parcourt les entrées par ordre décroissant.
+     * @param visiteur appelé pour chaque entrée; retourne false pour interrompre
+     */
+    public void decroissant(Predicate<Entree> visiteur) {
+        decroissant(racine, visiteur);
+    }
+
+    public void vider() {
+        racine = null;
+    }
+
+    /**
+     * Retourne la mémoire approximative occupée par les nœuds (hors chaînes partagées).
+     * @return la taille en octets
+     */
+    public long getTailleOctets() {
+        return (long) OCTETS_PAR_NOEUD * taille();
+    }
+
+    // ==================== TREAP ====================
+
+    private static int comparer(long cle, String agent, Noeud n) {
+        int c = Long.compare(cle, n.cle);
+        return c != 0 ? c : agent.compareTo(n.agent);
+    }
+
+    private static int taille(Noeud n) {
+        return n == null ? 0 : n.taille;
+    }
+
+    private static Noeud maj(Noeud n) {
+        n.taille = 1 + taille(n.gauche) + taille(n.droite);
+        return n;
+    }
+
+    private static Noeud inserer(Noeud n, Noeud nouveau) {
+        if (n == null) {
+            return nouveau;
+        }
+        if (nouveau.priorite > n.priorite) {
+            Noeud[] parties = scinder(n, nouveau.cle, nouveau.agent);
+            nouveau.gauche = parties[0];
+            nouveau.droite = parties[1];
+            return maj(nouveau);
+        }
+        if (comparer(nouveau.cle, nouveau.agent, n) < 0) {
+            n.gauche = inserer(n.gauche, nouveau);
+        } else {
+            n.droite = inserer(n.droite, nouveau);
+        }
+        return maj(n);
+    }
+
+    private static Noeud supprimer(Noeud n, long cle, String agent) {
+        int c = comparer(cle, agent, n);
+        if (c == 0) {
+            return fusionner(n.gauche, n.droite);
+        }
+        if (c < 0) {
+            n.gauche = supprimer(n.gauche, cle, agent);
+        } else {
+            n.droite = supprimer(n.droite, cle, agent);
+        }
+        return maj(n);
+    }
+
+    /**
+     * Scinde un sous-arbre en (entrées < (cle, agent), entrées >= (cle, agent)).
+     */
+    private static Noeud[] scinder(Noeud n, long cle, String agent) {
+        if (n == null) {
+            return new Noeud[2];
+        }
+        if (comparer(cle, agent, n) <= 0) {
+            Noeud[] parties = scinder(n.gauche, cle, agent);
+            n.gauche = parties[1];
+            parties[1] = maj(n);
+            return parties;
+        }
+        Noeud[] parties = scinder(n.droite, cle, agent);
+        n.droite = parties[0];
+        parties[0] = maj(n);
+        return parties;
+    }
+
+    /**
+     * Fusionne deux sous-arbres dont toutes les entrées de a précèdent celles de b.
+     */
+    private static Noeud fusionner(Noeud a, Noeud b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priorite > b.priorite) {
+            a.droite = fusionner(a.droite, b);
+            return maj(a);
+        }
+        b.gauche = fusionner(a, b.gauche);
+        return maj(b);
+    }
+
+    private static boolean plage(Noeud n, long min, long max, Predicate<Entree> visiteur) {
+        if (n == null) {
+            return true;
+        }
+        if (min <= n.cle && !plage(n.gauche, min, max, visiteur)) {
+            return false;
+        }
+        if (n.cle >= min && n.cle <= max && !visiteur.test(new Entree(n.cle, n.agent))) {
+            return false;
+        }
+        return n.cle > max || plage(n.droite, min, max, visiteur);
+    }
+
+    private static boolean decroissant(Noeud n, Predicate<Entree> visiteur) {
+        if (n == null) {
+            return true;
+        }
+        return decroissant(n.droite, visiteur)
+                && visiteur.test(new Entree(n.cle, n.agent))
+                && decroissant(n.gauche, visiteur);
+    }
+}
@@ -0,0 +1,546 @@
+package com.ex.gestion_conteneurs_agents.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Bitmap compressé de type Roaring sur des entiers positifs (ordinaux d'agents).
+ *
+ * Les entiers sont regroupés par blocs de 2^16 selon leurs 16 bits de poids fort; chaque bloc
+ * est stocké dans le conteneur le plus compact:
+ * - tableau trié de valeurs 16 bits tant que le bloc contient au plus 4096 valeurs
+ * - bitmap de 1024 mots de 64 bits au-delà (8 Ko, taille fixe)
+ *
+ * Les opérations ensemblistes ({@link #et}, {@link #ou}, {@link #etNon}) travaillent bloc par
+ * bloc et mot par mot. Non thread-safe: les index qui l'utilisent protègent leurs accès.
+ */
+public class RoaringBitmap {
+
+    private static final int SEUIL_TABLEAU = 4096;
+
+    private char[] cles = new char[4];
+    private Conteneur[] conteneurs = new Conteneur[4];
+    private int nombreBlocs;
+
+    // ==================== OPÉRATIONS ÉLÉMENTAIRES ====================
+
+    /**
+     * Ajoute un entier.
+     * @param valeur entier positif ou nul
+     */
+    public void ajouter(int valeur) {
+        verifier(valeur);
+        char cle = (char) (valeur >>> 16);
+        int i = chercherBloc(cle);
+        if (i >= 0) {
+            conteneurs[i] = conteneurs[i].ajouter((char) valeur);
+        } else {
+            insererBloc(-i - 1, cle, new Tableau().ajouter((char) valeur));
+        }
+    }
+
+    /**
+     * Retire un entier.
+     * @param valeur l'entier à retirer
+     */
+    public void retirer(int valeur) {
+        if (valeur < 0) {
+            return;
+        }
+        int i = chercherBloc((char) (valeur >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Conteneur c = conteneurs[i].retirer((char) valeur);
+        if (c.cardinalite() == 0) {
+            supprimerBloc(i);
+        } else {
+            conteneurs[i] = c;
+        }
+    }
+
+    public boolean contient(int valeur) {
+        if (valeur < 0) {
+            return false;
+        }
+        int i = chercherBloc((char) (valeur >>> 16));
+        return i >= 0 && conteneurs[i].contient((char) valeur);
+    }
+
+    public int cardinalite() {
+        int total = 0;
+        for (int i = 0; i < nombreBlocs; i++) {
+            total += conteneurs[i].cardinalite();
+        }
+        return total;
+    }
+
+    public boolean estVide() {
+        return nombreBlocs == 0;
+    }
+
+    /**
+     * Retourne le plus petit entier du bitmap.
+     * @return l'entier, ou -1 si le bitmap est vide
+     */
+    public int premier() {
+        if (nombreBlocs == 0) {
+            return -1;
+        }
+        int[] premier = {-1};
+        conteneurs[0].forEach(cles[0] << 16, v -> {
+            if (premier[0] < 0) {
+                premier[0] = v;
+            }
+        });
+        return premier[0];
+    }
+
+    /**
+     * Parcourt les entiers par ordre croissant.
+     * @param action appelée pour chaque entier
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < nombreBlocs; i++) {
+            conteneurs[i].forEach(cles[i] << 16, action);
+        }
+    }
+
+    /**
+     * Retourne les entiers par ordre croissant.
+     * @return tableau des entiers
+     */
+    public int[] versTableau() {
+        int[] resultat = new int[cardinalite()];
+        int[] position = {0};
+        forEach(v -> resultat[position[0]++] = v);
+        return resultat;
+    }
+
+    public RoaringBitmap copie() {
+        RoaringBitmap copie = new RoaringBitmap();
+        copie.cles = Arrays.copyOf(cles, Math.max(4, nombreBlocs));
+        copie.conteneurs = new Conteneur[copie.cles.length];
+        for (int i = 0; i < nombreBlocs; i++) {
+            copie.conteneurs[i] = conteneurs[i].copie();
+        }
+        copie.nombreBlocs = nombreBlocs;
+        return copie;
+    }
+
+    public void vider() {
+        Arrays.fill(conteneurs, 0, nombreBlocs, null);
+        nombreBlocs = 0;
+    }
+
+    /**
+     * Retourne la mémoire approximative occupée par le bitmap.
+     * @return la taille en octets
+     */
+    public long getTailleOctets() {
+        long taille = 32L + 2L * cles.length + 8L * conteneurs.length;
+        for (int i = 0; i < nombreBlocs; i++) {
+            taille += conteneurs[i].tailleOctets();
+        }
+        return taille;
+    }
+
+    // ==================== OPÉRATIONS ENSEMBLISTES ====================
+
+    /**
+     * Intersection.
+     * @return un nouveau bitmap contenant les entiers présents dans les deux
+     */
+    public RoaringBitmap et(RoaringBitmap autre) {
+        RoaringBitmap resultat = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < nombreBlocs && j < autre.nombreBlocs) {
+            if (cles[i] < autre.cles[j]) {
+                i++;
+            } else if (cles[i] > autre.cles[j]) {
+                j++;
+            } else {
+                Conteneur c = conteneurs[i].et(autre.conteneurs[j]);
+                if (c.cardinalite() > 0) {
+                    resultat.insererBloc(resultat.nombreBlocs, cles[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Union.
+     * @return un nouveau bitmap contenant les entiers présents dans l'un ou l'autre
+     */
+    public RoaringBitmap ou(RoaringBitmap autre) {
+        RoaringBitmap resultat = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < nombreBlocs || j < autre.nombreBlocs) {
+            if (j >= autre.nombreBlocs || (i < nombreBlocs && cles[i] < autre.cles[j])) {
+                resultat.insererBloc(resultat.nombreBlocs, cles[i], conteneurs[i].copie());
+                i++;
+            } else if (i >= nombreBlocs || cles[i] > autre.cles[j]) {
+                resultat.insererBloc(resultat.nombreBlocs, autre.cles[j], autre.conteneurs[j].copie());
+                j++;
+            } else {
+                resultat.insererBloc(resultat.nombreBlocs, cles[i], conteneurs[i].ou(autre.conteneurs[j]));
+                i++;
+                j++;
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Différence.
+     * @return un nouveau bitmap contenant les entiers de ce bitmap absents de l'autre
+     */
+    public RoaringBitmap etNon(RoaringBitmap autre) {
+        RoaringBitmap resultat = new RoaringBitmap();
+        int j = 0;
+        for (int i = 0; i < nombreBlocs; i++) {
+            while (j < autre.nombreBlocs && autre.cles[j] < cles[i]) {
+                j++;
+            }
+            Conteneur c = j < autre.nombreBlocs && autre.cles[j] == cles[i]
+                    ? conteneurs[i].etNon(autre.conteneurs[j])
+                    : conteneurs[i].copie();
+            if (c.cardinalite() > 0) {
+                resultat.insererBloc(resultat.nombreBlocs, cles[i], c);
+            }
+        }
+        return resultat;
+    }
+
+    // ==================== BLOCS ====================
+
+    private static void verifier(int valeur) {
+        if (valeur < 0) {
+            throw new IllegalArgumentException("Les valeurs d'un bitmap doivent être positives");
+        }
+    }
+
+    private int chercherBloc(char cle) {
+        return Arrays.binarySearch(cles, 0, nombreBlocs, cle);
+    }
+
+    private void insererBloc(int position, char cle, Conteneur conteneur) {
+        if (nombreBlocs == cles.length) {
+            cles = Arrays.copyOf(cles, nombreBlocs * 2);
+            conteneurs = Arrays.copyOf(conteneurs, nombreBlocs * 2);
+        }
+        System.arraycopy(cles, position, cles, position + 1, nombreBlocs - position);
+        System.arraycopy(conteneurs, position, conteneurs, position + 1, nombreBlocs - position);
+        cles[position] = cle;
+        conteneurs[position] = conteneur;
+        nombreBlocs++;
+    }
+
+    private void supprimerBloc(int position) {
+        System.arraycopy(cles, position + 1, cles, position, nombreBlocs - position - 1);
+        System.arraycopy(conteneurs, position + 1, conteneurs, position, nombreBlocs - position - 1);
+        conteneurs[--nombreBlocs] = null;
+    }
+
+    // ==================== CONTENEURS ====================
+
+    /**
+     * Conteneur des 16 bits de poids faible d'un bloc. Les opérations de modification
+     * retournent le conteneur à utiliser (éventuellement converti).
+     */
+    private abstract static class Conteneur {
+        abstract Conteneur ajouter(char v);
+
+        abstract Conteneur retirer(char v);
+
+        abstract boolean contient(char v);
+
+        abstract int cardinalite();
+
+        abstract void forEach(int base, IntConsumer action);
+
+        abstract Conteneur copie();
+
+        abstract long tailleOctets();
+
+        abstract Conteneur et(Conteneur autre);
+
+        abstract Conteneur ou(Conteneur autre);
+
+        abstract Conteneur etNon(Conteneur autre);
+    }
+
+    /**
+     * Tableau trié de valeurs (blocs peu denses).
+     */
+    private static final class Tableau extends Conteneur {
+        private char[] valeurs;
+        private int n;
+
+        Tableau() {
+            this(new char[4], 0);
+        }
+
+        Tableau(char[] valeurs, int n) {
+            this.valeurs = valeurs;
+            this.n = n;
+        }
+
+        @Override
+        Conteneur ajouter(char v) {
+            int i = Arrays.binarySearch(valeurs, 0, n, v);
+            if (i >= 0) {
+                return this;
+            }
+            if (n >= SEUIL_TABLEAU) {
+                return versBitmap().ajouter(v);
+            }
+            i = -i - 1;
+            if (n == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, Math.min(SEUIL_TABLEAU, n * 2));
+            }
+            System.arraycopy(valeurs, i, valeurs, i + 1, n - i);
+            valeurs[i] = v;
+            n++;
+            return this;
+        }
+
+        @Override
+        Conteneur retirer(char v) {
+            int i = Arrays.binarySearch(valeurs, 0, n, v);
+            if (i >= 0) {
+                System.arraycopy(valeurs, i + 1, valeurs, i, n - i - 1);
+                n--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contient(char v) {
+            return Arrays.binarySearch(valeurs, 0, n, v) >= 0;
+        }
+
+        @Override
+        int cardinalite() {
+            return n;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < n; i++) {
+                action.accept(base | valeurs[i]);
+            }
+        }
+
+        @Override
+        Conteneur copie() {
+            return new Tableau(Arrays.copyOf(valeurs, Math.max(n, 4)), n);
+        }
+
+        @Override
+        long tailleOctets() {
+            return 24L + 2L * valeurs.length;
+        }
+
+        Bitmap versBitmap() {
+            Bitmap bitmap = new Bitmap();
+            for (int i = 0; i < n; i++) {
+                bitmap.mots[valeurs[i] >>> 6] |= 1L << valeurs[i];
+            }
+            bitmap.cardinalite = n;
+            return bitmap;
+        }
+
+        @Override
+        Conteneur et(Conteneur autre) {
+            char[] resultat = new char[n];
+            int k = 0;
+            if (autre instanceof Tableau t) {
+                int i = 0;
+                int j = 0;
+                while (i < n && j < t.n) {
+                    if (valeurs[i] < t.valeurs[j]) {
+                        i++;
+                    } else if (valeurs[i] > t.valeurs[j]) {
+                        j++;
+                    } else {
+                        resultat[k++] = valeurs[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    if (autre.contient(valeurs[i])) {
+                        resultat[k++] = valeurs[i];
+                    }
+                }
+            }
+            return new Tableau(resultat, k);
+        }
+
+        @Override
+        Conteneur ou(Conteneur autre) {
+            if (autre instanceof Bitmap) {
+                return autre.ou(this);
+            }
+            Tableau t = (Tableau) autre;
+            char[] resultat = new char[n + t.n];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < n || j < t.n) {
+                if (j >= t.n || (i < n && valeurs[i] < t.valeurs[j])) {
+                    resultat[k++] = valeurs[i++];
+                } else if (i >= n || valeurs[i] > t.valeurs[j]) {
+                    resultat[k++] = t.valeurs[j++];
+                } else {
+                    resultat[k++] = valeurs[i++];
+                    j++;
+                }
+            }
+            Tableau union = new Tableau(resultat, k);
+            return k > SEUIL_TABLEAU ? union.versBitmap() : union;
+        }
+
+        @Override
+        Conteneur etNon(Conteneur autre) {
+            char[] resultat = new char[n];
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                if (!autre.contient(valeurs[i])) {
+                    resultat[k++] = valeurs[i];
+                }
+            }
+            return new Tableau(resultat, k);
+        }
+    }
+
+    /**
+     * Bitmap de 2^16 bits (blocs denses).
+     */
+    private static final class Bitmap extends Conteneur {
+        private final long[] mots = new long[1024];
+        private int cardinalite;
+
+        @Override
+        Conteneur ajouter(char v) {
+            long avant = mots[v >>> 6];
+            mots[v >>> 6] = avant | (1L << v);
+            if (avant != mots[v >>> 6]) {
+                cardinalite++;
+            }
+            return this;
+        }
+
+        @Override
+        Conteneur retirer(char v) {
+            long avant = mots[v >>> 6];
+            mots[v >>> 6] = avant & ~(1L << v);
+            if (avant != mots[v >>> 6]) {
+                cardinalite--;
+            }
+            return cardinalite <= SEUIL_TABLEAU ? versTableau() : this;
+        }
+
+        @Override
+        boolean contient(char v) {
+            return (mots[v >>> 6] & (1L << v)) != 0;
+        }
+
+        @Override
+        int cardinalite() {
+            return cardinalite;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int m = 0; m < mots.length; m++) {
+                long mot = mots[m];
+                while (mot != 0) {
+                    action.accept(base | (m << 6) | Long.numberOfTrailingZeros(mot));
+                    mot &= mot - 1;
+                }
+            }
+        }
+
+        @Override
+        Conteneur copie() {
+            Bitmap copie = new Bitmap();
+            System.arraycopy(mots, 0, copie.mots, 0, mots.length);
+            copie.cardinalite = cardinalite;
+            return copie;
+        }
+
+        @Override
+        long tailleOctets() {
+            return 24L + 8L * mots.length;
+        }
+
+        Tableau versTableau() {
+            char[] valeurs = new char[Math.max(cardinalite, 4)];
+            int[] k = {0};
+            forEach(0, v -> valeurs[k[0]++] = (char) v);
+            return new Tableau(valeurs, cardinalite);
+        }
+
+        private Conteneur normaliser() {
+            int total = 0;
+            for (long mot : mots) {
+                total += Long.bitCount(mot);
+            }
+            cardinalite = total;
+            return total <= SEUIL_TABLEAU ? versTableau() : this;
+        }
+
+        @Override
+        Conteneur et(Conteneur autre) {
+            if (autre instanceof Tableau) {
+                return autre.et(this);
+            }
+            Bitmap b = (Bitmap) autre;
+            Bitmap resultat = new Bitmap();
+            for (int m = 0; m < mots.length; m++) {
+                resultat.mots[m] = mots[m] & b.mots[m];
+            }
+            return resultat.normaliser();
+        }
+
+        @Override
+        Conteneur ou(Conteneur autre) {
+            Bitmap resultat = (Bitmap) copie();
+            if (autre instanceof Tableau t) {
+                for (int i = 0; i < t.n; i++) {
+                    resultat.mots[t.valeurs[i] >>> 6] |= 1L << t.valeurs[i];
+                }
+            } else {
+                Bitmap b = (Bitmap) autre;
+                for (int m = 0; m < mots.length; m++) {
+                    resultat.mots[m] |= b.mots[m];
+                }
+            }
+            return resultat.normaliser();
+        }
+
+        @Override
+        Conteneur etNon(Conteneur autre) {
+            Bitmap resultat = (Bitmap) copie();
+            if (autre instanceof Tableau t) {
+                for (int i = 0; i < t.n; i++) {
+                    resultat.mots[t.valeurs[i] >>> 6] &= ~(1L << t.valeurs[i]);
+                }
+            } else {
+                Bitmap b = (Bitmap) autre;
+                for (int m = 0; m < mots.length; m++) {
+                    resultat.mots[m] &= ~b.mots[m];
+                }
+            }
+            return resultat.normaliser();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.ex.gestion_conteneurs_agents.log;
+
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Lecteur du journal binaire des notifications par projection mémoire (mmap).
+ *
+ * Le parcours ne crée aucun objet par enregistrement: le visiteur reçoit un
+ * {@link BinaryLogRecord} réutilisé dont l'id de transaction n'est décodé qu'à la demande.
+ * Les fichiers de plus de 2 Go sont projetés par fenêtres successives.
+ *
+ * @see BinaryLogWriter pour la description du format
+ */
+public class BinaryLogReader implements Closeable {
+
+    private static final long TAILLE_FENETRE = 1L << 30;
+
+    private final FileChannel canal;
+    private String[] agents = new String[16];
+    private long finValide;
+
+    /**
+     * Ouvre un journal binaire en lecture.
+     * @param fichier le chemin du journal binaire
+     * @throws IOException si le fichier ne peut pas être ouvert
+     */
+    public BinaryLogReader(Path fichier) throws IOException {
+        this.canal = FileChannel.open(fichier, StandardOpenOption.READ);
+    }
+
+    /**
+     * Parcourt toutes les notifications du journal dans l'ordre d'écriture.
+     * @param visiteur appelé pour chaque notification avec un enregistrement réutilisé
+     * @return le nombre de notifications lues
+     * @throws IOException si le fichier est corrompu ou illisible
+     */
+    public long parcourir(Consumer<BinaryLogRecord> visiteur) throws IOException {
+        long taille = canal.size();
+        if (taille == 0) {
+            return 0;
+        }
+        finValide = 0;
+        BinaryLogRecord record = new BinaryLogRecord(this);
+        long lues = 0;
+        long base = 0; // Position dans le fichier du début de la fenêtre courante
+        MappedByteBuffer fenetre = projeter(0, taille);
+        if (taille < BinaryLogWriter.TAILLE_EN_TETE || fenetre.getInt() != BinaryLogWriter.MAGIC) {
+            throw new IOException("Ce fichier n'est pas un journal binaire de notifications");
+        }
+        if (fenetre.getShort() != BinaryLogWriter.VERSION) {
+            throw new IOException("Version de journal binaire non supportée");
+        }
+
+        while (true) {
+            long offset = base + fenetre.position();
+            if (offset + 4 > taille) {
+                break;
+            }
+            if (fenetre.remaining() < 4) {
+                base = offset;
+                fenetre = projeter(base, taille);
+            }
+            int longueur = fenetre.getInt(fenetre.position());
+            if (longueur < 1 || offset + 4 + longueur > taille) {
+                break; // Enregistrement tronqué ou fin remplie de zéros (écriture interrompue)
+            }
+            if (fenetre.remaining() < 4 + longueur) {
+                base = offset;
+                fenetre = projeter(base, taille);
+            }
+            int debut = fenetre.position() + 4;
+            byte genre = fenetre.get(debut);
+            if (!longueurValide(fenetre, debut, genre, longueur)) {
+                break;
+            }
+            if (genre == BinaryLogWriter.GENRE_AGENT) {
+                int id = fenetre.getInt(debut + 1);
+                int len = fenetre.getShort(debut + 5) & 0xFFFF;
+                byte[] nom = new byte[len];
+                fenetre.get(debut + 7, nom);
+                definirAgent(id, new String(nom, StandardCharsets.UTF_8));
+            } else if (genre == BinaryLogWriter.GENRE_NOTIFICATION) {
+                record.positionner(fenetre, debut);
+                visiteur.accept(record);
+                lues++;
+            } else {
+                throw new IOException("Genre d'enregistrement inconnu: " + genre);
+            }
+            fenetre.position(debut + longueur);
+        }
+        finValide = base + fenetre.position();
+        return lues;
+    }
+
+    /**
+     * Vérifie que l'enregistrement contient au moins ses champs fixes et sa chaîne; un genre
+     * inconnu est laissé au décodage (fichier corrompu).
+     */
+    private static boolean longueurValide(MappedByteBuffer fenetre, int debut, byte genre, int longueur) {
+        if (genre == BinaryLogWriter.GENRE_AGENT) {
+            return longueur >= BinaryLogWriter.LONGUEUR_MIN_AGENT
+                    && longueur >= BinaryLogWriter.LONGUEUR_MIN_AGENT + (fenetre.getShort(debut + 5) & 0xFFFF);
+        }
+        if (genre == BinaryLogWriter.GENRE_NOTIFICATION) {
+            return longueur >= BinaryLogWriter.LONGUEUR_MIN_NOTIFICATION
+                    && longueur >= BinaryLogWriter.LONGUEUR_MIN_NOTIFICATION + (fenetre.getShort(debut + 22) & 0xFFFF);
+        }
+        return true;
+    }
+
+    /**
+     * Rejoue le journal sous forme d'événements de notification.
+     * @param consommateur reçoit chaque événement reconstruit
+     * @return le nombre d'événements rejoués
+     * @throws IOException si le fichier est corrompu ou illisible
+     */
+    public long rejouer(Consumer<NotificationEvent> consommateur) throws IOException {
+        return parcourir(record -> consommateur.accept(record.versEvenement()));
+    }
+
+    /**
+     * Lit uniquement le dictionnaire des agents (index = identifiant interné).
+     * @return les noms d'agents indexés par identifiant
+     * @throws IOException si le fichier est corrompu ou illisible
+     */
+    public String[] lireDictionnaire() throws IOException {
+        parcourir(record -> { });
+        int taille = agents.length;
+        while (taille > 0 && agents[taille - 1] == null) {
+            taille--;
+        }
+        return Arrays.copyOf(agents, taille);
+    }
+
+    /**
+     * Retourne la position qui suit le dernier enregistrement complet lu par le dernier parcours
+     * (la suite est un enregistrement tronqué par une écriture interrompue).
+     * @return la taille valide du fichier en octets
+     */
+    long getFinValide() {
+        return finValide;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    String nomAgent(int id) {
+        return id < agents.length ? agents[id] : null;
+    }
+
+    private void definirAgent(int id, String nom) {
+        if (id >= agents.length) {
+            agents = Arrays.copyOf(agents, Math.max(id + 1, agents.length * 2));
+        }
+        agents[id] = nom;
+    }
+
+    private MappedByteBuffer projeter(long debut, long taille) throws IOException {
+        return canal.map(FileChannel.MapMode.READ_ONLY, debut, Math.min(TAILLE_FENETRE, taille - debut));
+    }
+
+    /**
+     * Vue réutilisable sur une notification du journal binaire.
+     * Valide uniquement pendant l'appel du visiteur.
+     */
+    public static final class BinaryLogRecord {
+        private final BinaryLogReader reader;
+        private MappedByteBuffer fenetre;
+        private int debut;
+
+        private BinaryLogRecord(BinaryLogReader reader) {
+            this.reader = reader;
+        }
+
+        private void positionner(MappedByteBuffer fenetre, int debut) {
+            this.fenetre = fenetre;
+            this.debut = debut;
+        }
+
+        public long getEpochMillis() {
+            return fenetre.getLong(debut + 1);
+        }
+
+        public int getAgentId() {
+            return fenetre.getInt(debut + 9);
+        }
+
+        public String getAgentName() {
+            return reader.nomAgent(getAgentId());
+        }
+
+        public TransactionType getType() {
+            return BinaryLogWriter.typeDe(fenetre.get(debut + 13));
+        }
+
+        public long getMontantCentimes() {
+            return fenetre.getLong(debut + 14);
+        }
+
+        /**
+         * Décode l'id de transaction (alloue une chaîne).
+         * @return l'id de la transaction
+         */
+        public String getTransactionId() {
+            int len = fenetre.getShort(debut + 22) & 0xFFFF;
+            byte[] id = new byte[len];
+            fenetre.get(debut + 24, id);
+            return new String(id, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reconstruit l'événement de notification correspondant.
+         * @return un nouvel événement
+         */
+        public NotificationEvent versEvenement() {
+            Transaction transaction = Transaction.builder()
+                    .id(getTransactionId())
+                    .date(LocalDateTime.ofInstant(Instant.ofEpochMilli(getEpochMillis()), ZoneId.systemDefault()))
+                    .montant(getMontantCentimes() / 100.0)
+                    .type(getType())
+                    .build();
+            return new NotificationEvent(getAgentName(), transaction);
+        }
+    }
+}
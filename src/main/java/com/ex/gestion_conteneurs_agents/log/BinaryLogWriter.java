@@ -0,0 +1,223 @@
+package com.ex.gestion_conteneurs_agents.log;
+
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écrivain du format binaire compact du journal des notifications.
+ *
+ * Format (big-endian):
+ * <pre>
+ * En-tête     : "NLOG" (4 octets) | version (short)
+ * Enregistrement: longueur (int, octets suivants) | genre (byte) | contenu
+ *   AGENT        : id (int) | longueur nom (short) | nom UTF-8
+ *   NOTIFICATION : epochMillis (long) | id agent (int) | type (byte) | montant en centimes (long)
+ *                  | longueur id transaction (short) | id transaction UTF-8
+ * </pre>
+ * Les noms d'agents sont internés: un enregistrement AGENT est émis à la première
+ * apparition d'un nom, les notifications ne portent ensuite que l'identifiant entier.
+ * Aucun formatage dépendant de la locale n'intervient.
+ *
+ * Les enregistrements sont accumulés dans un tampon, écrit lorsqu'il est plein et au plus tard
+ * après le délai de vidage: un journal peu actif n'attend pas indéfiniment sur le tampon.
+ */
+public class BinaryLogWriter implements Closeable {
+
+    static final int MAGIC = 0x4E4C4F47; // "NLOG"
+    static final short VERSION = 1;
+    static final int TAILLE_EN_TETE = 6;
+    static final byte GENRE_AGENT = 1;
+    static final byte GENRE_NOTIFICATION = 2;
+
+    /** Longueur minimale d'un enregistrement AGENT (genre, id, longueur du nom). */
+    static final int LONGUEUR_MIN_AGENT = 7;
+
+    /** Longueur minimale d'un enregistrement NOTIFICATION (hors id de transaction). */
+    static final int LONGUEUR_MIN_NOTIFICATION = 24;
+
+    private static final int TAILLE_TAMPON = 64 * 1024;
+    private static final Duration DELAI_VIDAGE_DEFAUT = Duration.ofSeconds(1);
+
+    /**
+     * Planificateur partagé des vidages périodiques de tous les journaux binaires.
+     */
+    private static final ScheduledExecutorService VIDAGES = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "journal-binaire-vidage");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final FileChannel canal;
+    private final ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+    private final Map<String, Integer> agents = new HashMap<>();
+    private final ScheduledFuture<?> vidage;
+
+    /**
+     * Ouvre (ou crée) un journal binaire en ajout, vidé au plus tard chaque seconde.
+     * @see #BinaryLogWriter(Path, Duration)
+     */
+    public BinaryLogWriter(Path fichier) throws IOException {
+        this(fichier, DELAI_VIDAGE_DEFAUT);
+    }
+
+    /**
+     * Ouvre (ou crée) un journal binaire en ajout.
+     * Un fichier existant est relu pour reconstruire le dictionnaire des agents, puis tronqué
+     * après son dernier enregistrement complet: un enregistrement partiel laissé par une écriture
+     * interrompue ne peut donc pas précéder les nouveaux.
+     * @param fichier le chemin du journal binaire
+     * @param delaiVidage le délai maximal pendant lequel une notification reste dans le tampon
+     * @throws IOException si le fichier ne peut pas être ouvert ou n'est pas un journal binaire
+     */
+    public BinaryLogWriter(Path fichier, Duration delaiVidage) throws IOException {
+        if (delaiVidage == null || delaiVidage.isZero() || delaiVidage.isNegative()) {
+            throw new IllegalArgumentException("Le délai de vidage doit être positif");
+        }
+        // Un en-tête incomplet ne contient encore aucun enregistrement: le fichier est recréé
+        long finValide = 0;
+        if (Files.exists(fichier) && Files.size(fichier) >= TAILLE_EN_TETE) {
+            try (BinaryLogReader reader = new BinaryLogReader(fichier)) {
+                String[] noms = reader.lireDictionnaire();
+                for (int i = 0; i < noms.length; i++) {
+                    if (noms[i] != null) {
+                        agents.put(noms[i], i);
+                    }
+                }
+                finValide = reader.getFinValide();
+            }
+        }
+        this.canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        canal.truncate(finValide);
+        canal.position(finValide);
+        if (finValide == 0) {
+            tampon.putInt(MAGIC).putShort(VERSION);
+        }
+        long periode = delaiVidage.toMillis();
+        this.vidage = VIDAGES.scheduleWithFixedDelay(this::vidagePeriodique, periode, periode, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ajoute une notification au journal.
+     * @param epochMillis horodatage de la notification
+     * @param agentName nom de l'agent source
+     * @param transaction la transaction notifiée
+     * @throws IOException si l'écriture échoue
+     */
+    public synchronized void ecrire(long epochMillis, String agentName, Transaction transaction) throws IOException {
+        byte[] id = encoderChaine(transaction.getId());
+        int agentId = internerAgent(agentName);
+        int longueur = 1 + 8 + 4 + 1 + 8 + 2 + id.length;
+        reserver(4 + longueur);
+        tampon.putInt(longueur)
+                .put(GENRE_NOTIFICATION)
+                .putLong(epochMillis)
+                .putInt(agentId)
+                .put((byte) transaction.getType().ordinal())
+                .putLong(enCentimes(transaction.getMontant()))
+                .putShort((short) id.length)
+                .put(id);
+    }
+
+    /**
+     * Force l'écriture du tampon sur disque (sans fsync).
+     * @throws IOException si l'écriture échoue
+     */
+    public synchronized void flush() throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+        tampon.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        vidage.cancel(false);
+        if (canal.isOpen()) {
+            flush();
+            canal.close();
+        }
+    }
+
+    private synchronized void vidagePeriodique() {
+        if (canal.isOpen() && tampon.position() > 0) {
+            try {
+                flush();
+            } catch (IOException e) {
+                System.err.println("⚠️  Échec du vidage du journal binaire: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Convertit un montant en centimes (arrondi au plus proche).
+     * @param montant le montant en euros
+     * @return le montant en centimes
+     */
+    public static long enCentimes(double montant) {
+        return Math.round(montant * 100.0);
+    }
+
+    /**
+     * Retrouve le type de transaction encodé sur un octet.
+     * @param code l'octet de type
+     * @return le type correspondant
+     */
+    static TransactionType typeDe(byte code) {
+        return TransactionType.values()[code];
+    }
+
+    private int internerAgent(String nom) throws IOException {
+        Integer id = agents.get(nom);
+        if (id != null) {
+            return id;
+        }
+        int nouvelId = agents.size();
+        byte[] octets = encoderChaine(nom);
+        int longueur = 1 + 4 + 2 + octets.length;
+        reserver(4 + longueur);
+        tampon.putInt(longueur)
+                .put(GENRE_AGENT)
+                .putInt(nouvelId)
+                .putShort((short) octets.length)
+                .put(octets);
+        agents.put(nom, nouvelId);
+        return nouvelId;
+    }
+
+    /**
+     * Encode une chaîne dont la longueur doit tenir sur le short du format.
+     */
+    private static byte[] encoderChaine(String chaine) {
+        byte[] octets = chaine.getBytes(StandardCharsets.UTF_8);
+        if (octets.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Chaîne trop longue pour le journal binaire: " + octets.length + " octets");
+        }
+        return octets;
+    }
+
+    private void reserver(int octets) throws IOException {
+        if (octets > TAILLE_TAMPON) {
+            throw new IOException("Enregistrement trop grand pour le journal binaire: " + octets + " octets");
+        }
+        if (tampon.remaining() < octets) {
+            flush();
+        }
+    }
+}
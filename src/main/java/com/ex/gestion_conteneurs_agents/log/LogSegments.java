@@ -0,0 +1,159 @@
+package com.ex.gestion_conteneurs_agents.log;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Accès en lecture aux segments d'un journal rotatif.
+ *
+ * Un journal actif "notifications.log" produit des segments archivés nommés
+ * "notifications.log.000001", "notifications.log.000002"... éventuellement suffixés
+ * de ".gz" une fois compressés. Les outils de rejeu et de recherche parcourent ces
+ * segments dans l'ordre chronologique, puis le segment actif, sans les charger en mémoire.
+ */
+public final class LogSegments {
+
+    static final String SUFFIXE_GZIP = ".gz";
+    private static final int LARGEUR_INDEX = 6;
+
+    private LogSegments() {
+    }
+
+    /**
+     * Liste les segments archivés puis le segment actif, du plus ancien au plus récent.
+     * @param fichierActif le chemin du journal actif
+     * @return la liste ordonnée des segments existants
+     */
+    public static List<Path> lister(Path fichierActif) {
+        List<Path> segments = new ArrayList<>(archives(fichierActif).values());
+        if (Files.exists(fichierActif)) {
+            segments.add(fichierActif);
+        }
+        return segments;
+    }
+
+    /**
+     * Parcourt paresseusement toutes les lignes du journal, segments compressés inclus.
+     * Le flux doit être fermé par l'appelant (try-with-resources).
+     * @param fichierActif le chemin du journal actif
+     * @return le flux ordonné des lignes
+     */
+    public static Stream<String> lignes(Path fichierActif) {
+        return lister(fichierActif).stream().flatMap(LogSegments::lignesDuSegment);
+    }
+
+    /**
+     * Recherche les lignes contenant un motif dans tous les segments.
+     * @param fichierActif le chemin du journal actif
+     * @param motif le texte recherché
+     * @return le flux ordonné des lignes correspondantes
+     */
+    public static Stream<String> rechercher(Path fichierActif, String motif) {
+        return lignes(fichierActif).filter(ligne -> ligne.contains(motif));
+    }
+
+    /**
+     * Ouvre un flux de lignes sur un segment, en décompressant si nécessaire.
+     * Un segment supprimé entre le listage et l'ouverture (rétention) est ignoré.
+     */
+    static Stream<String> lignesDuSegment(Path segment) {
+        try {
+            InputStream in = Files.newInputStream(segment);
+            if (segment.getFileName().toString().endsWith(SUFFIXE_GZIP)) {
+                in = new GZIPInputStream(in, 64 * 1024);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            return reader.lines().onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (NoSuchFileException e) {
+            return Stream.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Segments archivés indexés par numéro de séquence.
+     * Si un segment existe à la fois en clair et compressé (compression en cours), la version
+     * compressée, écrite de façon atomique, est retenue.
+     */
+    static TreeMap<Long, Path> archives(Path fichierActif) {
+        TreeMap<Long, Path> archives = new TreeMap<>();
+        Path dossier = dossierDe(fichierActif);
+        String prefixe = fichierActif.getFileName().toString() + ".";
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            fichiers.forEach(fichier -> {
+                long index = indexDe(fichier.getFileName().toString(), prefixe);
+                if (index > 0) {
+                    archives.merge(index, fichier, (a, b) -> estCompresse(a) ? a : b);
+                }
+            });
+        } catch (NoSuchFileException e) {
+            return archives;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return archives;
+    }
+
+    /**
+     * Chemin d'un segment archivé non compressé.
+     */
+    static Path cheminArchive(Path fichierActif, long index) {
+        String nom = fichierActif.getFileName().toString() + "." + String.format("%0" + LARGEUR_INDEX + "d", index);
+        return dossierDe(fichierActif).resolve(nom);
+    }
+
+    /**
+     * Plus grand index de segment archivé existant (0 si aucun).
+     */
+    static long dernierIndex(Path fichierActif) {
+        TreeMap<Long, Path> archives = archives(fichierActif);
+        return archives.isEmpty() ? 0 : archives.lastKey();
+    }
+
+    static boolean estCompresse(Path segment) {
+        return segment.getFileName().toString().endsWith(SUFFIXE_GZIP);
+    }
+
+    static Path dossierDe(Path fichier) {
+        Path parent = fichier.toAbsolutePath().getParent();
+        return parent != null ? parent : Path.of(".");
+    }
+
+    private static long indexDe(String nom, String prefixe) {
+        if (!nom.startsWith(prefixe)) {
+            return -1;
+        }
+        String reste = nom.substring(prefixe.length());
+        if (reste.endsWith(SUFFIXE_GZIP)) {
+            reste = reste.substring(0, reste.length() - SUFFIXE_GZIP.length());
+        }
+        if (reste.isEmpty() || reste.length() > 18) {
+            return -1;
+        }
+        for (int i = 0; i < reste.length(); i++) {
+            if (!Character.isDigit(reste.charAt(i))) {
+                return -1;
+            }
+        }
+        return Long.parseLong(reste);
+    }
+}
@@ -0,0 +1,234 @@
+package com.ex.gestion_conteneurs_agents.log;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Écrivain de journal avec rotation par taille et/ou par durée.
+ *
+ * - Le segment actif reste ouvert entre deux écritures (pas de réouverture par ligne)
+ * - À la rotation, le segment est renommé "nom.NNNNNN" puis compressé en arrière-plan
+ *   par un petit pool dédié: le chemin d'écriture n'attend jamais la compression
+ * - Une rétention limite le nombre de segments archivés conservés
+ *
+ * Les lectures à travers les segments se font via {@link LogSegments}.
+ */
+public class RotatingLogWriter implements Closeable {
+
+    private static final AtomicInteger COMPTEUR_THREADS = new AtomicInteger();
+
+    private final Path fichierActif;
+    private final RotationPolicy policy;
+    private final ExecutorService compresseurs;
+
+    private OutputStreamCompteur sortie;
+    private Writer writer;
+    private long ouvertLe;
+    private long prochainIndex;
+    private boolean ferme;
+
+    /**
+     * Crée un écrivain sur le fichier actif donné.
+     * @param fichierActif le chemin du journal actif
+     * @param policy la politique de rotation
+     */
+    public RotatingLogWriter(Path fichierActif, RotationPolicy policy) {
+        if (fichierActif == null || policy == null) {
+            throw new IllegalArgumentException("Le fichier et la politique de rotation sont obligatoires");
+        }
+        this.fichierActif = fichierActif;
+        this.policy = policy;
+        this.prochainIndex = LogSegments.dernierIndex(fichierActif) + 1;
+        int nbThreads = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+        this.compresseurs = Executors.newFixedThreadPool(nbThreads, r -> {
+            Thread t = new Thread(r, "log-compression-" + COMPTEUR_THREADS.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Écrit une ligne dans le segment actif, après rotation éventuelle.
+     * @param ligne la ligne à écrire (sans fin de ligne)
+     * @throws IOException si l'écriture échoue
+     */
+    public synchronized void ecrire(String ligne) throws IOException {
+        if (ferme) {
+            throw new IllegalStateException("Le journal est fermé");
+        }
+        ouvrirSiNecessaire();
+        if (sortie.ecrits > 0 && policy.rotationNecessaire(sortie.ecrits, System.currentTimeMillis() - ouvertLe)) {
+            rotation();
+            ouvrirSiNecessaire();
+        }
+        writer.write(ligne);
+        writer.write(System.lineSeparator());
+        writer.flush();
+    }
+
+    /**
+     * Clôture immédiatement le segment actif, quelle que soit la politique.
+     * @throws IOException si le renommage échoue
+     */
+    public synchronized void rotation() throws IOException {
+        fermerSegment();
+        if (!Files.exists(fichierActif)) {
+            return;
+        }
+        Path archive = LogSegments.cheminArchive(fichierActif, prochainIndex++);
+        Files.move(fichierActif, archive, StandardCopyOption.ATOMIC_MOVE);
+        if (policy.compression()) {
+            compresseurs.execute(() -> compresser(archive));
+        } else {
+            appliquerRetention();
+        }
+    }
+
+    /**
+     * Retourne le chemin du segment actif.
+     * @return le chemin du journal actif
+     */
+    public Path getFichierActif() {
+        return fichierActif;
+    }
+
+    /**
+     * Ferme le segment actif et attend la fin des compressions en cours.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (ferme) {
+            return;
+        }
+        ferme = true;
+        fermerSegment();
+        compresseurs.shutdown();
+        try {
+            if (!compresseurs.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("Compression des segments du journal non terminée après 30 s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== INTERNE ====================
+
+    private void ouvrirSiNecessaire() throws IOException {
+        if (writer != null) {
+            return;
+        }
+        boolean existe = Files.exists(fichierActif);
+        OutputStream out = Files.newOutputStream(fichierActif, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        sortie = new OutputStreamCompteur(new BufferedOutputStream(out, 16 * 1024));
+        sortie.ecrits = existe ? Files.size(fichierActif) : 0;
+        writer = new OutputStreamWriter(sortie, StandardCharsets.UTF_8);
+        ouvertLe = existe ? dateCreation(fichierActif) : System.currentTimeMillis();
+    }
+
+    private void fermerSegment() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            sortie = null;
+        }
+    }
+
+    private static long dateCreation(Path fichier) {
+        try {
+            return Files.readAttributes(fichier, BasicFileAttributes.class).creationTime().toMillis();
+        } catch (IOException e) {
+            return System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Compresse un segment archivé: écriture dans un fichier temporaire puis renommage atomique,
+     * de sorte que les lecteurs ne voient jamais un segment GZIP incomplet.
+     */
+    private void compresser(Path archive) {
+        Path gz = archive.resolveSibling(archive.getFileName() + LogSegments.SUFFIXE_GZIP);
+        Path tmp = archive.resolveSibling(gz.getFileName() + ".tmp");
+        try (InputStream in = Files.newInputStream(archive);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+            in.transferTo(out);
+        } catch (NoSuchFileException e) {
+            return; // Segment déjà supprimé par la rétention
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la compression du segment " + archive + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, gz, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(archive);
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la finalisation du segment " + gz + ": " + e.getMessage());
+        }
+        appliquerRetention();
+    }
+
+    /**
+     * Supprime les segments archivés les plus anciens au-delà de la limite de rétention.
+     */
+    private void appliquerRetention() {
+        int limite = policy.segmentsRetenus();
+        if (limite <= 0) {
+            return;
+        }
+        List<Path> archives = new ArrayList<>(LogSegments.archives(fichierActif).values());
+        for (int i = 0; i < archives.size() - limite; i++) {
+            Path segment = archives.get(i);
+            try {
+                Files.deleteIfExists(segment);
+                if (!LogSegments.estCompresse(segment)) {
+                    Files.deleteIfExists(segment.resolveSibling(segment.getFileName() + LogSegments.SUFFIXE_GZIP));
+                }
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la suppression du segment " + segment + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Flux de sortie comptant les octets écrits pour la rotation par taille.
+     */
+    private static final class OutputStreamCompteur extends FilterOutputStream {
+        private long ecrits;
+
+        OutputStreamCompteur(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            ecrits++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            ecrits += len;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ex.gestion_conteneurs_agents.log;
+
+import java.time.Duration;
+
+/**
+ * Politique de rotation du journal des notifications.
+ * Définit quand un segment est clôturé, s'il est compressé et combien de segments sont conservés.
+ *
+ * Design Pattern utilisé: BUILDER
+ * - Construction fluide d'une politique avec des valeurs par défaut raisonnables
+ *
+ * @param tailleMaxOctets taille à partir de laquelle le segment actif est clôturé (0 = pas de limite)
+ * @param dureeMax durée de vie maximale du segment actif (null = pas de limite)
+ * @param segmentsRetenus nombre maximal de segments archivés conservés (0 = illimité)
+ * @param compression true si les segments archivés sont compressés en GZIP
+ */
+public record RotationPolicy(long tailleMaxOctets, Duration dureeMax, int segmentsRetenus, boolean compression) {
+
+    /**
+     * Politique par défaut: 10 Mo ou 24 heures, 30 segments compressés conservés.
+     * @return la politique par défaut
+     */
+    public static RotationPolicy parDefaut() {
+        return builder().build();
+    }
+
+    /**
+     * Méthode statique pour obtenir une instance du Builder.
+     * @return une nouvelle instance de RotationPolicyBuilder
+     */
+    public static RotationPolicyBuilder builder() {
+        return new RotationPolicyBuilder();
+    }
+
+    /**
+     * Indique si le segment actif doit être clôturé.
+     * @param taille taille actuelle du segment actif en octets
+     * @param ageMillis âge du segment actif en millisecondes
+     * @return true si une rotation est nécessaire
+     */
+    boolean rotationNecessaire(long taille, long ageMillis) {
+        if (tailleMaxOctets > 0 && taille >= tailleMaxOctets) {
+            return true;
+        }
+        return dureeMax != null && ageMillis >= dureeMax.toMillis();
+    }
+
+    /**
+     * Builder de politique de rotation.
+     */
+    public static class RotationPolicyBuilder {
+        private long tailleMaxOctets = 10L * 1024 * 1024;
+        private Duration dureeMax = Duration.ofHours(24);
+        private int segmentsRetenus = 30;
+        private boolean compression = true;
+
+        public RotationPolicyBuilder tailleMaxOctets(long tailleMaxOctets) {
+            this.tailleMaxOctets = tailleMaxOctets;
+            return this;
+        }
+
+        public RotationPolicyBuilder dureeMax(Duration dureeMax) {
+            this.dureeMax = dureeMax;
+            return this;
+        }
+
+        public RotationPolicyBuilder segmentsRetenus(int segmentsRetenus) {
+            this.segmentsRetenus = segmentsRetenus;
+            return this;
+        }
+
+        public RotationPolicyBuilder compression(boolean compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * Construit la politique avec validation.
+         * @return la politique de rotation
+         * @throws IllegalStateException si une valeur est négative
+         */
+        public RotationPolicy build() {
+            if (tailleMaxOctets < 0) {
+                throw new IllegalStateException("La taille maximale ne peut pas être négative");
+            }
+            if (dureeMax != null && dureeMax.isNegative()) {
+                throw new IllegalStateException("La durée maximale ne peut pas être négative");
+            }
+            if (segmentsRetenus < 0) {
+                throw new IllegalStateException("Le nombre de segments retenus ne peut pas être négatif");
+            }
+            return new RotationPolicy(tailleMaxOctets, dureeMax, segmentsRetenus, compression);
+        }
+    }
+}
@@ -7,15 +7,29 @@ import com.ex.gestion_conteneurs_agents.observer.Observer;
 import com.ex.gestion_conteneurs_agents.observer.Subject;
 import com.ex.gestion_conteneurs_agents.strategy.DefaultStrategy;
 import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
 
 /**
  * Classe Agent implémentant les patterns Observer et Strategy.
@@ -29,17 +43,95 @@ import java.util.Optional;
  * - Peut souscrire aux notifications d'autres agents (Observer)
  * - Peut notifier ses observateurs lors de l'ajout d'une transaction (Subject)
  * - Peut changer sa stratégie de traitement des notifications (Strategy)
+ * 
+ * Diffusion dédupliquée: lorsque plusieurs observateurs partagent la même instance de
+ * stratégie (beans Spring singletons), un seul d'entre eux reçoit l'événement, afin que
+ * la stratégie ne traite chaque événement qu'une fois. Le plan de diffusion est calculé
+ * lors des changements d'abonnement ou de stratégie, pas à chaque notification.
+ * 
+ * Changement de stratégie à chaud: la stratégie active est publiée par une référence
+ * atomique (visible immédiatement, sans verrou sur le chemin de notification). Un
+ * remplacement avec drainage attend que les événements en cours sur l'ancienne
+ * stratégie soient terminés avant de la libérer.
+ * 
+ * Exécuteur propriétaire: lorsqu'un conteneur associe un exécuteur à l'agent (boucle
+ * d'événements de sa partition ou boîte aux lettres), l'ajout et la suppression de
+ * transactions et la réception de notifications sont exécutés par celui-ci. L'état de
+ * l'agent n'a alors qu'un seul écrivain et ne nécessite aucun verrou. Sans exécuteur, les appels sont directs.
+ * 
+ * Passivation: un conteneur peut décharger les transactions d'un agent inactif vers un stockage
+ * ({@link #passiver}); elles sont rechargées au premier accès suivant (lecture, mutation ou
+ * notification). Le nom, les abonnements et la stratégie restent en mémoire.
  */
 @Component
 @Getter
 public class Agent implements Subject, Observer {
 
     private final String nom;
+
+    @Getter(AccessLevel.NONE)
     private final List<Transaction> transactions;
     private final List<Observer> observers;
-    
-    @Setter
-    private NotificationStrategy strategy;
+
+    /**
+     * Agents observés par cet agent (pour invalider leur plan de diffusion).
+     */
+    @Getter(AccessLevel.NONE)
+    private final List<Agent> abonnements;
+
+    /**
+     * Plan de diffusion: observateurs effectivement notifiés (null = à recalculer).
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile Observer[] planDiffusion;
+
+    @Getter(AccessLevel.NONE)
+    private final Object verrouPlan = new Object();
+
+    /**
+     * Stratégie active et compteur des traitements en cours sur celle-ci.
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<StrategieActive> strategieActive;
+
+    /**
+     * Exécuteur propriétaire de l'agent (null = exécution directe dans l'appelant).
+     */
+    private volatile Executor executeur;
+
+    /**
+     * Écouteurs des mutations de l'agent.
+     */
+    @Getter(AccessLevel.NONE)
+    private final CopyOnWriteArrayList<AgentListener> ecouteurs = new CopyOnWriteArrayList<>();
+
+    /**
+     * Date de la dernière mutation des transactions (création de l'agent à défaut).
+     */
+    private volatile Instant derniereActivite = Instant.now();
+
+    /**
+     * Source de rechargement des transactions déchargées (null = agent actif).
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile Passivation passivation;
+
+    /**
+     * Date du dernier accès à l'état de l'agent (System.nanoTime), pour l'éviction LRU.
+     */
+    private volatile long dernierAcces = System.nanoTime();
+
+    /**
+     * LSN de la dernière mutation journalisée de l'agent (0 = aucune), marqué sous le moniteur
+     * de l'agent avec la mutation: une capture sait ainsi quelles mutations elle contient.
+     */
+    private volatile long lsn;
+
+    /**
+     * Seul thread autorisé à muter l'agent (null = tous), pour les répliques en lecture seule.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile Thread ecrivainExclusif;
 
     /**
      * Constructeur par défaut avec nom générique.
@@ -55,8 +147,9 @@ public class Agent implements Subject, Observer {
     public Agent(String nom) {
         this.nom = nom;
         this.transactions = new ArrayList<>();
-        this.observers = new ArrayList<>();
-        this.strategy = new DefaultStrategy(); // Stratégie par défaut
+        this.observers = new CopyOnWriteArrayList<>();
+        this.abonnements = new CopyOnWriteArrayList<>();
+        this.strategieActive = new AtomicReference<>(new StrategieActive(new DefaultStrategy())); // Stratégie par défaut
     }
 
     // ==================== GESTION DES TRANSACTIONS ====================
@@ -70,7 +163,17 @@ public class Agent implements Subject, Observer {
         if (transaction == null) {
             throw new IllegalArgumentException("La transaction ne peut pas être null");
         }
-        transactions.add(transaction);
+        verifierEcriture();
+        executer(() -> enregistrerTransaction(transaction));
+    }
+
+    private void enregistrerTransaction(Transaction transaction) {
+        synchronized (this) {
+            activer();
+            transactions.add(transaction);
+            derniereActivite = Instant.now();
+            ecouteurs.forEach(e -> e.transactionAjoutee(this, transaction));
+        }
         System.out.println("\n✅ Transaction ajoutée à l'agent [" + nom + "]: " + transaction.getId());
         
         // Notification des observateurs
@@ -80,12 +183,59 @@ public class Agent implements Subject, Observer {
 
     /**
      * Supprime une transaction par son ID.
+     * Avec un exécuteur propriétaire, la suppression y est exécutée et l'appelant attend son résultat
+     * (directement si l'appelant est déjà sur ce propriétaire).
      * @param transactionId l'ID de la transaction à supprimer
      * @return true si la transaction a été supprimée, false sinon
+     * @throws IllegalStateException si l'appelant est le propriétaire d'un autre agent: l'attente
+     *                               bloquerait son thread (passer par le conteneur, de façon asynchrone)
      */
     @Log
     public boolean supprimerTransaction(String transactionId) {
-        return transactions.removeIf(t -> t.getId().equals(transactionId));
+        verifierEcriture();
+        Executor proprietaire = executeur;
+        Executor courant = ThreadProprietaire.courant();
+        if (proprietaire == null || proprietaire == courant) {
+            return retirerTransaction(transactionId);
+        }
+        if (courant != null) {
+            throw new IllegalStateException("Suppression bloquante sur l'agent [" + nom
+                    + "] refusée depuis le propriétaire d'un autre agent");
+        }
+        CompletableFuture<Boolean> resultat = new CompletableFuture<>();
+        executer(() -> {
+            try {
+                resultat.complete(retirerTransaction(transactionId));
+            } catch (RuntimeException e) {
+                resultat.completeExceptionally(e);
+            }
+        });
+        try {
+            return resultat.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private boolean retirerTransaction(String transactionId) {
+        List<Transaction> retirees = new ArrayList<>(1);
+        synchronized (this) {
+            activer();
+            for (Iterator<Transaction> it = transactions.iterator(); it.hasNext(); ) {
+                Transaction t = it.next();
+                if (t.getId().equals(transactionId)) {
+                    it.remove();
+                    retirees.add(t);
+                }
+            }
+            if (!retirees.isEmpty()) {
+                derniereActivite = Instant.now();
+            }
+            for (Transaction t : retirees) {
+                ecouteurs.forEach(e -> e.transactionSupprimee(this, t));
+            }
+        }
+        return !retirees.isEmpty();
     }
 
     /**
@@ -93,7 +243,8 @@ public class Agent implements Subject, Observer {
      * @param transactionId l'ID de la transaction
      * @return Optional contenant la transaction si trouvée
      */
-    public Optional<Transaction> rechercherTransaction(String transactionId) {
+    public synchronized Optional<Transaction> rechercherTransaction(String transactionId) {
+        activer();
         return transactions.stream()
                 .filter(t -> t.getId().equals(transactionId))
                 .findFirst();
@@ -106,7 +257,8 @@ public class Agent implements Subject, Observer {
      */
     @Cachable
     @Log
-    public Optional<Transaction> getTransactionMaxMontant() {
+    public synchronized Optional<Transaction> getTransactionMaxMontant() {
+        activer();
         return transactions.stream()
                 .max(Comparator.comparingDouble(Transaction::getMontant));
     }
@@ -116,7 +268,8 @@ public class Agent implements Subject, Observer {
      * @return le solde (ventes - achats)
      */
     @Log
-    public double calculerSolde() {
+    public synchronized double calculerSolde() {
+        activer();
         return transactions.stream()
                 .mapToDouble(t -> {
                     switch (t.getType()) {
@@ -128,6 +281,169 @@ public class Agent implements Subject, Observer {
                 .sum();
     }
 
+    /**
+     * Retourne les transactions de l'agent (rechargées s'il est passivé).
+     * Il s'agit d'une copie prise sous le moniteur de l'agent, non modifiable: elle n'est affectée
+     * ni par les mutations ni par la passivation qui suivent. Toute mutation passe par
+     * {@link #ajouterTransaction(Transaction)} et {@link #supprimerTransaction(String)}, afin que
+     * les écouteurs (agrégats, index, journal) en soient informés.
+     * @return une copie des transactions, non modifiable
+     */
+    public synchronized List<Transaction> getTransactions() {
+        activer();
+        return List.copyOf(transactions);
+    }
+
+    // ==================== PASSIVATION ====================
+
+    /**
+     * Sauvegarde les transactions puis les décharge de la mémoire.
+     * Destinée aux agents inactifs. Les mutations des transactions prennent le même moniteur que la
+     * passivation: aucune ne peut s'intercaler entre la copie sauvegardée et le déchargement.
+     * @param stockage reçoit une copie des transactions et retourne la source de rechargement
+     * @return true si l'agent a été passivé, false s'il l'était déjà
+     */
+    public synchronized boolean passiver(Function<List<Transaction>, Passivation> stockage) {
+        if (passivation != null) {
+            return false;
+        }
+        Passivation source = stockage.apply(List.copyOf(transactions));
+        transactions.clear();
+        if (transactions instanceof ArrayList<Transaction> liste) {
+            liste.trimToSize();
+        }
+        passivation = source;
+        return true;
+    }
+
+    /**
+     * Recharge les transactions si l'agent est passivé et marque l'accès (éviction LRU).
+     * Appelée automatiquement par tout accès à l'état de l'agent.
+     * @return true si les transactions ont été rechargées
+     */
+    public boolean activer() {
+        dernierAcces = System.nanoTime();
+        if (passivation == null) {
+            return false;
+        }
+        synchronized (this) {
+            Passivation source = passivation;
+            if (source == null) {
+                return false;
+            }
+            transactions.addAll(source.recharger(this));
+            passivation = null;
+            return true;
+        }
+    }
+
+    /**
+     * @return true si les transactions de l'agent sont déchargées
+     */
+    public boolean estPassive() {
+        return passivation != null;
+    }
+
+    /**
+     * Nombre de transactions en mémoire, sans rechargement (0 si l'agent est passivé).
+     * @return le nombre de transactions résidentes
+     */
+    public int getNombreTransactionsResidentes() {
+        return transactions.size();
+    }
+
+    // ==================== RESTAURATION ====================
+
+    /**
+     * Capture l'état de l'agent sur son exécuteur propriétaire (copie cohérente des transactions
+     * et des observateurs, sans notification). Un agent passivé n'est pas réactivé: ses
+     * transactions sont relues depuis le stockage de passivation.
+     * @return l'état capturé (en erreur si la relecture échoue)
+     */
+    public CompletableFuture<Capture> capturer() {
+        CompletableFuture<Capture> resultat = new CompletableFuture<>();
+        executer(() -> {
+            try {
+                synchronized (this) {
+                    Passivation source = passivation;
+                    List<Transaction> copie = source == null ? List.copyOf(transactions) : source.lire(this);
+                    resultat.complete(new Capture(getStrategy(), copie, derniereActivite, lsn,
+                            List.copyOf(observers)));
+                }
+            } catch (RuntimeException e) {
+                resultat.completeExceptionally(e);
+            }
+        });
+        return resultat;
+    }
+
+    /**
+     * État d'un agent à un instant donné.
+     */
+    public record Capture(NotificationStrategy strategy, List<Transaction> transactions, Instant derniereActivite,
+                          long lsn, List<Observer> observateurs) {
+    }
+
+    /**
+     * Réinjecte des transactions sans écouteur ni notification (restauration d'un agent neuf,
+     * avant son ajout à un conteneur).
+     * @param restaurees les transactions, dans leur ordre d'origine
+     * @param activite la date de dernière activité à restaurer
+     */
+    public synchronized void restaurerTransactions(List<Transaction> restaurees, Instant activite) {
+        activer();
+        transactions.addAll(restaurees);
+        derniereActivite = activite;
+    }
+
+    /**
+     * Marque une mutation journalisée comme appliquée à l'agent (sans effet si un LSN
+     * supérieur l'est déjà).
+     * @param lsnMutation le LSN de la mutation
+     */
+    public synchronized void marquerLsn(long lsnMutation) {
+        if (lsnMutation > lsn) {
+            lsn = lsnMutation;
+        }
+    }
+
+    /**
+     * Fixe le LSN de l'ajout de l'agent à un journal: remplace un LSN attribué par un autre
+     * journal (instantané restauré, agent venu d'un autre conteneur).
+     * @param lsnAjout le LSN de l'ajout
+     */
+    public synchronized void reinitialiserLsn(long lsnAjout) {
+        lsn = lsnAjout;
+    }
+
+    /**
+     * Réinjecte des liens d'observation sans écouteur ni notification (restauration).
+     * Chaque lien doit être déclaré des deux côtés: observateurs du sujet et abonnements de l'observateur.
+     * @param nouveauxObservateurs les agents qui observent cet agent
+     * @param nouveauxAbonnements les agents observés par cet agent
+     */
+    public void restaurerGraphe(List<Agent> nouveauxObservateurs, List<Agent> nouveauxAbonnements) {
+        observers.addAll(nouveauxObservateurs);
+        abonnements.addAll(nouveauxAbonnements);
+        invaliderPlanDiffusion();
+    }
+
+    /**
+     * Réserve les mutations de l'agent (transactions, abonnements, stratégie) à un thread:
+     * les autres reçoivent une IllegalStateException. Les notifications reçues restent traitées.
+     * @param ecrivain le seul thread autorisé, null pour lever la restriction
+     */
+    public void reserverEcriture(Thread ecrivain) {
+        this.ecrivainExclusif = ecrivain;
+    }
+
+    private void verifierEcriture() {
+        Thread ecrivain = ecrivainExclusif;
+        if (ecrivain != null && ecrivain != Thread.currentThread()) {
+            throw new IllegalStateException("L'agent [" + nom + "] est en lecture seule (réplique)");
+        }
+    }
+
     // ==================== PATTERN OBSERVER - SUBJECT ====================
 
     /**
@@ -136,9 +452,17 @@ public class Agent implements Subject, Observer {
     @Override
     @Log
     public void subscribe(Observer observer) {
-        if (observer != null && !observers.contains(observer) && observer != this) {
-            observers.add(observer);
-            System.out.println("📌 [" + ((Agent) observer).getNom() + "] s'est abonné à [" + nom + "]");
+        verifierEcriture();
+        synchronized (this) {
+            if (observer != null && !observers.contains(observer) && observer != this) {
+                observers.add(observer);
+                if (observer instanceof Agent agent) {
+                    agent.abonnements.add(this);
+                }
+                invaliderPlanDiffusion();
+                System.out.println("📌 [" + ((Agent) observer).getNom() + "] s'est abonné à [" + nom + "]");
+                ecouteurs.forEach(e -> e.abonnementAjoute(this, observer));
+            }
         }
     }
 
@@ -147,22 +471,83 @@ public class Agent implements Subject, Observer {
      */
     @Override
     public void unsubscribe(Observer observer) {
-        if (observers.remove(observer)) {
-            System.out.println("📌 [" + ((Agent) observer).getNom() + "] s'est désabonné de [" + nom + "]");
+        verifierEcriture();
+        synchronized (this) {
+            if (observers.remove(observer)) {
+                if (observer instanceof Agent agent) {
+                    agent.abonnements.remove(this);
+                }
+                invaliderPlanDiffusion();
+                System.out.println("📌 [" + ((Agent) observer).getNom() + "] s'est désabonné de [" + nom + "]");
+                ecouteurs.forEach(e -> e.abonnementRetire(this, observer));
+            }
         }
     }
 
     /**
      * Notifie tous les observateurs enregistrés.
+     * Une stratégie partagée par plusieurs observateurs ne traite l'événement qu'une fois.
      */
     @Override
     public void notifyObservers(NotificationEvent event) {
-        System.out.println("🔔 Notification de " + observers.size() + " observateur(s) par [" + nom + "]");
-        for (Observer observer : observers) {
+        Observer[] plan = getPlanDiffusion();
+        System.out.println("🔔 Notification de " + observers.size() + " observateur(s) par [" + nom + "]"
+                + (plan.length < observers.size() ? " - " + plan.length + " stratégie(s) distincte(s)" : ""));
+        for (Observer observer : plan) {
             observer.update(event);
         }
     }
 
+    /**
+     * Retourne les agents observés par cet agent.
+     * @return liste non modifiable des agents observés
+     */
+    public List<Agent> getAbonnements() {
+        return Collections.unmodifiableList(abonnements);
+    }
+
+    /**
+     * Retourne le plan de diffusion courant, en le recalculant s'il a été invalidé.
+     * @return les observateurs effectivement notifiés
+     */
+    Observer[] getPlanDiffusion() {
+        Observer[] plan = planDiffusion;
+        if (plan != null) {
+            return plan;
+        }
+        synchronized (verrouPlan) {
+            if (planDiffusion == null) {
+                planDiffusion = calculerPlanDiffusion();
+            }
+            return planDiffusion;
+        }
+    }
+
+    /**
+     * Invalide le plan de diffusion (abonnements ou stratégie d'un observateur modifiés).
+     */
+    void invaliderPlanDiffusion() {
+        synchronized (verrouPlan) {
+            planDiffusion = null;
+        }
+    }
+
+    /**
+     * Regroupe les agents observateurs par instance de stratégie et n'en retient
+     * qu'un par instance. Les observateurs qui ne sont pas des agents sont tous conservés.
+     */
+    private Observer[] calculerPlanDiffusion() {
+        Map<NotificationStrategy, Boolean> strategiesVues = new IdentityHashMap<>();
+        List<Observer> plan = new ArrayList<>(observers.size());
+        for (Observer observer : observers) {
+            if (observer instanceof Agent agent && strategiesVues.put(agent.getStrategy(), Boolean.TRUE) != null) {
+                continue;
+            }
+            plan.add(observer);
+        }
+        return plan.toArray(new Observer[0]);
+    }
+
     // ==================== PATTERN OBSERVER - OBSERVER ====================
 
     /**
@@ -172,8 +557,35 @@ public class Agent implements Subject, Observer {
     @Override
     @Log
     public void update(NotificationEvent event) {
+        executer(() -> traiterNotification(event));
+    }
+
+    private void traiterNotification(NotificationEvent event) {
+        activer();
         System.out.println("\n📨 [" + nom + "] reçoit une notification de [" + event.getAgentName() + "]");
-        strategy.handleNotification(event);
+        StrategieActive active = entrer();
+        try {
+            active.strategy.handleNotification(event);
+        } finally {
+            active.enCours.decrementAndGet();
+        }
+    }
+
+    /**
+     * Enregistre un traitement en cours sur la stratégie active.
+     * Si la stratégie a été remplacée entre la lecture et l'enregistrement, l'enregistrement
+     * est annulé et la nouvelle stratégie est utilisée: un drainage ne peut donc jamais
+     * manquer un traitement commencé sur l'ancienne stratégie.
+     */
+    private StrategieActive entrer() {
+        while (true) {
+            StrategieActive active = strategieActive.get();
+            active.enCours.incrementAndGet();
+            if (strategieActive.get() == active) {
+                return active;
+            }
+            active.enCours.decrementAndGet();
+        }
     }
 
     // ==================== PATTERN STRATEGY ====================
@@ -188,8 +600,136 @@ public class Agent implements Subject, Observer {
             throw new IllegalArgumentException("La stratégie ne peut pas être null");
         }
         System.out.println("🔄 [" + nom + "] change de stratégie: " + 
-                strategy.getStrategyName() + " → " + newStrategy.getStrategyName());
-        this.strategy = newStrategy;
+                getStrategy().getStrategyName() + " → " + newStrategy.getStrategyName());
+        setStrategy(newStrategy);
+    }
+
+    /**
+     * Change la stratégie puis attend que les événements en cours sur l'ancienne soient traités.
+     * Ne doit pas être appelée depuis le traitement d'une notification de cet agent.
+     * @param newStrategy la nouvelle stratégie à utiliser
+     * @param delaiDrainage le délai maximal d'attente du drainage
+     * @return true si l'ancienne stratégie n'a plus aucun traitement en cours
+     */
+    @Log
+    public boolean changerStrategie(NotificationStrategy newStrategy, Duration delaiDrainage) {
+        if (newStrategy == null) {
+            throw new IllegalArgumentException("La stratégie ne peut pas être null");
+        }
+        StrategieActive ancienne = remplacer(newStrategy);
+        System.out.println("🔄 [" + nom + "] change de stratégie (avec drainage): " +
+                ancienne.strategy.getStrategyName() + " → " + newStrategy.getStrategyName());
+        long limite = System.nanoTime() + delaiDrainage.toNanos();
+        int attentes = 0;
+        while (ancienne.enCours.get() > 0) {
+            if (System.nanoTime() - limite >= 0) {
+                return false;
+            }
+            if (++attentes < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(50_000);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Exécute une action sur l'exécuteur propriétaire de l'agent (directement s'il n'en a pas).
+     * Si l'agent change de propriétaire avant l'exécution, l'action est transmise au nouveau:
+     * une migration de partition ne perd aucune action.
+     * @param action l'action à exécuter
+     */
+    public void executer(Runnable action) {
+        Executor proprietaire = executeur;
+        if (proprietaire == null) {
+            action.run();
+            return;
+        }
+        proprietaire.execute(() -> {
+            if (executeur == proprietaire) {
+                action.run();
+            } else {
+                executer(action);
+            }
+        });
+    }
+
+    /**
+     * Associe l'agent à un exécuteur propriétaire (réservé aux conteneurs).
+     * L'exécuteur doit exécuter directement les tâches soumises depuis son propre thread.
+     * @param executeur l'exécuteur, ou null pour revenir à l'exécution directe
+     */
+    public void setExecuteur(Executor executeur) {
+        this.executeur = executeur;
+    }
+
+    /**
+     * Enregistre un écouteur des mutations de l'agent (sans effet s'il l'est déjà).
+     * @param ecouteur l'écouteur à ajouter
+     */
+    public void ajouterEcouteur(AgentListener ecouteur) {
+        ecouteurs.addIfAbsent(ecouteur);
+    }
+
+    /**
+     * Retire un écouteur des mutations de l'agent.
+     * @param ecouteur l'écouteur à retirer
+     */
+    public void retirerEcouteur(AgentListener ecouteur) {
+        ecouteurs.remove(ecouteur);
+    }
+
+    /**
+     * Retourne la stratégie active.
+     * @return la stratégie de traitement des notifications
+     */
+    public NotificationStrategy getStrategy() {
+        return strategieActive.get().strategy;
+    }
+
+    /**
+     * Définit la stratégie (échange atomique, sans drainage) et invalide les plans
+     * de diffusion des agents observés.
+     * @param strategy la nouvelle stratégie
+     */
+    public void setStrategy(NotificationStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("La stratégie ne peut pas être null");
+        }
+        remplacer(strategy);
+    }
+
+    /**
+     * Retourne le nombre de notifications en cours de traitement par la stratégie active.
+     * @return le nombre de traitements en cours
+     */
+    public int getTraitementsEnCours() {
+        return strategieActive.get().enCours.get();
+    }
+
+    private StrategieActive remplacer(NotificationStrategy strategy) {
+        verifierEcriture();
+        synchronized (this) {
+            StrategieActive ancienne = strategieActive.getAndSet(new StrategieActive(strategy));
+            for (Agent sujet : abonnements) {
+                sujet.invaliderPlanDiffusion();
+            }
+            ecouteurs.forEach(e -> e.strategieChangee(this, ancienne.strategy, strategy));
+            return ancienne;
+        }
+    }
+
+    /**
+     * Stratégie publiée atomiquement avec son compteur de traitements en cours.
+     */
+    private static final class StrategieActive {
+        private final NotificationStrategy strategy;
+        private final AtomicInteger enCours = new AtomicInteger();
+
+        StrategieActive(NotificationStrategy strategy) {
+            this.strategy = strategy;
+        }
     }
 
     // ==================== AFFICHAGE ====================
@@ -204,7 +744,8 @@ public class Agent implements Subject, Observer {
         System.out.println("\n╔══════════════════════════════════════════════════════════════╗");
         System.out.println("║                        AGENT: " + nom);
         System.out.println("╠══════════════════════════════════════════════════════════════╣");
-        System.out.println("║ Stratégie active: " + strategy.getStrategyName());
+        System.out.println("║ Stratégie active: " + getStrategy().getStrategyName());
+        List<Transaction> transactions = getTransactions();
         System.out.println("║ Nombre de transactions: " + transactions.size());
         System.out.println("║ Nombre d'observateurs: " + observers.size());
         System.out.println("╠══════════════════════════════════════════════════════════════╣");
@@ -232,13 +773,13 @@ public class Agent implements Subject, Observer {
      */
     public void afficherResume() {
         System.out.println("Agent [" + nom + "] - " + 
-                transactions.size() + " transaction(s) - Solde: " + 
+                getTransactions().size() + " transaction(s) - Solde: " + 
                 String.format("%.2f", calculerSolde()) + " €");
     }
 
     @Override
     public String toString() {
-        return "Agent{nom='" + nom + "', transactions=" + transactions.size() + 
-                ", observers=" + observers.size() + ", strategy=" + strategy.getStrategyName() + "}";
+        return "Agent{nom='" + nom + "', transactions=" + (estPassive() ? "passivées" : transactions.size()) + 
+                ", observers=" + observers.size() + ", strategy=" + getStrategy().getStrategyName() + "}";
     }
 }
@@ -0,0 +1,57 @@
+package com.ex.gestion_conteneurs_agents.model;
+
+import com.ex.gestion_conteneurs_agents.observer.Observer;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+
+/**
+ * Écouteur des mutations d'un agent (conteneurs, index, placement).
+ *
+ * Les méthodes sont appelées de manière synchrone dans le thread qui effectue la mutation,
+ * après celle-ci et sous le moniteur de l'agent (du sujet pour un abonnement): qui lit l'agent
+ * sous ce moniteur voit des écouteurs à jour, et deux mutations d'un agent leur sont signalées
+ * dans l'ordre où elles ont été appliquées. Elles doivent donc rester brèves,
+ * ne pas lever d'exception ni attendre un verrou détenu pendant l'accès à un agent.
+ */
+public interface AgentListener {
+
+    /**
+     * Une transaction a été ajoutée à l'agent.
+     * @param agent l'agent modifié
+     * @param transaction la transaction ajoutée
+     */
+    default void transactionAjoutee(Agent agent, Transaction transaction) {
+    }
+
+    /**
+     * Une transaction a été supprimée de l'agent.
+     * @param agent l'agent modifié
+     * @param transaction la transaction supprimée
+     */
+    default void transactionSupprimee(Agent agent, Transaction transaction) {
+    }
+
+    /**
+     * Un observateur s'est abonné à l'agent.
+     * @param sujet l'agent observé
+     * @param observateur le nouvel observateur
+     */
+    default void abonnementAjoute(Agent sujet, Observer observateur) {
+    }
+
+    /**
+     * Un observateur s'est désabonné de l'agent.
+     * @param sujet l'agent observé
+     * @param observateur l'observateur retiré
+     */
+    default void abonnementRetire(Agent sujet, Observer observateur) {
+    }
+
+    /**
+     * La stratégie active de l'agent a été remplacée.
+     * @param agent l'agent modifié
+     * @param ancienne la stratégie remplacée
+     * @param nouvelle la nouvelle stratégie
+     */
+    default void strategieChangee(Agent agent, NotificationStrategy ancienne, NotificationStrategy nouvelle) {
+    }
+}
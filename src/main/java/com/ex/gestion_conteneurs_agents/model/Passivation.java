@@ -0,0 +1,23 @@
+package com.ex.gestion_conteneurs_agents.model;
+
+import java.util.List;
+
+/**
+ * Source de rechargement des transactions d'un agent passivé (voir {@link Agent#passiver}).
+ */
+public interface Passivation {
+
+    /**
+     * Recharge les transactions sauvegardées lors de la passivation.
+     * @param agent l'agent à réactiver
+     * @return les transactions, dans leur ordre d'origine
+     */
+    List<Transaction> recharger(Agent agent);
+
+    /**
+     * Relit les transactions sauvegardées sans réactiver l'agent (instantanés).
+     * @param agent l'agent passivé
+     * @return les transactions, dans leur ordre d'origine
+     */
+    List<Transaction> lire(Agent agent);
+}
@@ -0,0 +1,49 @@
+package com.ex.gestion_conteneurs_agents.model;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Exécuteur propriétaire (partition, boîte aux lettres) dont le thread courant déroule les tâches.
+ *
+ * Les conteneurs le déclarent pendant le traitement de leurs tâches: un agent peut ainsi
+ * exécuter directement une action déjà sur son propriétaire, et refuser une attente bloquante
+ * qui immobiliserait le thread du propriétaire d'un autre agent (réservé aux conteneurs).
+ */
+public final class ThreadProprietaire {
+
+    private static final ThreadLocal<Executor> COURANT = new ThreadLocal<>();
+
+    private ThreadProprietaire() {
+    }
+
+    /**
+     * Déclare l'exécuteur propriétaire du thread courant.
+     * @param executeur l'exécuteur dont le thread courant traite les tâches
+     * @return l'exécuteur déclaré précédemment, à restaurer par {@link #sortir(Executor)}
+     */
+    public static Executor entrer(Executor executeur) {
+        Executor precedent = COURANT.get();
+        COURANT.set(executeur);
+        return precedent;
+    }
+
+    /**
+     * Restaure l'exécuteur propriétaire précédent du thread courant.
+     * @param precedent la valeur retournée par {@link #entrer(Executor)}
+     */
+    public static void sortir(Executor precedent) {
+        if (precedent == null) {
+            COURANT.remove();
+        } else {
+            COURANT.set(precedent);
+        }
+    }
+
+    /**
+     * Retourne l'exécuteur propriétaire du thread courant.
+     * @return l'exécuteur, ou null hors de tout exécuteur propriétaire
+     */
+    public static Executor courant() {
+        return COURANT.get();
+    }
+}
@@ -0,0 +1,244 @@
+package com.ex.gestion_conteneurs_agents.persistence;
+
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stockage sur disque des transactions des agents passivés.
+ *
+ * Fichier à ajout seul (big-endian):
+ * <pre>
+ * En-tête       : "ASTO" (4 octets) | version (short)
+ * Enregistrement: longueur (int, octets suivants) | nom (chaîne) | nombre (int) | transactions
+ * </pre>
+ * Une table en mémoire associe chaque agent à la position de son dernier enregistrement.
+ * Les enregistrements relus (agent réactivé) ou remplacés deviennent morts; {@link #compacter()}
+ * réécrit les seuls enregistrements vivants. Le contenu n'a de sens que pour le processus
+ * qui l'a écrit: le fichier est tronqué à l'ouverture et ne fait l'objet d'aucun fsync.
+ */
+public class AgentStore implements Closeable {
+
+    static final int MAGIC = 0x4153544F; // "ASTO"
+    static final short VERSION = 1;
+    static final int TAILLE_EN_TETE = 6;
+
+    private record Emplacement(long position, int longueur) {
+    }
+
+    private final Path fichier;
+    private final Map<String, Emplacement> emplacements = new HashMap<>();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private FileChannel canal;
+    private long fin;
+    private long octetsMorts;
+
+    /**
+     * Ouvre le stockage (un fichier existant est vidé).
+     * @param fichier le chemin du fichier de données
+     * @throws IOException si le fichier ne peut pas être créé
+     */
+    public AgentStore(Path fichier) throws IOException {
+        this.fichier = fichier;
+        this.canal = ouvrirVide(fichier);
+        this.fin = TAILLE_EN_TETE;
+    }
+
+    private static FileChannel ouvrirVide(Path fichier) throws IOException {
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ecrireTout(canal, ByteBuffer.allocate(TAILLE_EN_TETE).putInt(MAGIC).putShort(VERSION).flip(), 0);
+        return canal;
+    }
+
+    /**
+     * Enregistre les transactions d'un agent (remplace un enregistrement précédent).
+     * @param nom le nom de l'agent
+     * @param transactions les transactions à sauvegarder
+     * @return la taille de l'enregistrement en octets
+     * @throws IOException si l'écriture échoue
+     */
+    public int ecrire(String nom, List<Transaction> transactions) throws IOException {
+        int longueur = TransactionCodec.tailleChaine(nom) + 4;
+        for (Transaction t : transactions) {
+            longueur += TransactionCodec.taille(t);
+        }
+        ByteBuffer tampon = ByteBuffer.allocate(4 + longueur).putInt(longueur);
+        TransactionCodec.ecrireChaine(tampon, nom);
+        tampon.putInt(transactions.size());
+        transactions.forEach(t -> TransactionCodec.ecrire(tampon, t));
+        tampon.flip();
+
+        verrou.writeLock().lock();
+        try {
+            ecrireTout(canal, tampon, fin);
+            Emplacement ancien = emplacements.put(nom, new Emplacement(fin, 4 + longueur));
+            if (ancien != null) {
+                octetsMorts += ancien.longueur();
+            }
+            fin += 4 + longueur;
+            return 4 + longueur;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Relit les transactions d'un agent (lecture positionnelle, concurrente avec les autres lectures).
+     * @param nom le nom de l'agent
+     * @return les transactions
+     * @throws IOException si l'agent n'est pas stocké ou si la lecture échoue
+     */
+    public List<Transaction> lire(String nom) throws IOException {
+        ByteBuffer tampon;
+        verrou.readLock().lock();
+        try {
+            Emplacement emplacement = emplacements.get(nom);
+            if (emplacement == null) {
+                throw new IOException("Agent [" + nom + "] absent du stockage de passivation");
+            }
+            tampon = ByteBuffer.allocate(emplacement.longueur());
+            while (tampon.hasRemaining()) {
+                if (canal.read(tampon, emplacement.position() + tampon.position()) < 0) {
+                    throw new IOException("Fin de fichier inattendue dans le stockage de passivation");
+                }
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+        tampon.flip();
+        tampon.getInt();
+        String lu = TransactionCodec.lireChaine(tampon);
+        if (!lu.equals(nom)) {
+            throw new IOException("Enregistrement incohérent: [" + lu + "] au lieu de [" + nom + "]");
+        }
+        int nombre = tampon.getInt();
+        List<Transaction> transactions = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            transactions.add(TransactionCodec.lire(tampon));
+        }
+        return transactions;
+    }
+
+    /**
+     * Marque l'enregistrement d'un agent comme mort.
+     * @param nom le nom de l'agent
+     * @return true si l'agent était stocké
+     */
+    public boolean supprimer(String nom) {
+        verrou.writeLock().lock();
+        try {
+            Emplacement ancien = emplacements.remove(nom);
+            if (ancien != null) {
+                octetsMorts += ancien.longueur();
+            }
+            return ancien != null;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Réécrit les enregistrements vivants dans un nouveau fichier puis le substitue à l'ancien.
+     * @throws IOException si la réécriture échoue (l'ancien fichier reste en place)
+     */
+    public void compacter() throws IOException {
+        verrou.writeLock().lock();
+        try {
+            Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".compact");
+            Map<String, Emplacement> nouveaux = new HashMap<>();
+            long position = TAILLE_EN_TETE;
+            try (FileChannel cible = ouvrirVide(temporaire)) {
+                for (Map.Entry<String, Emplacement> entree : emplacements.entrySet()) {
+                    Emplacement e = entree.getValue();
+                    long copie = 0;
+                    while (copie < e.longueur()) {
+                        copie += canal.transferTo(e.position() + copie, e.longueur() - copie, cible.position(position + copie));
+                    }
+                    nouveaux.put(entree.getKey(), new Emplacement(position, e.longueur()));
+                    position += e.longueur();
+                }
+            }
+            canal.close();
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            canal = FileChannel.open(fichier, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            emplacements.clear();
+            emplacements.putAll(nouveaux);
+            fin = position;
+            octetsMorts = 0;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    public boolean contient(String nom) {
+        verrou.readLock().lock();
+        try {
+            return emplacements.containsKey(nom);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public int getNombreAgents() {
+        verrou.readLock().lock();
+        try {
+            return emplacements.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return la taille du fichier de données en octets
+     */
+    public long getTailleOctets() {
+        verrou.readLock().lock();
+        try {
+            return fin;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return les octets occupés par des enregistrements morts (récupérables par compactage)
+     */
+    public long getOctetsMorts() {
+        verrou.readLock().lock();
+        try {
+            return octetsMorts;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        verrou.writeLock().lock();
+        try {
+            canal.close();
+            Files.deleteIfExists(fichier);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private static void ecrireTout(FileChannel canal, ByteBuffer tampon, long position) throws IOException {
+        while (tampon.hasRemaining()) {
+            position += canal.write(tampon, position);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ex.gestion_conteneurs_agents.persistence;
+
+/**
+ * Garantie apportée par le journal au retour d'une mutation.
+ *
+ * La mutation est journalisée dans le thread qui l'effectue. Avec {@link #ECRITURE} et
+ * {@link #DISQUE}, ce thread attend l'écriture de son lot: plusieurs écrivains concurrents
+ * partagent un même appel système et un même fsync, mais un écrivain unique (ingestion
+ * séquentielle) paie un fsync complet par mutation, soit un débit borné par la latence du disque.
+ * {@link #DIFFEREE}, la valeur par défaut, valide les mutations par lots périodiques sans attente:
+ * le débit reste proche du chemin en mémoire et la perte en cas d'arrêt brutal est bornée par
+ * l'intervalle d'écriture.
+ */
+public enum Durabilite {
+
+    /** Retour immédiat; le journal est écrit et synchronisé sur disque périodiquement. */
+    DIFFEREE,
+
+    /** Retour une fois le lot écrit dans le fichier (résiste à l'arrêt du processus, pas du système). */
+    ECRITURE,
+
+    /** Retour une fois le lot synchronisé sur disque (fsync). */
+    DISQUE
+}
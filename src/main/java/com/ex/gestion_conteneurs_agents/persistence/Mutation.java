@@ -0,0 +1,41 @@
+package com.ex.gestion_conteneurs_agents.persistence;
+
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Mutation d'un conteneur ou de l'un de ses agents, telle qu'elle est journalisée puis rejouée.
+ * Les agents sont désignés par leur nom et les stratégies par leur nom ({@code getStrategyName()}).
+ */
+public sealed interface Mutation {
+
+    /**
+     * Ajout d'un agent avec son état courant.
+     * @param observateurs les noms des agents qui observent déjà l'agent
+     */
+    record AgentAjoute(String nom, String strategie, long derniereActivite, List<Transaction> transactions,
+                       List<String> observateurs) implements Mutation {
+    }
+
+    record AgentRetire(String nom) implements Mutation {
+    }
+
+    record Vidage() implements Mutation {
+    }
+
+    record TransactionAjoutee(String agent, Transaction transaction) implements Mutation {
+    }
+
+    record TransactionSupprimee(String agent, String transactionId) implements Mutation {
+    }
+
+    record AbonnementAjoute(String sujet, String observateur) implements Mutation {
+    }
+
+    record AbonnementRetire(String sujet, String observateur) implements Mutation {
+    }
+
+    record StrategieChangee(String agent, String strategie) implements Mutation {
+    }
+}
@@ -0,0 +1,165 @@
+package com.ex.gestion_conteneurs_agents.persistence;
+
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodage binaire des mutations (journal et réplication).
+ *
+ * Format (big-endian): genre (byte) puis contenu
+ * <pre>
+ * AGENT_AJOUTE          : nom | stratégie | dernière activité (long, epoch millis) | nombre (int)
+ *                         | transactions | nombre d'observateurs (int) | observateurs
+ * AGENT_RETIRE          : nom
+ * VIDAGE                : (vide)
+ * TRANSACTION_AJOUTEE   : agent | transaction
+ * TRANSACTION_SUPPRIMEE : agent | id de transaction
+ * ABONNEMENT_AJOUTE     : sujet | observateur
+ * ABONNEMENT_RETIRE     : sujet | observateur
+ * STRATEGIE_CHANGEE     : agent | stratégie
+ * </pre>
+ * Chaînes et transactions au format de {@link TransactionCodec}.
+ */
+public final class MutationCodec {
+
+    static final byte AGENT_AJOUTE = 1;
+    static final byte AGENT_RETIRE = 2;
+    static final byte VIDAGE = 3;
+    static final byte TRANSACTION_AJOUTEE = 4;
+    static final byte TRANSACTION_SUPPRIMEE = 5;
+    static final byte ABONNEMENT_AJOUTE = 6;
+    static final byte ABONNEMENT_RETIRE = 7;
+    static final byte STRATEGIE_CHANGEE = 8;
+
+    private MutationCodec() {
+    }
+
+    /**
+     * Taille encodée d'une mutation.
+     * @return le nombre d'octets
+     */
+    public static int taille(Mutation mutation) {
+        if (mutation instanceof Mutation.AgentAjoute m) {
+            int taille = 1 + TransactionCodec.tailleChaine(m.nom()) + TransactionCodec.tailleChaine(m.strategie())
+                    + 8 + 4 + 4;
+            for (Transaction t : m.transactions()) {
+                taille += TransactionCodec.taille(t);
+            }
+            for (String observateur : m.observateurs()) {
+                taille += TransactionCodec.tailleChaine(observateur);
+            }
+            return taille;
+        }
+        if (mutation instanceof Mutation.AgentRetire m) {
+            return 1 + TransactionCodec.tailleChaine(m.nom());
+        }
+        if (mutation instanceof Mutation.Vidage) {
+            return 1;
+        }
+        if (mutation instanceof Mutation.TransactionAjoutee m) {
+            return 1 + TransactionCodec.tailleChaine(m.agent()) + TransactionCodec.taille(m.transaction());
+        }
+        if (mutation instanceof Mutation.TransactionSupprimee m) {
+            return 1 + TransactionCodec.tailleChaine(m.agent()) + TransactionCodec.tailleChaine(m.transactionId());
+        }
+        if (mutation instanceof Mutation.AbonnementAjoute m) {
+            return 1 + TransactionCodec.tailleChaine(m.sujet()) + TransactionCodec.tailleChaine(m.observateur());
+        }
+        if (mutation instanceof Mutation.AbonnementRetire m) {
+            return 1 + TransactionCodec.tailleChaine(m.sujet()) + TransactionCodec.tailleChaine(m.observateur());
+        }
+        Mutation.StrategieChangee m = (Mutation.StrategieChangee) mutation;
+        return 1 + TransactionCodec.tailleChaine(m.agent()) + TransactionCodec.tailleChaine(m.strategie());
+    }
+
+    public static void ecrire(ByteBuffer tampon, Mutation mutation) {
+        if (mutation instanceof Mutation.AgentAjoute m) {
+            tampon.put(AGENT_AJOUTE);
+            TransactionCodec.ecrireChaine(tampon, m.nom());
+            TransactionCodec.ecrireChaine(tampon, m.strategie());
+            tampon.putLong(m.derniereActivite()).putInt(m.transactions().size());
+            for (Transaction t : m.transactions()) {
+                TransactionCodec.ecrire(tampon, t);
+            }
+            tampon.putInt(m.observateurs().size());
+            for (String observateur : m.observateurs()) {
+                TransactionCodec.ecrireChaine(tampon, observateur);
+            }
+        } else if (mutation instanceof Mutation.AgentRetire m) {
+            tampon.put(AGENT_RETIRE);
+            TransactionCodec.ecrireChaine(tampon, m.nom());
+        } else if (mutation instanceof Mutation.Vidage) {
+            tampon.put(VIDAGE);
+        } else if (mutation instanceof Mutation.TransactionAjoutee m) {
+            tampon.put(TRANSACTION_AJOUTEE);
+            TransactionCodec.ecrireChaine(tampon, m.agent());
+            TransactionCodec.ecrire(tampon, m.transaction());
+        } else if (mutation instanceof Mutation.TransactionSupprimee m) {
+            tampon.put(TRANSACTION_SUPPRIMEE);
+            TransactionCodec.ecrireChaine(tampon, m.agent());
+            TransactionCodec.ecrireChaine(tampon, m.transactionId());
+        } else if (mutation instanceof Mutation.AbonnementAjoute m) {
+            tampon.put(ABONNEMENT_AJOUTE);
+            TransactionCodec.ecrireChaine(tampon, m.sujet());
+            TransactionCodec.ecrireChaine(tampon, m.observateur());
+        } else if (mutation instanceof Mutation.AbonnementRetire m) {
+            tampon.put(ABONNEMENT_RETIRE);
+            TransactionCodec.ecrireChaine(tampon, m.sujet());
+            TransactionCodec.ecrireChaine(tampon, m.observateur());
+        } else {
+            Mutation.StrategieChangee m = (Mutation.StrategieChangee) mutation;
+            tampon.put(STRATEGIE_CHANGEE);
+            TransactionCodec.ecrireChaine(tampon, m.agent());
+            TransactionCodec.ecrireChaine(tampon, m.strategie());
+        }
+    }
+
+    /**
+     * Décode une mutation.
+     * @throws IllegalArgumentException si le genre est inconnu
+     */
+    public static Mutation lire(ByteBuffer tampon) {
+        byte genre = tampon.get();
+        switch (genre) {
+            case AGENT_AJOUTE: {
+                String nom = TransactionCodec.lireChaine(tampon);
+                String strategie = TransactionCodec.lireChaine(tampon);
+                long activite = tampon.getLong();
+                int nombre = tampon.getInt();
+                List<Transaction> transactions = new ArrayList<>(nombre);
+                for (int i = 0; i < nombre; i++) {
+                    transactions.add(TransactionCodec.lire(tampon));
+                }
+                int nombreObservateurs = tampon.getInt();
+                List<String> observateurs = new ArrayList<>(nombreObservateurs);
+                for (int i = 0; i < nombreObservateurs; i++) {
+                    observateurs.add(TransactionCodec.lireChaine(tampon));
+                }
+                return new Mutation.AgentAjoute(nom, strategie, activite, transactions, observateurs);
+            }
+            case AGENT_RETIRE:
+                return new Mutation.AgentRetire(TransactionCodec.lireChaine(tampon));
+            case VIDAGE:
+                return new Mutation.Vidage();
+            case TRANSACTION_AJOUTEE:
+                return new Mutation.TransactionAjoutee(TransactionCodec.lireChaine(tampon), TransactionCodec.lire(tampon));
+            case TRANSACTION_SUPPRIMEE:
+                return new Mutation.TransactionSupprimee(TransactionCodec.lireChaine(tampon),
+                        TransactionCodec.lireChaine(tampon));
+            case ABONNEMENT_AJOUTE:
+                return new Mutation.AbonnementAjoute(TransactionCodec.lireChaine(tampon),
+                        TransactionCodec.lireChaine(tampon));
+            case ABONNEMENT_RETIRE:
+                return new Mutation.AbonnementRetire(TransactionCodec.lireChaine(tampon),
+                        TransactionCodec.lireChaine(tampon));
+            case STRATEGIE_CHANGEE:
+                return new Mutation.StrategieChangee(TransactionCodec.lireChaine(tampon),
+                        TransactionCodec.lireChaine(tampon));
+            default:
+                throw new IllegalArgumentException("Genre de mutation inconnu: " + genre);
+        }
+    }
+}
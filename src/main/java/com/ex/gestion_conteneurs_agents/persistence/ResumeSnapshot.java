@@ -0,0 +1,17 @@
+package com.ex.gestion_conteneurs_agents.persistence;
+
+/**
+ * Résumé d'un instantané écrit ou restauré.
+ * @param lsn le numéro de séquence du journal couvert par l'instantané (0 sans journal)
+ * @param nombreAgents le nombre d'agents
+ * @param nombreTransactions le nombre total de transactions
+ * @param nombreAbonnements le nombre de liens d'observation entre agents
+ * @param nombreStrategies le nombre d'instances de stratégie distinctes
+ * @param observateursIgnores les observateurs non restaurables (observateurs qui ne sont pas des
+ *                            agents à l'écriture, agents absents de l'instantané à la lecture)
+ * @param tailleOctets la taille du fichier
+ * @param dureeMillis la durée de l'opération
+ */
+public record ResumeSnapshot(long lsn, int nombreAgents, long nombreTransactions, long nombreAbonnements,
+                             int nombreStrategies, long observateursIgnores, long tailleOctets, long dureeMillis) {
+}
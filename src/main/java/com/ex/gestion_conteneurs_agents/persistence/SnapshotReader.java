@@ -0,0 +1,244 @@
+package com.ex.gestion_conteneurs_agents.persistence;
+
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+import com.ex.gestion_conteneurs_agents.observer.Observer;
+import com.ex.gestion_conteneurs_agents.strategy.DefaultStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.StrategiePersistante;
+import com.ex.gestion_conteneurs_agents.strategy.StrategyRegistry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Lecture d'un instantané écrit par {@link SnapshotWriter}.
+ *
+ * Le fichier est projeté en mémoire par segments d'agents (moins de 1 Go chacun) décodés en
+ * parallèle; les agents sont recréés sans écouteur ni notification, puis le graphe d'observation
+ * est relié une fois tous les agents connus.
+ *
+ * Pour un instantané écrit sans l'état des stratégies, cet état est reconstruit en intégrant
+ * aux stratégies persistantes des observateurs chaque transaction de leurs sujets, dans l'ordre
+ * de chaque sujet (une fois par instance de stratégie, comme la diffusion), par
+ * {@link StrategiePersistante#reconstruire}: aucune alerte ni affichage n'est répété, et les
+ * fenêtres temporelles suivent la date des transactions. L'état obtenu reste approché: les
+ * transactions supprimées avant l'instantané n'y sont plus et ne sont donc pas comptées, et
+ * l'ordre entre sujets différents n'est pas celui des notifications d'origine.
+ */
+public final class SnapshotReader {
+
+    /** Taille maximale d'un segment projeté. */
+    static final long OCTETS_PAR_SEGMENT_MAX = 1L << 30;
+
+    /**
+     * Contenu d'un instantané.
+     * @param agents les agents restaurés, non rattachés à un conteneur
+     * @param resume le résumé de la lecture
+     */
+    public record Contenu(List<Agent> agents, ResumeSnapshot resume) {
+    }
+
+    private record Segment(long transactions) {
+    }
+
+    private SnapshotReader() {
+    }
+
+    /**
+     * Lit un instantané.
+     * @param fichier le fichier de l'instantané
+     * @param fabrique fabrique des stratégies par nom, prioritaire sur {@link StrategyRegistry}
+     *                 (retourne null pour déléguer); une stratégie inconnue devient {@link DefaultStrategy}
+     * @param pool le pool de décodage
+     * @return les agents et le résumé
+     * @throws IOException si le fichier est illisible ou corrompu
+     */
+    public static Contenu lire(Path fichier, Function<String, NotificationStrategy> fabrique, ForkJoinPool pool)
+            throws IOException {
+        long debut = System.nanoTime();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille < SnapshotWriter.TAILLE_EN_TETE + 4) {
+                throw new IOException("Instantané tronqué: " + fichier);
+            }
+            ByteBuffer enTete = canal.map(FileChannel.MapMode.READ_ONLY, 0, SnapshotWriter.TAILLE_EN_TETE);
+            if (enTete.getInt() != SnapshotWriter.MAGIC) {
+                throw new IOException("Fichier d'instantané invalide: " + fichier);
+            }
+            short version = enTete.getShort();
+            if (version != SnapshotWriter.VERSION) {
+                throw new IOException("Version d'instantané non supportée: " + version);
+            }
+            short options = enTete.getShort();
+            long lsn = enTete.getLong();
+            int nombreAgents = enTete.getInt();
+            int nombreStrategies = enTete.getInt();
+            long positionStrategies = enTete.getLong();
+            long positionTable = enTete.getLong();
+            if (positionTable + 8L * nombreAgents + 4 != taille || positionStrategies > positionTable
+                    || canal.map(FileChannel.MapMode.READ_ONLY, taille - 4, 4).getInt() != SnapshotWriter.MAGIC) {
+                throw new IOException("Instantané corrompu: " + fichier);
+            }
+
+            NotificationStrategy[] strategies = lireStrategies(
+                    canal.map(FileChannel.MapMode.READ_ONLY, positionStrategies, positionTable - positionStrategies),
+                    nombreStrategies, fabrique);
+            long[] positions = new long[nombreAgents + 1];
+            canal.map(FileChannel.MapMode.READ_ONLY, positionTable, 8L * nombreAgents).asLongBuffer()
+                    .get(positions, 0, nombreAgents);
+            positions[nombreAgents] = positionStrategies;
+
+            Agent[] agents = new Agent[nombreAgents];
+            String[][] observateurs = new String[nombreAgents][];
+            int parSegment = Math.max(SnapshotWriter.AGENTS_PAR_SEGMENT_MIN,
+                    nombreAgents / (pool.getParallelism() * 4) + 1);
+            List<Callable<Segment>> taches = new ArrayList<>();
+            int i = 0;
+            while (i < nombreAgents) {
+                int fin = i + 1;
+                while (fin < nombreAgents && fin - i < parSegment
+                        && positions[fin + 1] - positions[i] <= OCTETS_PAR_SEGMENT_MAX) {
+                    fin++;
+                }
+                MappedByteBuffer region = canal.map(FileChannel.MapMode.READ_ONLY, positions[i],
+                        positions[fin] - positions[i]);
+                int premier = i;
+                int dernier = fin;
+                taches.add(() -> decoder(region, premier, dernier, strategies, agents, observateurs));
+                i = fin;
+            }
+            long transactions = 0;
+            for (Segment segment : SnapshotWriter.attendre(pool.invokeAll(taches))) {
+                transactions += segment.transactions();
+            }
+
+            long[] liens = relier(agents, observateurs);
+            if ((options & SnapshotWriter.RECONSTRUIRE_STRATEGIES) != 0) {
+                reconstruireStrategies(agents);
+            }
+            return new Contenu(Arrays.asList(agents), new ResumeSnapshot(lsn, nombreAgents, transactions, liens[0],
+                    nombreStrategies, liens[1], taille, (System.nanoTime() - debut) / 1_000_000));
+        }
+    }
+
+    private static NotificationStrategy[] lireStrategies(ByteBuffer tampon, int nombre,
+                                                         Function<String, NotificationStrategy> fabrique) {
+        NotificationStrategy[] strategies = new NotificationStrategy[nombre];
+        for (int i = 0; i < nombre; i++) {
+            String nom = TransactionCodec.lireChaine(tampon);
+            NotificationStrategy strategy = fabrique.apply(nom);
+            if (strategy == null) {
+                strategy = StrategyRegistry.creer(nom).orElseGet(DefaultStrategy::new);
+            }
+            int longueur = tampon.getInt();
+            if (longueur >= 0) {
+                byte[] etat = new byte[longueur];
+                tampon.get(etat);
+                if (strategy instanceof StrategiePersistante persistante) {
+                    persistante.importerEtat(etat);
+                }
+            }
+            strategies[i] = strategy;
+        }
+        return strategies;
+    }
+
+    private static Segment decoder(ByteBuffer region, int premier, int dernier, NotificationStrategy[] strategies,
+                                   Agent[] agents, String[][] observateurs) {
+        long transactions = 0;
+        for (int i = premier; i < dernier; i++) {
+            Agent agent = new Agent(TransactionCodec.lireChaine(region));
+            agent.setStrategy(strategies[region.getInt()]);
+            Instant activite = Instant.ofEpochMilli(region.getLong());
+            agent.marquerLsn(region.getLong());
+            int nombre = region.getInt();
+            List<Transaction> restaurees = new ArrayList<>(nombre);
+            for (int t = 0; t < nombre; t++) {
+                restaurees.add(TransactionCodec.lire(region));
+            }
+            agent.restaurerTransactions(restaurees, activite);
+            String[] noms = new String[region.getInt()];
+            for (int o = 0; o < noms.length; o++) {
+                noms[o] = TransactionCodec.lireChaine(region);
+            }
+            agents[i] = agent;
+            observateurs[i] = noms;
+            transactions += nombre;
+        }
+        return new Segment(transactions);
+    }
+
+    /**
+     * Intègre les transactions de chaque sujet aux stratégies persistantes de ses observateurs.
+     */
+    private static void reconstruireStrategies(Agent[] agents) {
+        for (Agent sujet : agents) {
+            List<Observer> observateurs = sujet.getObservers();
+            if (observateurs.isEmpty()) {
+                continue;
+            }
+            Map<StrategiePersistante, Boolean> strategies = new IdentityHashMap<>();
+            for (Observer observateur : observateurs) {
+                if (observateur instanceof Agent agent && agent.getStrategy() instanceof StrategiePersistante persistante) {
+                    strategies.put(persistante, Boolean.TRUE);
+                }
+            }
+            if (strategies.isEmpty()) {
+                continue;
+            }
+            for (Transaction transaction : sujet.getTransactions()) {
+                NotificationEvent event = new NotificationEvent(sujet.getNom(), transaction);
+                strategies.keySet().forEach(strategy -> strategy.reconstruire(event));
+            }
+        }
+    }
+
+    /**
+     * Relie chaque sujet à ses observateurs (et les abonnements inverses, regroupés par observateur).
+     * @return le nombre de liens restaurés et le nombre d'observateurs introuvables
+     */
+    private static long[] relier(Agent[] agents, String[][] observateurs) {
+        Map<String, Agent> parNom = new HashMap<>(agents.length * 2);
+        for (Agent agent : agents) {
+            parNom.put(agent.getNom(), agent);
+        }
+        Map<Agent, List<Agent>> abonnements = new IdentityHashMap<>();
+        long liens = 0;
+        long introuvables = 0;
+        for (int i = 0; i < agents.length; i++) {
+            if (observateurs[i].length == 0) {
+                continue;
+            }
+            List<Agent> resolus = new ArrayList<>(observateurs[i].length);
+            for (String nom : observateurs[i]) {
+                Agent observateur = parNom.get(nom);
+                if (observateur == null) {
+                    introuvables++;
+                    continue;
+                }
+                resolus.add(observateur);
+                abonnements.computeIfAbsent(observateur, o -> new ArrayList<>()).add(agents[i]);
+            }
+            agents[i].restaurerGraphe(resolus, List.of());
+            liens += resolus.size();
+        }
+        abonnements.forEach((observateur, sujets) -> observateur.restaurerGraphe(List.of(), sujets));
+        return new long[]{liens, introuvables};
+    }
+}
@@ -0,0 +1,303 @@
+package com.ex.gestion_conteneurs_agents.persistence;
+
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.observer.Observer;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.StrategiePersistante;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Écriture d'un instantané binaire de l'ensemble des agents.
+ *
+ * Format (big-endian):
+ * <pre>
+ * En-tête    : "ASNP" (4 octets) | version (short) | options (short) | lsn (long) | nombre d'agents (int)
+ *              | nombre de stratégies (int) | position des stratégies (long) | position de la table (long)
+ * Agents     : nom (chaîne) | stratégie (int) | dernière activité (long, epoch millis) | lsn (long)
+ *              | nombre (int) | transactions | nombre d'observateurs (int) | noms des observateurs (chaînes)
+ * Stratégies : nom (chaîne) | longueur de l'état (int, -1 sans état) | état
+ * Table      : position de chaque enregistrement d'agent (long)
+ * Fin        : "ASNP"
+ * </pre>
+ * Chaque agent est capturé sur son exécuteur propriétaire (état cohérent par agent, agents
+ * passivés relus sans réactivation); le thread appelant attend les captures avec un délai
+ * borné, puis les segments d'agents sont encodés en parallèle sans attente dans le pool. Une instance de stratégie partagée par plusieurs
+ * agents n'est écrite qu'une fois. Le fichier est écrit à côté de la destination, synchronisé
+ * sur disque puis renommé atomiquement.
+ *
+ * Les captures d'agents différents n'ont pas lieu au même instant: l'état d'un observateur peut
+ * compter une notification dont la transaction manque à son sujet, ou l'inverse. Un instantané
+ * destiné au rejeu du journal (point de reprise, réplication) est donc écrit sans l'état des
+ * stratégies ({@link #RECONSTRUIRE_STRATEGIES}): {@link SnapshotReader} le reconstruit à partir
+ * des transactions de l'instantané, et le rejeu notifie les suivantes. Le LSN de chaque agent
+ * ({@link Agent#getLsn()}, capturé avec son état) indique au rejeu quelles mutations
+ * postérieures au LSN de l'instantané cet état contient déjà.
+ */
+public final class SnapshotWriter {
+
+    static final int MAGIC = 0x41534E50; // "ASNP"
+    static final short VERSION = 2;
+    static final int TAILLE_EN_TETE = 40;
+
+    /** Option d'en-tête: état des stratégies absent, à reconstruire depuis les transactions. */
+    static final short RECONSTRUIRE_STRATEGIES = 1;
+
+    /** Nombre minimal d'agents par segment encodé. */
+    static final int AGENTS_PAR_SEGMENT_MIN = 1024;
+
+    /** Délai maximal des captures par les exécuteurs propriétaires (arrêtés ou saturés au-delà). */
+    static final Duration DELAI_CAPTURE = Duration.ofSeconds(30);
+
+    private record Segment(ByteBuffer donnees, long[] positions, long transactions, long abonnements,
+                           long ignores) {
+    }
+
+    private SnapshotWriter() {
+    }
+
+    /**
+     * Écrit un instantané des agents avec l'état des stratégies.
+     * @see #ecrire(Path, Collection, long, ForkJoinPool, boolean)
+     */
+    public static ResumeSnapshot ecrire(Path fichier, Collection<Agent> agents, long lsn, ForkJoinPool pool)
+            throws IOException {
+        return ecrire(fichier, agents, lsn, pool, true);
+    }
+
+    /**
+     * Écrit un instantané des agents.
+     * @param fichier le fichier de destination (remplacé)
+     * @param agents les agents
+     * @param lsn le numéro de séquence du journal couvert par l'instantané
+     * @param pool le pool d'encodage
+     * @param etatStrategies false pour omettre l'état des stratégies, reconstruit à la lecture
+     *                       (instantané rejoué avec le journal)
+     * @return le résumé de l'instantané
+     * @throws IOException si l'écriture échoue ou si les captures dépassent {@link #DELAI_CAPTURE}
+     */
+    public static ResumeSnapshot ecrire(Path fichier, Collection<Agent> agents, long lsn, ForkJoinPool pool,
+                                        boolean etatStrategies) throws IOException {
+        long debut = System.nanoTime();
+        List<Agent> liste = new ArrayList<>(agents);
+        List<Agent.Capture> captures = capturer(liste);
+        Map<NotificationStrategy, Integer> identifiants = new IdentityHashMap<>();
+        List<NotificationStrategy> strategies = new ArrayList<>();
+
+        int taille = Math.max(AGENTS_PAR_SEGMENT_MIN, liste.size() / (pool.getParallelism() * 4) + 1);
+        List<Callable<Segment>> taches = new ArrayList<>();
+        for (int i = 0; i < liste.size(); i += taille) {
+            List<Agent> tranche = liste.subList(i, Math.min(liste.size(), i + taille));
+            List<Agent.Capture> etats = captures.subList(i, Math.min(liste.size(), i + taille));
+            taches.add(() -> encoder(tranche, etats, identifiants, strategies));
+        }
+        List<Segment> segments = attendre(pool.invokeAll(taches));
+
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        long transactions = 0;
+        long abonnements = 0;
+        long ignores = 0;
+        long tailleFichier;
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = TAILLE_EN_TETE;
+            ByteBuffer table = ByteBuffer.allocate(8 * liste.size() + 4);
+            for (Segment segment : segments) {
+                for (long relative : segment.positions()) {
+                    table.putLong(position + relative);
+                }
+                position += ecrireTout(canal, segment.donnees().flip(), position);
+                transactions += segment.transactions();
+                abonnements += segment.abonnements();
+                ignores += segment.ignores();
+            }
+            long positionStrategies = position;
+            position += ecrireTout(canal, encoderStrategies(strategies, etatStrategies), position);
+            long positionTable = position;
+            position += ecrireTout(canal, table.putInt(MAGIC).flip(), position);
+            ByteBuffer enTete = ByteBuffer.allocate(TAILLE_EN_TETE)
+                    .putInt(MAGIC).putShort(VERSION).putShort(etatStrategies ? 0 : RECONSTRUIRE_STRATEGIES).putLong(lsn)
+                    .putInt(liste.size()).putInt(strategies.size())
+                    .putLong(positionStrategies).putLong(positionTable);
+            ecrireTout(canal, enTete.flip(), 0);
+            canal.force(true);
+            tailleFichier = position;
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new ResumeSnapshot(lsn, liste.size(), transactions, abonnements, strategies.size(), ignores,
+                tailleFichier, (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    /**
+     * Soumet la capture de chaque agent à son propriétaire, puis attend l'ensemble sur le thread
+     * appelant (jamais dans un worker du pool d'encodage).
+     */
+    private static List<Agent.Capture> capturer(List<Agent> agents) throws IOException {
+        List<CompletableFuture<Agent.Capture>> enCours = new ArrayList<>(agents.size());
+        for (Agent agent : agents) {
+            enCours.add(agent.capturer());
+        }
+        try {
+            CompletableFuture.allOf(enCours.toArray(CompletableFuture[]::new))
+                    .get(DELAI_CAPTURE.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Captures des agents non terminées après " + DELAI_CAPTURE.toSeconds()
+                    + " s (exécuteur propriétaire arrêté ou saturé)", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Opération sur l'instantané interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+        List<Agent.Capture> captures = new ArrayList<>(agents.size());
+        for (CompletableFuture<Agent.Capture> capture : enCours) {
+            captures.add(capture.join());
+        }
+        return captures;
+    }
+
+    private static Segment encoder(List<Agent> tranche, List<Agent.Capture> captures,
+                                   Map<NotificationStrategy, Integer> identifiants,
+                                   List<NotificationStrategy> strategies) {
+        ByteBuffer tampon = ByteBuffer.allocate(64 * 1024);
+        long[] positions = new long[tranche.size()];
+        long transactions = 0;
+        long abonnements = 0;
+        long ignores = 0;
+        for (int i = 0; i < tranche.size(); i++) {
+            Agent.Capture capture = captures.get(i);
+            String nom = tranche.get(i).getNom();
+            List<String> observateurs = new ArrayList<>(capture.observateurs().size());
+            for (Observer observateur : capture.observateurs()) {
+                if (observateur instanceof Agent agent) {
+                    observateurs.add(agent.getNom());
+                } else {
+                    ignores++;
+                }
+            }
+            int longueur = TransactionCodec.tailleChaine(nom) + 4 + 8 + 8 + 4 + 4;
+            for (Transaction t : capture.transactions()) {
+                longueur += TransactionCodec.taille(t);
+            }
+            for (String observateur : observateurs) {
+                longueur += TransactionCodec.tailleChaine(observateur);
+            }
+            tampon = agrandir(tampon, longueur);
+            positions[i] = tampon.position();
+            TransactionCodec.ecrireChaine(tampon, nom);
+            tampon.putInt(identifiant(capture.strategy(), identifiants, strategies));
+            tampon.putLong(capture.derniereActivite().toEpochMilli());
+            tampon.putLong(capture.lsn());
+            tampon.putInt(capture.transactions().size());
+            for (Transaction t : capture.transactions()) {
+                TransactionCodec.ecrire(tampon, t);
+            }
+            tampon.putInt(observateurs.size());
+            for (String observateur : observateurs) {
+                TransactionCodec.ecrireChaine(tampon, observateur);
+            }
+            transactions += capture.transactions().size();
+            abonnements += observateurs.size();
+        }
+        return new Segment(tampon, positions, transactions, abonnements, ignores);
+    }
+
+    private static int identifiant(NotificationStrategy strategy, Map<NotificationStrategy, Integer> identifiants,
+                                   List<NotificationStrategy> strategies) {
+        synchronized (identifiants) {
+            return identifiants.computeIfAbsent(strategy, s -> {
+                strategies.add(s);
+                return strategies.size() - 1;
+            });
+        }
+    }
+
+    private static ByteBuffer encoderStrategies(List<NotificationStrategy> strategies, boolean etatStrategies) {
+        List<byte[]> etats = new ArrayList<>(strategies.size());
+        int longueur = 0;
+        for (NotificationStrategy strategy : strategies) {
+            byte[] etat = etatStrategies && strategy instanceof StrategiePersistante persistante
+                    ? persistante.exporterEtat() : null;
+            etats.add(etat);
+            longueur += TransactionCodec.tailleChaine(strategy.getStrategyName()) + 4 + (etat == null ? 0 : etat.length);
+        }
+        ByteBuffer tampon = ByteBuffer.allocate(longueur);
+        for (int i = 0; i < strategies.size(); i++) {
+            TransactionCodec.ecrireChaine(tampon, strategies.get(i).getStrategyName());
+            byte[] etat = etats.get(i);
+            if (etat == null) {
+                tampon.putInt(-1);
+            } else {
+                tampon.putInt(etat.length).put(etat);
+            }
+        }
+        return tampon.flip();
+    }
+
+    private static ByteBuffer agrandir(ByteBuffer tampon, int requis) {
+        if (tampon.remaining() >= requis) {
+            return tampon;
+        }
+        long capacite = Math.max((long) tampon.capacity() * 2, (long) tampon.position() + requis);
+        if (capacite > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Segment d'instantané trop volumineux");
+        }
+        return ByteBuffer.allocate((int) capacite).put(tampon.flip());
+    }
+
+    private static int ecrireTout(FileChannel canal, ByteBuffer tampon, long position) throws IOException {
+        int taille = tampon.remaining();
+        while (tampon.hasRemaining()) {
+            position += canal.write(tampon, position);
+        }
+        return taille;
+    }
+
+    static <T> List<T> attendre(List<Future<T>> futures) throws IOException {
+        List<T> resultats = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                resultats.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Opération sur l'instantané interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+        return resultats;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ex.gestion_conteneurs_agents.persistence;
+
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Encodage binaire exact des transactions et des chaînes, partagé par les formats persistants.
+ *
+ * Transaction (big-endian):
+ * <pre>
+ * id (chaîne) | secondes epoch UTC (long) | nanos (int) | montant (double) | type (byte)
+ * </pre>
+ * Chaîne: longueur (short non signé) | UTF-8. Contrairement au journal des notifications,
+ * le montant est conservé en double pour une restauration à l'identique.
+ */
+public final class TransactionCodec {
+
+    private TransactionCodec() {
+    }
+
+    /**
+     * Taille encodée d'une transaction.
+     * @return le nombre d'octets
+     */
+    public static int taille(Transaction transaction) {
+        return tailleChaine(transaction.getId()) + 8 + 4 + 8 + 1;
+    }
+
+    public static void ecrire(ByteBuffer tampon, Transaction transaction) {
+        ecrireChaine(tampon, transaction.getId());
+        LocalDateTime date = transaction.getDate();
+        tampon.putLong(date.toEpochSecond(ZoneOffset.UTC))
+                .putInt(date.getNano())
+                .putDouble(transaction.getMontant())
+                .put((byte) transaction.getType().ordinal());
+    }
+
+    public static Transaction lire(ByteBuffer tampon) {
+        String id = lireChaine(tampon);
+        LocalDateTime date = LocalDateTime.ofEpochSecond(tampon.getLong(), tampon.getInt(), ZoneOffset.UTC);
+        double montant = tampon.getDouble();
+        TransactionType type = TransactionType.values()[tampon.get()];
+        return Transaction.builder().id(id).date(date).montant(montant).type(type).build();
+    }
+
+    /**
+     * Taille encodée d'une chaîne (au plus 65535 octets UTF-8).
+     * @return le nombre d'octets
+     */
+    public static int tailleChaine(String valeur) {
+        return 2 + valeur.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public static void ecrireChaine(ByteBuffer tampon, String valeur) {
+        byte[] octets = valeur.getBytes(StandardCharsets.UTF_8);
+        if (octets.length > 0xFFFF) {
+            throw new IllegalArgumentException("Chaîne trop longue pour l'encodage binaire: " + octets.length + " octets");
+        }
+        tampon.putShort((short) octets.length).put(octets);
+    }
+
+    public static String lireChaine(ByteBuffer tampon) {
+        byte[] octets = new byte[Short.toUnsignedInt(tampon.getShort())];
+        tampon.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,629 @@
+package com.ex.gestion_conteneurs_agents.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Journal des mutations à écriture anticipée (write-ahead log) avec validation groupée.
+ *
+ * Format (big-endian):
+ * <pre>
+ * En-tête       : "AWAL" (4 octets) | version (short) | LSN de base (long)
+ * Enregistrement: longueur (int, octets suivants) | CRC32 (int, du LSN et de la mutation) | LSN (long)
+ *                 | mutation ({@link MutationCodec})
+ * </pre>
+ * Chaque appelant encode sa mutation dans le lot courant sous verrou et reçoit un numéro de
+ * séquence (LSN) croissant. Un thread d'écriture unique écrit le lot entier en une fois puis le
+ * synchronise sur disque selon la {@link Durabilite}: toutes les mutations accumulées pendant
+ * l'écriture précédente partagent le même appel système et le même fsync.
+ *
+ * La relecture s'arrête au premier enregistrement tronqué ou dont le CRC est invalide (écriture
+ * interrompue par un arrêt brutal); cette fin invalide est tronquée à l'ouverture.
+ *
+ * Les abonnés ({@link #abonner}) reçoivent chaque lot écrit, au format du fichier, avant que
+ * son dernier LSN ne soit publié par {@link #getLsnDurable()} (réplication).
+ */
+public class WriteAheadLog implements Closeable {
+
+    static final int MAGIC = 0x4157414C; // "AWAL"
+    static final short VERSION = 1;
+    static final int TAILLE_EN_TETE = 14;
+
+    /** Octets d'un enregistrement hors mutation (longueur, CRC, LSN). */
+    static final int TAILLE_ENTOURAGE = 16;
+
+    private static final int TAILLE_LOT_INITIALE = 64 * 1024;
+
+    /**
+     * Enregistrement relu.
+     */
+    public record Enregistrement(long lsn, Mutation mutation) {
+    }
+
+    /**
+     * Résultat d'une relecture.
+     * @param lsnBase le LSN de base de l'en-tête (dernier instantané au moment de la troncature)
+     * @param dernierLsn le plus grand LSN valide (lsnBase si aucun enregistrement)
+     * @param enregistrements le nombre d'enregistrements valides
+     * @param finValide la position qui suit le dernier enregistrement valide
+     */
+    public record Relecture(long lsnBase, long dernierLsn, long enregistrements, long finValide) {
+    }
+
+    /**
+     * Visiteur d'enregistrements complets, au format du fichier.
+     */
+    @FunctionalInterface
+    public interface VisiteurEnregistrement {
+        void visiter(ByteBuffer enregistrement) throws IOException;
+    }
+
+    private final Path fichier;
+    private final Durabilite durabilite;
+    private final long intervalleNanos;
+    private final ReentrantLock verrou = new ReentrantLock();
+    private final Condition travail = verrou.newCondition();
+    private final Condition ecrit = verrou.newCondition();
+    private final CRC32 crc = new CRC32();
+    private final Thread ecrivain;
+    private final List<Consumer<ByteBuffer>> abonnes = new CopyOnWriteArrayList<>();
+
+    private FileChannel canal;
+    private volatile long fin;
+    private ByteBuffer courant = ByteBuffer.allocate(TAILLE_LOT_INITIALE);
+    private ByteBuffer reserve = ByteBuffer.allocate(TAILLE_LOT_INITIALE);
+    private long dernierLsn;
+    private long lsnDurable;
+    private boolean enEcriture;
+    private boolean synchroDemandee;
+    private boolean ferme;
+    private IOException erreur;
+    private long enregistrements;
+    private long lots;
+    private long octets;
+
+    /**
+     * Ouvre le journal en ajout (un fichier existant est relu et sa fin invalide tronquée).
+     * @param fichier le fichier du journal
+     * @param durabilite la garantie au retour de {@link #ajouter(Mutation)}
+     * @param intervalle la période d'écriture en durabilité {@link Durabilite#DIFFEREE}
+     * @param lsnMinimal le LSN en dessous duquel la numérotation ne peut reprendre (LSN de l'instantané)
+     * @throws IOException si le fichier ne peut pas être ouvert ou n'est pas un journal
+     */
+    public WriteAheadLog(Path fichier, Durabilite durabilite, Duration intervalle, long lsnMinimal) throws IOException {
+        if (durabilite == null || intervalle == null || intervalle.isNegative() || intervalle.isZero()) {
+            throw new IllegalArgumentException("Durabilité et intervalle positif requis");
+        }
+        this.fichier = fichier;
+        this.durabilite = durabilite;
+        this.intervalleNanos = intervalle.toNanos();
+        if (Files.exists(fichier) && Files.size(fichier) > 0) {
+            this.canal = FileChannel.open(fichier, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Relecture relecture = parcourir(canal, Long.MAX_VALUE, null);
+            canal.truncate(relecture.finValide());
+            this.fin = relecture.finValide();
+            this.dernierLsn = Math.max(relecture.dernierLsn(), lsnMinimal);
+        } else {
+            this.canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.fin = ecrireEnTete(canal, lsnMinimal);
+            canal.force(true);
+            this.dernierLsn = lsnMinimal;
+        }
+        this.lsnDurable = dernierLsn;
+        this.ecrivain = new Thread(this::ecrireEnBoucle, "journal-mutations");
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+    }
+
+    // ==================== AJOUT ====================
+
+    /**
+     * Journalise une mutation et attend la garantie de durabilité configurée.
+     * @param mutation la mutation déjà appliquée en mémoire
+     * @return le LSN attribué
+     * @throws IllegalStateException si le journal est fermé ou si une écriture a échoué
+     */
+    public long ajouter(Mutation mutation) {
+        int taille = MutationCodec.taille(mutation);
+        verrou.lock();
+        try {
+            verifierDisponible();
+            long lsn = ++dernierLsn;
+            courant = agrandir(courant, TAILLE_ENTOURAGE + taille);
+            int debut = courant.position();
+            courant.putInt(TAILLE_ENTOURAGE - 4 + taille).putInt(0).putLong(lsn);
+            MutationCodec.ecrire(courant, mutation);
+            crc.reset();
+            crc.update(courant.duplicate().limit(courant.position()).position(debut + 8));
+            courant.putInt(debut + 4, (int) crc.getValue());
+            enregistrements++;
+            if (durabilite == Durabilite.DIFFEREE) {
+                return lsn;
+            }
+            travail.signal();
+            while (lsnDurable < lsn && erreur == null) {
+                ecrit.awaitUninterruptibly();
+            }
+            if (lsnDurable < lsn) {
+                throw new IllegalStateException("Journal indisponible: " + erreur.getMessage(), erreur);
+            }
+            return lsn;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Écrit et synchronise sur disque toutes les mutations journalisées.
+     * @throws IOException si l'écriture a échoué
+     */
+    public void synchroniser() throws IOException {
+        FileChannel cible;
+        verrou.lock();
+        try {
+            attendreEcriture();
+            cible = canal;
+        } finally {
+            verrou.unlock();
+        }
+        cible.force(false);
+    }
+
+    /**
+     * Supprime du fichier les enregistrements couverts par un instantané (réécriture atomique).
+     * @param seuil le LSN de l'instantané: les enregistrements de LSN inférieur ou égal sont supprimés
+     * @throws IOException si la réécriture échoue
+     */
+    public void tronquer(long seuil) throws IOException {
+        verrou.lock();
+        try {
+            attendreEcriture();
+            Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+            try (FileChannel nouveau = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ecrireEnTete(nouveau, Math.max(seuil, lireLsnBase(canal)));
+                nouveau.position(TAILLE_EN_TETE);
+                parcourir(canal, seuil, (lsn, position, enregistrement) -> {
+                    long copies = 0;
+                    while (copies < enregistrement.remaining()) {
+                        copies += canal.transferTo(position + copies, enregistrement.remaining() - copies, nouveau);
+                    }
+                });
+                nouveau.force(true);
+            }
+            canal.close();
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            canal = FileChannel.open(fichier, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            fin = canal.size();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void attendreEcriture() throws IOException {
+        long cible = dernierLsn;
+        synchroDemandee = true;
+        travail.signal();
+        while ((lsnDurable < cible || enEcriture) && erreur == null) {
+            ecrit.awaitUninterruptibly();
+        }
+        if (erreur != null) {
+            throw new IOException("Journal indisponible", erreur);
+        }
+    }
+
+    private void verifierDisponible() {
+        if (erreur != null) {
+            throw new IllegalStateException("Journal indisponible: " + erreur.getMessage(), erreur);
+        }
+        if (ferme) {
+            throw new IllegalStateException("Le journal est fermé");
+        }
+    }
+
+    // ==================== ÉCRITURE GROUPÉE ====================
+
+    private void ecrireEnBoucle() {
+        while (true) {
+            ByteBuffer lot;
+            long lsnLot;
+            FileChannel cible;
+            verrou.lock();
+            try {
+                attendreTravail();
+                if (ferme && courant.position() == 0) {
+                    return;
+                }
+                lot = courant;
+                courant = reserve;
+                reserve = null;
+                lsnLot = dernierLsn;
+                synchroDemandee = false;
+                enEcriture = true;
+                cible = canal;
+            } finally {
+                verrou.unlock();
+            }
+
+            int taille = lot.position();
+            IOException echec = null;
+            if (taille > 0) {
+                try {
+                    lot.flip();
+                    while (lot.hasRemaining()) {
+                        fin += cible.write(lot, fin);
+                    }
+                    if (durabilite != Durabilite.ECRITURE) {
+                        cible.force(false);
+                    }
+                    for (Consumer<ByteBuffer> abonne : abonnes) {
+                        abonne.accept(lot.asReadOnlyBuffer().flip());
+                    }
+                } catch (IOException e) {
+                    echec = e;
+                }
+            }
+
+            verrou.lock();
+            try {
+                lot.clear();
+                reserve = lot;
+                enEcriture = false;
+                if (echec != null) {
+                    erreur = echec;
+                } else {
+                    lsnDurable = lsnLot;
+                    if (taille > 0) {
+                        lots++;
+                        octets += taille;
+                    }
+                }
+                ecrit.signalAll();
+                if (echec != null) {
+                    System.err.println("❌ Écriture du journal impossible: " + echec.getMessage());
+                    return;
+                }
+            } finally {
+                verrou.unlock();
+            }
+        }
+    }
+
+    /**
+     * Attend un lot à écrire: dès qu'il est non vide, ou à chaque période en durabilité différée.
+     */
+    private void attendreTravail() {
+        if (durabilite == Durabilite.DIFFEREE) {
+            long attente = intervalleNanos;
+            while (!ferme && !synchroDemandee && attente > 0) {
+                try {
+                    attente = travail.awaitNanos(attente);
+                } catch (InterruptedException e) {
+                    ferme = true;
+                }
+            }
+        } else {
+            while (!ferme && !synchroDemandee && courant.position() == 0) {
+                travail.awaitUninterruptibly();
+            }
+        }
+    }
+
+    // ==================== RELECTURE ====================
+
+    /**
+     * Relit les enregistrements valides d'un journal.
+     * @param fichier le fichier du journal (un fichier absent est un journal vide)
+     * @param apresLsn seuls les enregistrements de LSN strictement supérieur sont transmis
+     * @param visiteur appelé pour chaque enregistrement, dans l'ordre du journal
+     * @return le bilan de la relecture
+     * @throws IOException si le fichier est illisible ou n'est pas un journal
+     */
+    public static Relecture relire(Path fichier, long apresLsn, Consumer<Enregistrement> visiteur) throws IOException {
+        if (!Files.exists(fichier) || Files.size(fichier) == 0) {
+            return new Relecture(0, 0, 0, 0);
+        }
+        return relireBrut(fichier, apresLsn, enregistrement -> visiteur.accept(decoder(enregistrement)));
+    }
+
+    /**
+     * Relit les enregistrements valides d'un journal sans les décoder.
+     * @param visiteur reçoit chaque enregistrement complet, au format du fichier (tampon réutilisé)
+     * @see #relire(Path, long, Consumer)
+     */
+    public static Relecture relireBrut(Path fichier, long apresLsn, VisiteurEnregistrement visiteur) throws IOException {
+        if (!Files.exists(fichier) || Files.size(fichier) == 0) {
+            return new Relecture(0, 0, 0, 0);
+        }
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            return parcourir(canal, apresLsn, (lsn, position, enregistrement) -> visiteur.visiter(enregistrement));
+        }
+    }
+
+    /**
+     * Parcourt un lot d'enregistrements contigus (lot transmis aux abonnés) en vérifiant leur CRC.
+     * @param lot le lot, de sa position à sa limite
+     * @param visiteur reçoit chaque enregistrement complet
+     * @throws IOException si un enregistrement est tronqué ou corrompu
+     */
+    public static void parcourirLot(ByteBuffer lot, VisiteurEnregistrement visiteur) throws IOException {
+        CRC32 controle = new CRC32();
+        ByteBuffer tampon = lot.duplicate();
+        while (tampon.hasRemaining()) {
+            int p = tampon.position();
+            int longueur = tampon.remaining() >= 4 ? tampon.getInt(p) : -1;
+            if (longueur < TAILLE_ENTOURAGE - 4 || longueur > tampon.remaining() - 4
+                    || !crcValide(controle, tampon, p, longueur)) {
+                throw new IOException("Lot d'enregistrements corrompu");
+            }
+            visiteur.visiter(tampon.duplicate().limit(p + 4 + longueur).position(p));
+            tampon.position(p + 4 + longueur);
+        }
+    }
+
+    /**
+     * @return le LSN d'un enregistrement complet
+     */
+    public static long lsn(ByteBuffer enregistrement) {
+        return enregistrement.getLong(enregistrement.position() + 8);
+    }
+
+    /**
+     * Décode un enregistrement complet.
+     * @throws IOException si la mutation est illisible
+     */
+    public static Enregistrement decoder(ByteBuffer enregistrement) throws IOException {
+        long lsn = lsn(enregistrement);
+        try {
+            return new Enregistrement(lsn, MutationCodec.lire(
+                    enregistrement.duplicate().position(enregistrement.position() + TAILLE_ENTOURAGE)));
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IOException("Enregistrement du journal illisible (LSN " + lsn + ")", e);
+        }
+    }
+
+    private static boolean crcValide(CRC32 controle, ByteBuffer tampon, int p, int longueur) {
+        controle.reset();
+        controle.update(tampon.duplicate().limit(p + 4 + longueur).position(p + 8));
+        return (int) controle.getValue() == tampon.getInt(p + 4);
+    }
+
+    @FunctionalInterface
+    private interface Visiteur {
+        void visiter(long lsn, long position, ByteBuffer enregistrement) throws IOException;
+    }
+
+    private static Relecture parcourir(FileChannel canal, long apresLsn, Visiteur visiteur) throws IOException {
+        long lsnBase = lireLsnBase(canal);
+        Lecteur lecteur = new Lecteur(canal, TAILLE_EN_TETE);
+        CRC32 controle = new CRC32();
+        long dernier = lsnBase;
+        long nombre = 0;
+        while (lecteur.garantir(4)) {
+            long debut = lecteur.position();
+            int longueur = lecteur.tampon.getInt(lecteur.tampon.position());
+            if (longueur < TAILLE_ENTOURAGE - 4 || !lecteur.garantir(4 + longueur)) {
+                break;
+            }
+            ByteBuffer tampon = lecteur.tampon;
+            int p = tampon.position();
+            if (!crcValide(controle, tampon, p, longueur)) {
+                break;
+            }
+            long lsn = tampon.getLong(p + 8);
+            if (visiteur != null && lsn > apresLsn) {
+                visiteur.visiter(lsn, debut, tampon.duplicate().limit(p + 4 + longueur).position(p));
+            }
+            tampon.position(p + 4 + longueur);
+            dernier = Math.max(dernier, lsn);
+            nombre++;
+        }
+        return new Relecture(lsnBase, dernier, nombre, lecteur.position());
+    }
+
+    private static long lireLsnBase(FileChannel canal) throws IOException {
+        ByteBuffer enTete = ByteBuffer.allocate(TAILLE_EN_TETE);
+        while (enTete.hasRemaining()) {
+            if (canal.read(enTete, enTete.position()) < 0) {
+                throw new IOException("Journal tronqué");
+            }
+        }
+        enTete.flip();
+        if (enTete.getInt() != MAGIC) {
+            throw new IOException("Ce fichier n'est pas un journal de mutations");
+        }
+        short version = enTete.getShort();
+        if (version != VERSION) {
+            throw new IOException("Version de journal non supportée: " + version);
+        }
+        return enTete.getLong();
+    }
+
+    private static int ecrireEnTete(FileChannel canal, long lsnBase) throws IOException {
+        ByteBuffer enTete = ByteBuffer.allocate(TAILLE_EN_TETE).putInt(MAGIC).putShort(VERSION).putLong(lsnBase).flip();
+        int position = 0;
+        while (enTete.hasRemaining()) {
+            position += canal.write(enTete, position);
+        }
+        return TAILLE_EN_TETE;
+    }
+
+    private static ByteBuffer agrandir(ByteBuffer tampon, int requis) {
+        if (tampon.remaining() >= requis) {
+            return tampon;
+        }
+        int capacite = Math.max(tampon.capacity() * 2, tampon.position() + requis);
+        return ByteBuffer.allocate(capacite).put(tampon.flip());
+    }
+
+    /**
+     * Lecture séquentielle tamponnée: garantit qu'un nombre d'octets contigus est disponible.
+     */
+    private static final class Lecteur {
+        private final FileChannel canal;
+        private final long taille;
+        private ByteBuffer tampon = ByteBuffer.allocate(1 << 20).limit(0);
+        private long fin;
+
+        Lecteur(FileChannel canal, long debut) throws IOException {
+            this.canal = canal;
+            this.taille = canal.size();
+            this.fin = debut;
+        }
+
+        long position() {
+            return fin - tampon.remaining();
+        }
+
+        boolean garantir(int octets) throws IOException {
+            if (tampon.remaining() >= octets) {
+                return true;
+            }
+            if (position() + octets > taille) {
+                return false;
+            }
+            if (tampon.capacity() < octets) {
+                tampon = ByteBuffer.allocate(octets * 2).put(tampon);
+            } else {
+                tampon.compact();
+            }
+            while (tampon.position() < octets) {
+                int lus = canal.read(tampon, fin);
+                if (lus < 0) {
+                    tampon.flip();
+                    return false;
+                }
+                fin += lus;
+            }
+            tampon.flip();
+            return true;
+        }
+    }
+
+    // ==================== ABONNÉS ====================
+
+    /**
+     * Abonne un consommateur aux lots écrits. Il est appelé par le thread d'écriture avec une
+     * vue en lecture seule du lot, valable pendant l'appel seulement: il doit la copier.
+     */
+    public void abonner(Consumer<ByteBuffer> abonne) {
+        abonnes.add(abonne);
+    }
+
+    public void desabonner(Consumer<ByteBuffer> abonne) {
+        abonnes.remove(abonne);
+    }
+
+    // ==================== ÉTAT ====================
+
+    public Path getFichier() {
+        return fichier;
+    }
+
+    public Durabilite getDurabilite() {
+        return durabilite;
+    }
+
+    /**
+     * @return le dernier LSN attribué
+     */
+    public long getDernierLsn() {
+        verrou.lock();
+        try {
+            return dernierLsn;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * @return le dernier LSN écrit (et synchronisé selon la durabilité)
+     */
+    public long getLsnDurable() {
+        verrou.lock();
+        try {
+            return lsnDurable;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public long getNombreEnregistrements() {
+        verrou.lock();
+        try {
+            return enregistrements;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * @return le nombre de lots écrits (appels d'écriture groupée)
+     */
+    public long getNombreLots() {
+        verrou.lock();
+        try {
+            return lots;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public long getOctetsEcrits() {
+        verrou.lock();
+        try {
+            return octets;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    public long getTailleFichier() {
+        return fin;
+    }
+
+    /**
+     * Écrit les mutations en attente, arrête le thread d'écriture et ferme le fichier.
+     */
+    @Override
+    public void close() throws IOException {
+        verrou.lock();
+        try {
+            ferme = true;
+            travail.signal();
+        } finally {
+            verrou.unlock();
+        }
+        try {
+            ecrivain.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        verrou.lock();
+        try {
+            if (canal.isOpen()) {
+                if (erreur == null) {
+                    canal.force(false);
+                }
+                canal.close();
+            }
+        } finally {
+            verrou.unlock();
+        }
+    }
+}
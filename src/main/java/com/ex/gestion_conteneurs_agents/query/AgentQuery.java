@@ -0,0 +1,454 @@
+package com.ex.gestion_conteneurs_agents.query;
+
+import com.ex.gestion_conteneurs_agents.container.AgentContainer;
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.index.BitmapIndex;
+import com.ex.gestion_conteneurs_agents.index.NameIndex;
+import com.ex.gestion_conteneurs_agents.index.NumericIndex;
+import com.ex.gestion_conteneurs_agents.index.OrderStatisticTree;
+import com.ex.gestion_conteneurs_agents.index.RoaringBitmap;
+import com.ex.gestion_conteneurs_agents.model.Agent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Requête déclarative sur les agents d'un {@link AgentContainer}.
+ *
+ * <pre>
+ * // select agents where solde > 1000 and strategy = Scoring order by nbTransactions limit 50
+ * container.requete()
+ *         .superieurA(Champ.SOLDE, 1000)
+ *         .strategie("ScoringStrategy")
+ *         .trierPar(Champ.NOMBRE_TRANSACTIONS)
+ *         .limite(50)
+ *         .executer();
+ * </pre>
+ *
+ * Planification (voir {@link #expliquer()}), à chaque exécution selon les index existants:
+ * 1. Les critères catégoriels (stratégie, type de transaction, observateurs) sont évalués
+ *    ensemble par intersection des bitmaps
+ * 2. Chaque critère de plage disposant d'un index numérique est estimé par comptage en O(log n)
+ * 3. La source la plus sélective (bitmap, plage indexée, préfixe du nom) fournit les candidats,
+ *    les autres critères sont appliqués en filtre sur le flux
+ * 4. Avec un tri indexé et une limite, l'index de tri est parcouru dans l'ordre s'il y a beaucoup
+ *    de candidats, par lots de noms lus sous le verrou de l'index puis filtrés après l'avoir
+ *    relâché: le parcours s'arrête dès la limite atteinte
+ * 5. Sans index utilisable, les agents sont parcourus en parallèle
+ */
+public class AgentQuery {
+
+    /** Le parcours ordonné est préféré quand les candidats dépassent limite × facteur. */
+    private static final int FACTEUR_PARCOURS_ORDONNE = 8;
+
+    /** Écart toléré entre une borne mise à l'échelle et l'entier le plus proche (bruit flottant). */
+    private static final double TOLERANCE_ECHELLE = 1e-6;
+
+    private final AgentContainer container;
+    private final List<Critere> criteres = new ArrayList<>();
+    private Champ tri;
+    private boolean decroissant;
+    private int limite = Integer.MAX_VALUE;
+
+    /**
+     * Crée une requête (voir {@link AgentContainer#requete()}).
+     * @param container le conteneur interrogé
+     */
+    public AgentQuery(AgentContainer container) {
+        this.container = Objects.requireNonNull(container);
+    }
+
+    // ==================== CRITÈRES ====================
+
+    private sealed interface Critere {
+    }
+
+    private record Plage(Champ champ, long min, long max) implements Critere {
+    }
+
+    private record Strategie(String nom) implements Critere {
+    }
+
+    private record Type(TransactionType type) implements Critere {
+    }
+
+    private record Observateurs() implements Critere {
+    }
+
+    private record Nom(String motif) implements Critere {
+    }
+
+    private record Filtre(Predicate<Agent> predicat) implements Critere {
+    }
+
+    /**
+     * Valeur strictement supérieure.
+     * @param champ l'attribut filtré
+     * @param valeur la borne exclue (euros pour le solde)
+     */
+    public AgentQuery superieurA(Champ champ, double valeur) {
+        double borne = Math.floor(aLEchelle(champ, valeur));
+        if (borne >= Long.MAX_VALUE) {
+            return ajouter(new Plage(champ, Long.MAX_VALUE, Long.MIN_VALUE));
+        }
+        return ajouter(new Plage(champ, borne <= Long.MIN_VALUE ? Long.MIN_VALUE : (long) borne + 1, Long.MAX_VALUE));
+    }
+
+    /**
+     * Valeur strictement inférieure.
+     * @param champ l'attribut filtré
+     * @param valeur la borne exclue (euros pour le solde)
+     */
+    public AgentQuery inferieurA(Champ champ, double valeur) {
+        double borne = Math.ceil(aLEchelle(champ, valeur));
+        if (borne <= Long.MIN_VALUE) {
+            return ajouter(new Plage(champ, Long.MAX_VALUE, Long.MIN_VALUE));
+        }
+        return ajouter(new Plage(champ, Long.MIN_VALUE, borne >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) borne - 1));
+    }
+
+    /**
+     * Valeur comprise entre deux bornes incluses.
+     * @param champ l'attribut filtré
+     */
+    public AgentQuery entre(Champ champ, double min, double max) {
+        return ajouter(new Plage(champ, (long) Math.ceil(aLEchelle(champ, min)), (long) Math.floor(aLEchelle(champ, max))));
+    }
+
+    /**
+     * Met une borne à l'échelle du champ, arrondie à l'entier le plus proche si elle n'en diffère
+     * que par le bruit flottant (0.29 × 100 = 28.999999999999996 désigne bien 29 centimes).
+     * Les bornes hors de l'intervalle des long sont saturées par les critères (plage vide ou entière).
+     * @throws IllegalArgumentException si la borne est NaN
+     */
+    private static double aLEchelle(Champ champ, double valeur) {
+        if (Double.isNaN(valeur)) {
+            throw new IllegalArgumentException("La borne du critère [" + champ + "] ne peut pas être NaN");
+        }
+        double miseALEchelle = valeur * champ.echelle();
+        double arrondie = Math.rint(miseALEchelle);
+        return Math.abs(miseALEchelle - arrondie) < TOLERANCE_ECHELLE ? arrondie : miseALEchelle;
+    }
+
+    /**
+     * Stratégie active.
+     * @param nom le nom de la stratégie ({@code getStrategyName()})
+     */
+    public AgentQuery strategie(String nom) {
+        return ajouter(new Strategie(Objects.requireNonNull(nom, "La stratégie est requise")));
+    }
+
+    /**
+     * Au moins une transaction du type donné.
+     */
+    public AgentQuery avecType(TransactionType type) {
+        return ajouter(new Type(Objects.requireNonNull(type, "Le type est requis")));
+    }
+
+    /**
+     * Au moins un observateur.
+     */
+    public AgentQuery avecObservateurs() {
+        return ajouter(new Observateurs());
+    }
+
+    /**
+     * Nom correspondant à un motif glob ({@code *} et {@code ?}).
+     * @param motif le motif, par exemple {@code Desk-Paris-*}
+     */
+    public AgentQuery nom(String motif) {
+        return ajouter(new Nom(Objects.requireNonNull(motif, "Le motif est requis")));
+    }
+
+    /**
+     * Prédicat quelconque, toujours évalué sur les candidats (jamais indexé).
+     */
+    public AgentQuery filtre(Predicate<Agent> predicat) {
+        return ajouter(new Filtre(Objects.requireNonNull(predicat, "Le prédicat est requis")));
+    }
+
+    public AgentQuery trierPar(Champ champ) {
+        this.tri = Objects.requireNonNull(champ);
+        this.decroissant = false;
+        return this;
+    }
+
+    public AgentQuery trierParDecroissant(Champ champ) {
+        this.tri = Objects.requireNonNull(champ);
+        this.decroissant = true;
+        return this;
+    }
+
+    public AgentQuery limite(int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("La limite doit être positive");
+        }
+        this.limite = limite;
+        return this;
+    }
+
+    private AgentQuery ajouter(Critere critere) {
+        criteres.add(critere);
+        return this;
+    }
+
+    // ==================== EXÉCUTION ====================
+
+    /**
+     * Planifie puis exécute la requête.
+     * @return le flux des agents (paresseux sauf tri ou parcours ordonné)
+     */
+    public Stream<Agent> executer() {
+        return planifier().source().get();
+    }
+
+    public List<Agent> liste() {
+        return executer().toList();
+    }
+
+    /**
+     * Décrit le plan choisi avec les index actuels, sans exécuter la requête.
+     * @return les étapes du plan
+     */
+    public String expliquer() {
+        return planifier().description();
+    }
+
+    private record Plan(String description, Supplier<Stream<Agent>> source) {
+    }
+
+    private Plan planifier() {
+        List<String> etapes = new ArrayList<>();
+        List<Critere> residuels = new ArrayList<>(criteres);
+
+        List<Critere> categoriels = criteres.stream()
+                .filter(c -> c instanceof Strategie || c instanceof Type || c instanceof Observateurs)
+                .toList();
+        RoaringBitmap bitmap = categoriels.isEmpty() ? null : intersection(categoriels);
+        long estimation = bitmap == null ? Long.MAX_VALUE : bitmap.cardinalite();
+
+        Plage plageIndexee = null;
+        NumericIndex indexPlage = null;
+        for (Critere critere : criteres) {
+            if (critere instanceof Plage plage) {
+                Optional<NumericIndex> index = indexPour(plage.champ());
+                if (index.isPresent()) {
+                    int nombre = index.get().compter(plage.min(), plage.max());
+                    if (nombre < estimation) {
+                        estimation = nombre;
+                        plageIndexee = plage;
+                        indexPlage = index.get();
+                    }
+                }
+            }
+        }
+
+        NumericIndex indexTri = tri == null ? null : indexPour(tri).orElse(null);
+        if (indexTri != null && limite < Integer.MAX_VALUE
+                && estimation > (long) limite * FACTEUR_PARCOURS_ORDONNE) {
+            return parcoursOrdonne(indexTri, residuels, etapes);
+        }
+
+        Supplier<Stream<Agent>> source;
+        boolean dejaTrie = false;
+        if (bitmap != null && indexPlage == null) {
+            residuels.removeAll(categoriels);
+            etapes.add("bitmap " + categoriels + " (" + bitmap.cardinalite() + " candidat(s))");
+            RoaringBitmap candidats = bitmap;
+            source = () -> resoudre(container.getBitmaps().agents(candidats).stream());
+        } else if (indexPlage != null) {
+            residuels.remove(plageIndexee);
+            etapes.add("index " + indexPlage.getNom() + " [" + plageIndexee.min() + ", " + plageIndexee.max()
+                    + "] (" + estimation + " candidat(s))");
+            Plage plage = plageIndexee;
+            NumericIndex index = indexPlage;
+            source = () -> resoudre(index.plage(plage.min(), plage.max()).stream());
+            dejaTrie = plage.champ().equals(tri) && !decroissant;
+        } else {
+            Optional<Nom> nom = criteres.stream()
+                    .filter(Nom.class::isInstance).map(Nom.class::cast)
+                    .filter(n -> !n.motif().startsWith("*") && !n.motif().startsWith("?"))
+                    .findFirst();
+            if (nom.isPresent()) {
+                residuels.remove(nom.get());
+                etapes.add("radix " + nom.get().motif());
+                source = () -> container.rechercherParMotif(nom.get().motif());
+            } else {
+                etapes.add("scan parallèle (" + container.getNombreAgents() + " agent(s))");
+                source = () -> container.getTousLesAgents().parallelStream();
+            }
+        }
+
+        Predicate<Agent> filtre = predicat(residuels);
+        if (!residuels.isEmpty()) {
+            etapes.add("filtre " + residuels);
+        }
+        Supplier<Stream<Agent>> filtree = () -> source.get().filter(filtre);
+        Supplier<Stream<Agent>> resultat = filtree;
+        if (tri != null && !dejaTrie) {
+            etapes.add("tri " + tri.nom() + (decroissant ? " décroissant" : "") + (indexTri != null ? " (index)" : ""));
+            Comparator<Cle> ordre = Comparator.comparingLong(Cle::valeur);
+            Comparator<Cle> comparateur = (decroissant ? ordre.reversed() : ordre)
+                    .thenComparing(c -> c.agent().getNom());
+            NumericIndex indexValeurs = indexTri;
+            resultat = () -> filtree.get()
+                    .map(a -> new Cle(a, valeur(tri, indexValeurs, a)))
+                    .sorted(comparateur)
+                    .map(Cle::agent);
+        }
+        if (limite < Integer.MAX_VALUE) {
+            etapes.add("limite " + limite);
+            Supplier<Stream<Agent>> avantLimite = resultat;
+            resultat = () -> avantLimite.get().limit(limite);
+        }
+        return new Plan(String.join(" → ", etapes), resultat);
+    }
+
+    private Plan parcoursOrdonne(NumericIndex indexTri, List<Critere> residuels, List<String> etapes) {
+        long min = Long.MIN_VALUE;
+        long max = Long.MAX_VALUE;
+        if (!decroissant) {
+            for (Critere critere : List.copyOf(residuels)) {
+                if (critere instanceof Plage plage && plage.champ().equals(tri)) {
+                    min = Math.max(min, plage.min());
+                    max = Math.min(max, plage.max());
+                    residuels.remove(critere);
+                }
+            }
+        }
+        etapes.add("parcours ordonné index " + indexTri.getNom() + (decroissant ? " décroissant" : ""));
+        if (!residuels.isEmpty()) {
+            etapes.add("filtre " + residuels);
+        }
+        etapes.add("arrêt à " + limite);
+        Predicate<Agent> filtre = predicat(residuels);
+        long borneMin = min;
+        long borneMax = max;
+        return new Plan(String.join(" → ", etapes), () -> {
+            List<Agent> resultat = new ArrayList<>();
+            Set<String> vus = new HashSet<>();
+            int dejaLus = 0;
+            int lot = limite;
+            while (resultat.size() < limite) {
+                List<String> candidats = lireLot(indexTri, borneMin, borneMax, dejaLus, lot);
+                for (String nom : candidats) {
+                    if (resultat.size() < limite && vus.add(nom)) {
+                        container.rechercherAgent(nom).filter(filtre).ifPresent(resultat::add);
+                    }
+                }
+                if (candidats.size() < lot) {
+                    break;
+                }
+                dejaLus += lot;
+                lot = (int) Math.min(Integer.MAX_VALUE - (long) dejaLus, 2L * lot);
+            }
+            return resultat.stream();
+        });
+    }
+
+    /**
+     * Lit sous le verrou de l'index les noms des entrées [dejaLus, dejaLus + lot) du parcours;
+     * le filtre résiduel est appliqué hors verrou par l'appelant, qui lit le lot suivant (deux
+     * fois plus grand) tant que la limite n'est pas atteinte.
+     */
+    private List<String> lireLot(NumericIndex indexTri, long min, long max, int dejaLus, int lot) {
+        List<String> noms = new ArrayList<>();
+        int[] position = {0};
+        Predicate<OrderStatisticTree.Entree> visiteur = e -> {
+            if (position[0]++ >= dejaLus) {
+                noms.add(e.agent());
+            }
+            return noms.size() < lot;
+        };
+        if (decroissant) {
+            indexTri.parcourirDecroissant(visiteur);
+        } else {
+            indexTri.parcourir(min, max, visiteur);
+        }
+        return noms;
+    }
+
+    private record Cle(Agent agent, long valeur) {
+    }
+
+    // ==================== ÉVALUATION ====================
+
+    private RoaringBitmap intersection(List<Critere> categoriels) {
+        BitmapIndex bitmaps = container.getBitmaps();
+        RoaringBitmap resultat = null;
+        for (Critere critere : categoriels) {
+            RoaringBitmap bitmap;
+            if (critere instanceof Strategie s) {
+                bitmap = bitmaps.parStrategie(s.nom());
+            } else if (critere instanceof Type t) {
+                bitmap = bitmaps.avecType(t.type());
+            } else {
+                bitmap = bitmaps.avecObservateurs();
+            }
+            resultat = resultat == null ? bitmap : resultat.et(bitmap);
+        }
+        return resultat;
+    }
+
+    private Optional<NumericIndex> indexPour(Champ champ) {
+        NumericIndex classement = container.getClassement();
+        if (classement.getAttribut() == champ.attribut()) {
+            return Optional.of(classement);
+        }
+        return container.getIndexDeclares().stream().filter(i -> i.getAttribut() == champ.attribut()).findFirst();
+    }
+
+    private Predicate<Agent> predicat(List<Critere> residuels) {
+        Predicate<Agent> resultat = a -> true;
+        for (Critere critere : residuels) {
+            resultat = resultat.and(predicat(critere));
+        }
+        return resultat;
+    }
+
+    private Predicate<Agent> predicat(Critere critere) {
+        if (critere instanceof Plage p) {
+            NumericIndex index = indexPour(p.champ()).orElse(null);
+            return a -> {
+                long v = valeur(p.champ(), index, a);
+                return v >= p.min() && v <= p.max();
+            };
+        }
+        if (critere instanceof Strategie s) {
+            return a -> a.getStrategy().getStrategyName().equals(s.nom());
+        }
+        if (critere instanceof Type t) {
+            return a -> a.getTransactions().stream().anyMatch(tr -> tr.getType() == t.type());
+        }
+        if (critere instanceof Observateurs) {
+            return a -> !a.getObservers().isEmpty();
+        }
+        if (critere instanceof Nom n) {
+            return a -> NameIndex.correspond(n.motif(), a.getNom());
+        }
+        return ((Filtre) critere).predicat();
+    }
+
+    private static long valeur(Champ champ, NumericIndex index, Agent agent) {
+        if (index != null) {
+            OptionalLong indexee = index.valeur(agent.getNom());
+            if (indexee.isPresent()) {
+                return indexee.getAsLong();
+            }
+        }
+        return champ.attribut().initial(agent);
+    }
+
+    private Stream<Agent> resoudre(Stream<String> noms) {
+        return noms.map(container::rechercherAgent).flatMap(Optional::stream);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ex.gestion_conteneurs_agents.query;
+
+import com.ex.gestion_conteneurs_agents.index.NumericIndex;
+
+/**
+ * Attribut numérique d'agent utilisable dans une requête (filtre de plage et tri).
+ *
+ * La valeur interne est entière, comme dans les {@link NumericIndex}: l'échelle convertit
+ * la valeur saisie (euros pour le solde) en valeur indexée (centimes).
+ *
+ * @param nom le nom de l'attribut (celui de l'index correspondant)
+ * @param attribut le calcul de la valeur, partagé avec les index
+ * @param echelle le facteur de conversion vers la valeur entière
+ */
+public record Champ(String nom, NumericIndex.Attribut attribut, double echelle) {
+
+    /** Solde en euros (indexé en centimes). */
+    public static final Champ SOLDE = new Champ("solde", NumericIndex.Attribut.SOLDE, 100);
+
+    /** Nombre de transactions. */
+    public static final Champ NOMBRE_TRANSACTIONS = new Champ("nbTransactions", NumericIndex.Attribut.NOMBRE_TRANSACTIONS, 1);
+
+    /** Date de dernière activité (epoch millis). */
+    public static final Champ DERNIERE_ACTIVITE = new Champ("derniereActivite", NumericIndex.Attribut.DERNIERE_ACTIVITE, 1);
+
+    public Champ {
+        if (nom == null || attribut == null || echelle <= 0) {
+            throw new IllegalArgumentException("Le nom, l'attribut et une échelle positive sont requis");
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.ex.gestion_conteneurs_agents.strategy;
+
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+import com.ex.gestion_conteneurs_agents.persistence.TransactionCodec;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stratégie de détection d'anomalies en flux.
+ *
+ * Pour chaque agent source, un état de taille fixe est maintenu:
+ * - moyenne et variance exponentielles (EWMA) des montants: une transaction dont
+ *   l'écart normalisé (z-score) dépasse le seuil déclenche une alerte MONTANT
+ * - intervalles entre notifications lissés sur un horizon court et un horizon long:
+ *   un débit court terme très supérieur au débit de fond déclenche une alerte DEBIT
+ *
+ * La mise à jour est en O(1) et n'alloue rien (hors première notification d'un agent
+ * et alertes émises). Les agents différents ne partagent aucun verrou.
+ *
+ * Design Patterns: STRATEGY + BUILDER
+ */
+@Component
+public class AnomalyDetectionStrategy implements StrategiePersistante {
+
+    private final double alpha;
+    private final double seuilZ;
+    private final double facteurDebit;
+    private final int echauffement;
+    private final AnomalySink sink;
+    private final Clock clock;
+
+    /** Taille encodée de l'état d'un agent. */
+    private static final int TAILLE_ETAT = 8 * 6 + 1;
+
+    private final Map<String, EtatAgent> etats = new ConcurrentHashMap<>();
+    private final LongAdder anomalies = new LongAdder();
+
+    /**
+     * Constructeur par défaut: alertes affichées dans la console.
+     */
+    public AnomalyDetectionStrategy() {
+        this(builder());
+    }
+
+    private AnomalyDetectionStrategy(AnomalyDetectionStrategyBuilder builder) {
+        this.alpha = builder.alpha;
+        this.seuilZ = builder.seuilZ;
+        this.facteurDebit = builder.facteurDebit;
+        this.echauffement = builder.echauffement;
+        this.sink = builder.sink;
+        this.clock = builder.clock;
+    }
+
+    /**
+     * Méthode statique pour obtenir une instance du Builder.
+     * @return une nouvelle instance de AnomalyDetectionStrategyBuilder
+     */
+    public static AnomalyDetectionStrategyBuilder builder() {
+        return new AnomalyDetectionStrategyBuilder();
+    }
+
+    @Override
+    public void handleNotification(NotificationEvent event) {
+        AnomalySink.Anomalie anomalie = mettreAJour(event, clock.millis());
+        if (anomalie != null) {
+            anomalies.increment();
+            sink.signaler(anomalie);
+        }
+    }
+
+    /**
+     * Les anomalies détectées sont comptées mais pas signalées (elles l'ont été avant
+     * l'instantané); les intervalles sont mesurés entre les dates des transactions.
+     */
+    @Override
+    public void reconstruire(NotificationEvent event) {
+        if (mettreAJour(event, StrategiePersistante.horodatage(event)) != null) {
+            anomalies.increment();
+        }
+    }
+
+    /**
+     * Met à jour l'état de l'agent source à l'instant donné.
+     * @return l'anomalie détectée, ou null
+     */
+    private AnomalySink.Anomalie mettreAJour(NotificationEvent event, long maintenant) {
+        String agentName = event.getAgentName();
+        EtatAgent etat = etats.get(agentName);
+        if (etat == null) {
+            etat = etats.computeIfAbsent(agentName, nom -> new EtatAgent());
+        }
+        double montant = event.getTransaction().getMontant();
+
+        AnomalySink.Genre genre = null;
+        double valeur = 0;
+        double reference = 0;
+        double score = 0;
+
+        synchronized (etat) {
+            etat.n++;
+
+            // Montant: z-score par rapport à l'état avant mise à jour
+            if (etat.n > echauffement && etat.variance > 0) {
+                double z = Math.abs(montant - etat.moyenne) / Math.sqrt(etat.variance);
+                if (z > seuilZ) {
+                    genre = AnomalySink.Genre.MONTANT;
+                    valeur = montant;
+                    reference = etat.moyenne;
+                    score = z;
+                }
+            }
+            if (etat.n == 1) {
+                etat.moyenne = montant;
+            } else {
+                double ecart = montant - etat.moyenne;
+                double increment = alpha * ecart;
+                etat.moyenne += increment;
+                etat.variance = (1 - alpha) * (etat.variance + ecart * increment);
+            }
+
+            // Débit: intervalle court terme comparé à l'intervalle de fond
+            if (etat.dernier != Long.MIN_VALUE) {
+                double intervalle = Math.max(1, maintenant - etat.dernier);
+                if (etat.intervalleLong == 0) {
+                    etat.intervalleCourt = intervalle;
+                    etat.intervalleLong = intervalle;
+                } else {
+                    etat.intervalleCourt += 0.3 * (intervalle - etat.intervalleCourt);
+                    etat.intervalleLong += alpha * (intervalle - etat.intervalleLong);
+                }
+                double rapport = etat.intervalleLong / etat.intervalleCourt;
+                if (genre == null && etat.n > echauffement && rapport > facteurDebit && !etat.enRafale) {
+                    genre = AnomalySink.Genre.DEBIT;
+                    valeur = 1000.0 / etat.intervalleCourt;
+                    reference = 1000.0 / etat.intervalleLong;
+                    score = rapport;
+                }
+                // Une seule alerte par rafale: réarmement quand le débit redevient normal
+                etat.enRafale = rapport > facteurDebit;
+            }
+            etat.dernier = maintenant;
+        }
+
+        return genre == null ? null : new AnomalySink.Anomalie(genre, agentName, event.getTransaction().getId(),
+                valeur, reference, score);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "AnomalyDetectionStrategy";
+    }
+
+    /**
+     * Retourne le nombre total d'anomalies détectées.
+     * @return le nombre d'alertes émises
+     */
+    public long getNombreAnomalies() {
+        return anomalies.sum();
+    }
+
+    /**
+     * Retourne la moyenne glissante des montants d'un agent.
+     * @param agentName le nom de l'agent source
+     * @return la moyenne EWMA, ou 0 si l'agent est inconnu
+     */
+    public double getMoyenne(String agentName) {
+        EtatAgent etat = etats.get(agentName);
+        if (etat == null) {
+            return 0.0;
+        }
+        synchronized (etat) {
+            return etat.moyenne;
+        }
+    }
+
+    /**
+     * Format: anomalies détectées (long) puis états des agents (nombre, puis nom, n, moyenne,
+     * variance, dernière notification, intervalles court et long, rafale en cours). La
+     * configuration (alpha, seuils, sink, horloge) n'est pas exportée.
+     */
+    @Override
+    public byte[] exporterEtat() {
+        List<String> noms = new ArrayList<>();
+        List<byte[]> encodes = new ArrayList<>();
+        int taille = 8 + 4;
+        for (Map.Entry<String, EtatAgent> entree : etats.entrySet()) {
+            EtatAgent etat = entree.getValue();
+            ByteBuffer encode = ByteBuffer.allocate(TAILLE_ETAT);
+            synchronized (etat) {
+                encode.putLong(etat.n).putDouble(etat.moyenne).putDouble(etat.variance).putLong(etat.dernier)
+                        .putDouble(etat.intervalleCourt).putDouble(etat.intervalleLong)
+                        .put((byte) (etat.enRafale ? 1 : 0));
+            }
+            noms.add(entree.getKey());
+            encodes.add(encode.array());
+            taille += TransactionCodec.tailleChaine(entree.getKey()) + TAILLE_ETAT;
+        }
+        ByteBuffer tampon = ByteBuffer.allocate(taille).putLong(anomalies.sum()).putInt(noms.size());
+        for (int i = 0; i < noms.size(); i++) {
+            TransactionCodec.ecrireChaine(tampon, noms.get(i));
+            tampon.put(encodes.get(i));
+        }
+        return tampon.array();
+    }
+
+    @Override
+    public void importerEtat(byte[] etat) {
+        ByteBuffer tampon = ByteBuffer.wrap(etat);
+        reset();
+        anomalies.add(tampon.getLong());
+        int nombre = tampon.getInt();
+        for (int i = 0; i < nombre; i++) {
+            String agent = TransactionCodec.lireChaine(tampon);
+            EtatAgent lu = new EtatAgent();
+            lu.n = tampon.getLong();
+            lu.moyenne = tampon.getDouble();
+            lu.variance = tampon.getDouble();
+            lu.dernier = tampon.getLong();
+            lu.intervalleCourt = tampon.getDouble();
+            lu.intervalleLong = tampon.getDouble();
+            lu.enRafale = tampon.get() != 0;
+            etats.put(agent, lu);
+        }
+    }
+
+    /**
+     * Oublie l'état de tous les agents.
+     */
+    public void reset() {
+        etats.clear();
+        anomalies.reset();
+    }
+
+    /**
+     * Sink par défaut: affichage de l'alerte dans la console.
+     */
+    static void afficher(AnomalySink.Anomalie anomalie) {
+        System.out.println("╔════════════════════════════════════════════════════════════╗");
+        System.out.println("║ [ANOMALY DETECTION] Anomalie " + anomalie.genre() + " détectée");
+        System.out.println("╠════════════════════════════════════════════════════════════╣");
+        System.out.println("║ Agent source: " + anomalie.agentName());
+        System.out.println("║ Transaction ID: " + anomalie.transactionId());
+        System.out.println("║ Valeur: " + String.format("%.2f", anomalie.valeur())
+                + " | Référence: " + String.format("%.2f", anomalie.reference())
+                + " | Score: " + String.format("%.1f", anomalie.score()));
+        System.out.println("╚════════════════════════════════════════════════════════════╝");
+    }
+
+    /**
+     * État de taille fixe d'un agent source.
+     */
+    private static final class EtatAgent {
+        long n;
+        double moyenne;
+        double variance;
+        long dernier = Long.MIN_VALUE;
+        double intervalleCourt;
+        double intervalleLong;
+        boolean enRafale;
+    }
+
+    /**
+     * Builder de la stratégie de détection d'anomalies.
+     */
+    public static class AnomalyDetectionStrategyBuilder {
+        private double alpha = 0.05;
+        private double seuilZ = 4.0;
+        private double facteurDebit = 10.0;
+        private int echauffement = 20;
+        private AnomalySink sink = AnomalyDetectionStrategy::afficher;
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * Poids des nouvelles observations dans les moyennes exponentielles.
+         */
+        public AnomalyDetectionStrategyBuilder alpha(double alpha) {
+            this.alpha = alpha;
+            return this;
+        }
+
+        /**
+         * Écart normalisé au-delà duquel un montant est anormal.
+         */
+        public AnomalyDetectionStrategyBuilder seuilZ(double seuilZ) {
+            this.seuilZ = seuilZ;
+            return this;
+        }
+
+        /**
+         * Rapport débit court terme / débit de fond au-delà duquel une rafale est signalée.
+         */
+        public AnomalyDetectionStrategyBuilder facteurDebit(double facteurDebit) {
+            this.facteurDebit = facteurDebit;
+            return this;
+        }
+
+        /**
+         * Nombre de notifications observées par agent avant toute alerte.
+         */
+        public AnomalyDetectionStrategyBuilder echauffement(int echauffement) {
+            this.echauffement = echauffement;
+            return this;
+        }
+
+        public AnomalyDetectionStrategyBuilder sink(AnomalySink sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        public AnomalyDetectionStrategyBuilder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Construit la stratégie avec validation.
+         * @return la stratégie configurée
+         * @throws IllegalStateException si un paramètre est invalide
+         */
+        public AnomalyDetectionStrategy build() {
+            if (alpha <= 0 || alpha >= 1) {
+                throw new IllegalStateException("Alpha doit être compris entre 0 et 1 exclus");
+            }
+            if (seuilZ <= 0 || facteurDebit <= 1) {
+                throw new IllegalStateException("Le seuil z doit être positif et le facteur de débit supérieur à 1");
+            }
+            if (echauffement < 0) {
+                throw new IllegalStateException("L'échauffement ne peut pas être négatif");
+            }
+            if (sink == null || clock == null) {
+                throw new IllegalStateException("Le sink et l'horloge sont obligatoires");
+            }
+            return new AnomalyDetectionStrategy(this);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ex.gestion_conteneurs_agents.strategy;
+
+/**
+ * Destination des alertes émises par {@link AnomalyDetectionStrategy}.
+ * Permet de brancher la console, un fichier, une file de messages, etc.
+ */
+@FunctionalInterface
+public interface AnomalySink {
+
+    /**
+     * Reçoit une anomalie détectée. Appelé sur le thread de notification:
+     * une implémentation coûteuse doit déléguer à un autre thread.
+     * @param anomalie l'anomalie détectée
+     */
+    void signaler(Anomalie anomalie);
+
+    /**
+     * Genre d'anomalie détectée.
+     */
+    enum Genre {
+        /** Montant très éloigné de la moyenne glissante de l'agent */
+        MONTANT,
+        /** Hausse soudaine du débit de notifications de l'agent */
+        DEBIT
+    }
+
+    /**
+     * Anomalie détectée sur une notification.
+     * @param genre le genre d'anomalie
+     * @param agentName l'agent source
+     * @param transactionId la transaction ayant déclenché l'alerte
+     * @param valeur la valeur observée (montant, ou débit en notifications/s)
+     * @param reference la valeur de référence (moyenne glissante, ou débit de fond)
+     * @param score l'écart normalisé (z-score pour un montant, rapport de débits sinon)
+     */
+    record Anomalie(Genre genre, String agentName, String transactionId, double valeur, double reference, double score) {
+    }
+}
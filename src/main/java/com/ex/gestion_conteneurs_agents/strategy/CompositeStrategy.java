@@ -0,0 +1,245 @@
+package com.ex.gestion_conteneurs_agents.strategy;
+
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Stratégie composite exécutant une liste ordonnée de stratégies en une seule passe.
+ * Remplace les agents "proxy" abonnés uniquement pour cumuler plusieurs traitements.
+ *
+ * - Les étapes s'exécutent dans l'ordre de déclaration
+ * - Un groupe d'étapes déclarées indépendantes s'exécute en parallèle
+ * - Le temps passé dans chaque étape est mesuré et consultable
+ *
+ * Design Patterns: STRATEGY + COMPOSITE + BUILDER
+ */
+public class CompositeStrategy implements NotificationStrategy {
+
+    private final Etape[][] groupes;
+    private final List<Etape> etapes;
+    private final Executor executor;
+    private final String nom;
+
+    private CompositeStrategy(CompositeStrategyBuilder builder) {
+        this.groupes = builder.groupes.stream()
+                .map(groupe -> groupe.toArray(new Etape[0]))
+                .toArray(Etape[][]::new);
+        this.etapes = builder.groupes.stream().flatMap(List::stream).toList();
+        this.executor = builder.executor;
+        this.nom = "CompositeStrategy[" + etapes.stream()
+                .map(e -> e.strategy.getStrategyName())
+                .collect(Collectors.joining("+")) + "]";
+    }
+
+    /**
+     * Méthode statique pour obtenir une instance du Builder.
+     * @return une nouvelle instance de CompositeStrategyBuilder
+     */
+    public static CompositeStrategyBuilder builder() {
+        return new CompositeStrategyBuilder();
+    }
+
+    @Override
+    public void handleNotification(NotificationEvent event) {
+        for (Etape[] groupe : groupes) {
+            executerGroupe(groupe, etape -> etape.executer(event));
+        }
+    }
+
+    @Override
+    public void handleNotifications(List<NotificationEvent> events) {
+        for (Etape[] groupe : groupes) {
+            executerGroupe(groupe, etape -> etape.executer(events));
+        }
+    }
+
+    @Override
+    public String getStrategyName() {
+        return nom;
+    }
+
+    /**
+     * Retourne les stratégies composées dans l'ordre d'exécution.
+     * @return liste non modifiable des stratégies
+     */
+    public List<NotificationStrategy> getStrategies() {
+        return etapes.stream().map(e -> e.strategy).toList();
+    }
+
+    /**
+     * Retourne les mesures de temps par étape.
+     * @return une mesure par étape, dans l'ordre d'exécution
+     */
+    public List<MesureEtape> getMesures() {
+        return etapes.stream()
+                .map(e -> new MesureEtape(e.strategy.getStrategyName(), e.invocations.sum(), e.nanos.sum()))
+                .toList();
+    }
+
+    /**
+     * Remet à zéro les mesures de temps.
+     */
+    public void resetMesures() {
+        etapes.forEach(e -> {
+            e.invocations.reset();
+            e.nanos.reset();
+        });
+    }
+
+    /**
+     * Affiche les mesures de temps de chaque étape.
+     */
+    public void afficherMesures() {
+        System.out.println("\n╔════════════════════════════════════════════════════════════╗");
+        System.out.println("║              MESURES DU PIPELINE COMPOSITE                 ║");
+        System.out.println("╠════════════════════════════════════════════════════════════╣");
+        for (MesureEtape mesure : getMesures()) {
+            System.out.println("║ " + mesure.strategie() + ": " + mesure.invocations() + " appel(s) | Moyenne: "
+                    + String.format("%.1f", mesure.moyenneMicros()) + " µs");
+        }
+        System.out.println("╚════════════════════════════════════════════════════════════╝\n");
+    }
+
+    private void executerGroupe(Etape[] groupe, Consumer<Etape> action) {
+        if (groupe.length == 1) {
+            action.accept(groupe[0]);
+            return;
+        }
+        // Les étapes indépendantes partent sur l'executor, la première reste sur le thread appelant
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[groupe.length - 1];
+        for (int i = 1; i < groupe.length; i++) {
+            Etape etape = groupe[i];
+            futures[i - 1] = CompletableFuture.runAsync(() -> action.accept(etape), executor);
+        }
+        action.accept(groupe[0]);
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Mesure cumulée d'une étape du pipeline.
+     * @param strategie le nom de la stratégie
+     * @param invocations le nombre d'appels (un lot compte pour un appel)
+     * @param totalNanos le temps total passé dans l'étape
+     */
+    public record MesureEtape(String strategie, long invocations, long totalNanos) {
+        public double moyenneMicros() {
+            return invocations == 0 ? 0.0 : totalNanos / 1000.0 / invocations;
+        }
+    }
+
+    /**
+     * Étape du pipeline: une stratégie et ses compteurs de temps.
+     */
+    private static final class Etape {
+        private final NotificationStrategy strategy;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        Etape(NotificationStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        void executer(NotificationEvent event) {
+            long debut = System.nanoTime();
+            try {
+                strategy.handleNotification(event);
+            } finally {
+                nanos.add(System.nanoTime() - debut);
+                invocations.increment();
+            }
+        }
+
+        void executer(List<NotificationEvent> events) {
+            long debut = System.nanoTime();
+            try {
+                strategy.handleNotifications(events);
+            } finally {
+                nanos.add(System.nanoTime() - debut);
+                invocations.increment();
+            }
+        }
+    }
+
+    /**
+     * Builder du pipeline composite.
+     */
+    public static class CompositeStrategyBuilder {
+        private final List<List<Etape>> groupes = new ArrayList<>();
+        private Executor executor = ForkJoinPool.commonPool();
+
+        /**
+         * Ajoute une étape exécutée après les précédentes.
+         * @param strategy la stratégie à ajouter
+         * @return le builder
+         */
+        public CompositeStrategyBuilder etape(NotificationStrategy strategy) {
+            groupes.add(List.of(new Etape(verifier(strategy))));
+            return this;
+        }
+
+        /**
+         * Ajoute un groupe d'étapes indépendantes exécutées en parallèle entre elles.
+         * Ces stratégies ne doivent partager aucun état.
+         * @param strategies les stratégies indépendantes
+         * @return le builder
+         */
+        public CompositeStrategyBuilder etapesParalleles(NotificationStrategy... strategies) {
+            List<Etape> groupe = new ArrayList<>();
+            for (NotificationStrategy strategy : strategies) {
+                groupe.add(new Etape(verifier(strategy)));
+            }
+            if (!groupe.isEmpty()) {
+                groupes.add(groupe);
+            }
+            return this;
+        }
+
+        /**
+         * Définit l'executor des étapes parallèles (ForkJoinPool commun par défaut).
+         * @param executor l'executor à utiliser
+         * @return le builder
+         */
+        public CompositeStrategyBuilder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Construit le pipeline.
+         * @return la stratégie composite
+         * @throws IllegalStateException si aucune étape n'est déclarée
+         */
+        public CompositeStrategy build() {
+            if (groupes.isEmpty()) {
+                throw new IllegalStateException("Le pipeline doit contenir au moins une stratégie");
+            }
+            if (executor == null) {
+                throw new IllegalStateException("L'executor des étapes parallèles est obligatoire");
+            }
+            return new CompositeStrategy(this);
+        }
+
+        private static NotificationStrategy verifier(NotificationStrategy strategy) {
+            if (strategy == null) {
+                throw new IllegalArgumentException("La stratégie ne peut pas être null");
+            }
+            return strategy;
+        }
+    }
+}
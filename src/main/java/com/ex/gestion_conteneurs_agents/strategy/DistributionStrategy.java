@@ -0,0 +1,163 @@
+package com.ex.gestion_conteneurs_agents.strategy;
+
+import com.ex.gestion_conteneurs_agents.analytics.AmountHistogram;
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+import com.ex.gestion_conteneurs_agents.persistence.TransactionCodec;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stratégie de distribution des montants (quantiles p50/p95/p99).
+ * Maintient un histogramme logarithmique par agent source et par type de transaction.
+ *
+ * Les quantiles s'obtiennent sans trier les transactions: chaque notification coûte
+ * un incrément de compteur, et la mémoire par agent est fixe. Les histogrammes des
+ * agents se fusionnent pour obtenir les quantiles de tout le conteneur.
+ *
+ * Design Pattern: STRATEGY
+ * - Implémentation concrète de la stratégie de distribution
+ */
+@Component
+public class DistributionStrategy implements StrategiePersistante {
+
+    private final Map<String, AmountHistogram> parAgent = new ConcurrentHashMap<>();
+    private final Map<TransactionType, AmountHistogram> parType = new EnumMap<>(TransactionType.class);
+
+    public DistributionStrategy() {
+        for (TransactionType type : TransactionType.values()) {
+            parType.put(type, new AmountHistogram());
+        }
+    }
+
+    @Override
+    public void handleNotification(NotificationEvent event) {
+        long centimes = Math.round(event.getTransaction().getMontant() * 100.0);
+        parAgent.computeIfAbsent(event.getAgentName(), nom -> new AmountHistogram()).enregistrerCentimes(centimes);
+        parType.get(event.getTransaction().getType()).enregistrerCentimes(centimes);
+    }
+
+    /**
+     * Le traitement d'une notification n'a pas d'effet de bord: il est repris tel quel.
+     */
+    @Override
+    public void reconstruire(NotificationEvent event) {
+        handleNotification(event);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "DistributionStrategy";
+    }
+
+    /**
+     * Retourne les quantiles des montants notifiés par un agent.
+     * @param agentName le nom de l'agent source
+     * @return les quantiles, ou Optional.empty() si l'agent est inconnu
+     */
+    public Optional<AmountHistogram.Quantiles> getQuantilesParAgent(String agentName) {
+        return Optional.ofNullable(parAgent.get(agentName)).map(AmountHistogram::quantiles);
+    }
+
+    /**
+     * Retourne les quantiles des montants d'un type de transaction.
+     * @param type le type de transaction
+     * @return les quantiles
+     */
+    public AmountHistogram.Quantiles getQuantilesParType(TransactionType type) {
+        return parType.get(type).quantiles();
+    }
+
+    /**
+     * Retourne l'histogramme d'un agent (pour fusion avec d'autres sources).
+     * @param agentName le nom de l'agent source
+     * @return l'histogramme, ou Optional.empty() si l'agent est inconnu
+     */
+    public Optional<AmountHistogram> getHistogrammeParAgent(String agentName) {
+        return Optional.ofNullable(parAgent.get(agentName));
+    }
+
+    /**
+     * Fusionne les histogrammes de tous les agents.
+     * @return un nouvel histogramme couvrant tout le conteneur
+     */
+    public AmountHistogram getHistogrammeGlobal() {
+        return AmountHistogram.fusion(parAgent.values());
+    }
+
+    /**
+     * Format: histogrammes par type (ordre de {@link TransactionType}) puis histogrammes par
+     * agent (nombre, puis nom et histogramme).
+     */
+    @Override
+    public byte[] exporterEtat() {
+        int taille = 4;
+        Map<TransactionType, byte[]> types = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TransactionType.values()) {
+            byte[] histogramme = parType.get(type).exporter();
+            types.put(type, histogramme);
+            taille += histogramme.length;
+        }
+        Map<String, byte[]> agents = new LinkedHashMap<>();
+        for (Map.Entry<String, AmountHistogram> entree : parAgent.entrySet()) {
+            byte[] histogramme = entree.getValue().exporter();
+            agents.put(entree.getKey(), histogramme);
+            taille += TransactionCodec.tailleChaine(entree.getKey()) + histogramme.length;
+        }
+        ByteBuffer tampon = ByteBuffer.allocate(taille);
+        types.values().forEach(tampon::put);
+        tampon.putInt(agents.size());
+        agents.forEach((agent, histogramme) -> {
+            TransactionCodec.ecrireChaine(tampon, agent);
+            tampon.put(histogramme);
+        });
+        return tampon.array();
+    }
+
+    @Override
+    public void importerEtat(byte[] etat) {
+        ByteBuffer tampon = ByteBuffer.wrap(etat);
+        reset();
+        for (TransactionType type : TransactionType.values()) {
+            parType.get(type).importer(tampon);
+        }
+        int agents = tampon.getInt();
+        for (int i = 0; i < agents; i++) {
+            AmountHistogram histogramme = new AmountHistogram();
+            String agent = TransactionCodec.lireChaine(tampon);
+            histogramme.importer(tampon);
+            parAgent.put(agent, histogramme);
+        }
+    }
+
+    /**
+     * Affiche les quantiles par type et globaux.
+     */
+    public void displayQuantiles() {
+        System.out.println("\n╔════════════════════════════════════════════════════════════╗");
+        System.out.println("║              DISTRIBUTION DES MONTANTS                     ║");
+        System.out.println("╠════════════════════════════════════════════════════════════╣");
+        parType.forEach((type, histogramme) -> afficherLigne(type.getLabel(), histogramme.quantiles()));
+        afficherLigne("Global", getHistogrammeGlobal().quantiles());
+        System.out.println("╚════════════════════════════════════════════════════════════╝\n");
+    }
+
+    /**
+     * Vide tous les histogrammes.
+     */
+    public void reset() {
+        parAgent.clear();
+        parType.values().forEach(AmountHistogram::reset);
+    }
+
+    private void afficherLigne(String libelle, AmountHistogram.Quantiles q) {
+        System.out.println("║ " + libelle + " (" + q.nombre() + ") | p50: " + String.format("%.2f", q.p50())
+                + " € | p95: " + String.format("%.2f", q.p95()) + " € | p99: " + String.format("%.2f", q.p99()) + " €");
+    }
+}
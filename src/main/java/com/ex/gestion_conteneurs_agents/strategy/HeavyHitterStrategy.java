@@ -0,0 +1,183 @@
+package com.ex.gestion_conteneurs_agents.strategy;
+
+import com.ex.gestion_conteneurs_agents.analytics.CountMinSketch;
+import com.ex.gestion_conteneurs_agents.analytics.HyperLogLog;
+import com.ex.gestion_conteneurs_agents.analytics.TopK;
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+import com.ex.gestion_conteneurs_agents.persistence.TransactionCodec;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stratégie de surveillance globale en mémoire fixe.
+ *
+ * - Agents les plus actifs: sketch Count-Min + liste des K plus fréquents
+ * - Nombre de transactions distinctes: HyperLogLog
+ *
+ * Contrairement à {@code StatisticsStrategy.transactionsParAgent} (HashMap exacte et non
+ * bornée), la mémoire ne dépend pas du nombre d'agents ni de transactions. Les instances
+ * de mêmes dimensions se fusionnent pour combiner plusieurs partitions.
+ *
+ * Design Pattern: STRATEGY
+ * - Implémentation concrète de la stratégie de surveillance approximative
+ */
+@Component
+public class HeavyHitterStrategy implements StrategiePersistante {
+
+    private static final int LARGEUR_DEFAUT = 2048;
+    private static final int PROFONDEUR_DEFAUT = 5;
+    private static final int PRECISION_HLL_DEFAUT = 14;
+
+    private final CountMinSketch frequences;
+    private final TopK topAgents;
+    private final HyperLogLog transactionsDistinctes;
+
+    /**
+     * Constructeur par défaut: top 10, sketch 2048 × 5, HyperLogLog 2^14 registres (~145 Ko).
+     */
+    public HeavyHitterStrategy() {
+        this(10, LARGEUR_DEFAUT, PROFONDEUR_DEFAUT, PRECISION_HLL_DEFAUT);
+    }
+
+    /**
+     * Constructeur avec dimensions spécifiées.
+     * @param k nombre d'agents les plus actifs conservés
+     * @param largeur largeur du sketch Count-Min
+     * @param profondeur profondeur du sketch Count-Min
+     * @param precisionHll précision de l'HyperLogLog (2^p registres)
+     */
+    public HeavyHitterStrategy(int k, int largeur, int profondeur, int precisionHll) {
+        this.frequences = new CountMinSketch(largeur, profondeur);
+        this.topAgents = new TopK(k);
+        this.transactionsDistinctes = new HyperLogLog(precisionHll);
+    }
+
+    @Override
+    public void handleNotification(NotificationEvent event) {
+        String agentName = event.getAgentName();
+        topAgents.proposer(agentName, frequences.ajouter(agentName));
+        transactionsDistinctes.ajouter(event.getTransaction().getId());
+    }
+
+    /**
+     * Le traitement d'une notification n'a pas d'effet de bord: il est repris tel quel.
+     */
+    @Override
+    public void reconstruire(NotificationEvent event) {
+        handleNotification(event);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "HeavyHitterStrategy";
+    }
+
+    /**
+     * Retourne les agents ayant émis le plus de notifications.
+     * @return les agents et leur nombre estimé de notifications, par ordre décroissant
+     */
+    public List<Map.Entry<String, Long>> getTopAgents() {
+        return topAgents.getClassement();
+    }
+
+    /**
+     * Estime le nombre de notifications émises par un agent.
+     * @param agentName le nom de l'agent source
+     * @return l'estimation (jamais inférieure à la valeur réelle)
+     */
+    public long estimerNotifications(String agentName) {
+        return frequences.estimer(agentName);
+    }
+
+    /**
+     * Estime le nombre d'identifiants de transaction distincts observés.
+     * @return l'estimation de cardinalité
+     */
+    public long estimerTransactionsDistinctes() {
+        return transactionsDistinctes.estimer();
+    }
+
+    /**
+     * Fusionne l'état d'une autre instance de mêmes dimensions (autre partition).
+     * Les candidats des deux listes sont réévalués sur le sketch fusionné.
+     * @param autre l'instance à fusionner
+     */
+    public void fusionner(HeavyHitterStrategy autre) {
+        frequences.fusionner(autre.frequences);
+        transactionsDistinctes.fusionner(autre.transactionsDistinctes);
+        Set<String> candidats = new HashSet<>(topAgents.getCles());
+        candidats.addAll(autre.topAgents.getCles());
+        topAgents.reset();
+        candidats.forEach(agent -> topAgents.proposer(agent, frequences.estimer(agent)));
+    }
+
+    /**
+     * Format: sketch Count-Min, HyperLogLog puis candidats du top K (nombre, puis nom et
+     * estimation). Une instance de dimensions différentes refuse l'import: elle doit être
+     * recréée par une fabrique configurée.
+     */
+    @Override
+    public byte[] exporterEtat() {
+        byte[] sketch = frequences.exporter();
+        byte[] hll = transactionsDistinctes.exporter();
+        List<Map.Entry<String, Long>> classement = topAgents.getClassement();
+        int taille = sketch.length + hll.length + 4;
+        for (Map.Entry<String, Long> entree : classement) {
+            taille += TransactionCodec.tailleChaine(entree.getKey()) + 8;
+        }
+        ByteBuffer tampon = ByteBuffer.allocate(taille).put(sketch).put(hll).putInt(classement.size());
+        for (Map.Entry<String, Long> entree : classement) {
+            TransactionCodec.ecrireChaine(tampon, entree.getKey());
+            tampon.putLong(entree.getValue());
+        }
+        return tampon.array();
+    }
+
+    @Override
+    public void importerEtat(byte[] etat) {
+        ByteBuffer tampon = ByteBuffer.wrap(etat);
+        frequences.importer(tampon);
+        transactionsDistinctes.importer(tampon);
+        topAgents.reset();
+        int candidats = tampon.getInt();
+        for (int i = 0; i < candidats; i++) {
+            topAgents.proposer(TransactionCodec.lireChaine(tampon), tampon.getLong());
+        }
+    }
+
+    /**
+     * Retourne la mémoire occupée par les sketches.
+     * @return la taille en octets
+     */
+    public long getTailleOctets() {
+        return frequences.getTailleOctets() + transactionsDistinctes.getTailleOctets();
+    }
+
+    /**
+     * Affiche les agents les plus actifs et le nombre de transactions distinctes.
+     */
+    public void displayHeavyHitters() {
+        System.out.println("\n╔════════════════════════════════════════════════════════════╗");
+        System.out.println("║              AGENTS LES PLUS ACTIFS (estimation)           ║");
+        System.out.println("╠════════════════════════════════════════════════════════════╣");
+        getTopAgents().forEach(entry ->
+                System.out.println("║   - " + entry.getKey() + ": ~" + entry.getValue() + " notification(s)"));
+        System.out.println("╠════════════════════════════════════════════════════════════╣");
+        System.out.println("║ Transactions distinctes: ~" + estimerTransactionsDistinctes());
+        System.out.println("╚════════════════════════════════════════════════════════════╝\n");
+    }
+
+    /**
+     * Remet à zéro tous les sketches.
+     */
+    public void reset() {
+        frequences.reset();
+        topAgents.reset();
+        transactionsDistinctes.reset();
+    }
+}
@@ -2,8 +2,10 @@ package com.ex.gestion_conteneurs_agents.strategy;
 
 import com.ex.gestion_conteneurs_agents.model.Transaction;
 import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+import com.ex.gestion_conteneurs_agents.persistence.TransactionCodec;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -16,7 +18,7 @@ import java.util.List;
  * - Implémentation concrète de la stratégie d'historique
  */
 @Component
-public class HistoryStrategy implements NotificationStrategy {
+public class HistoryStrategy implements StrategiePersistante {
     
     private final List<NotificationEvent> historique = new ArrayList<>();
 
@@ -33,6 +35,11 @@ public class HistoryStrategy implements NotificationStrategy {
         System.out.println("╚════════════════════════════════════════════════════════════╝");
     }
 
+    @Override
+    public void reconstruire(NotificationEvent event) {
+        historique.add(event);
+    }
+
     @Override
     public String getStrategyName() {
         return "HistoryStrategy";
@@ -64,6 +71,33 @@ public class HistoryStrategy implements NotificationStrategy {
         return historique.size();
     }
 
+    /**
+     * Format: nombre (int) puis, par événement, agent source (chaîne) et transaction.
+     */
+    @Override
+    public byte[] exporterEtat() {
+        int taille = 4;
+        for (NotificationEvent event : historique) {
+            taille += TransactionCodec.tailleChaine(event.getAgentName()) + TransactionCodec.taille(event.getTransaction());
+        }
+        ByteBuffer tampon = ByteBuffer.allocate(taille).putInt(historique.size());
+        for (NotificationEvent event : historique) {
+            TransactionCodec.ecrireChaine(tampon, event.getAgentName());
+            TransactionCodec.ecrire(tampon, event.getTransaction());
+        }
+        return tampon.array();
+    }
+
+    @Override
+    public void importerEtat(byte[] etat) {
+        ByteBuffer tampon = ByteBuffer.wrap(etat);
+        int nombre = tampon.getInt();
+        historique.clear();
+        for (int i = 0; i < nombre; i++) {
+            historique.add(new NotificationEvent(TransactionCodec.lireChaine(tampon), TransactionCodec.lire(tampon)));
+        }
+    }
+
     /**
      * Vide l'historique.
      */
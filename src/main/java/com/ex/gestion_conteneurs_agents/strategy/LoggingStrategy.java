@@ -1,11 +1,15 @@
 package com.ex.gestion_conteneurs_agents.strategy;
 
+import com.ex.gestion_conteneurs_agents.log.BinaryLogWriter;
+import com.ex.gestion_conteneurs_agents.log.RotatingLogWriter;
+import com.ex.gestion_conteneurs_agents.log.RotationPolicy;
 import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Component;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -13,6 +17,11 @@ import java.time.format.DateTimeFormatter;
  * Stratégie de journalisation pour écrire les notifications dans un fichier log.
  * Exemple de stratégie supplémentaire démontrant l'extensibilité du pattern.
  * 
+ * Le fichier est géré par un {@link RotatingLogWriter}: rotation par taille et/ou durée,
+ * compression des segments en arrière-plan et rétention limitée.
+ * Un format binaire compact ({@link BinaryLogWriter}) est disponible via {@link #binaire(Path)}
+ * pour le rejeu et l'analyse à haut débit.
+ * 
  * Design Pattern: STRATEGY
  * - Implémentation concrète extensible
  */
@@ -22,8 +31,52 @@ public class LoggingStrategy implements NotificationStrategy {
     private static final String LOG_FILE = "notifications.log";
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    private final RotatingLogWriter journal;
+    private final BinaryLogWriter journalBinaire;
+    private final Path fichier;
+
+    /**
+     * Constructeur par défaut: journal "notifications.log" avec la politique de rotation par défaut.
+     */
+    public LoggingStrategy() {
+        this(Path.of(LOG_FILE), RotationPolicy.parDefaut());
+    }
+
+    /**
+     * Constructeur avec fichier et politique de rotation spécifiés.
+     * @param fichier le chemin du journal actif
+     * @param policy la politique de rotation
+     */
+    public LoggingStrategy(Path fichier, RotationPolicy policy) {
+        this(new RotatingLogWriter(fichier, policy), null, fichier);
+    }
+
+    private LoggingStrategy(RotatingLogWriter journal, BinaryLogWriter journalBinaire, Path fichier) {
+        this.journal = journal;
+        this.journalBinaire = journalBinaire;
+        this.fichier = fichier;
+    }
+
+    /**
+     * Crée une stratégie de journalisation au format binaire compact.
+     * @param fichier le chemin du journal binaire
+     * @return la stratégie configurée
+     * @throws UncheckedIOException si le journal ne peut pas être ouvert
+     */
+    public static LoggingStrategy binaire(Path fichier) {
+        try {
+            return new LoggingStrategy(null, new BinaryLogWriter(fichier), fichier);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Override
     public void handleNotification(NotificationEvent event) {
+        if (journalBinaire != null) {
+            journaliserBinaire(event);
+            return;
+        }
         String logEntry = String.format("[%s] Agent: %s | Transaction: %s | Type: %s | Montant: %.2f €",
                 LocalDateTime.now().format(FORMATTER),
                 event.getAgentName(),
@@ -32,8 +85,8 @@ public class LoggingStrategy implements NotificationStrategy {
                 event.getTransaction().getMontant());
 
         // Écriture dans le fichier log
-        try (PrintWriter writer = new PrintWriter(new FileWriter(LOG_FILE, true))) {
-            writer.println(logEntry);
+        try {
+            journal.ecrire(logEntry);
         } catch (IOException e) {
             System.err.println("Erreur lors de l'écriture dans le fichier log: " + e.getMessage());
         }
@@ -42,12 +95,49 @@ public class LoggingStrategy implements NotificationStrategy {
         System.out.println("║ [LOGGING STRATEGY] Notification journalisée                ║");
         System.out.println("╠════════════════════════════════════════════════════════════╣");
         System.out.println("║ " + logEntry);
-        System.out.println("║ Écrit dans: " + LOG_FILE);
+        System.out.println("║ Écrit dans: " + fichier);
         System.out.println("╚════════════════════════════════════════════════════════════╝");
     }
 
+    /**
+     * Écriture au format binaire: aucun formatage de chaîne sur le chemin d'écriture.
+     */
+    private void journaliserBinaire(NotificationEvent event) {
+        try {
+            journalBinaire.ecrire(System.currentTimeMillis(), event.getAgentName(), event.getTransaction());
+        } catch (IOException e) {
+            System.err.println("Erreur lors de l'écriture dans le journal binaire: " + e.getMessage());
+            return;
+        }
+        System.out.println("║ [LOGGING STRATEGY] " + event.getTransaction().getId() + " journalisée (binaire) dans: " + fichier);
+    }
+
     @Override
     public String getStrategyName() {
         return "LoggingStrategy";
     }
+
+    /**
+     * Retourne le chemin du journal (pour le rejeu via LogSegments ou BinaryLogReader).
+     * @return le chemin du journal actif
+     */
+    public Path getFichierJournal() {
+        return fichier;
+    }
+
+    /**
+     * Ferme le journal et attend la fin des compressions en cours.
+     */
+    @PreDestroy
+    public void fermer() {
+        try {
+            if (journal != null) {
+                journal.close();
+            } else {
+                journalBinaire.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la fermeture du fichier log: " + e.getMessage());
+        }
+    }
 }
@@ -2,6 +2,8 @@ package com.ex.gestion_conteneurs_agents.strategy;
 
 import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
 
+import java.util.List;
+
 /**
  * Interface Strategy pour le traitement des notifications.
  * 
@@ -17,6 +19,17 @@ public interface NotificationStrategy {
      */
     void handleNotification(NotificationEvent event);
 
+    /**
+     * Traite un lot d'événements dans l'ordre.
+     * Les stratégies peuvent redéfinir cette méthode pour amortir leur coût par lot.
+     * @param events les événements à traiter
+     */
+    default void handleNotifications(List<NotificationEvent> events) {
+        for (NotificationEvent event : events) {
+            handleNotification(event);
+        }
+    }
+
     /**
      * Retourne le nom de la stratégie.
      * @return le nom descriptif de la stratégie
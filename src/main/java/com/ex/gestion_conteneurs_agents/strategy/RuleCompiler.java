@@ -0,0 +1,221 @@
+package com.ex.gestion_conteneurs_agents.strategy;
+
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compilateur des règles de {@link RuleStrategy}.
+ *
+ * Syntaxe (une règle par ligne, lignes vides et commentaires "#" ignorés):
+ * <pre>
+ * vente_importante: si type = VENTE et montant > 1000 alors score += 50
+ * achat:            si type = ACHAT alors score -= montant
+ * bonus_agent:      si agent = Agent-A alors score += montant * 0.1
+ * base:             si toujours alors score += 1
+ * </pre>
+ *
+ * Chaque règle est compilée une seule fois en lambdas capturant ses constantes
+ * (type, seuil, coefficient): le traitement d'un événement n'analyse plus aucun texte.
+ */
+public final class RuleCompiler {
+
+    private static final Pattern REGLE = Pattern.compile(
+            "^([\\w.-]+)\\s*:\\s*si\\s+(.+?)\\s+alors\\s+score\\s*([+-])=\\s*(.+)$");
+    private static final Pattern CONDITION = Pattern.compile(
+            "^(type|montant|agent)\\s*(>=|<=|!=|=|>|<)\\s*(\\S+)$");
+    private static final Pattern EFFET = Pattern.compile(
+            "^(montant(?:\\s*\\*\\s*(\\S+))?|(\\S+))$");
+
+    private RuleCompiler() {
+    }
+
+    /**
+     * Condition compilée d'une règle.
+     */
+    @FunctionalInterface
+    public interface Condition {
+        boolean test(String agent, TransactionType type, double montant);
+    }
+
+    /**
+     * Effet compilé d'une règle: variation du score en fonction du montant.
+     */
+    @FunctionalInterface
+    public interface Effet {
+        double delta(double montant);
+    }
+
+    /**
+     * Règle compilée avec son compteur de déclenchements.
+     */
+    public static final class Regle {
+        private final String nom;
+        private final String source;
+        private final Condition condition;
+        private final Effet effet;
+        private final LongAdder declenchements = new LongAdder();
+
+        Regle(String nom, String source, Condition condition, Effet effet) {
+            this.nom = nom;
+            this.source = source;
+            this.condition = condition;
+            this.effet = effet;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public Condition getCondition() {
+            return condition;
+        }
+
+        public Effet getEffet() {
+            return effet;
+        }
+
+        public long getDeclenchements() {
+            return declenchements.sum();
+        }
+
+        void declencher() {
+            declenchements.increment();
+        }
+    }
+
+    /**
+     * Compile un ensemble de règles.
+     * @param lignes les lignes du fichier de règles
+     * @return les règles compilées, dans l'ordre du fichier
+     * @throws IllegalArgumentException si une ligne est invalide (numéro de ligne indiqué)
+     */
+    public static List<Regle> compiler(List<String> lignes) {
+        List<Regle> regles = new ArrayList<>();
+        for (int i = 0; i < lignes.size(); i++) {
+            String ligne = lignes.get(i).strip();
+            if (ligne.isEmpty() || ligne.startsWith("#")) {
+                continue;
+            }
+            try {
+                regles.add(compilerRegle(ligne));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Règle invalide ligne " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return regles;
+    }
+
+    private static Regle compilerRegle(String ligne) {
+        Matcher m = REGLE.matcher(ligne);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("syntaxe attendue \"nom: si <conditions> alors score += <valeur>\"");
+        }
+        Condition condition = null;
+        for (String terme : m.group(2).split("\\s+et\\s+")) {
+            Condition c = compilerCondition(terme.strip());
+            condition = condition == null ? c : et(condition, c);
+        }
+        Effet effet = compilerEffet(m.group(4).strip());
+        if (m.group(3).equals("-")) {
+            Effet positif = effet;
+            effet = montant -> -positif.delta(montant);
+        }
+        return new Regle(m.group(1), ligne, condition, effet);
+    }
+
+    private static Condition et(Condition a, Condition b) {
+        return (agent, type, montant) -> a.test(agent, type, montant) && b.test(agent, type, montant);
+    }
+
+    private static Condition compilerCondition(String terme) {
+        if (terme.equals("toujours")) {
+            return (agent, type, montant) -> true;
+        }
+        Matcher m = CONDITION.matcher(terme);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("condition inconnue \"" + terme + "\"");
+        }
+        String operateur = m.group(2);
+        String valeur = m.group(3);
+        switch (m.group(1)) {
+            case "type": {
+                TransactionType attendu = typeDe(valeur);
+                if (operateur.equals("=")) {
+                    return (agent, type, montant) -> type == attendu;
+                }
+                if (operateur.equals("!=")) {
+                    return (agent, type, montant) -> type != attendu;
+                }
+                throw new IllegalArgumentException("opérateur \"" + operateur + "\" invalide pour type");
+            }
+            case "agent": {
+                if (operateur.equals("=")) {
+                    return (agent, type, montant) -> valeur.equals(agent);
+                }
+                if (operateur.equals("!=")) {
+                    return (agent, type, montant) -> !valeur.equals(agent);
+                }
+                throw new IllegalArgumentException("opérateur \"" + operateur + "\" invalide pour agent");
+            }
+            default: {
+                double seuil = nombre(valeur);
+                switch (operateur) {
+                    case ">":
+                        return (agent, type, montant) -> montant > seuil;
+                    case ">=":
+                        return (agent, type, montant) -> montant >= seuil;
+                    case "<":
+                        return (agent, type, montant) -> montant < seuil;
+                    case "<=":
+                        return (agent, type, montant) -> montant <= seuil;
+                    case "=":
+                        return (agent, type, montant) -> montant == seuil;
+                    default:
+                        return (agent, type, montant) -> montant != seuil;
+                }
+            }
+        }
+    }
+
+    private static Effet compilerEffet(String expression) {
+        Matcher m = EFFET.matcher(expression);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("valeur inconnue \"" + expression + "\"");
+        }
+        if (m.group(3) != null) {
+            double constante = nombre(m.group(3));
+            return montant -> constante;
+        }
+        if (m.group(2) != null) {
+            double coefficient = nombre(m.group(2));
+            return montant -> montant * coefficient;
+        }
+        return montant -> montant;
+    }
+
+    private static TransactionType typeDe(String valeur) {
+        try {
+            return TransactionType.valueOf(valeur.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("type de transaction inconnu \"" + valeur + "\"");
+        }
+    }
+
+    private static double nombre(String valeur) {
+        try {
+            return Double.parseDouble(valeur);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("nombre invalide \"" + valeur + "\"");
+        }
+    }
+}
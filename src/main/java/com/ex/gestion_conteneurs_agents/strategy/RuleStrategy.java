@@ -0,0 +1,214 @@
+package com.ex.gestion_conteneurs_agents.strategy;
+
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Stratégie de scoring pilotée par des règles déclaratives.
+ *
+ * Les règles (voir {@link RuleCompiler} pour la syntaxe) sont lues depuis un fichier, une
+ * ressource du classpath ou un texte, puis compilées en lambdas; chaque notification parcourt simplement le tableau de règles compilées.
+ * Le rechargement compile un nouveau tableau et le publie d'un seul coup: les notifications
+ * en cours terminent avec l'ancien jeu de règles, et un fichier invalide laisse les règles
+ * actives intactes.
+ *
+ * Design Pattern: STRATEGY
+ * - Implémentation concrète configurable sans nouvelle classe
+ */
+public class RuleStrategy implements NotificationStrategy {
+
+    /**
+     * Ressource du classpath contenant les règles livrées avec l'application.
+     */
+    public static final String REGLES_PAR_DEFAUT = "regles-scoring.rules";
+
+    private final Path fichier;
+    private final DoubleAdder score = new DoubleAdder();
+    private volatile RuleCompiler.Regle[] regles = new RuleCompiler.Regle[0];
+    private volatile FileTime dateChargement;
+
+    /**
+     * Crée la stratégie et compile les règles du fichier.
+     * @param fichier le fichier de règles
+     * @throws UncheckedIOException si le fichier ne peut pas être lu
+     * @throws IllegalArgumentException si une règle est invalide
+     */
+    public RuleStrategy(Path fichier) {
+        this.fichier = fichier;
+        recharger();
+    }
+
+    private RuleStrategy(List<String> lignes) {
+        this.fichier = null;
+        remplacerRegles(lignes);
+    }
+
+    /**
+     * Crée une stratégie à partir de règles en mémoire (sans fichier).
+     * @param regles le texte des règles
+     * @return la stratégie compilée
+     */
+    public static RuleStrategy depuisTexte(String regles) {
+        return new RuleStrategy(regles.lines().toList());
+    }
+
+    /**
+     * Crée une stratégie à partir d'une ressource du classpath (non rechargeable).
+     * @param ressource le chemin de la ressource, par exemple {@link #REGLES_PAR_DEFAUT}
+     * @return la stratégie compilée
+     * @throws IllegalArgumentException si la ressource est introuvable ou une règle invalide
+     * @throws UncheckedIOException si la ressource ne peut pas être lue
+     */
+    public static RuleStrategy depuisRessource(String ressource) {
+        InputStream flux = RuleStrategy.class.getClassLoader().getResourceAsStream(ressource);
+        if (flux == null) {
+            throw new IllegalArgumentException("Ressource de règles introuvable: " + ressource);
+        }
+        try (BufferedReader lecteur = new BufferedReader(new InputStreamReader(flux, StandardCharsets.UTF_8))) {
+            return new RuleStrategy(lecteur.lines().toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Crée une stratégie avec les règles livrées avec l'application ({@link #REGLES_PAR_DEFAUT}).
+     * @return la stratégie compilée
+     */
+    public static RuleStrategy parDefaut() {
+        return depuisRessource(REGLES_PAR_DEFAUT);
+    }
+
+    @Override
+    public void handleNotification(NotificationEvent event) {
+        Transaction transaction = event.getTransaction();
+        String agent = event.getAgentName();
+        TransactionType type = transaction.getType();
+        double montant = transaction.getMontant();
+        for (RuleCompiler.Regle regle : regles) {
+            if (regle.getCondition().test(agent, type, montant)) {
+                score.add(regle.getEffet().delta(montant));
+                regle.declencher();
+            }
+        }
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "RuleStrategy";
+    }
+
+    /**
+     * Relit et recompile le fichier de règles.
+     * @throws IllegalStateException si la stratégie n'a pas de fichier
+     * @throws UncheckedIOException si le fichier ne peut pas être lu
+     * @throws IllegalArgumentException si une règle est invalide (les règles actives sont conservées)
+     */
+    public void recharger() {
+        if (fichier == null) {
+            throw new IllegalStateException("Aucun fichier de règles associé");
+        }
+        try {
+            FileTime date = Files.getLastModifiedTime(fichier);
+            remplacerRegles(Files.readAllLines(fichier));
+            dateChargement = date;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Recharge le fichier de règles s'il a été modifié depuis le dernier chargement.
+     * @return true si les règles ont été rechargées
+     */
+    public boolean rechargerSiModifie() {
+        if (fichier == null) {
+            return false;
+        }
+        try {
+            if (Files.getLastModifiedTime(fichier).equals(dateChargement)) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        recharger();
+        return true;
+    }
+
+    /**
+     * Compile et active un nouveau jeu de règles.
+     * @param lignes les lignes de règles
+     * @throws IllegalArgumentException si une règle est invalide (les règles actives sont conservées)
+     */
+    public void remplacerRegles(List<String> lignes) {
+        List<RuleCompiler.Regle> compilees = RuleCompiler.compiler(lignes);
+        regles = compilees.toArray(new RuleCompiler.Regle[0]);
+        System.out.println("📜 [RuleStrategy] " + compilees.size() + " règle(s) compilée(s)");
+    }
+
+    /**
+     * Retourne le score cumulé.
+     * @return le score
+     */
+    public double getScore() {
+        return score.sum();
+    }
+
+    /**
+     * Retourne le nombre de déclenchements de chaque règle active.
+     * @return les déclenchements par nom de règle, dans l'ordre du fichier
+     */
+    public Map<String, Long> getDeclenchements() {
+        Map<String, Long> resultat = new LinkedHashMap<>();
+        for (RuleCompiler.Regle regle : regles) {
+            resultat.merge(regle.getNom(), regle.getDeclenchements(), Long::sum);
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne le nombre de règles actives.
+     * @return le nombre de règles
+     */
+    public int getNombreRegles() {
+        return regles.length;
+    }
+
+    /**
+     * Affiche les règles actives et leurs déclenchements.
+     */
+    public void displayRegles() {
+        System.out.println("\n╔════════════════════════════════════════════════════════════╗");
+        System.out.println("║                    RÈGLES DE SCORING                       ║");
+        System.out.println("╠════════════════════════════════════════════════════════════╣");
+        for (RuleCompiler.Regle regle : regles) {
+            System.out.println("║   - " + regle.getSource() + "  (" + regle.getDeclenchements() + "×)");
+        }
+        System.out.println("╠════════════════════════════════════════════════════════════╣");
+        System.out.println("║ Score: " + String.format("%.2f", getScore()));
+        System.out.println("╚════════════════════════════════════════════════════════════╝\n");
+    }
+
+    /**
+     * Réinitialise le score à zéro.
+     */
+    public void resetScore() {
+        score.reset();
+    }
+}
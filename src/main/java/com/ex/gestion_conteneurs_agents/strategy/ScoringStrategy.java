@@ -4,6 +4,8 @@ import com.ex.gestion_conteneurs_agents.enums.TransactionType;
 import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+
 /**
  * Stratégie de Scoring pour le calcul du solde.
  * Calcule un solde en ajoutant (VENTE) ou retranchant (ACHAT) le montant.
@@ -12,7 +14,7 @@ import org.springframework.stereotype.Component;
  * - Implémentation concrète de la stratégie de scoring
  */
 @Component
-public class ScoringStrategy implements NotificationStrategy {
+public class ScoringStrategy implements StrategiePersistante {
     
     private double solde = 0.0;
 
@@ -42,6 +44,16 @@ public class ScoringStrategy implements NotificationStrategy {
         }
     }
 
+    @Override
+    public void reconstruire(NotificationEvent event) {
+        TransactionType type = event.getTransaction().getType();
+        if (type == TransactionType.VENTE) {
+            solde += event.getTransaction().getMontant();
+        } else if (type == TransactionType.ACHAT) {
+            solde -= event.getTransaction().getMontant();
+        }
+    }
+
     @Override
     public String getStrategyName() {
         return "ScoringStrategy";
@@ -55,6 +67,16 @@ public class ScoringStrategy implements NotificationStrategy {
         return solde;
     }
 
+    @Override
+    public byte[] exporterEtat() {
+        return ByteBuffer.allocate(8).putDouble(solde).array();
+    }
+
+    @Override
+    public void importerEtat(byte[] etat) {
+        this.solde = ByteBuffer.wrap(etat).getDouble();
+    }
+
     /**
      * Réinitialise le solde à zéro.
      */
@@ -1,21 +1,36 @@
 package com.ex.gestion_conteneurs_agents.strategy;
 
+import com.ex.gestion_conteneurs_agents.analytics.WindowStats;
+import com.ex.gestion_conteneurs_agents.analytics.WindowedAggregate;
 import com.ex.gestion_conteneurs_agents.enums.TransactionType;
 import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+import com.ex.gestion_conteneurs_agents.persistence.TransactionCodec;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Stratégie de statistiques pour analyser les transactions.
  * Calcule des statistiques sur les transactions notifiées.
  * 
+ * En plus des totaux depuis le démarrage, des agrégats glissants (dernières secondes,
+ * minutes ou heures) sont maintenus par type et par agent dans des anneaux de
+ * compartiments ({@link WindowedAggregate}): l'expiration est en O(1) et une lecture
+ * ne parcourt jamais les événements. Les fenêtres d'un agent inactif depuis plus de
+ * 24 heures sont libérées (au plus une purge par minute).
+ * 
  * Design Pattern: STRATEGY
  * - Autre implémentation extensible démontrant la flexibilité
  */
 @Component
-public class StatisticsStrategy implements NotificationStrategy {
+public class StatisticsStrategy implements StrategiePersistante {
     
     private int totalVentes = 0;
     private int totalAchats = 0;
@@ -23,18 +38,39 @@ public class StatisticsStrategy implements NotificationStrategy {
     private double montantTotalAchats = 0.0;
     private final Map<String, Integer> transactionsParAgent = new HashMap<>();
 
+    private final Clock clock;
+    private final WindowedAggregate fenetreGlobale = new WindowedAggregate();
+    private final Map<TransactionType, WindowedAggregate> fenetresParType = new EnumMap<>(TransactionType.class);
+    private final Map<String, WindowedAggregate> fenetresParAgent = new ConcurrentHashMap<>();
+    private static final long PERIODE_PURGE_MILLIS = 60_000L;
+    private long prochainePurge = Long.MIN_VALUE;
+
+    /**
+     * Constructeur par défaut utilisant l'horloge système.
+     */
+    public StatisticsStrategy() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * Constructeur avec horloge spécifiée (utile pour les tests).
+     * @param clock l'horloge utilisée pour horodater les notifications
+     */
+    public StatisticsStrategy(Clock clock) {
+        this.clock = clock;
+        for (TransactionType type : TransactionType.values()) {
+            fenetresParType.put(type, new WindowedAggregate());
+        }
+    }
+
     @Override
-    public void handleNotification(NotificationEvent event) {
-        // Mise à jour des statistiques
+    public synchronized void handleNotification(NotificationEvent event) {
         String agentName = event.getAgentName();
-        transactionsParAgent.merge(agentName, 1, Integer::sum);
-
-        if (event.getTransaction().getType() == TransactionType.VENTE) {
-            totalVentes++;
-            montantTotalVentes += event.getTransaction().getMontant();
-        } else {
-            totalAchats++;
-            montantTotalAchats += event.getTransaction().getMontant();
+        long maintenant = clock.millis();
+        enregistrer(event, maintenant);
+        if (maintenant >= prochainePurge) {
+            prochainePurge = maintenant + PERIODE_PURGE_MILLIS;
+            fenetresParAgent.values().removeIf(fenetre -> fenetre.estExpire(maintenant));
         }
 
         // Affichage des statistiques mises à jour
@@ -47,11 +83,105 @@ public class StatisticsStrategy implements NotificationStrategy {
         System.out.println("╚════════════════════════════════════════════════════════════╝");
     }
 
+    /**
+     * Les fenêtres glissantes sont alimentées à la date de la transaction, sans purge.
+     */
+    @Override
+    public synchronized void reconstruire(NotificationEvent event) {
+        enregistrer(event, StrategiePersistante.horodatage(event));
+    }
+
+    private void enregistrer(NotificationEvent event, long instant) {
+        // Mise à jour des statistiques
+        String agentName = event.getAgentName();
+        transactionsParAgent.merge(agentName, 1, Integer::sum);
+
+        // Mise à jour des fenêtres glissantes
+        double montant = event.getTransaction().getMontant();
+        fenetreGlobale.enregistrer(instant, montant);
+        fenetresParType.get(event.getTransaction().getType()).enregistrer(instant, montant);
+        fenetresParAgent.computeIfAbsent(agentName, nom -> new WindowedAggregate()).enregistrer(instant, montant);
+
+        if (event.getTransaction().getType() == TransactionType.VENTE) {
+            totalVentes++;
+            montantTotalVentes += event.getTransaction().getMontant();
+        } else {
+            totalAchats++;
+            montantTotalAchats += event.getTransaction().getMontant();
+        }
+    }
+
     @Override
     public String getStrategyName() {
         return "StatisticsStrategy";
     }
 
+    /**
+     * Format: totaux (int, int, double, double), transactions par agent (nombre, puis nom et
+     * compte), fenêtre globale, fenêtres par type (ordre de {@link TransactionType}) puis
+     * fenêtres par agent (nombre, puis nom et fenêtre).
+     */
+    @Override
+    public synchronized byte[] exporterEtat() {
+        byte[] globale = fenetreGlobale.exporter();
+        int taille = 24 + 4 + globale.length + 4;
+        for (String agent : transactionsParAgent.keySet()) {
+            taille += TransactionCodec.tailleChaine(agent) + 4;
+        }
+        Map<TransactionType, byte[]> parType = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TransactionType.values()) {
+            byte[] fenetre = fenetresParType.get(type).exporter();
+            parType.put(type, fenetre);
+            taille += fenetre.length;
+        }
+        Map<String, byte[]> parAgent = new LinkedHashMap<>();
+        for (Map.Entry<String, WindowedAggregate> entree : fenetresParAgent.entrySet()) {
+            byte[] fenetre = entree.getValue().exporter();
+            parAgent.put(entree.getKey(), fenetre);
+            taille += TransactionCodec.tailleChaine(entree.getKey()) + fenetre.length;
+        }
+
+        ByteBuffer tampon = ByteBuffer.allocate(taille).putInt(totalVentes).putInt(totalAchats)
+                .putDouble(montantTotalVentes).putDouble(montantTotalAchats).putInt(transactionsParAgent.size());
+        transactionsParAgent.forEach((agent, nombre) -> {
+            TransactionCodec.ecrireChaine(tampon, agent);
+            tampon.putInt(nombre);
+        });
+        tampon.put(globale);
+        parType.values().forEach(tampon::put);
+        tampon.putInt(parAgent.size());
+        parAgent.forEach((agent, fenetre) -> {
+            TransactionCodec.ecrireChaine(tampon, agent);
+            tampon.put(fenetre);
+        });
+        return tampon.array();
+    }
+
+    @Override
+    public synchronized void importerEtat(byte[] etat) {
+        ByteBuffer tampon = ByteBuffer.wrap(etat);
+        reset();
+        totalVentes = tampon.getInt();
+        totalAchats = tampon.getInt();
+        montantTotalVentes = tampon.getDouble();
+        montantTotalAchats = tampon.getDouble();
+        int agents = tampon.getInt();
+        for (int i = 0; i < agents; i++) {
+            transactionsParAgent.put(TransactionCodec.lireChaine(tampon), tampon.getInt());
+        }
+        fenetreGlobale.importer(tampon);
+        for (TransactionType type : TransactionType.values()) {
+            fenetresParType.get(type).importer(tampon);
+        }
+        int fenetres = tampon.getInt();
+        for (int i = 0; i < fenetres; i++) {
+            WindowedAggregate fenetre = new WindowedAggregate();
+            String agent = TransactionCodec.lireChaine(tampon);
+            fenetre.importer(tampon);
+            fenetresParAgent.put(agent, fenetre);
+        }
+    }
+
     public void displayFullStatistics() {
         System.out.println("\n╔════════════════════════════════════════════════════════════╗");
         System.out.println("║              STATISTIQUES COMPLÈTES                        ║");
@@ -66,11 +196,62 @@ public class StatisticsStrategy implements NotificationStrategy {
         System.out.println("╚════════════════════════════════════════════════════════════╝\n");
     }
 
-    public void reset() {
+    /**
+     * Agrège toutes les transactions des dernières {@code duree}.
+     * @param duree la durée de la fenêtre glissante (au plus 24 heures)
+     * @return nombre, somme, moyenne et débit de la fenêtre
+     */
+    public WindowStats getFenetre(Duration duree) {
+        return fenetreGlobale.glissante(clock.millis(), duree);
+    }
+
+    /**
+     * Agrège les transactions d'un type sur les dernières {@code duree}.
+     * @param type le type de transaction
+     * @param duree la durée de la fenêtre glissante (au plus 24 heures)
+     * @return nombre, somme, moyenne et débit de la fenêtre
+     */
+    public WindowStats getFenetreParType(TransactionType type, Duration duree) {
+        return fenetresParType.get(type).glissante(clock.millis(), duree);
+    }
+
+    /**
+     * Agrège les transactions notifiées par un agent sur les dernières {@code duree}.
+     * @param agentName le nom de l'agent source
+     * @param duree la durée de la fenêtre glissante (au plus 24 heures)
+     * @return nombre, somme, moyenne et débit de la fenêtre (vide si l'agent est inconnu)
+     */
+    public WindowStats getFenetreParAgent(String agentName, Duration duree) {
+        WindowedAggregate fenetre = fenetresParAgent.get(agentName);
+        return fenetre == null ? WindowStats.VIDE : fenetre.glissante(clock.millis(), duree);
+    }
+
+    /**
+     * Agrège la dernière période complète (seconde, minute ou heure précédente) pour un type.
+     * @param type le type de transaction
+     * @param resolution la résolution de la fenêtre fixe
+     * @return l'agrégat de la période précédente
+     */
+    public WindowStats getFenetreFixeParType(TransactionType type, WindowedAggregate.Resolution resolution) {
+        return fenetresParType.get(type).fixe(clock.millis(), resolution);
+    }
+
+    /**
+     * Retourne le nombre d'agents dont les fenêtres sont conservées.
+     * @return le nombre d'agents actifs dans les dernières 24 heures (à la purge près)
+     */
+    public int getNombreFenetresParAgent() {
+        return fenetresParAgent.size();
+    }
+
+    public synchronized void reset() {
         totalVentes = 0;
         totalAchats = 0;
         montantTotalVentes = 0.0;
         montantTotalAchats = 0.0;
         transactionsParAgent.clear();
+        fenetresParAgent.clear();
+        fenetreGlobale.reset();
+        fenetresParType.values().forEach(WindowedAggregate::reset);
     }
 }
@@ -0,0 +1,41 @@
+package com.ex.gestion_conteneurs_agents.strategy;
+
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+
+import java.time.ZoneId;
+
+/**
+ * Stratégie dont l'état peut être exporté puis réimporté (instantanés du conteneur).
+ * Une stratégie persistante est recréée par son nom via {@link StrategyRegistry}.
+ */
+public interface StrategiePersistante extends NotificationStrategy {
+
+    /**
+     * Exporte l'état courant de la stratégie.
+     * @return l'état encodé
+     */
+    byte[] exporterEtat();
+
+    /**
+     * Remplace l'état de la stratégie par un état exporté.
+     * @param etat l'état encodé par {@link #exporterEtat()}
+     */
+    void importerEtat(byte[] etat);
+
+    /**
+     * Intègre à l'état une notification déjà traitée avant un instantané (reconstruction à la
+     * lecture), sans effet de bord: ni affichage ni alerte, et l'instant pris en compte est la
+     * date de la transaction ({@link #horodatage}) plutôt que l'horloge de la stratégie.
+     * @param event la notification à intégrer
+     */
+    void reconstruire(NotificationEvent event);
+
+    /**
+     * Date de la transaction d'une notification (fuseau du système, celui des dates par défaut).
+     * @param event la notification
+     * @return l'instant en epoch millis
+     */
+    static long horodatage(NotificationEvent event) {
+        return event.getTransaction().getDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,35 @@
+package com.ex.gestion_conteneurs_agents.strategy;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Fabriques des stratégies recréables par leur nom ({@code getStrategyName()}).
+ * Seules les stratégies sans configuration y figurent: les stratégies configurées (règles,
+ * composition, journalisation) sont recréées par une fabrique fournie par l'appelant.
+ */
+public final class StrategyRegistry {
+
+    private static final Map<String, Supplier<NotificationStrategy>> FABRIQUES = Map.of(
+            "DefaultStrategy", DefaultStrategy::new,
+            "ScoringStrategy", ScoringStrategy::new,
+            "HistoryStrategy", HistoryStrategy::new,
+            "StatisticsStrategy", StatisticsStrategy::new,
+            "DistributionStrategy", DistributionStrategy::new,
+            "HeavyHitterStrategy", HeavyHitterStrategy::new,
+            "AnomalyDetectionStrategy", AnomalyDetectionStrategy::new);
+
+    private StrategyRegistry() {
+    }
+
+    /**
+     * Crée une nouvelle instance de la stratégie portant ce nom.
+     * @param nom le nom de la stratégie
+     * @return Optional vide si aucune fabrique n'est connue pour ce nom
+     */
+    public static Optional<NotificationStrategy> creer(String nom) {
+        Supplier<NotificationStrategy> fabrique = FABRIQUES.get(nom);
+        return fabrique == null ? Optional.empty() : Optional.of(fabrique.get());
+    }
+}
@@ -14,9 +14,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -225,6 +229,46 @@ class AgentTest {
             assertEquals("Agent-Test", receivedEvent.get().getAgentName());
             assertEquals(transaction1, receivedEvent.get().getTransaction());
         }
+
+        @Test
+        @DisplayName("Une stratégie partagée ne traite l'événement qu'une fois")
+        void testDiffusionDedupliquee() {
+            HistoryStrategy partagee = new HistoryStrategy();
+            Agent observer1 = new Agent("Observer-1");
+            Agent observer2 = new Agent("Observer-2");
+            Agent observer3 = new Agent("Observer-3");
+            observer1.changerStrategie(partagee);
+            observer2.changerStrategie(partagee);
+
+            agent.subscribe(observer1);
+            agent.subscribe(observer2);
+            agent.subscribe(observer3);
+            agent.ajouterTransaction(transaction1);
+
+            assertEquals(1, partagee.getHistorySize());
+            assertEquals(3, agent.getObservers().size());
+        }
+
+        @Test
+        @DisplayName("Le plan de diffusion suit les changements de stratégie")
+        void testPlanApresChangementStrategie() {
+            HistoryStrategy partagee = new HistoryStrategy();
+            HistoryStrategy dediee = new HistoryStrategy();
+            Agent observer1 = new Agent("Observer-1");
+            Agent observer2 = new Agent("Observer-2");
+            observer1.changerStrategie(partagee);
+            observer2.changerStrategie(partagee);
+            agent.subscribe(observer1);
+            agent.subscribe(observer2);
+
+            agent.ajouterTransaction(transaction1);
+            observer2.changerStrategie(dediee);
+            agent.ajouterTransaction(transaction2);
+
+            assertEquals(2, partagee.getHistorySize());
+            assertEquals(1, dediee.getHistorySize());
+            assertTrue(observer2.getAbonnements().contains(agent));
+        }
     }
 
     @Nested
@@ -275,5 +319,71 @@ class AgentTest {
             assertEquals(2, strategy.getHistorySize());
             assertEquals(2, strategy.getTransactionsHistory().size());
         }
+
+        /**
+         * Stratégie qui signale son entrée puis attend sa libération avant de compter le traitement.
+         */
+        private NotificationStrategy lente(CountDownLatch entree, CountDownLatch liberation, AtomicInteger terminees) {
+            return new NotificationStrategy() {
+                @Override
+                public void handleNotification(NotificationEvent event) {
+                    entree.countDown();
+                    try {
+                        liberation.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    terminees.incrementAndGet();
+                }
+
+                @Override
+                public String getStrategyName() {
+                    return "Lente";
+                }
+            };
+        }
+
+        @Test
+        @DisplayName("Le changement avec drainage attend les notifications en cours")
+        void testChangementAvecDrainage() throws Exception {
+            CountDownLatch entree = new CountDownLatch(1);
+            CountDownLatch liberation = new CountDownLatch(1);
+            AtomicInteger terminees = new AtomicInteger();
+            agent.changerStrategie(lente(entree, liberation, terminees));
+            Thread emetteur = new Thread(() -> agent.update(new NotificationEvent("Source", transaction1)));
+            emetteur.start();
+            assertTrue(entree.await(5, TimeUnit.SECONDS));
+
+            ScoringStrategy nouvelle = new ScoringStrategy();
+            assertFalse(agent.changerStrategie(nouvelle, Duration.ofMillis(20)));
+            assertEquals(0, terminees.get());
+            assertSame(nouvelle, agent.getStrategy());
+            agent.update(new NotificationEvent("Source", transaction1));
+            assertEquals(1000.00, nouvelle.getSolde());
+            liberation.countDown();
+            emetteur.join();
+
+            // Drainage abouti: l'ancienne stratégie a terminé sa notification au retour
+            CountDownLatch entree2 = new CountDownLatch(1);
+            CountDownLatch liberation2 = new CountDownLatch(1);
+            AtomicInteger terminees2 = new AtomicInteger();
+            agent.changerStrategie(lente(entree2, liberation2, terminees2));
+            Thread emetteur2 = new Thread(() -> agent.update(new NotificationEvent("Source", transaction1)));
+            emetteur2.start();
+            assertTrue(entree2.await(5, TimeUnit.SECONDS));
+            Thread liberateur = new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                liberation2.countDown();
+            });
+            liberateur.start();
+            assertTrue(agent.changerStrategie(new DefaultStrategy(), Duration.ofSeconds(5)));
+            assertEquals(1, terminees2.get());
+            emetteur2.join();
+            liberateur.join();
+        }
     }
 }
@@ -0,0 +1,253 @@
+package com.ex.gestion_conteneurs_agents;
+
+import com.ex.gestion_conteneurs_agents.analytics.AmountHistogram;
+import com.ex.gestion_conteneurs_agents.analytics.CountMinSketch;
+import com.ex.gestion_conteneurs_agents.analytics.HyperLogLog;
+import com.ex.gestion_conteneurs_agents.analytics.SlidingWindow;
+import com.ex.gestion_conteneurs_agents.analytics.WindowStats;
+import com.ex.gestion_conteneurs_agents.analytics.WindowedAggregate;
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+import com.ex.gestion_conteneurs_agents.strategy.DistributionStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.HeavyHitterStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.StatisticsStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires des structures d'analyse en flux (fenêtres, histogrammes, sketches).
+ */
+@DisplayName("Tests des structures d'analyse en flux")
+class AnalyticsTest {
+
+    /**
+     * Horloge manuelle pour contrôler l'écoulement du temps.
+     */
+    static class HorlogeManuelle extends Clock {
+        long millis;
+
+        HorlogeManuelle(long millis) {
+            this.millis = millis;
+        }
+
+        void avancer(Duration duree) {
+            millis += duree.toMillis();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    static NotificationEvent event(String agent, String id, double montant, TransactionType type) {
+        return new NotificationEvent(agent, Transaction.builder().id(id).montant(montant).type(type).build());
+    }
+
+    @Nested
+    @DisplayName("Tests des fenêtres glissantes")
+    class WindowTests {
+
+        @Test
+        @DisplayName("Les compartiments périmés sont exclus")
+        void testExpiration() {
+            SlidingWindow fenetre = new SlidingWindow(1_000L, 10);
+            fenetre.enregistrer(0, 5.0);
+            fenetre.enregistrer(500, 5.0);
+            fenetre.enregistrer(9_500, 10.0);
+
+            assertEquals(3, fenetre.glissante(9_999, 10).nombre());
+            WindowStats apres = fenetre.glissante(10_500, 10);
+            assertEquals(1, apres.nombre());
+            assertEquals(10.0, apres.somme());
+        }
+
+        @Test
+        @DisplayName("Le débit ne compte que la partie écoulée du compartiment courant")
+        void testDebitCompartimentPartiel() {
+            SlidingWindow fenetre = new SlidingWindow(1_000L, 10);
+            for (int i = 0; i < 10; i++) {
+                fenetre.enregistrer(9_000 + i * 10, 1.0);
+            }
+            WindowStats stats = fenetre.glissante(9_099, 1);
+            assertEquals(100, stats.dureeMillis());
+            assertEquals(100.0, stats.tauxParSeconde(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("Fenêtre fixe sur la période précédente")
+        void testFenetreFixe() {
+            WindowedAggregate agregat = new WindowedAggregate();
+            agregat.enregistrer(60_000, 100.0);
+            agregat.enregistrer(119_999, 50.0);
+            agregat.enregistrer(120_000, 1.0);
+
+            WindowStats minutePrecedente = agregat.fixe(130_000, WindowedAggregate.Resolution.MINUTE);
+            assertEquals(2, minutePrecedente.nombre());
+            assertEquals(75.0, minutePrecedente.moyenne());
+        }
+
+        @Test
+        @DisplayName("Exception si fenêtre supérieure à 24 heures")
+        void testFenetreTropLongue() {
+            WindowedAggregate agregat = new WindowedAggregate();
+            assertThrows(IllegalArgumentException.class, () -> agregat.glissante(0, Duration.ofDays(2)));
+        }
+
+        @Test
+        @DisplayName("StatisticsStrategy expose les fenêtres par type et par agent")
+        void testStatisticsStrategyFenetres() {
+            HorlogeManuelle horloge = new HorlogeManuelle(1_000_000L);
+            StatisticsStrategy strategy = new StatisticsStrategy(horloge);
+
+            strategy.handleNotification(event("Agent-A", "T1", 100, TransactionType.VENTE));
+            strategy.handleNotification(event("Agent-A", "T2", 50, TransactionType.ACHAT));
+            horloge.avancer(Duration.ofSeconds(30));
+            strategy.handleNotification(event("Agent-B", "T3", 300, TransactionType.VENTE));
+
+            assertEquals(1, strategy.getFenetre(Duration.ofSeconds(10)).nombre());
+            assertEquals(3, strategy.getFenetre(Duration.ofMinutes(1)).nombre());
+            assertEquals(200.0, strategy.getFenetreParType(TransactionType.VENTE, Duration.ofMinutes(1)).moyenne());
+            assertEquals(2, strategy.getFenetreParAgent("Agent-A", Duration.ofHours(1)).nombre());
+            assertEquals(0, strategy.getFenetreParAgent("Inconnu", Duration.ofHours(1)).nombre());
+
+            horloge.avancer(Duration.ofHours(2));
+            assertEquals(0, strategy.getFenetre(Duration.ofHours(1)).nombre());
+            assertEquals(3, strategy.getFenetre(Duration.ofHours(3)).nombre());
+
+            horloge.avancer(Duration.ofHours(23));
+            strategy.handleNotification(event("Agent-C", "T4", 1, TransactionType.VENTE));
+            assertEquals(1, strategy.getNombreFenetresParAgent());
+            assertEquals(0, strategy.getFenetreParAgent("Agent-A", Duration.ofHours(1)).nombre());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests des histogrammes de montants")
+    class HistogramTests {
+
+        @Test
+        @DisplayName("Quantiles à 1 % près")
+        void testQuantiles() {
+            AmountHistogram histogramme = new AmountHistogram();
+            for (int i = 1; i <= 10_000; i++) {
+                histogramme.enregistrer(i);
+            }
+
+            assertEquals(5_000, histogramme.quantile(0.50), 5_000 * 0.01);
+            assertEquals(9_500, histogramme.quantile(0.95), 9_500 * 0.01);
+            assertEquals(9_900, histogramme.quantile(0.99), 9_900 * 0.01);
+            assertEquals(1.0, histogramme.getMin());
+            assertEquals(10_000.0, histogramme.getMax());
+        }
+
+        @Test
+        @DisplayName("La fusion équivaut à un enregistrement unique")
+        void testFusion() {
+            AmountHistogram a = new AmountHistogram();
+            AmountHistogram b = new AmountHistogram();
+            AmountHistogram tout = new AmountHistogram();
+            for (int i = 1; i <= 1_000; i++) {
+                (i % 2 == 0 ? a : b).enregistrer(i * 1.5);
+                tout.enregistrer(i * 1.5);
+            }
+
+            AmountHistogram fusion = AmountHistogram.fusion(List.of(a, b));
+            assertEquals(tout.getNombre(), fusion.getNombre());
+            assertEquals(tout.quantile(0.9), fusion.quantile(0.9));
+        }
+
+        @Test
+        @DisplayName("DistributionStrategy par agent, par type et globale")
+        void testDistributionStrategy() {
+            DistributionStrategy strategy = new DistributionStrategy();
+            for (int i = 1; i <= 100; i++) {
+                strategy.handleNotification(event("Agent-A", "A" + i, i, TransactionType.VENTE));
+                strategy.handleNotification(event("Agent-B", "B" + i, i * 100, TransactionType.ACHAT));
+            }
+
+            assertEquals(99, strategy.getQuantilesParAgent("Agent-A").orElseThrow().p99(), 1.0);
+            assertEquals(5_000, strategy.getQuantilesParType(TransactionType.ACHAT).p50(), 50);
+            assertTrue(strategy.getQuantilesParAgent("Inconnu").isEmpty());
+            assertEquals(200, strategy.getHistogrammeGlobal().getNombre());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests des sketches Count-Min et HyperLogLog")
+    class SketchTests {
+
+        @Test
+        @DisplayName("Count-Min ne sous-estime jamais")
+        void testCountMin() {
+            CountMinSketch sketch = new CountMinSketch(256, 4);
+            for (int i = 0; i < 1_000; i++) {
+                sketch.ajouter("cle-" + (i % 100));
+            }
+            for (int i = 0; i < 100; i++) {
+                assertTrue(sketch.estimer("cle-" + i) >= 10);
+            }
+        }
+
+        @Test
+        @DisplayName("HyperLogLog estime la cardinalité à quelques pourcents près")
+        void testHyperLogLog() {
+            HyperLogLog a = new HyperLogLog(14);
+            HyperLogLog b = new HyperLogLog(14);
+            for (int i = 0; i < 50_000; i++) {
+                a.ajouter("TXN-" + i);
+                b.ajouter("TXN-" + (i + 25_000));
+            }
+
+            assertEquals(50_000, a.estimer(), 50_000 * 0.03);
+            a.fusionner(b);
+            assertEquals(75_000, a.estimer(), 75_000 * 0.03);
+        }
+
+        @Test
+        @DisplayName("HeavyHitterStrategy identifie les agents les plus actifs")
+        void testHeavyHitterStrategy() {
+            HeavyHitterStrategy partition1 = new HeavyHitterStrategy(3, 1024, 4, 12);
+            HeavyHitterStrategy partition2 = new HeavyHitterStrategy(3, 1024, 4, 12);
+            int id = 0;
+            for (int i = 0; i < 500; i++) {
+                partition1.handleNotification(event("Gros-1", "T" + id++, 10, TransactionType.VENTE));
+                partition2.handleNotification(event("Gros-2", "T" + id++, 10, TransactionType.VENTE));
+                partition1.handleNotification(event("Petit-" + i, "T" + id++, 10, TransactionType.ACHAT));
+            }
+            for (int i = 0; i < 300; i++) {
+                partition2.handleNotification(event("Gros-1", "T" + id++, 10, TransactionType.VENTE));
+            }
+
+            partition1.fusionner(partition2);
+
+            List<String> top = partition1.getTopAgents().stream().map(Map.Entry::getKey).toList();
+            assertEquals("Gros-1", top.get(0));
+            assertEquals("Gros-2", top.get(1));
+            assertTrue(partition1.estimerNotifications("Gros-1") >= 800);
+            assertEquals(id, partition1.estimerTransactionsDistinctes(), id * 0.05);
+        }
+    }
+}
@@ -4,14 +4,51 @@ import com.ex.gestion_conteneurs_agents.adapter.HDMIDisplay;
 import com.ex.gestion_conteneurs_agents.adapter.HDMIMonitor;
 import com.ex.gestion_conteneurs_agents.adapter.VGAToHDMIAdapter;
 import com.ex.gestion_conteneurs_agents.container.AgentContainer;
+import com.ex.gestion_conteneurs_agents.container.ConteneurIndependant;
+import com.ex.gestion_conteneurs_agents.container.JournalPolicy;
+import com.ex.gestion_conteneurs_agents.container.MailboxAgentContainer;
+import com.ex.gestion_conteneurs_agents.container.PassivationPolicy;
+import com.ex.gestion_conteneurs_agents.container.ShardedAgentContainer;
 import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.index.NumericIndex;
 import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.AgentCorruption;
+import com.ex.gestion_conteneurs_agents.model.AgentListener;
 import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.persistence.Durabilite;
+import com.ex.gestion_conteneurs_agents.persistence.ResumeSnapshot;
 import com.ex.gestion_conteneurs_agents.security.SecurityContext;
 import com.ex.gestion_conteneurs_agents.security.SecurityException;
+import com.ex.gestion_conteneurs_agents.strategy.AnomalyDetectionStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.AnomalySink;
+import com.ex.gestion_conteneurs_agents.strategy.DistributionStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.HeavyHitterStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.HistoryStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.ScoringStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.StatisticsStrategy;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -160,6 +197,1068 @@ class ContainerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Tests des agrégats du conteneur")
+    class AggregateTests {
+
+        @Test
+        @DisplayName("Les agrégats suivent transactions et agents")
+        void testAgregatsIncrementaux() {
+            agent1.ajouterTransaction(Transaction.builder().id("T1").montant(100.10).type(TransactionType.VENTE).build());
+            container.ajouterAgent(agent1);
+            container.ajouterAgent(agent2);
+            agent1.ajouterTransaction(Transaction.builder().id("T2").montant(40.05).type(TransactionType.ACHAT).build());
+            agent2.ajouterTransaction(Transaction.builder().id("T3").montant(10).type(TransactionType.VENTE).build());
+
+            assertEquals(3, container.getAgregats().getNombreTransactions());
+            assertEquals(2, container.getAgregats().getNombreTransactions(TransactionType.VENTE));
+            assertEquals(110.10, container.getAgregats().getSommeMontants(TransactionType.VENTE), 1e-9);
+            assertEquals(soldeParParcours(), container.getAgregats().getSoldeTotal(), 1e-9);
+
+            agent1.supprimerTransaction("T2");
+            assertEquals(soldeParParcours(), container.getAgregats().getSoldeTotal(), 1e-9);
+
+            container.supprimerAgent("Agent-A");
+            assertEquals(10.0, container.getAgregats().getSoldeTotal(), 1e-9);
+            assertEquals(1, container.getAgregats().getNombreTransactions());
+
+            agent1.ajouterTransaction(Transaction.builder().id("T4").montant(999).type(TransactionType.VENTE).build());
+            assertEquals(10.0, container.getAgregats().getSoldeTotal(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("Vider le conteneur remet les agrégats à zéro")
+        void testViderAgregats() {
+            agent1.ajouterTransaction(Transaction.builder().id("T1").montant(100).type(TransactionType.VENTE).build());
+            container.ajouterAgent(agent1);
+            container.vider();
+            agent1.ajouterTransaction(Transaction.builder().id("T2").montant(100).type(TransactionType.VENTE).build());
+
+            assertEquals(0, container.getAgregats().getNombreTransactions());
+            assertEquals(0.0, container.getAgregats().getSoldeTotal());
+        }
+
+        private double soldeParParcours() {
+            return container.getTousLesAgents().stream().mapToDouble(Agent::calculerSolde).sum();
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests des calculs parallèles")
+    class ParallelTests {
+
+        @Test
+        @DisplayName("Réduction et parcours parallèles sur tous les agents")
+        void testReductionEtParcours() throws Exception {
+            container.configurerCalculParallele(4, 16);
+            for (int i = 0; i < 1000; i++) {
+                Agent agent = new Agent("Agent-" + i);
+                agent.ajouterTransaction(Transaction.builder().id("T" + i).montant(i).type(TransactionType.VENTE).build());
+                container.ajouterAgent(agent);
+            }
+
+            double total = container.reduireEnParallele(0.0, Agent::calculerSolde, Double::sum).get(5, TimeUnit.SECONDS);
+            assertEquals(999 * 1000 / 2.0, total, 1e-6);
+
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            LongAdder visites = new LongAdder();
+            container.parcourirEnParallele(agent -> {
+                visites.increment();
+                threads.add(Thread.currentThread().getName());
+            }).get(5, TimeUnit.SECONDS);
+            assertEquals(1000, visites.sum());
+            assertTrue(threads.stream().allMatch(t -> t.startsWith("calcul-agents-")), threads.toString());
+
+            assertThrows(ExecutionException.class, () -> container.parcourirEnParallele(agent -> {
+                throw new IllegalStateException("échec");
+            }).get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        @DisplayName("L'audit des soldes concorde avec les agrégats et le classement")
+        void testAuditSoldes() throws Exception {
+            for (int i = 0; i < 100; i++) {
+                Agent agent = new Agent("Agent-" + i);
+                container.ajouterAgent(agent);
+                agent.ajouterTransaction(Transaction.builder().id("V" + i).montant(10.5).type(TransactionType.VENTE).build());
+                agent.ajouterTransaction(Transaction.builder().id("A" + i).montant(0.25).type(TransactionType.ACHAT).build());
+            }
+            AgentContainer.AuditSoldes audit = container.auditerSoldes().get(5, TimeUnit.SECONDS);
+            assertEquals(100, audit.nombreAgents());
+            assertEquals(1025.0, audit.soldeRecalcule(), 1e-9);
+            assertTrue(audit.estCoherent());
+
+            // Mutation de la liste interne: contourne les écouteurs, l'audit la détecte
+            Agent corrompu = container.rechercherAgent("Agent-7").orElseThrow();
+            assertThrows(UnsupportedOperationException.class, () -> corrompu.getTransactions().clear());
+            AgentCorruption.transactionsInternes(corrompu).clear();
+            audit = container.auditerSoldes().get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("Agent-7"), audit.agentsIncoherents());
+            assertFalse(audit.estCoherent());
+            assertThrows(IllegalArgumentException.class, () -> container.configurerCalculParallele(0, 0));
+        }
+
+        @Test
+        @DisplayName("L'audit s'exécute sur les propriétaires pendant l'ingestion")
+        void testAuditPendantIngestion() throws Exception {
+            List<ExecutorService> proprietaires = new ArrayList<>();
+            try {
+                for (int i = 0; i < 4; i++) {
+                    ExecutorService proprietaire = Executors.newSingleThreadExecutor();
+                    proprietaires.add(proprietaire);
+                    Agent agent = new Agent("Agent-" + i);
+                    agent.setExecuteur(proprietaire);
+                    container.ajouterAgent(agent);
+                }
+                for (int t = 0; t < 3000; t++) {
+                    for (Agent agent : container.getTousLesAgents()) {
+                        agent.ajouterTransaction(Transaction.builder().id("T" + t).montant(1).type(TransactionType.VENTE).build());
+                    }
+                    if (t % 300 == 0) {
+                        AgentContainer.AuditSoldes audit = container.auditerSoldes().get(5, TimeUnit.SECONDS);
+                        assertEquals(4, audit.nombreAgents());
+                        assertEquals(List.of(), audit.agentsIncoherents());
+                    }
+                }
+                AgentContainer.AuditSoldes audit = container.auditerSoldes().get(5, TimeUnit.SECONDS);
+                assertEquals(12_000.0, audit.soldeRecalcule(), 1e-9);
+                assertTrue(audit.estCoherent());
+            } finally {
+                proprietaires.forEach(ExecutorService::shutdownNow);
+            }
+        }
+
+        @Test
+        @DisplayName("Remplacement du pool pendant des réductions: aucune soumission refusée")
+        void testRemplacementPool() throws Exception {
+            for (int i = 0; i < 200; i++) {
+                container.ajouterAgent(new Agent("Agent-" + i));
+            }
+            ExecutorService clients = Executors.newFixedThreadPool(2);
+            try {
+                List<Future<Integer>> resultats = new ArrayList<>();
+                for (int c = 0; c < 2; c++) {
+                    resultats.add(clients.submit(() -> {
+                        int total = 0;
+                        for (int r = 0; r < 200; r++) {
+                            total += container.reduireEnParallele(0, agent -> 1, Integer::sum).get(5, TimeUnit.SECONDS);
+                        }
+                        return total;
+                    }));
+                }
+                for (int p = 0; p < 50; p++) {
+                    container.configurerCalculParallele(1 + p % 4, 0);
+                }
+                for (Future<Integer> resultat : resultats) {
+                    assertEquals(200 * 200, resultat.get(30, TimeUnit.SECONDS));
+                }
+            } finally {
+                clients.shutdownNow();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de la passivation des agents")
+    class PassivationTests {
+
+        @TempDir
+        Path repertoire;
+
+        private PassivationPolicy.PassivationPolicyBuilder politique() {
+            return PassivationPolicy.builder().fichier(repertoire.resolve("agents.dat")).inactiviteMax(Duration.ofHours(1));
+        }
+
+        @Test
+        @DisplayName("Les agents les moins récemment accédés sont passivés puis réactivés à l'identique")
+        void testPassivationLru() throws Exception {
+            for (int i = 0; i < 10; i++) {
+                Agent agent = new Agent("Agent-" + i);
+                container.ajouterAgent(agent);
+                agent.ajouterTransaction(Transaction.builder().id("T" + i).montant(10.125 * i)
+                        .date(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 678_901_234)).type(TransactionType.VENTE).build());
+            }
+            double solde = container.getAgregats().getSoldeTotal();
+            container.activerPassivation(politique().agentsActifsMax(4).build());
+            for (int i = 9; i >= 6; i--) {
+                container.rechercherAgent("Agent-" + i);
+            }
+
+            assertEquals(6, container.passiverAgentsInactifs());
+            Agent agent3 = container.getTousLesAgents().stream().filter(a -> a.getNom().equals("Agent-3")).findFirst().orElseThrow();
+            assertTrue(agent3.estPassive());
+            assertEquals(0, agent3.getNombreTransactionsResidentes());
+            assertFalse(container.getTousLesAgents().stream().filter(a -> a.getNom().equals("Agent-9")).findFirst().orElseThrow().estPassive());
+
+            Transaction relue = container.rechercherAgent("Agent-3").orElseThrow().getTransactions().get(0);
+            assertFalse(agent3.estPassive());
+            assertEquals(30.375, relue.getMontant());
+            assertEquals(678_901_234, relue.getDate().getNano());
+            assertEquals(solde, container.getAgregats().getSoldeTotal(), 1e-9);
+
+            AgentContainer.StatistiquesPassivation stats = container.getStatistiquesPassivation().orElseThrow();
+            assertEquals(5, stats.agentsActifs());
+            assertEquals(5, stats.agentsPassives());
+            assertEquals(6, stats.passivations());
+            assertEquals(1, stats.activations());
+            assertEquals(0.8, stats.tauxSucces(), 1e-9);
+            assertTrue(stats.octetsSurDisque() > 0);
+        }
+
+        @Test
+        @DisplayName("Réactivation à la réception d'une notification et à la suppression")
+        void testReactivationTransparente() throws Exception {
+            container.ajouterAgent(agent1);
+            container.ajouterAgent(agent2);
+            ScoringStrategy scoring = new ScoringStrategy();
+            agent2.changerStrategie(scoring);
+            agent1.subscribe(agent2);
+            agent2.ajouterTransaction(Transaction.builder().id("B1").montant(5).type(TransactionType.ACHAT).build());
+            container.activerPassivation(politique().inactiviteMax(Duration.ZERO).build());
+
+            assertEquals(2, container.passiverAgentsInactifs());
+            assertTrue(agent2.estPassive());
+            agent1.ajouterTransaction(Transaction.builder().id("A1").montant(20).type(TransactionType.VENTE).build());
+            assertFalse(agent2.estPassive());
+            assertEquals(20.0, scoring.getSolde());
+            List<Transaction> lues = agent2.getTransactions();
+            assertEquals(List.of("B1"), lues.stream().map(Transaction::getId).toList());
+
+            container.passiverAgentsInactifs();
+            assertTrue(agent2.estPassive());
+            assertEquals(1, lues.size());
+            Agent supprime = container.supprimerAgent("Agent-A").orElseThrow();
+            assertEquals(1, supprime.getTransactions().size());
+            container.desactiverPassivation();
+            assertFalse(agent2.estPassive());
+            assertTrue(container.getStatistiquesPassivation().isEmpty());
+            assertThrows(IllegalStateException.class, () -> container.passiverAgentsInactifs());
+        }
+
+        @Test
+        @DisplayName("Aucune transaction perdue quand le balayage passive pendant l'ingestion")
+        void testPassivationPendantIngestion() throws Exception {
+            container.ajouterAgent(agent1);
+            container.activerPassivation(politique().inactiviteMax(Duration.ZERO).build());
+            Thread ingestion = new Thread(() -> {
+                for (int t = 0; t < 3000; t++) {
+                    agent1.ajouterTransaction(Transaction.builder().id("T" + t).montant(1).type(TransactionType.VENTE).build());
+                }
+            });
+            ingestion.start();
+            int passivations = 0;
+            while (ingestion.isAlive()) {
+                passivations += container.passiverAgentsInactifs();
+            }
+            ingestion.join();
+
+            assertTrue(passivations > 0);
+            assertEquals(3000, agent1.getTransactions().size());
+            assertEquals(3000.0, agent1.calculerSolde());
+            assertEquals(3000.0, container.getAgregats().getSoldeTotal());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests des instantanés")
+    class SnapshotTests {
+
+        @TempDir
+        Path repertoire;
+
+        @Test
+        @DisplayName("Restauration à l'identique: transactions, graphe d'observation et stratégies partagées")
+        void testAllerRetour() throws Exception {
+            Agent agent3 = new Agent("Agent-C");
+            ScoringStrategy scoring = new ScoringStrategy();
+            agent2.changerStrategie(scoring);
+            agent3.changerStrategie(new HistoryStrategy());
+            container.ajouterAgent(agent1);
+            container.ajouterAgent(agent2);
+            container.ajouterAgent(agent3);
+            agent1.subscribe(agent2);
+            agent1.subscribe(agent3);
+            agent2.subscribe(agent3);
+            agent1.ajouterTransaction(Transaction.builder().id("A1").montant(100)
+                    .date(LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_456_789)).type(TransactionType.VENTE).build());
+            agent1.ajouterTransaction(Transaction.builder().id("A2").montant(30).type(TransactionType.ACHAT).build());
+            agent2.ajouterTransaction(Transaction.builder().id("B1").montant(5).type(TransactionType.VENTE).build());
+            double solde = container.getAgregats().getSoldeTotal();
+
+            Path fichier = repertoire.resolve("conteneur.snap");
+            ResumeSnapshot ecrit = container.ecrireSnapshot(fichier);
+            assertEquals(3, ecrit.nombreAgents());
+            assertEquals(3, ecrit.nombreTransactions());
+            assertEquals(3, ecrit.nombreAbonnements());
+            assertEquals(3, ecrit.nombreStrategies());
+
+            container.vider();
+            ResumeSnapshot relu = container.restaurerSnapshot(fichier);
+            assertEquals(ecrit.nombreAbonnements(), relu.nombreAbonnements());
+            assertEquals(3, container.getNombreAgents());
+            assertEquals(solde, container.getAgregats().getSoldeTotal(), 1e-9);
+            assertEquals(List.of("Agent-A", "Agent-B"), container.rechercherParMotif("Agent-?").limit(2).map(Agent::getNom).toList());
+
+            Agent a = container.rechercherAgent("Agent-A").orElseThrow();
+            Agent c = container.rechercherAgent("Agent-C").orElseThrow();
+            assertNotSame(agent1, a);
+            assertEquals(123_456_789, a.rechercherTransaction("A1").orElseThrow().getDate().getNano());
+            ScoringStrategy scoringRestaure = (ScoringStrategy) container.rechercherAgent("Agent-B").orElseThrow().getStrategy();
+            assertEquals(70.0, scoringRestaure.getSolde());
+            assertEquals(3, ((HistoryStrategy) c.getStrategy()).getHistorySize());
+
+            a.ajouterTransaction(Transaction.builder().id("A3").montant(10).type(TransactionType.VENTE).build());
+            assertEquals(80.0, scoringRestaure.getSolde());
+            assertEquals(4, ((HistoryStrategy) c.getStrategy()).getHistorySize());
+            assertEquals(70.0, scoring.getSolde());
+        }
+
+        @Test
+        @DisplayName("Agents passivés capturés sans réactivation, état des stratégies analytiques restauré")
+        void testPassivesEtStrategiesAnalytiques() throws Exception {
+            StatisticsStrategy statistiques = new StatisticsStrategy();
+            DistributionStrategy distribution = new DistributionStrategy();
+            HeavyHitterStrategy heavyHitters = new HeavyHitterStrategy();
+            AnomalyDetectionStrategy anomalies = new AnomalyDetectionStrategy();
+            container.ajouterAgent(agent1);
+            List<NotificationStrategy> strategies = List.of(statistiques, distribution, heavyHitters, anomalies);
+            for (int i = 0; i < strategies.size(); i++) {
+                Agent observateur = new Agent("Observateur-" + i);
+                observateur.changerStrategie(strategies.get(i));
+                container.ajouterAgent(observateur);
+                agent1.subscribe(observateur);
+            }
+            agent1.ajouterTransaction(Transaction.builder().id("A1").montant(100).type(TransactionType.VENTE).build());
+            agent1.ajouterTransaction(Transaction.builder().id("A2").montant(30).type(TransactionType.ACHAT).build());
+            container.activerPassivation(PassivationPolicy.builder().fichier(repertoire.resolve("agents.dat"))
+                    .inactiviteMax(Duration.ZERO).build());
+            container.passiverAgentsInactifs();
+            assertTrue(agent1.estPassive());
+
+            Path fichier = repertoire.resolve("conteneur.snap");
+            assertEquals(2, container.ecrireSnapshot(fichier).nombreTransactions());
+            assertTrue(agent1.estPassive());
+
+            container.vider();
+            container.restaurerSnapshot(fichier);
+            assertEquals(List.of("A1", "A2"), container.rechercherAgent("Agent-A").orElseThrow().getTransactions().stream()
+                    .map(Transaction::getId).toList());
+            StatisticsStrategy statistiquesRestaurees = (StatisticsStrategy) strategieDe("Observateur-0");
+            assertEquals(statistiques.getFenetre(Duration.ofHours(1)).nombre(),
+                    statistiquesRestaurees.getFenetre(Duration.ofHours(1)).nombre());
+            assertEquals(2, ((DistributionStrategy) strategieDe("Observateur-1")).getQuantilesParAgent("Agent-A")
+                    .orElseThrow().nombre());
+            HeavyHitterStrategy heavyHittersRestaures = (HeavyHitterStrategy) strategieDe("Observateur-2");
+            assertEquals(2, heavyHittersRestaures.estimerNotifications("Agent-A"));
+            assertEquals(heavyHitters.getTopAgents(), heavyHittersRestaures.getTopAgents());
+            assertEquals(anomalies.getMoyenne("Agent-A"),
+                    ((AnomalyDetectionStrategy) strategieDe("Observateur-3")).getMoyenne("Agent-A"));
+        }
+
+        private NotificationStrategy strategieDe(String agent) {
+            return container.rechercherAgent(agent).orElseThrow().getStrategy();
+        }
+
+        @Test
+        @DisplayName("Refus d'un conteneur non vide et d'un fichier corrompu")
+        void testErreurs() throws Exception {
+            container.ajouterAgent(agent1);
+            Path fichier = repertoire.resolve("conteneur.snap");
+            container.ecrireSnapshot(fichier);
+            assertThrows(IllegalStateException.class, () -> container.restaurerSnapshot(fichier));
+
+            container.vider();
+            Files.write(fichier, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+            assertThrows(IOException.class, () -> container.restaurerSnapshot(fichier));
+            assertEquals(0, container.getNombreAgents());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests du journal des mutations")
+    class JournalTests {
+
+        @TempDir
+        Path repertoire;
+
+        private JournalPolicy.JournalPolicyBuilder politique() {
+            return JournalPolicy.builder().journal(repertoire.resolve("mutations.wal"));
+        }
+
+        private AgentContainer redemarrer() {
+            AgentContainer.resetInstance();
+            return AgentContainer.getInstance();
+        }
+
+        @Test
+        @DisplayName("Récupération: instantané du point de reprise puis rejeu des mutations suivantes")
+        void testRecuperation() throws Exception {
+            JournalPolicy config = politique().snapshot(repertoire.resolve("conteneur.snap")).build();
+            assertEquals(0, container.activerJournal(config).dernierLsn());
+            container.ajouterAgent(agent1);
+            container.ajouterAgent(agent2);
+            agent2.changerStrategie(new ScoringStrategy());
+            agent1.subscribe(agent2);
+            agent1.ajouterTransaction(Transaction.builder().id("A1").montant(100).type(TransactionType.VENTE).build());
+            agent1.ajouterTransaction(Transaction.builder().id("A2").montant(30).type(TransactionType.ACHAT).build());
+            container.creerPointDeReprise();
+
+            agent1.ajouterTransaction(Transaction.builder().id("A3").montant(10).type(TransactionType.VENTE).build());
+            agent1.supprimerTransaction("A2");
+            Agent agent3 = new Agent("Agent-C");
+            container.ajouterAgent(agent3);
+            agent3.ajouterTransaction(Transaction.builder().id("C1").montant(7).type(TransactionType.ACHAT).build());
+            agent3.subscribe(agent1);
+            double solde = container.getAgregats().getSoldeTotal();
+
+            AgentContainer.ResumeRecuperation resume = redemarrer().activerJournal(config);
+            container = AgentContainer.getInstance();
+            assertTrue(resume.snapshotRestaure());
+            assertTrue(resume.mutationsRejouees() > 0);
+            assertEquals(3, container.getNombreAgents());
+            assertEquals(solde, container.getAgregats().getSoldeTotal(), 1e-9);
+            Agent a = container.rechercherAgent("Agent-A").orElseThrow();
+            assertTrue(a.rechercherTransaction("A2").isEmpty());
+            assertEquals(List.of(a), container.rechercherAgent("Agent-C").orElseThrow().getObservers());
+            ScoringStrategy scoring = (ScoringStrategy) container.rechercherAgent("Agent-B").orElseThrow().getStrategy();
+            assertEquals(80.0, scoring.getSolde());
+            a.ajouterTransaction(Transaction.builder().id("A4").montant(5).type(TransactionType.VENTE).build());
+            assertEquals(85.0, scoring.getSolde());
+        }
+
+        @Test
+        @DisplayName("Fin de journal tronquée ignorée et rejeu idempotent sur un instantané plus récent")
+        void testFinTronqueeEtIdempotence() throws Exception {
+            Path fichier = repertoire.resolve("mutations.wal");
+            container.activerJournal(politique().durabilite(Durabilite.DIFFEREE).build());
+            container.ajouterAgent(agent1);
+            for (int i = 0; i < 3; i++) {
+                agent1.ajouterTransaction(Transaction.builder().id("T" + i).montant(10).type(TransactionType.VENTE).build());
+            }
+            container.synchroniserJournal();
+            assertEquals(4, container.getStatistiquesJournal().orElseThrow().lsnDurable());
+            container.desactiverJournal();
+            container.ecrireSnapshot(repertoire.resolve("conteneur.snap"));
+            Files.write(fichier, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+            container = redemarrer();
+            AgentContainer.ResumeRecuperation resume = container.activerJournal(politique().build());
+            assertEquals(4, resume.mutationsRejouees());
+            assertEquals(3, container.rechercherAgent("Agent-A").orElseThrow().getTransactions().size());
+            container.rechercherAgent("Agent-A").orElseThrow()
+                    .ajouterTransaction(Transaction.builder().id("T3").montant(10).type(TransactionType.VENTE).build());
+            assertEquals(5, container.getStatistiquesJournal().orElseThrow().dernierLsn());
+
+            container = redemarrer();
+            resume = container.activerJournal(politique().snapshot(repertoire.resolve("conteneur.snap")).build());
+            assertEquals(4, resume.mutationsIgnorees());
+            assertEquals(1, resume.mutationsRejouees());
+            assertEquals(4, container.rechercherAgent("Agent-A").orElseThrow().getTransactions().size());
+            assertThrows(IllegalStateException.class, () -> container.activerJournal(politique().build()));
+        }
+
+        @Test
+        @DisplayName("Validation groupée des écritures concurrentes")
+        void testEcrituresConcurrentes() throws Exception {
+            container.activerJournal(politique().durabilite(Durabilite.DISQUE).build());
+            int threads = 8;
+            int parThread = 50;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> taches = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Agent agent = new Agent("Agent-" + t);
+                container.ajouterAgent(agent);
+                taches.add(executor.submit(() -> {
+                    for (int i = 0; i < parThread; i++) {
+                        agent.ajouterTransaction(Transaction.builder().id(agent.getNom() + "-" + i).montant(1)
+                                .type(TransactionType.VENTE).build());
+                    }
+                }));
+            }
+            for (Future<?> tache : taches) {
+                tache.get();
+            }
+            executor.shutdown();
+
+            AgentContainer.StatistiquesJournal stats = container.getStatistiquesJournal().orElseThrow();
+            assertEquals(threads + threads * parThread, stats.enregistrements());
+            assertEquals(stats.dernierLsn(), stats.lsnDurable());
+            assertTrue(stats.lots() <= stats.enregistrements());
+
+            container = redemarrer();
+            container.activerJournal(politique().build());
+            assertEquals(threads * parThread, container.getAgregats().getNombreTransactions());
+        }
+
+        @Test
+        @DisplayName("Activation sur un conteneur modifié hors journal: l'instantané périmé est remplacé")
+        void testActivationRemplaceInstantanePerime() throws Exception {
+            JournalPolicy config = politique().snapshot(repertoire.resolve("conteneur.snap")).build();
+            container.activerJournal(config);
+            container.ajouterAgent(agent1);
+            container.creerPointDeReprise();
+            container.desactiverJournal();
+
+            container.supprimerAgent("Agent-A");
+            container.ajouterAgent(agent2);
+            AgentContainer.ResumeRecuperation resume = container.activerJournal(config);
+            assertFalse(resume.snapshotRestaure());
+
+            container = redemarrer();
+            assertTrue(container.activerJournal(config).snapshotRestaure());
+            assertEquals(1, container.getNombreAgents());
+            assertTrue(container.contientAgent("Agent-B"));
+            assertFalse(container.contientAgent("Agent-A"));
+        }
+
+        @Test
+        @DisplayName("Point de reprise sans état des stratégies: reconstruit depuis les transactions")
+        void testPointDeRepriseReconstruitStrategies() throws Exception {
+            JournalPolicy config = politique().snapshot(repertoire.resolve("conteneur.snap")).build();
+            container.activerJournal(config);
+            container.ajouterAgent(agent1);
+            container.ajouterAgent(agent2);
+            ScoringStrategy scoring = new ScoringStrategy();
+            agent2.changerStrategie(scoring);
+            agent1.subscribe(agent2);
+            agent1.ajouterTransaction(Transaction.builder().id("A1").montant(100).type(TransactionType.VENTE).build());
+            // État de l'observateur en avance sur les transactions capturées (capture à un autre instant)
+            scoring.importerEtat(new ScoringStrategy().exporterEtat());
+            container.creerPointDeReprise();
+
+            container = redemarrer();
+            container.activerJournal(config);
+            assertEquals(100.0, ((ScoringStrategy) container.rechercherAgent("Agent-B").orElseThrow().getStrategy())
+                    .getSolde());
+        }
+
+        @Test
+        @DisplayName("Rejeu par LSN: deux transactions de même id de part et d'autre du point de reprise")
+        void testRejeuIdsEnDouble() throws Exception {
+            JournalPolicy config = politique().snapshot(repertoire.resolve("conteneur.snap")).build();
+            container.activerJournal(config);
+            container.ajouterAgent(agent1);
+            agent1.ajouterTransaction(Transaction.builder().id("D").montant(10).type(TransactionType.VENTE).build());
+            container.creerPointDeReprise();
+            agent1.ajouterTransaction(Transaction.builder().id("D").montant(10).type(TransactionType.VENTE).build());
+            agent1.ajouterTransaction(Transaction.builder().id("D").montant(5).type(TransactionType.ACHAT).build());
+
+            container = redemarrer();
+            AgentContainer.ResumeRecuperation resume = container.activerJournal(config);
+            assertEquals(2, resume.mutationsRejouees());
+            assertEquals(List.of("D", "D", "D"), container.rechercherAgent("Agent-A").orElseThrow().getTransactions()
+                    .stream().map(Transaction::getId).toList());
+            assertEquals(15.0, container.getAgregats().getSoldeTotal(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("Reconstruction des stratégies sans effet de bord: aucune alerte répétée")
+        void testReconstructionSansAlerte() throws Exception {
+            List<AnomalySink.Anomalie> alertes = new ArrayList<>();
+            List<AnomalySink.Anomalie> alertesRejeu = new ArrayList<>();
+            JournalPolicy config = politique().snapshot(repertoire.resolve("conteneur.snap"))
+                    .fabriqueStrategies(nom -> nom.equals("AnomalyDetectionStrategy")
+                            ? AnomalyDetectionStrategy.builder().echauffement(2).sink(alertesRejeu::add).build() : null)
+                    .build();
+            container.activerJournal(config);
+            container.ajouterAgent(agent1);
+            container.ajouterAgent(agent2);
+            agent2.changerStrategie(AnomalyDetectionStrategy.builder().echauffement(2).sink(alertes::add).build());
+            agent1.subscribe(agent2);
+            double[] montants = {10, 11, 10, 11, 10, 5000};
+            for (int i = 0; i < montants.length; i++) {
+                agent1.ajouterTransaction(Transaction.builder().id("A" + i).montant(montants[i])
+                        .type(TransactionType.VENTE).build());
+            }
+            assertFalse(alertes.isEmpty());
+            container.creerPointDeReprise();
+
+            container = redemarrer();
+            container.activerJournal(config);
+            AnomalyDetectionStrategy reconstruite = (AnomalyDetectionStrategy) container.rechercherAgent("Agent-B")
+                    .orElseThrow().getStrategy();
+            assertTrue(alertesRejeu.isEmpty());
+            assertTrue(reconstruite.getNombreAnomalies() > 0);
+            assertTrue(reconstruite.getMoyenne("Agent-A") > 10);
+        }
+
+        @Test
+        @DisplayName("Débit de l'ingestion journalisée par défaut proche du chemin en mémoire")
+        void testDebitJournalParDefaut() throws Exception {
+            int nombre = 2000;
+            long enMemoire = ingerer(agent1, nombre);
+            container.activerJournal(politique().build());
+            long journalise = ingerer(agent2, nombre);
+            System.out.println("⏱️  " + nombre + " transactions: " + enMemoire / 1_000_000 + " ms en mémoire, "
+                    + journalise / 1_000_000 + " ms journalisées (" + Durabilite.DIFFEREE + ")");
+            assertTrue(journalise < 5 * enMemoire + TimeUnit.MILLISECONDS.toNanos(500),
+                    "Ingestion journalisée trop lente: " + journalise + " ns contre " + enMemoire + " ns");
+            assertEquals(Durabilite.DIFFEREE, container.getStatistiquesJournal().orElseThrow().durabilite());
+        }
+
+        private long ingerer(Agent agent, int nombre) {
+            container.ajouterAgent(agent);
+            long debut = System.nanoTime();
+            for (int i = 0; i < nombre; i++) {
+                agent.ajouterTransaction(Transaction.builder().id(agent.getNom() + "-" + i).montant(1)
+                        .type(TransactionType.VENTE).build());
+            }
+            return System.nanoTime() - debut;
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de la réplication du journal")
+    class ReplicationTests {
+
+        @TempDir
+        Path repertoire;
+
+        private AgentContainer replique;
+
+        @AfterEach
+        void arreter() throws IOException {
+            if (replique != null) {
+                ConteneurIndependant.fermer(replique);
+            }
+        }
+
+        private void demarrer() throws IOException {
+            container.activerJournal(JournalPolicy.builder().journal(repertoire.resolve("mutations.wal"))
+                    .snapshot(repertoire.resolve("conteneur.snap")).build());
+        }
+
+        private void attendreLsn(long lsn) throws InterruptedException {
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (replique.getEtatReplique().orElseThrow().lsnApplique() < lsn
+                    || replique.getEtatReplique().orElseThrow().retardMillis() > 1000) {
+                assertTrue(System.nanoTime() < limite, "La réplique n'a pas rattrapé la source");
+                Thread.sleep(10);
+            }
+        }
+
+        private long dernierLsn() {
+            return container.getStatistiquesJournal().orElseThrow().dernierLsn();
+        }
+
+        @Test
+        @DisplayName("Application continue du journal sur une réplique en lecture seule")
+        void testApplicationContinue() throws Exception {
+            demarrer();
+            container.ajouterAgent(agent1);
+            container.ajouterAgent(agent2);
+            agent2.changerStrategie(new ScoringStrategy());
+            agent1.subscribe(agent2);
+            Path socket = repertoire.resolve("r.sock");
+            container.demarrerReplication(socket, Duration.ofMillis(20));
+
+            replique = ConteneurIndependant.creer();
+            replique.suivre(socket, Duration.ofSeconds(2));
+            assertThrows(IllegalStateException.class, () -> replique.getTousLesAgents());
+            assertThrows(IllegalStateException.class, () -> replique.getAgregats());
+            assertThrows(IllegalStateException.class, () -> replique.getClassement());
+            assertThrows(IllegalStateException.class, () -> replique.getNombreAgents());
+            assertThrows(IllegalStateException.class, () -> replique.contientAgent("Agent-A"));
+            assertThrows(IllegalStateException.class, () -> replique.reduireEnParallele(0, a -> 1, Integer::sum));
+            agent1.ajouterTransaction(Transaction.builder().id("A1").montant(100).type(TransactionType.VENTE).build());
+            agent1.ajouterTransaction(Transaction.builder().id("A2").montant(30).type(TransactionType.ACHAT).build());
+            attendreLsn(dernierLsn());
+
+            assertEquals(1, container.getNombreRepliques());
+            assertEquals(2, replique.getNombreAgents());
+            Agent copie = replique.rechercherAgent("Agent-A").orElseThrow();
+            assertEquals(2, copie.getTransactions().size());
+            assertEquals(70.0, ((ScoringStrategy) replique.rechercherAgent("Agent-B").orElseThrow().getStrategy()).getSolde());
+            assertThrows(IllegalStateException.class, () -> replique.ajouterAgent(new Agent("Agent-X")));
+            assertThrows(IllegalStateException.class, () -> replique.declarerIndex(
+                    new NumericIndex("solde-replique", NumericIndex.Attribut.SOLDE)));
+            assertThrows(IllegalStateException.class, () -> replique.configurerCalculParallele(2, 0));
+            assertThrows(IllegalStateException.class, () -> replique.activerPassivation(PassivationPolicy.builder()
+                    .fichier(repertoire.resolve("replique.dat")).build()));
+            assertThrows(IllegalStateException.class, () -> copie.ajouterTransaction(
+                    Transaction.builder().id("X").montant(1).type(TransactionType.VENTE).build()));
+
+            container.supprimerAgent("Agent-B");
+            attendreLsn(dernierLsn());
+            assertTrue(replique.rechercherAgent("Agent-B").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Rattrapage par instantané après troncature du journal, puis promotion")
+        void testInstantaneEtPromotion() throws Exception {
+            demarrer();
+            container.ajouterAgent(agent1);
+            agent1.ajouterTransaction(Transaction.builder().id("A1").montant(10).type(TransactionType.VENTE).build());
+            container.creerPointDeReprise();
+            agent1.ajouterTransaction(Transaction.builder().id("A2").montant(20).type(TransactionType.VENTE).build());
+            Path socket = repertoire.resolve("r.sock");
+            container.demarrerReplication(socket);
+
+            replique = ConteneurIndependant.creer();
+            replique.suivre(socket, Duration.ofSeconds(2));
+            attendreLsn(dernierLsn());
+            AgentContainer.EtatReplique etat = replique.getEtatReplique().orElseThrow();
+            assertEquals(1, etat.instantanesRecus());
+            assertEquals(2, replique.rechercherAgent("Agent-A").orElseThrow().getTransactions().size());
+
+            long lsn = replique.cesserSuivi();
+            replique = null;
+            assertEquals(dernierLsn(), lsn);
+        }
+
+        @Test
+        @DisplayName("Réplication refusée sans journal actif")
+        void testSansJournal() {
+            assertThrows(IllegalStateException.class, () -> container.demarrerReplication(repertoire.resolve("r.sock")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests d'accès concurrent au registre")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("Un seul ajout réussit pour un même nom")
+        void testAjoutConcurrentMemeNom() throws Exception {
+            int threads = 8;
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CountDownLatch depart = new CountDownLatch(1);
+            List<Future<Boolean>> resultats = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                resultats.add(pool.submit(() -> {
+                    depart.await();
+                    return container.ajouterAgent(new Agent("Agent-Partage"));
+                }));
+            }
+            depart.countDown();
+
+            int ajouts = 0;
+            for (Future<Boolean> resultat : resultats) {
+                if (resultat.get(5, TimeUnit.SECONDS)) {
+                    ajouts++;
+                }
+            }
+            pool.shutdown();
+
+            assertEquals(1, ajouts);
+            assertEquals(1, container.getNombreAgents());
+        }
+
+        @Test
+        @DisplayName("Parcours pendant des ajouts concurrents")
+        void testParcoursPendantAjouts() throws Exception {
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            List<Future<?>> taches = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int debut = t * 100;
+                taches.add(pool.submit(() -> {
+                    for (int i = debut; i < debut + 100; i++) {
+                        container.ajouterAgent(new Agent("Agent-" + i));
+                    }
+                }));
+            }
+            while (taches.stream().anyMatch(f -> !f.isDone())) {
+                assertDoesNotThrow(() -> container.getTousLesAgents().forEach(Agent::getNom));
+            }
+            for (Future<?> tache : taches) {
+                tache.get(5, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+
+            assertEquals(400, container.getNombreAgents());
+            assertTrue(container.rechercherAgent("Agent-399").isPresent());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests du conteneur partitionné")
+    class ShardTests {
+
+        @Test
+        @DisplayName("Le hachage cohérent ne déplace qu'une partie des agents")
+        void testHachageCoherent() {
+            try (ShardedAgentContainer quatre = ShardedAgentContainer.builder().nombreShards(4).build();
+                 ShardedAgentContainer cinq = ShardedAgentContainer.builder().nombreShards(5).build()) {
+                int deplaces = 0;
+                for (int i = 0; i < 1000; i++) {
+                    String nom = "Agent-" + i;
+                    assertEquals(quatre.getIndexShard(nom), quatre.getIndexShard(nom));
+                    if (quatre.getIndexShard(nom) != cinq.getIndexShard(nom)) {
+                        deplaces++;
+                    }
+                }
+                assertTrue(deplaces > 0 && deplaces < 400, "agents déplacés: " + deplaces);
+            }
+        }
+
+        @Test
+        @DisplayName("Notifications inter-partitions en lots")
+        void testNotificationsInterPartitions() throws Exception {
+            try (ShardedAgentContainer sharded = ShardedAgentContainer.builder().nombreShards(2).build()) {
+                Agent source = new Agent("Source");
+                String nomObservateur = "Observateur-0";
+                for (int i = 1; sharded.getIndexShard(nomObservateur) == sharded.getIndexShard("Source"); i++) {
+                    nomObservateur = "Observateur-" + i;
+                }
+                Agent observateur = new Agent(nomObservateur);
+                ScoringStrategy scoring = new ScoringStrategy();
+                observateur.changerStrategie(scoring);
+                source.subscribe(observateur);
+                sharded.ajouterAgent(source);
+                sharded.ajouterAgent(observateur);
+
+                for (int i = 0; i < 50; i++) {
+                    sharded.ajouterTransaction("Source", Transaction.builder()
+                            .id("T" + i).montant(10).type(TransactionType.VENTE).build());
+                }
+
+                assertTrue(sharded.attendreInactivite(Duration.ofSeconds(10)));
+                assertEquals(500.0, scoring.getSolde());
+                assertEquals(50, sharded.executerSur("Source", a -> a.getTransactions().size()).get());
+                long lotsRecus = sharded.getStatistiques().stream()
+                        .mapToLong(ShardedAgentContainer.StatistiquesShard::lotsRecus).sum();
+                assertTrue(lotsRecus > 0);
+            }
+        }
+
+        @Test
+        @DisplayName("Un lot destiné à une partition arrêtée est rejeté sans bloquer l'attente")
+        void testLotVersPartitionArretee() throws Exception {
+            try (ShardedAgentContainer sharded = ShardedAgentContainer.builder().nombreShards(2).build()) {
+                String nomSource = "Source-0";
+                for (int i = 1; sharded.getIndexShard(nomSource) != 1; i++) {
+                    nomSource = "Source-" + i;
+                }
+                String nomObservateur = "Observateur-0";
+                for (int i = 1; sharded.getIndexShard(nomObservateur) != 0; i++) {
+                    nomObservateur = "Observateur-" + i;
+                }
+                Agent source = new Agent(nomSource);
+                Agent observateur = new Agent(nomObservateur);
+                ScoringStrategy scoring = new ScoringStrategy();
+                observateur.changerStrategie(scoring);
+                source.subscribe(observateur);
+                sharded.ajouterAgent(source);
+                sharded.ajouterAgent(observateur);
+
+                // La notification reste en attente d'envoi jusqu'à l'arrêt de la partition 1,
+                // qui suit celui de la partition 0 destinataire
+                CountDownLatch enAttente = new CountDownLatch(1);
+                sharded.executerSur(nomSource, a -> {
+                    a.ajouterTransaction(Transaction.builder().id("T1").montant(10).type(TransactionType.VENTE).build());
+                    enAttente.countDown();
+                    while (!Thread.currentThread().isInterrupted()) {
+                        LockSupport.parkNanos(1_000_000);
+                    }
+                    return null;
+                });
+                assertTrue(enAttente.await(5, TimeUnit.SECONDS));
+                sharded.close();
+
+                assertTrue(sharded.attendreInactivite(Duration.ofSeconds(1)));
+                assertEquals(0.0, scoring.getSolde());
+            }
+        }
+
+        @Test
+        @DisplayName("Les opérations s'exécutent sur la boucle de la partition")
+        void testExecutionSurPartition() throws Exception {
+            try (ShardedAgentContainer sharded = ShardedAgentContainer.builder().nombreShards(3).build()) {
+                sharded.ajouterAgent(agent1);
+
+                String thread = sharded.executerSur("Agent-A", a -> Thread.currentThread().getName()).get();
+
+                assertEquals("shard-" + sharded.getIndexShard("Agent-A"), thread);
+                assertThrows(IllegalArgumentException.class, () -> sharded.executerSur("Inconnu", a -> a));
+            }
+        }
+
+        @Test
+        @DisplayName("Le placement par abonnements regroupe les agents connectés")
+        void testPlacementParAbonnements() {
+            try (ShardedAgentContainer hachage = ShardedAgentContainer.builder().nombreShards(4).build();
+                 ShardedAgentContainer regroupe = ShardedAgentContainer.builder().nombreShards(4)
+                         .placement(ShardedAgentContainer.Placement.ABONNEMENTS).build()) {
+                for (ShardedAgentContainer sharded : List.of(hachage, regroupe)) {
+                    for (int groupe = 0; groupe < 4; groupe++) {
+                        List<Agent> membres = new ArrayList<>();
+                        for (int i = 0; i < 5; i++) {
+                            Agent membre = new Agent("G" + groupe + "-" + i);
+                            sharded.ajouterAgent(membre);
+                            membres.add(membre);
+                        }
+                        for (Agent sujet : membres) {
+                            membres.forEach(sujet::subscribe);
+                        }
+                    }
+                }
+                regroupe.reequilibrer();
+
+                assertTrue(regroupe.getRatioAretesInterPartitions() < hachage.getRatioAretesInterPartitions());
+                assertTrue(regroupe.getRatioAretesInterPartitions() <= 0.25,
+                        "ratio: " + regroupe.getRatioAretesInterPartitions());
+                assertTrue(regroupe.getNombreDeplacements() > 0);
+            }
+        }
+
+        @Test
+        @DisplayName("Un abonnement regroupe les deux agents en arrière-plan")
+        void testReevaluationEnArrierePlan() throws Exception {
+            try (ShardedAgentContainer sharded = ShardedAgentContainer.builder().nombreShards(2)
+                    .placement(ShardedAgentContainer.Placement.ABONNEMENTS).build()) {
+                Agent sujet = new Agent("Sujet");
+                sharded.ajouterAgent(sujet);
+                String nomObservateur = "Observateur-0";
+                for (int i = 1; sharded.getIndexShard(nomObservateur) == sharded.getIndexShard("Sujet"); i++) {
+                    nomObservateur = "Observateur-" + i;
+                }
+                Agent observateur = new Agent(nomObservateur);
+                sharded.ajouterAgent(observateur);
+
+                sujet.subscribe(observateur);
+                long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (sharded.getIndexShard("Sujet") != sharded.getIndexShard(nomObservateur)) {
+                    assertTrue(System.nanoTime() < limite, "Les agents n'ont pas été regroupés");
+                    Thread.sleep(5);
+                }
+                assertEquals(0.0, sharded.getRatioAretesInterPartitions());
+            }
+        }
+
+        @Test
+        @DisplayName("Déplacement à chaud sans perte de notification")
+        void testDeplacementSansPerte() {
+            try (ShardedAgentContainer sharded = ShardedAgentContainer.builder().nombreShards(3).build()) {
+                Agent source = new Agent("Source");
+                Agent observateur = new Agent("Observateur");
+                ScoringStrategy scoring = new ScoringStrategy();
+                observateur.changerStrategie(scoring);
+                source.subscribe(observateur);
+                sharded.ajouterAgent(source);
+                sharded.ajouterAgent(observateur);
+
+                for (int i = 0; i < 300; i++) {
+                    sharded.ajouterTransaction("Source", Transaction.builder()
+                            .id("T" + i).montant(1).type(TransactionType.VENTE).build());
+                    if (i % 20 == 0) {
+                        sharded.deplacer("Observateur", (i / 20) % 3);
+                    }
+                }
+
+                assertTrue(sharded.attendreInactivite(Duration.ofSeconds(10)));
+                assertEquals(300.0, scoring.getSolde());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests du conteneur à boîtes aux lettres")
+    class MailboxTests {
+
+        @Test
+        @DisplayName("Les messages d'un agent sont traités séquentiellement")
+        void testTraitementSequentiel() throws Exception {
+            try (MailboxAgentContainer mailbox = MailboxAgentContainer.builder().parallelisme(4).build()) {
+                mailbox.ajouterAgent(agent1);
+                ExecutorService emetteurs = Executors.newFixedThreadPool(4);
+                for (int t = 0; t < 4; t++) {
+                    int debut = t * 250;
+                    emetteurs.submit(() -> {
+                        for (int i = debut; i < debut + 250; i++) {
+                            agent1.ajouterTransaction(Transaction.builder()
+                                    .id("T" + i).montant(1).type(TransactionType.VENTE).build());
+                        }
+                    });
+                }
+                emetteurs.shutdown();
+                assertTrue(emetteurs.awaitTermination(10, TimeUnit.SECONDS));
+
+                assertTrue(mailbox.attendreInactivite(Duration.ofSeconds(10)));
+                assertEquals(1000, mailbox.executerSur("Agent-A", a -> a.getTransactions().size()).get());
+                assertTrue(mailbox.supprimerTransaction("Agent-A", "T42").get());
+                assertFalse(agent1.supprimerTransaction("T42"));
+                assertEquals(999, agent1.getTransactions().size());
+            }
+        }
+
+        @Test
+        @DisplayName("Notifications vers de nombreux agents actifs")
+        void testNombreuxAgents() {
+            try (MailboxAgentContainer mailbox = MailboxAgentContainer.builder().debit(8).build()) {
+                Agent source = new Agent("Source");
+                List<ScoringStrategy> scorings = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    Agent observateur = new Agent("Observateur-" + i);
+                    ScoringStrategy scoring = new ScoringStrategy();
+                    observateur.changerStrategie(scoring);
+                    scorings.add(scoring);
+                    source.subscribe(observateur);
+                    mailbox.ajouterAgent(observateur);
+                }
+                mailbox.ajouterAgent(source);
+
+                for (int i = 0; i < 5; i++) {
+                    mailbox.ajouterTransaction("Source", Transaction.builder()
+                            .id("T" + i).montant(10).type(TransactionType.VENTE).build());
+                }
+
+                assertTrue(mailbox.attendreInactivite(Duration.ofSeconds(10)));
+                scorings.forEach(scoring -> assertEquals(50.0, scoring.getSolde()));
+                assertEquals(5 + 5 * 200, mailbox.getMessagesTraites());
+            }
+        }
+
+        @Test
+        @DisplayName("Suppression synchrone: erreur propagée et attente refusée depuis une autre boîte")
+        void testSuppressionSynchrone() throws Exception {
+            try (MailboxAgentContainer mailbox = MailboxAgentContainer.builder().parallelisme(2).build()) {
+                mailbox.ajouterAgent(agent1);
+                mailbox.ajouterAgent(agent2);
+                mailbox.ajouterTransaction("Agent-A", Transaction.builder().id("T1").montant(1)
+                        .type(TransactionType.VENTE).build()).get();
+                agent1.ajouterEcouteur(new AgentListener() {
+                    @Override
+                    public void transactionSupprimee(Agent agent, Transaction transaction) {
+                        throw new IllegalStateException("refus");
+                    }
+                });
+
+                assertTimeoutPreemptively(Duration.ofSeconds(5),
+                        () -> assertThrows(IllegalStateException.class, () -> agent1.supprimerTransaction("T1")));
+                ExecutionException erreur = assertThrows(ExecutionException.class,
+                        () -> mailbox.executerSur("Agent-B", b -> agent1.supprimerTransaction("T1")).get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalStateException.class, erreur.getCause());
+            }
+        }
+
+        @Test
+        @DisplayName("La suppression d'un agent traite d'abord les messages déjà reçus")
+        void testSuppressionApresDrainage() throws Exception {
+            try (MailboxAgentContainer mailbox = MailboxAgentContainer.builder().parallelisme(2).build()) {
+                mailbox.ajouterAgent(agent1);
+                CountDownLatch liberation = new CountDownLatch(1);
+                mailbox.executerSur("Agent-A", a -> {
+                    try {
+                        return liberation.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                for (int i = 0; i < 100; i++) {
+                    mailbox.ajouterTransaction("Agent-A", Transaction.builder().id("T" + i).montant(1)
+                            .type(TransactionType.VENTE).build());
+                }
+
+                ExecutorService suppression = Executors.newSingleThreadExecutor();
+                Future<Optional<Agent>> supprime = suppression.submit(() -> mailbox.supprimerAgent("Agent-A"));
+                liberation.countDown();
+                assertSame(agent1, supprime.get(5, TimeUnit.SECONDS).orElseThrow());
+                assertEquals(100, agent1.getTransactions().size());
+                suppression.shutdown();
+            }
+        }
+    }
+
     @Nested
     @DisplayName("Tests du pattern Adapter")
     class AdapterTests {
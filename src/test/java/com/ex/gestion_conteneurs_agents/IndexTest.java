@@ -0,0 +1,469 @@
+package com.ex.gestion_conteneurs_agents;
+
+import com.ex.gestion_conteneurs_agents.container.AgentContainer;
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.index.BitmapIndex;
+import com.ex.gestion_conteneurs_agents.index.Leaderboard;
+import com.ex.gestion_conteneurs_agents.index.NameIndex;
+import com.ex.gestion_conteneurs_agents.index.NumericIndex;
+import com.ex.gestion_conteneurs_agents.index.OrderStatisticTree;
+import com.ex.gestion_conteneurs_agents.index.RoaringBitmap;
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.query.AgentQuery;
+import com.ex.gestion_conteneurs_agents.query.Champ;
+import com.ex.gestion_conteneurs_agents.strategy.ScoringStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires des index maintenus par le conteneur.
+ */
+@DisplayName("Tests des index du conteneur")
+class IndexTest {
+
+    private AgentContainer container;
+
+    @BeforeEach
+    void setUp() {
+        AgentContainer.resetInstance();
+        container = AgentContainer.getInstance();
+    }
+
+    @AfterEach
+    void tearDown() {
+        AgentContainer.resetInstance();
+    }
+
+    static Transaction transaction(String id, double montant, TransactionType type) {
+        return Transaction.builder().id(id).montant(montant).type(type).build();
+    }
+
+    @Nested
+    @DisplayName("Tests de OrderStatisticTree")
+    class TreeTests {
+
+        @Test
+        @DisplayName("Rang, k-ième et plage conformes à un ensemble trié")
+        void testConformiteEnsembleTrie() {
+            Comparator<OrderStatisticTree.Entree> ordre = Comparator.comparingLong(OrderStatisticTree.Entree::cle)
+                    .thenComparing(OrderStatisticTree.Entree::agent);
+            TreeSet<OrderStatisticTree.Entree> reference = new TreeSet<>(ordre);
+            OrderStatisticTree arbre = new OrderStatisticTree();
+            Random random = new Random(42);
+
+            for (int i = 0; i < 5000; i++) {
+                OrderStatisticTree.Entree e = new OrderStatisticTree.Entree(random.nextInt(200), "A" + random.nextInt(50));
+                if (random.nextInt(3) == 0) {
+                    assertEquals(reference.remove(e), arbre.supprimer(e.cle(), e.agent()));
+                } else {
+                    assertEquals(reference.add(e), arbre.inserer(e.cle(), e.agent()));
+                }
+            }
+
+            assertEquals(reference.size(), arbre.taille());
+            List<OrderStatisticTree.Entree> trie = new ArrayList<>(reference);
+            for (int k = 0; k < trie.size(); k += 37) {
+                assertEquals(trie.get(k), arbre.kieme(k));
+                assertEquals(k, arbre.rang(trie.get(k).cle(), trie.get(k).agent()));
+            }
+            List<OrderStatisticTree.Entree> plage = new ArrayList<>();
+            arbre.plage(50, 60, plage::add);
+            assertEquals(trie.stream().filter(e -> e.cle() >= 50 && e.cle() <= 60).toList(), plage);
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests du classement par solde")
+    class LeaderboardTests {
+
+        @Test
+        @DisplayName("Top N, rang et plage suivent les transactions")
+        void testClassement() {
+            for (int i = 0; i < 10; i++) {
+                Agent agent = new Agent("Agent-" + i);
+                container.ajouterAgent(agent);
+                agent.ajouterTransaction(transaction("V" + i, 100 * i, TransactionType.VENTE));
+            }
+            Leaderboard classement = container.getClassement();
+
+            assertEquals(List.of("Agent-9", "Agent-8", "Agent-7"),
+                    classement.top(3).stream().map(Leaderboard.Position::agent).toList());
+            assertEquals(1, classement.rang("Agent-9").getAsInt());
+            assertEquals(10, classement.rang("Agent-0").getAsInt());
+
+            container.rechercherAgent("Agent-0").orElseThrow()
+                    .ajouterTransaction(transaction("V-X", 5000, TransactionType.VENTE));
+            container.rechercherAgent("Agent-9").orElseThrow()
+                    .ajouterTransaction(transaction("A-X", 850, TransactionType.ACHAT));
+
+            assertEquals(1, classement.rang("Agent-0").getAsInt());
+            assertEquals(50.0, classement.getSolde("Agent-9"));
+            List<Leaderboard.Position> plage = classement.plageSoldes(200, 400);
+            assertEquals(List.of("Agent-4", "Agent-3", "Agent-2"), plage.stream().map(Leaderboard.Position::agent).toList());
+            assertEquals(classement.rang("Agent-4").getAsInt(), plage.get(0).rang());
+            List<Leaderboard.Position> tous = classement.plageSoldes(0, Double.POSITIVE_INFINITY);
+            assertEquals("Agent-0", tous.get(0).agent());
+            assertEquals(1, tous.get(0).rang());
+
+            container.supprimerAgent("Agent-0");
+            assertTrue(classement.rang("Agent-0").isEmpty());
+            assertEquals("Agent-8", classement.top(1).get(0).agent());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests des index secondaires")
+    class SecondaryIndexTests {
+
+        @Test
+        @DisplayName("Requêtes de plage sur solde, nombre de transactions et activité")
+        void testIndexDeclares() throws Exception {
+            Agent inactif = new Agent("Inactif");
+            inactif.ajouterTransaction(transaction("I1", 10, TransactionType.VENTE));
+            container.ajouterAgent(inactif);
+            Thread.sleep(5);
+            for (int i = 0; i < 5; i++) {
+                Agent agent = new Agent("Agent-" + i);
+                container.ajouterAgent(agent);
+                for (int t = 0; t <= i; t++) {
+                    agent.ajouterTransaction(transaction("T" + i + "-" + t, 100, TransactionType.VENTE));
+                }
+            }
+            container.declarerIndex(NumericIndex.solde());
+            container.declarerIndex(NumericIndex.nombreTransactions());
+            container.declarerIndex(NumericIndex.derniereActivite());
+
+            NumericIndex solde = container.getIndex("solde").orElseThrow();
+            NumericIndex nombre = container.getIndex("nbTransactions").orElseThrow();
+            NumericIndex activite = container.getIndex("derniereActivite").orElseThrow();
+
+            assertEquals(List.of("Agent-1", "Agent-2", "Agent-3"), solde.plage(20_000, 40_000));
+            assertEquals(List.of("Agent-3", "Agent-4"), nombre.plage(4, Long.MAX_VALUE));
+            assertEquals(3, nombre.compter(2, 4));
+            long limite = container.rechercherAgent("Agent-0").orElseThrow().getDerniereActivite().toEpochMilli();
+            assertEquals(List.of("Inactif"), activite.plage(Long.MIN_VALUE, limite - 1));
+
+            container.rechercherAgent("Agent-4").orElseThrow().supprimerTransaction("T4-0");
+            assertEquals(4, nombre.valeur("Agent-4").getAsLong());
+            assertEquals(40_000, solde.valeur("Agent-4").getAsLong());
+            assertTrue(solde.getTailleOctets() > 0);
+
+            assertThrows(IllegalArgumentException.class, () -> container.declarerIndex(NumericIndex.solde()));
+            assertTrue(container.supprimerIndex("solde"));
+            assertTrue(container.getIndex("solde").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Ingestion concurrente et lectures: index cohérents, déclaration unique")
+        void testIngestionConcurrente() throws Exception {
+            int ecrivains = 6;
+            int parEcrivain = 2_000;
+            container.declarerIndex(NumericIndex.nombreTransactions());
+            for (int e = 0; e < ecrivains; e++) {
+                container.ajouterAgent(new Agent("Agent-" + e));
+            }
+            AtomicInteger declarations = new AtomicInteger();
+            AtomicBoolean fin = new AtomicBoolean();
+            List<Throwable> erreurs = new CopyOnWriteArrayList<>();
+            List<Thread> threads = new ArrayList<>();
+            for (int e = 0; e < ecrivains; e++) {
+                Agent agent = container.rechercherAgent("Agent-" + e).orElseThrow();
+                int numero = e;
+                threads.add(new Thread(() -> {
+                    for (int t = 0; t < parEcrivain; t++) {
+                        TransactionType type = t % 3 == 0 ? TransactionType.ACHAT : TransactionType.VENTE;
+                        agent.ajouterTransaction(transaction(numero + "-" + t, 1, type));
+                    }
+                    try {
+                        container.declarerIndex(NumericIndex.solde());
+                        declarations.incrementAndGet();
+                    } catch (IllegalArgumentException attendue) {
+                        // un seul déclarant doit réussir
+                    }
+                }));
+            }
+            threads.add(new Thread(() -> {
+                while (!fin.get()) {
+                    try {
+                        List<Leaderboard.Position> top = container.getClassement().top(ecrivains);
+                        for (int i = 1; i < top.size(); i++) {
+                            assertTrue(top.get(i - 1).solde() >= top.get(i).solde());
+                        }
+                        container.getIndex("nbTransactions").orElseThrow().compter(0, Long.MAX_VALUE);
+                    } catch (Throwable t) {
+                        erreurs.add(t);
+                        return;
+                    }
+                }
+            }));
+            threads.forEach(Thread::start);
+            for (int i = 0; i < ecrivains; i++) {
+                threads.get(i).join();
+            }
+            fin.set(true);
+            threads.get(ecrivains).join();
+
+            assertTrue(erreurs.isEmpty(), () -> erreurs.toString());
+            assertEquals(1, declarations.get());
+            NumericIndex nombre = container.getIndex("nbTransactions").orElseThrow();
+            NumericIndex solde = container.getIndex("solde").orElseThrow();
+            Leaderboard classement = container.getClassement();
+            long attendu = (parEcrivain - 2L * ((parEcrivain + 2) / 3)) * 100;
+            for (int e = 0; e < ecrivains; e++) {
+                String nom = "Agent-" + e;
+                assertEquals(parEcrivain, nombre.valeur(nom).getAsLong());
+                assertEquals(attendu, solde.valeur(nom).getAsLong());
+                assertEquals(attendu / 100.0, classement.getSolde(nom));
+            }
+            assertEquals(ecrivains, nombre.compter(parEcrivain, parEcrivain));
+            assertEquals(ecrivains, classement.plageSoldes(attendu / 100.0, attendu / 100.0).size());
+            assertEquals(ecrivains, container.getBitmaps().avecType(TransactionType.ACHAT).cardinalite());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests des index bitmap")
+    class BitmapTests {
+
+        private RoaringBitmap depuis(BitSet bits) {
+            RoaringBitmap bitmap = new RoaringBitmap();
+            bits.stream().forEach(bitmap::ajouter);
+            return bitmap;
+        }
+
+        @Test
+        @DisplayName("Opérations ensemblistes conformes à BitSet (blocs creux et denses)")
+        void testConformiteBitSet() {
+            Random random = new Random(7);
+            BitSet a = new BitSet();
+            BitSet b = new BitSet();
+            for (int i = 0; i < 20_000; i++) {
+                a.set(random.nextInt(200_000));
+                b.set(random.nextInt(200_000));
+            }
+            a.set(70_000, 80_000);
+            b.set(75_000, 140_000);
+
+            RoaringBitmap ra = depuis(a);
+            RoaringBitmap rb = depuis(b);
+            assertEquals(a.cardinality(), ra.cardinalite());
+
+            BitSet et = (BitSet) a.clone();
+            et.and(b);
+            BitSet ou = (BitSet) a.clone();
+            ou.or(b);
+            BitSet etNon = (BitSet) a.clone();
+            etNon.andNot(b);
+            assertArrayEquals(et.stream().toArray(), ra.et(rb).versTableau());
+            assertArrayEquals(ou.stream().toArray(), ra.ou(rb).versTableau());
+            assertArrayEquals(etNon.stream().toArray(), ra.etNon(rb).versTableau());
+
+            for (int v = 75_000; v < 140_000; v++) {
+                rb.retirer(v);
+            }
+            b.clear(75_000, 140_000);
+            assertArrayEquals(b.stream().toArray(), rb.versTableau());
+        }
+
+        @Test
+        @DisplayName("Filtres combinés sur la stratégie, les types et les observateurs")
+        void testFiltresCombines() {
+            for (int i = 0; i < 6; i++) {
+                Agent agent = new Agent("Agent-" + i);
+                container.ajouterAgent(agent);
+                agent.ajouterTransaction(transaction("T" + i, 100, i % 2 == 0 ? TransactionType.VENTE : TransactionType.ACHAT));
+            }
+            Agent a0 = container.rechercherAgent("Agent-0").orElseThrow();
+            Agent a2 = container.rechercherAgent("Agent-2").orElseThrow();
+            Agent a3 = container.rechercherAgent("Agent-3").orElseThrow();
+            a0.changerStrategie(new ScoringStrategy());
+            a3.changerStrategie(new ScoringStrategy());
+            a2.subscribe(a3);
+
+            BitmapIndex index = container.getBitmaps();
+            RoaringBitmap scoring = index.parStrategie("ScoringStrategy");
+            assertEquals(List.of("Agent-0"), index.agents(scoring.et(index.avecType(TransactionType.VENTE))));
+            assertEquals(List.of("Agent-0", "Agent-2", "Agent-3"), index.agents(scoring.ou(index.avecObservateurs())));
+            assertEquals(4, index.tous().etNon(scoring).cardinalite());
+
+            a2.unsubscribe(a3);
+            a0.supprimerTransaction("T0");
+            assertTrue(index.avecObservateurs().estVide());
+            assertEquals(List.of("Agent-2", "Agent-4"), index.agents(index.avecType(TransactionType.VENTE)));
+
+            int ordinal = index.ordinal("Agent-3").orElseThrow();
+            container.supprimerAgent("Agent-3");
+            container.ajouterAgent(new Agent("Nouveau"));
+            assertEquals(ordinal, index.ordinal("Nouveau").orElseThrow());
+            assertEquals(List.of("Agent-0"), index.agents(index.parStrategie("ScoringStrategy")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de l'index des noms")
+    class NameTests {
+
+        @Test
+        @DisplayName("Préfixe, plage et motif conformes à un ensemble trié")
+        void testConformiteEnsembleTrie() {
+            String[] villes = {"Paris", "Par", "Lyon", "Lille", "Pau"};
+            TreeSet<String> reference = new TreeSet<>();
+            NameIndex index = new NameIndex();
+            Random random = new Random(3);
+            for (int i = 0; i < 3000; i++) {
+                String nom = "Desk-" + villes[random.nextInt(villes.length)] + "-" + random.nextInt(300);
+                if (random.nextInt(4) == 0) {
+                    reference.remove(nom);
+                    index.agentRetire(new Agent(nom));
+                } else {
+                    reference.add(nom);
+                    index.agentAjoute(new Agent(nom));
+                }
+            }
+
+            assertEquals(reference.size(), index.getTaille());
+            assertEquals(List.copyOf(reference), index.prefixe("").toList());
+            assertEquals(List.copyOf(reference.subSet("Desk-Par", "Desk-Par\uffff")), index.prefixe("Desk-Par").toList());
+            assertEquals(List.copyOf(reference.subSet("Desk-L", "Desk-Par-2")), index.plage("Desk-L", "Desk-Par-2").toList());
+            assertEquals(reference.stream().filter(n -> n.matches("Desk-Pa.-1.*")).toList(),
+                    index.glob("Desk-Pa?-1*").toList());
+            assertTrue(index.prefixe("Desk-X").findAny().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Recherche par motif et suivi des suppressions dans le conteneur")
+        void testRechercheConteneur() {
+            for (String nom : List.of("Desk-Paris-1", "Desk-Paris-2", "Desk-Lyon-1", "Desk-Paris", "Risk")) {
+                container.ajouterAgent(new Agent(nom));
+            }
+            assertEquals(List.of("Desk-Paris-1", "Desk-Paris-2"),
+                    container.rechercherParMotif("Desk-Paris-*").map(Agent::getNom).toList());
+            assertEquals(List.of("Desk-Paris", "Desk-Paris-1", "Desk-Paris-2"),
+                    container.rechercherParPrefixe("Desk-P").map(Agent::getNom).toList());
+
+            container.supprimerAgent("Desk-Paris-1");
+            assertEquals("Desk-Lyon-1,Desk-Paris,Desk-Paris-2", container.rechercherParPlage("Desk", "E")
+                    .map(Agent::getNom).collect(Collectors.joining(",")));
+            assertEquals(List.of("Desk-Lyon-1"), container.rechercherParMotif("*-1").map(Agent::getNom).toList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests du moteur de requêtes")
+    class QueryTests {
+
+        private List<String> noms(AgentQuery requete) {
+            return requete.executer().map(Agent::getNom).toList();
+        }
+
+        private void peupler() {
+            for (int i = 0; i < 200; i++) {
+                Agent agent = new Agent(String.format("Agent-%03d", i));
+                container.ajouterAgent(agent);
+                for (int t = 0; t < i % 7; t++) {
+                    agent.ajouterTransaction(transaction(i + "-" + t, 10 * i, t % 3 == 0 ? TransactionType.ACHAT : TransactionType.VENTE));
+                }
+                if (i % 3 == 0) {
+                    agent.changerStrategie(new ScoringStrategy());
+                }
+            }
+        }
+
+        private List<String> reference(double soldeMin, int limite) {
+            return container.getTousLesAgents().stream()
+                    .filter(a -> a.calculerSolde() > soldeMin)
+                    .filter(a -> a.getStrategy().getStrategyName().equals("ScoringStrategy"))
+                    .sorted(Comparator.comparingInt((Agent a) -> a.getTransactions().size()).thenComparing(Agent::getNom))
+                    .limit(limite)
+                    .map(Agent::getNom)
+                    .toList();
+        }
+
+        @Test
+        @DisplayName("Même résultat quel que soit le plan choisi")
+        void testResultatIndependantDuPlan() {
+            peupler();
+            List<String> attendu = reference(1000, 5);
+
+            AgentQuery requete = container.requete()
+                    .superieurA(Champ.SOLDE, 1000)
+                    .strategie("ScoringStrategy")
+                    .trierPar(Champ.NOMBRE_TRANSACTIONS)
+                    .limite(5);
+            assertTrue(requete.expliquer().startsWith("index classement"), requete.expliquer());
+            assertEquals(attendu, noms(requete));
+
+            container.declarerIndex(NumericIndex.nombreTransactions());
+            assertTrue(requete.expliquer().startsWith("parcours ordonné index nbTransactions"), requete.expliquer());
+            assertEquals(attendu, noms(requete));
+
+            AgentQuery scan = container.requete()
+                    .filtre(a -> a.calculerSolde() > 1000)
+                    .filtre(a -> a.getStrategy().getStrategyName().equals("ScoringStrategy"))
+                    .trierPar(Champ.NOMBRE_TRANSACTIONS);
+            assertTrue(scan.expliquer().startsWith("scan parallèle"), scan.expliquer());
+            assertEquals(reference(1000, Integer.MAX_VALUE), noms(scan));
+        }
+
+        @Test
+        @DisplayName("Bornes décimales arrondies au centime avant l'exclusion stricte")
+        void testBornesDecimales() {
+            double[] soldes = {0.29, 0.3, 19.99, 20};
+            for (int i = 0; i < soldes.length; i++) {
+                Agent agent = new Agent("Agent-" + i);
+                container.ajouterAgent(agent);
+                agent.ajouterTransaction(transaction("V" + i, soldes[i], TransactionType.VENTE));
+            }
+
+            assertEquals(List.of("Agent-1", "Agent-2", "Agent-3"), noms(container.requete().superieurA(Champ.SOLDE, 0.29)));
+            assertEquals(List.of("Agent-0", "Agent-1"), noms(container.requete().inferieurA(Champ.SOLDE, 19.99)));
+            assertEquals(List.of("Agent-0", "Agent-1", "Agent-2"), noms(container.requete().entre(Champ.SOLDE, 0.29, 19.99)));
+
+            assertEquals(List.of(), noms(container.requete().superieurA(Champ.SOLDE, 1e17)));
+            assertEquals(List.of(), noms(container.requete().superieurA(Champ.SOLDE, Double.POSITIVE_INFINITY)));
+            assertEquals(List.of(), noms(container.requete().inferieurA(Champ.SOLDE, -1e17)));
+            assertEquals(4, noms(container.requete().inferieurA(Champ.SOLDE, Double.POSITIVE_INFINITY)).size());
+            assertEquals(4, noms(container.requete().superieurA(Champ.SOLDE, Double.NEGATIVE_INFINITY)).size());
+            assertThrows(IllegalArgumentException.class, () -> container.requete().superieurA(Champ.SOLDE, Double.NaN));
+        }
+
+        @Test
+        @DisplayName("Critères catégoriels par bitmap et nom par arbre radix")
+        void testBitmapEtRadix() {
+            peupler();
+            AgentQuery categoriels = container.requete()
+                    .strategie("ScoringStrategy")
+                    .avecType(TransactionType.ACHAT)
+                    .nom("Agent-1*");
+            assertTrue(categoriels.expliquer().startsWith("bitmap"), categoriels.expliquer());
+            List<String> attendu = container.getTousLesAgents().stream()
+                    .filter(a -> a.getNom().startsWith("Agent-1"))
+                    .filter(a -> a.getStrategy() instanceof ScoringStrategy)
+                    .filter(a -> a.getTransactions().stream().anyMatch(t -> t.getType() == TransactionType.ACHAT))
+                    .map(Agent::getNom).sorted().toList();
+            assertEquals(attendu, noms(categoriels).stream().sorted().toList());
+
+            AgentQuery parNom = container.requete().nom("Agent-19?").entre(Champ.NOMBRE_TRANSACTIONS, 0, 2);
+            assertTrue(parNom.expliquer().startsWith("radix"), parNom.expliquer());
+            assertEquals(List.of("Agent-190", "Agent-191", "Agent-196", "Agent-197", "Agent-198"), noms(parNom));
+            assertThrows(IllegalArgumentException.class, () -> container.requete().limite(0));
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.ex.gestion_conteneurs_agents;
+
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.log.BinaryLogReader;
+import com.ex.gestion_conteneurs_agents.log.BinaryLogWriter;
+import com.ex.gestion_conteneurs_agents.log.LogSegments;
+import com.ex.gestion_conteneurs_agents.log.RotatingLogWriter;
+import com.ex.gestion_conteneurs_agents.log.RotationPolicy;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+import com.ex.gestion_conteneurs_agents.strategy.LoggingStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires du journal des notifications.
+ * Vérifie la rotation, la compression, la lecture à travers les segments et le format binaire.
+ */
+@DisplayName("Tests du journal des notifications")
+class LogTest {
+
+    @TempDir
+    Path dossier;
+
+    @Nested
+    @DisplayName("Tests de la rotation")
+    class RotationTests {
+
+        @Test
+        @DisplayName("Rotation par taille et lecture ordonnée des segments compressés")
+        void testRotationParTaille() throws Exception {
+            Path fichier = dossier.resolve("notifications.log");
+            RotationPolicy policy = RotationPolicy.builder().tailleMaxOctets(64).segmentsRetenus(0).build();
+
+            try (RotatingLogWriter writer = new RotatingLogWriter(fichier, policy)) {
+                for (int i = 0; i < 20; i++) {
+                    writer.ecrire("ligne-" + i + " avec un peu de contenu pour remplir le segment");
+                }
+            }
+
+            List<Path> segments = LogSegments.lister(fichier);
+            assertTrue(segments.size() > 1);
+            assertTrue(segments.stream().limit(segments.size() - 1)
+                    .allMatch(p -> p.getFileName().toString().endsWith(".gz")));
+
+            try (Stream<String> lignes = LogSegments.lignes(fichier)) {
+                List<String> toutes = lignes.toList();
+                assertEquals(20, toutes.size());
+                for (int i = 0; i < 20; i++) {
+                    assertTrue(toutes.get(i).startsWith("ligne-" + i + " "));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("La rétention limite le nombre de segments archivés")
+        void testRetention() throws Exception {
+            Path fichier = dossier.resolve("notifications.log");
+            RotationPolicy policy = RotationPolicy.builder().segmentsRetenus(2).compression(false).build();
+
+            try (RotatingLogWriter writer = new RotatingLogWriter(fichier, policy)) {
+                for (int i = 0; i < 5; i++) {
+                    writer.ecrire("segment-" + i);
+                    writer.rotation();
+                }
+                writer.ecrire("actif");
+            }
+
+            try (Stream<String> lignes = LogSegments.lignes(fichier)) {
+                assertEquals(List.of("segment-3", "segment-4", "actif"), lignes.toList());
+            }
+        }
+
+        @Test
+        @DisplayName("Exception si taille maximale négative")
+        void testPolitiqueInvalide() {
+            assertThrows(IllegalStateException.class, () -> RotationPolicy.builder().tailleMaxOctets(-1).build());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests du format binaire")
+    class BinaryTests {
+
+        @Test
+        @DisplayName("Écriture puis lecture projetée en mémoire")
+        void testEcritureLecture() throws Exception {
+            Path fichier = dossier.resolve("notifications.bin");
+            try (BinaryLogWriter writer = new BinaryLogWriter(fichier)) {
+                writer.ecrire(1000L, "Agent-A", Transaction.builder().id("T1").montant(999.0).type(TransactionType.VENTE).build());
+                writer.ecrire(2000L, "Agent-B", Transaction.builder().id("T2").montant(0.1).type(TransactionType.ACHAT).build());
+                writer.ecrire(3000L, "Agent-A", Transaction.builder().id("T3").montant(12.345).type(TransactionType.VENTE).build());
+            }
+
+            List<String> lus = new ArrayList<>();
+            long[] totalCentimes = {0};
+            try (BinaryLogReader reader = new BinaryLogReader(fichier)) {
+                long nb = reader.parcourir(r -> {
+                    lus.add(r.getEpochMillis() + ":" + r.getAgentName() + ":" + r.getTransactionId() + ":" + r.getType());
+                    totalCentimes[0] += r.getMontantCentimes();
+                });
+                assertEquals(3, nb);
+                assertArrayEquals(new String[]{"Agent-A", "Agent-B"}, reader.lireDictionnaire());
+            }
+            assertEquals(List.of("1000:Agent-A:T1:Vente", "2000:Agent-B:T2:Achat", "3000:Agent-A:T3:Vente"), lus);
+            assertEquals(99900 + 10 + 1235, totalCentimes[0]);
+        }
+
+        @Test
+        @DisplayName("Réouverture en ajout conserve le dictionnaire des agents")
+        void testReouverture() throws Exception {
+            Path fichier = dossier.resolve("notifications.bin");
+            try (BinaryLogWriter writer = new BinaryLogWriter(fichier)) {
+                writer.ecrire(1L, "Agent-A", Transaction.builder().id("T1").montant(1).type(TransactionType.VENTE).build());
+            }
+            try (BinaryLogWriter writer = new BinaryLogWriter(fichier)) {
+                writer.ecrire(2L, "Agent-A", Transaction.builder().id("T2").montant(2).type(TransactionType.VENTE).build());
+                writer.ecrire(3L, "Agent-C", Transaction.builder().id("T3").montant(3).type(TransactionType.ACHAT).build());
+            }
+
+            List<NotificationEvent> events = new ArrayList<>();
+            try (BinaryLogReader reader = new BinaryLogReader(fichier)) {
+                reader.rejouer(events::add);
+                assertEquals(2, reader.lireDictionnaire().length);
+            }
+            assertEquals(3, events.size());
+            assertEquals("Agent-A", events.get(1).getAgentName());
+            assertEquals(3.0, events.get(2).getTransaction().getMontant());
+        }
+
+        @Test
+        @DisplayName("Réouverture après un enregistrement tronqué: la fin partielle est écartée")
+        void testReouvertureApresTroncature() throws Exception {
+            Path fichier = dossier.resolve("notifications.bin");
+            try (BinaryLogWriter writer = new BinaryLogWriter(fichier)) {
+                writer.ecrire(1L, "Agent-A", Transaction.builder().id("T1").montant(1).type(TransactionType.VENTE).build());
+            }
+            Files.write(fichier, new byte[]{0, 0, 0, 30, 2, 0, 0}, StandardOpenOption.APPEND);
+            try (BinaryLogWriter writer = new BinaryLogWriter(fichier)) {
+                writer.ecrire(2L, "Agent-B", Transaction.builder().id("T2").montant(2).type(TransactionType.VENTE).build());
+                String longue = "x".repeat(Short.MAX_VALUE + 1);
+                assertThrows(IllegalArgumentException.class, () -> writer.ecrire(3L, "Agent-A",
+                        Transaction.builder().id(longue).montant(3).type(TransactionType.VENTE).build()));
+            }
+
+            List<String> ids = new ArrayList<>();
+            try (BinaryLogReader reader = new BinaryLogReader(fichier)) {
+                reader.parcourir(r -> ids.add(r.getAgentName() + ":" + r.getTransactionId()));
+            }
+            assertEquals(List.of("Agent-A:T1", "Agent-B:T2"), ids);
+        }
+
+        @Test
+        @DisplayName("Réouverture après une fin remplie de zéros ou une longueur négative")
+        void testReouvertureApresFinInvalide() throws Exception {
+            Path fichier = dossier.resolve("notifications.bin");
+            try (BinaryLogWriter writer = new BinaryLogWriter(fichier)) {
+                writer.ecrire(1L, "Agent-A", Transaction.builder().id("T1").montant(1).type(TransactionType.VENTE).build());
+            }
+            Files.write(fichier, new byte[64], StandardOpenOption.APPEND);
+            try (BinaryLogWriter writer = new BinaryLogWriter(fichier)) {
+                writer.ecrire(2L, "Agent-A", Transaction.builder().id("T2").montant(2).type(TransactionType.VENTE).build());
+            }
+            Files.write(fichier, new byte[]{-1, -1, -1, -4, 2, 0, 0, 0}, StandardOpenOption.APPEND);
+            try (BinaryLogWriter writer = new BinaryLogWriter(fichier)) {
+                writer.ecrire(3L, "Agent-A", Transaction.builder().id("T3").montant(3).type(TransactionType.VENTE).build());
+            }
+            Files.write(fichier, new byte[]{0, 0, 0, 8, 2, 0, 0, 0, 0, 0, 0, 0}, StandardOpenOption.APPEND);
+
+            List<String> ids = new ArrayList<>();
+            try (BinaryLogReader reader = new BinaryLogReader(fichier)) {
+                reader.parcourir(r -> ids.add(r.getTransactionId()));
+            }
+            assertEquals(List.of("T1", "T2", "T3"), ids);
+        }
+
+        @Test
+        @DisplayName("Le tampon est vidé après le délai même sans nouvelle écriture")
+        void testVidagePeriodique() throws Exception {
+            Path fichier = dossier.resolve("notifications.bin");
+            try (BinaryLogWriter writer = new BinaryLogWriter(fichier, Duration.ofMillis(20))) {
+                writer.ecrire(1L, "Agent-A", Transaction.builder().id("T1").montant(1).type(TransactionType.VENTE).build());
+                long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (Files.size(fichier) == 0) {
+                    assertTrue(System.nanoTime() < limite, "Le tampon n'a pas été vidé");
+                    Thread.sleep(5);
+                }
+                try (BinaryLogReader reader = new BinaryLogReader(fichier)) {
+                    assertEquals(1, reader.parcourir(r -> { }));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("LoggingStrategy en mode binaire")
+        void testLoggingStrategyBinaire() throws Exception {
+            Path fichier = dossier.resolve("notifications.bin");
+            LoggingStrategy strategy = LoggingStrategy.binaire(fichier);
+            strategy.handleNotification(new NotificationEvent("LogAgent",
+                    Transaction.builder().id("LOG-001").montant(999).type(TransactionType.VENTE).build()));
+            strategy.fermer();
+
+            try (BinaryLogReader reader = new BinaryLogReader(fichier)) {
+                assertEquals(1, reader.parcourir(r -> assertEquals(99900, r.getMontantCentimes())));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("LoggingStrategy écrit dans le journal rotatif")
+    void testLoggingStrategy() {
+        Path fichier = dossier.resolve("notifications.log");
+        LoggingStrategy strategy = new LoggingStrategy(fichier, RotationPolicy.parDefaut());
+        Transaction transaction = Transaction.builder().id("LOG-001").montant(999).type(TransactionType.VENTE).build();
+
+        strategy.handleNotification(new NotificationEvent("LogAgent", transaction));
+        strategy.fermer();
+
+        try (Stream<String> lignes = LogSegments.rechercher(fichier, "LOG-001")) {
+            assertEquals(1, lignes.count());
+        }
+    }
+}
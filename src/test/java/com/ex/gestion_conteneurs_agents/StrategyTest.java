@@ -0,0 +1,261 @@
+package com.ex.gestion_conteneurs_agents;
+
+import com.ex.gestion_conteneurs_agents.enums.TransactionType;
+import com.ex.gestion_conteneurs_agents.model.Agent;
+import com.ex.gestion_conteneurs_agents.model.Transaction;
+import com.ex.gestion_conteneurs_agents.observer.NotificationEvent;
+import com.ex.gestion_conteneurs_agents.strategy.AnomalyDetectionStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.AnomalySink;
+import com.ex.gestion_conteneurs_agents.strategy.CompositeStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.HistoryStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.NotificationStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.RuleStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.ScoringStrategy;
+import com.ex.gestion_conteneurs_agents.strategy.StatisticsStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires des stratégies avancées de traitement des notifications.
+ */
+@DisplayName("Tests des stratégies avancées (Pattern Strategy)")
+class StrategyTest {
+
+    static NotificationEvent event(String agent, String id, double montant, TransactionType type) {
+        return new NotificationEvent(agent, Transaction.builder().id(id).montant(montant).type(type).build());
+    }
+
+    @Nested
+    @DisplayName("Tests de CompositeStrategy")
+    class CompositeTests {
+
+        @Test
+        @DisplayName("Les étapes s'exécutent dans l'ordre déclaré")
+        void testOrdreDesEtapes() {
+            List<String> ordre = new ArrayList<>();
+            CompositeStrategy composite = CompositeStrategy.builder()
+                    .etape(strategieTrace("A", ordre))
+                    .etape(strategieTrace("B", ordre))
+                    .etape(strategieTrace("C", ordre))
+                    .build();
+
+            composite.handleNotification(event("Agent-1", "T1", 10, TransactionType.VENTE));
+
+            assertEquals(List.of("A", "B", "C"), ordre);
+            assertEquals("CompositeStrategy[A+B+C]", composite.getStrategyName());
+        }
+
+        @Test
+        @DisplayName("Un seul agent cumule scoring, historique et statistiques")
+        void testPipelineComplet() {
+            ScoringStrategy scoring = new ScoringStrategy();
+            HistoryStrategy history = new HistoryStrategy();
+            StatisticsStrategy statistics = new StatisticsStrategy();
+            CompositeStrategy composite = CompositeStrategy.builder()
+                    .etape(scoring)
+                    .etapesParalleles(history, statistics)
+                    .build();
+
+            Agent source = new Agent("Source");
+            Agent observateur = new Agent("Observateur");
+            observateur.changerStrategie(composite);
+            source.subscribe(observateur);
+
+            source.ajouterTransaction(Transaction.builder().id("T1").montant(100).type(TransactionType.VENTE).build());
+            source.ajouterTransaction(Transaction.builder().id("T2").montant(40).type(TransactionType.ACHAT).build());
+
+            assertEquals(60.0, scoring.getSolde());
+            assertEquals(2, history.getHistorySize());
+            assertEquals(3, composite.getMesures().size());
+            composite.getMesures().forEach(m -> assertEquals(2, m.invocations()));
+        }
+
+        @Test
+        @DisplayName("Traitement par lot")
+        void testLot() {
+            List<String> ordre = Collections.synchronizedList(new ArrayList<>());
+            CompositeStrategy composite = CompositeStrategy.builder()
+                    .etapesParalleles(strategieTrace("A", ordre), strategieTrace("B", ordre))
+                    .build();
+
+            composite.handleNotifications(List.of(
+                    event("Agent-1", "T1", 10, TransactionType.VENTE),
+                    event("Agent-1", "T2", 20, TransactionType.ACHAT)));
+
+            assertEquals(4, ordre.size());
+            composite.getMesures().forEach(m -> assertEquals(1, m.invocations()));
+        }
+
+        @Test
+        @DisplayName("Exception si pipeline vide")
+        void testPipelineVide() {
+            assertThrows(IllegalStateException.class, () -> CompositeStrategy.builder().build());
+        }
+
+        private NotificationStrategy strategieTrace(String nom, List<String> trace) {
+            return new NotificationStrategy() {
+                @Override
+                public void handleNotification(NotificationEvent event) {
+                    trace.add(nom);
+                }
+
+                @Override
+                public String getStrategyName() {
+                    return nom;
+                }
+            };
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de AnomalyDetectionStrategy")
+    class AnomalyTests {
+
+        @Test
+        @DisplayName("Montant très éloigné de la moyenne glissante")
+        void testAnomalieMontant() {
+            List<AnomalySink.Anomalie> alertes = new ArrayList<>();
+            AnalyticsTest.HorlogeManuelle horloge = new AnalyticsTest.HorlogeManuelle(0);
+            AnomalyDetectionStrategy strategy = AnomalyDetectionStrategy.builder()
+                    .sink(alertes::add).clock(horloge).build();
+
+            for (int i = 0; i < 50; i++) {
+                horloge.avancer(Duration.ofSeconds(1));
+                strategy.handleNotification(event("Agent-A", "T" + i, i % 2 == 0 ? 95 : 105, TransactionType.VENTE));
+            }
+            assertTrue(alertes.isEmpty());
+
+            horloge.avancer(Duration.ofSeconds(1));
+            strategy.handleNotification(event("Agent-A", "T-FRAUDE", 10_000, TransactionType.VENTE));
+
+            assertEquals(1, alertes.size());
+            assertEquals(AnomalySink.Genre.MONTANT, alertes.get(0).genre());
+            assertEquals("T-FRAUDE", alertes.get(0).transactionId());
+            assertEquals(100, strategy.getMoyenne("Agent-A"), 500);
+        }
+
+        @Test
+        @DisplayName("Rafale de notifications signalée une seule fois")
+        void testAnomalieDebit() {
+            List<AnomalySink.Anomalie> alertes = new ArrayList<>();
+            AnalyticsTest.HorlogeManuelle horloge = new AnalyticsTest.HorlogeManuelle(0);
+            AnomalyDetectionStrategy strategy = AnomalyDetectionStrategy.builder()
+                    .sink(alertes::add).clock(horloge).build();
+
+            for (int i = 0; i < 50; i++) {
+                horloge.avancer(Duration.ofSeconds(1));
+                strategy.handleNotification(event("Agent-B", "T" + i, 100, TransactionType.ACHAT));
+            }
+            for (int i = 0; i < 30; i++) {
+                horloge.avancer(Duration.ofMillis(5));
+                strategy.handleNotification(event("Agent-B", "R" + i, 100, TransactionType.ACHAT));
+            }
+
+            assertEquals(1, alertes.size());
+            assertEquals(AnomalySink.Genre.DEBIT, alertes.get(0).genre());
+            assertEquals(1, strategy.getNombreAnomalies());
+        }
+
+        @Test
+        @DisplayName("Exception si paramètres invalides")
+        void testParametresInvalides() {
+            assertThrows(IllegalStateException.class, () -> AnomalyDetectionStrategy.builder().alpha(2).build());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de RuleStrategy")
+    class RuleTests {
+
+        @TempDir
+        Path dossier;
+
+        @Test
+        @DisplayName("Les règles reproduisent ScoringStrategy")
+        void testEquivalenceScoring() {
+            RuleStrategy regles = RuleStrategy.depuisTexte(String.join("\n",
+                    "# scoring",
+                    "vente: si type = VENTE alors score += montant",
+                    "achat: si type = ACHAT alors score -= montant"));
+            ScoringStrategy scoring = new ScoringStrategy();
+
+            for (NotificationEvent e : List.of(
+                    event("A", "T1", 1000, TransactionType.VENTE),
+                    event("A", "T2", 250, TransactionType.ACHAT),
+                    event("B", "T3", 80, TransactionType.VENTE))) {
+                regles.handleNotification(e);
+                scoring.handleNotification(e);
+            }
+
+            assertEquals(scoring.getSolde(), regles.getScore(), 1e-9);
+            assertEquals(Map.of("vente", 2L, "achat", 1L), regles.getDeclenchements());
+        }
+
+        @Test
+        @DisplayName("Les règles livrées sont chargées depuis le classpath")
+        void testReglesParDefaut() {
+            RuleStrategy regles = RuleStrategy.parDefaut();
+            regles.handleNotification(event("A", "T1", 2000, TransactionType.VENTE));
+            regles.handleNotification(event("A", "T2", 300, TransactionType.ACHAT));
+
+            assertEquals(3, regles.getNombreRegles());
+            assertEquals(1750.0, regles.getScore(), 1e-9);
+            assertThrows(IllegalArgumentException.class, () -> RuleStrategy.depuisRessource("absentes.rules"));
+        }
+
+        @Test
+        @DisplayName("Conditions combinées et effets calculés")
+        void testConditionsCombinees() {
+            RuleStrategy regles = RuleStrategy.depuisTexte(String.join("\n",
+                    "grosse_vente: si type = VENTE et montant > 1000 alors score += 50",
+                    "commission: si agent = Agent-A et type != ACHAT alors score += montant * 0.1"));
+
+            regles.handleNotification(event("Agent-A", "T1", 2000, TransactionType.VENTE));
+            regles.handleNotification(event("Agent-B", "T2", 500, TransactionType.VENTE));
+            regles.handleNotification(event("Agent-A", "T3", 5000, TransactionType.ACHAT));
+
+            assertEquals(250.0, regles.getScore(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("Rechargement du fichier sans redémarrage")
+        void testRechargement() throws Exception {
+            Path fichier = dossier.resolve("regles.rules");
+            Files.writeString(fichier, "base: si toujours alors score += 1\n");
+            RuleStrategy regles = new RuleStrategy(fichier);
+            regles.handleNotification(event("A", "T1", 10, TransactionType.VENTE));
+            assertFalse(regles.rechargerSiModifie());
+
+            Files.writeString(fichier, "base: si toujours alors score += 10\n");
+            Files.setLastModifiedTime(fichier, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+            assertTrue(regles.rechargerSiModifie());
+            regles.handleNotification(event("A", "T2", 10, TransactionType.VENTE));
+
+            assertEquals(11.0, regles.getScore(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("Un fichier invalide conserve les règles actives")
+        void testRegleInvalide() {
+            RuleStrategy regles = RuleStrategy.depuisTexte("base: si toujours alors score += 1");
+
+            IllegalArgumentException erreur = assertThrows(IllegalArgumentException.class,
+                    () -> regles.remplacerRegles(List.of("", "x: si montant >> 3 alors score += 1")));
+            assertTrue(erreur.getMessage().contains("ligne 2"));
+            assertEquals(1, regles.getNombreRegles());
+        }
+    }
+}
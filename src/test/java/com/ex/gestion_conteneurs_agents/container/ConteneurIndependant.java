@@ -0,0 +1,25 @@
+package com.ex.gestion_conteneurs_agents.container;
+
+/**
+ * Accès de test aux conteneurs indépendants du singleton, pour héberger une réplique dans le
+ * même processus que sa source.
+ */
+public final class ConteneurIndependant {
+
+    private ConteneurIndependant() {
+    }
+
+    /**
+     * @return un nouveau conteneur vide, à libérer par {@link #fermer(AgentContainer)}
+     */
+    public static AgentContainer creer() {
+        return AgentContainer.nouvelleInstance();
+    }
+
+    /**
+     * Libère le pool de calcul, la réplication et le journal du conteneur.
+     */
+    public static void fermer(AgentContainer conteneur) {
+        conteneur.fermer();
+    }
+}
@@ -0,0 +1,29 @@
+package com.ex.gestion_conteneurs_agents.model;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * Accès de test à l'état interne d'un agent, pour simuler une mutation qui contourne
+ * les écouteurs (détection d'incohérences). L'agent n'expose pas sa liste: elle est lue par réflexion.
+ */
+public final class AgentCorruption {
+
+    private AgentCorruption() {
+    }
+
+    /**
+     * @return la liste interne des transactions de l'agent (réactivé), modifiable sans notifier les écouteurs
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Transaction> transactionsInternes(Agent agent) {
+        agent.activer();
+        try {
+            Field transactions = Agent.class.getDeclaredField("transactions");
+            transactions.setAccessible(true);
+            return (List<Transaction>) transactions.get(agent);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Liste interne de l'agent inaccessible", e);
+        }
+    }
+}